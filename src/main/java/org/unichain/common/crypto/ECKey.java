@@ -28,6 +28,7 @@ import org.spongycastle.asn1.x9.X9ECParameters;
 import org.spongycastle.asn1.x9.X9IntegerConverter;
 import org.spongycastle.crypto.agreement.ECDHBasicAgreement;
 import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
 import org.spongycastle.crypto.engines.AESEngine;
 import org.spongycastle.crypto.modes.SICBlockCipher;
 import org.spongycastle.crypto.params.*;
@@ -94,8 +95,17 @@ public class ECKey implements Serializable {
     CURVE_SPEC = new ECParameterSpec(params.getCurve(), params.getG(), params.getN(), params.getH());
     HALF_CURVE_ORDER = params.getN().shiftRight(1);
     secureRandom = new SecureRandom();
+    X9ECParameters fastParams = CustomNamedCurves.getByName("secp256k1");
+    FAST_CURVE = new ECDomainParameters(fastParams.getCurve(), fastParams.getG(), fastParams.getN(), fastParams.getH());
   }
 
+  /**
+   * Same curve as {@link #CURVE}, backed by the secp256k1-specific implementation: fixed-width
+   * field elements and the GLV endomorphism. Used by the signature recovery fast path only, the
+   * wNAF tables computed for its generator are cached on it across calls.
+   */
+  private static final ECDomainParameters FAST_CURVE;
+
   protected final ECPoint pub;
 
   /**
@@ -313,7 +323,7 @@ public class ECKey implements Serializable {
    * @return 21-byte address
    */
   public static byte[] computeAddress(byte[] pubBytes) {
-    return Hash.sha3omit12(Arrays.copyOfRange(pubBytes, 1, pubBytes.length));
+    return Hash.sha3omit12(pubBytes, 1, pubBytes.length - 1);
   }
 
   /**
@@ -423,6 +433,69 @@ public class ECKey implements Serializable {
     return out;
   }
 
+  /**
+   * Compute the address of the key that signed the given raw signature.
+   *
+   * Same result and failure modes as {@link #signatureToAddress(byte[], String)} applied to the
+   * Base64 form of the signature, without building the intermediate encodings. The point
+   * arithmetic runs on the secp256k1-specific curve implementation.
+   *
+   * @param messageHash 32-byte hash of message
+   * @param sig r (32 bytes) || s (32 bytes) || v, v being either the header byte or the recovery id
+   * @return 21-byte address
+   */
+  public static byte[] recoverAddress(byte[] messageHash, byte[] sig) throws SignatureException {
+    check(messageHash.length == 32, "messageHash argument has length " + messageHash.length);
+    if (sig.length < 65) {
+      throw new SignatureException("Signature truncated, expected 65 bytes and got " + sig.length);
+    }
+    int header = sig[64];
+    if (header < 27) {
+      header += 27;
+    }
+    if (header < 27 || header > 34) {
+      throw new SignatureException("Header byte out of range: " + header);
+    }
+    if (header >= 31) {
+      header -= 4;
+    }
+    int recId = header - 27;
+    BigInteger r = new BigInteger(1, Arrays.copyOfRange(sig, 0, 32));
+    BigInteger s = new BigInteger(1, Arrays.copyOfRange(sig, 32, 64));
+    ECPoint q = recoverPubPoint(recId, r, s, messageHash);
+    if (q == null) {
+      throw new SignatureException("Could not recover public key from signature");
+    }
+    return computeAddress(q);
+  }
+
+  /**
+   * Public key recovery on {@link #FAST_CURVE}, see {@link #recoverPubBytesFromSignature}.
+   *
+   * The curve has cofactor 1, so every decompressed point already has order n and the nR ==
+   * infinity check of the generic path is skipped.
+   */
+  @Nullable
+  private static ECPoint recoverPubPoint(int recId, BigInteger r, BigInteger s, byte[] messageHash) {
+    BigInteger n = FAST_CURVE.getN();
+    BigInteger x = r.add(BigInteger.valueOf((long) recId / 2).multiply(n));
+    ECCurve curve = FAST_CURVE.getCurve();
+    if (x.compareTo(curve.getField().getCharacteristic()) >= 0) {
+      return null;
+    }
+    byte[] compEnc = new byte[33];
+    byte[] xBytes = bigIntegerToBytes(x, 32);
+    System.arraycopy(xBytes, 0, compEnc, 1, 32);
+    compEnc[0] = (byte) ((recId & 1) == 1 ? 0x03 : 0x02);
+    ECPoint R = curve.decodePoint(compEnc);
+    BigInteger e = new BigInteger(1, messageHash);
+    BigInteger eInv = BigInteger.ZERO.subtract(e).mod(n);
+    BigInteger rInv = r.modInverse(n);
+    BigInteger srInv = rInv.multiply(s).mod(n);
+    BigInteger eInvrInv = rInv.multiply(eInv).mod(n);
+    return ECAlgorithms.sumOfTwoMultiplies(FAST_CURVE.getG(), eInvrInv, R, srInv);
+  }
+
   /**
    * Compute the address of the key that signed the given signature.
    *
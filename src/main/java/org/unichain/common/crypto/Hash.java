@@ -19,6 +19,8 @@
 package org.unichain.common.crypto;
 
 import lombok.extern.slf4j.Slf4j;
+import org.unichain.common.crypto.cryptohash.Keccak256;
+import org.unichain.common.crypto.cryptohash.KeccakHash;
 import org.unichain.common.crypto.jce.UnichainCastleProvider;
 import org.unichain.core.Wallet;
 import org.unichain.core.capsule.utils.RLP;
@@ -41,6 +43,9 @@ public class Hash {
 
   public static final byte[] EMPTY_TRIE_HASH;
 
+  // streaming digest for hashes of several arrays, one per thread
+  private static final ThreadLocal<Keccak256> KECCAK_256 = ThreadLocal.withInitial(Keccak256::new);
+
   static {
     Security.addProvider(UnichainCastleProvider.getInstance());
     CRYPTO_PROVIDER = Security.getProvider("SC");
@@ -50,31 +55,15 @@ public class Hash {
   }
 
   public static byte[] sha3(byte[] input) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance(HASH_256_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input);
-      return digest.digest();
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Can't find such algorithm", e);
-      throw new RuntimeException(e);
-    }
-
+    return KeccakHash.sha3(input);
   }
 
   public static byte[] sha3(byte[] input1, byte[] input2) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance(HASH_256_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input1, 0, input1.length);
-      digest.update(input2, 0, input2.length);
-      return digest.digest();
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Can't find such algorithm", e);
-      throw new RuntimeException(e);
-    }
+    Keccak256 digest = KECCAK_256.get();
+    digest.reset();
+    digest.update(input1, 0, input1.length);
+    digest.update(input2, 0, input2.length);
+    return digest.digest();
   }
 
   /**
@@ -86,16 +75,20 @@ public class Hash {
    * @return - keccak hash of the chunk
    */
   public static byte[] sha3(byte[] input, int start, int length) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance(HASH_256_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input, start, length);
-      return digest.digest();
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Can't find such algorithm", e);
-      throw new RuntimeException(e);
-    }
+    return KeccakHash.sha3(input, start, length);
+  }
+
+  /**
+   * hashing chunk of the data into a caller buffer, without allocating
+   *
+   * @param input - data for hash
+   * @param start - start of hashing chunk
+   * @param length - length of hashing chunk
+   * @param out - buffer receiving the 32 bytes keccak hash
+   * @param outOffset - offset of the hash in the buffer
+   */
+  public static void sha3(byte[] input, int start, int length, byte[] out, int outOffset) {
+    KeccakHash.sha3(input, start, length, out, outOffset);
   }
 
   public static byte[] sha512(byte[] input) {
@@ -118,7 +111,20 @@ public class Hash {
    * @return - add_pre_fix + 20 right bytes of the hash keccak of the data
    */
   public static byte[] sha3omit12(byte[] input) {
-    byte[] hash = sha3(input);
+    return sha3omit12(input, 0, input.length);
+  }
+
+  /**
+   * Calculates RIGTMOST160(SHA3(input)) of a chunk of the data.
+   *
+   * @param input - data
+   * @param start - start of hashing chunk
+   * @param length - length of hashing chunk
+   * @return - add_pre_fix + 20 right bytes of the hash keccak of the chunk
+   */
+  public static byte[] sha3omit12(byte[] input, int start, int length) {
+    byte[] hash = new byte[KeccakHash.DIGEST_LENGTH];
+    KeccakHash.sha3(input, start, length, hash, 0);
     byte[] address = copyOfRange(hash, 11, hash.length);
     address[0] = Wallet.getAddressPreFixByte();
     return address;
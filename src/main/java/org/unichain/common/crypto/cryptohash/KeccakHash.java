@@ -0,0 +1,247 @@
+package org.unichain.common.crypto.cryptohash;
+
+import java.util.Arrays;
+
+/**
+ * Keccak-256 (the pre-standard padding used by ethereum, not SHA3-256) hashing straight from and
+ * into caller arrays.
+ *
+ * The 25 lanes of the Keccak-f[1600] state live in locals of one method and every round is written
+ * out lane by lane, so a hash allocates nothing: only the last, padded block is staged in a buffer
+ * kept per thread. {@link Keccak256} stays the {@link Digest} behind the security provider.
+ */
+public final class KeccakHash {
+
+  public static final int DIGEST_LENGTH = 32;
+
+  private static final int RATE = 136;
+
+  private static final long[] RC = {
+      0x0000000000000001L, 0x0000000000008082L,
+      0x800000000000808AL, 0x8000000080008000L,
+      0x000000000000808BL, 0x0000000080000001L,
+      0x8000000080008081L, 0x8000000000008009L,
+      0x000000000000008AL, 0x0000000000000088L,
+      0x0000000080008009L, 0x000000008000000AL,
+      0x000000008000808BL, 0x800000000000008BL,
+      0x8000000000008089L, 0x8000000000008003L,
+      0x8000000000008002L, 0x8000000000000080L,
+      0x000000000000800AL, 0x800000008000000AL,
+      0x8000000080008081L, 0x8000000000008080L,
+      0x0000000080000001L, 0x8000000080008008L
+  };
+
+  private static final ThreadLocal<byte[]> LAST_BLOCK = ThreadLocal.withInitial(() -> new byte[RATE]);
+
+  private KeccakHash() {
+  }
+
+  public static byte[] sha3(byte[] in) {
+    return sha3(in, 0, in.length);
+  }
+
+  public static byte[] sha3(byte[] in, int off, int len) {
+    byte[] out = new byte[DIGEST_LENGTH];
+    sha3(in, off, len, out, 0);
+    return out;
+  }
+
+  /**
+   * Writes the Keccak-256 hash of {@code in[off, off + len)} to {@code out[outOff, outOff + 32)}.
+   * The ranges may overlap.
+   */
+  public static void sha3(byte[] in, int off, int len, byte[] out, int outOff) {
+    if (off < 0 || len < 0 || off > in.length - len) {
+      throw new ArrayIndexOutOfBoundsException("input range " + off + "+" + len + " of " + in.length);
+    }
+    if (outOff < 0 || outOff > out.length - DIGEST_LENGTH) {
+      throw new ArrayIndexOutOfBoundsException("output offset " + outOff + " of " + out.length);
+    }
+
+    long a00 = 0, a01 = 0, a02 = 0, a03 = 0, a04 = 0;
+    long a05 = 0, a06 = 0, a07 = 0, a08 = 0, a09 = 0;
+    long a10 = 0, a11 = 0, a12 = 0, a13 = 0, a14 = 0;
+    long a15 = 0, a16 = 0, a17 = 0, a18 = 0, a19 = 0;
+    long a20 = 0, a21 = 0, a22 = 0, a23 = 0, a24 = 0;
+    long c0, c1, c2, c3, c4, d0, d1, d2, d3, d4;
+
+    int end = off + len;
+    boolean last = false;
+    while (!last) {
+      byte[] b;
+      int p;
+      if (end - off >= RATE) {
+        b = in;
+        p = off;
+        off += RATE;
+      } else {
+        // the remaining bytes plus the 0x01 ... 0x80 padding, an empty block if len % RATE == 0
+        int rest = end - off;
+        b = LAST_BLOCK.get();
+        p = 0;
+        System.arraycopy(in, off, b, 0, rest);
+        Arrays.fill(b, rest, RATE, (byte) 0);
+        b[rest] = 0x01;
+        b[RATE - 1] |= (byte) 0x80;
+        last = true;
+      }
+
+      a00 ^= le(b, p);
+      a01 ^= le(b, p + 8);
+      a02 ^= le(b, p + 16);
+      a03 ^= le(b, p + 24);
+      a04 ^= le(b, p + 32);
+      a05 ^= le(b, p + 40);
+      a06 ^= le(b, p + 48);
+      a07 ^= le(b, p + 56);
+      a08 ^= le(b, p + 64);
+      a09 ^= le(b, p + 72);
+      a10 ^= le(b, p + 80);
+      a11 ^= le(b, p + 88);
+      a12 ^= le(b, p + 96);
+      a13 ^= le(b, p + 104);
+      a14 ^= le(b, p + 112);
+      a15 ^= le(b, p + 120);
+      a16 ^= le(b, p + 128);
+
+      for (int round = 0; round < 24; round++) {
+        // theta
+        c0 = a00 ^ a05 ^ a10 ^ a15 ^ a20;
+        c1 = a01 ^ a06 ^ a11 ^ a16 ^ a21;
+        c2 = a02 ^ a07 ^ a12 ^ a17 ^ a22;
+        c3 = a03 ^ a08 ^ a13 ^ a18 ^ a23;
+        c4 = a04 ^ a09 ^ a14 ^ a19 ^ a24;
+
+        d1 = (c1 << 1 | c1 >>> 63) ^ c4;
+        d2 = (c2 << 1 | c2 >>> 63) ^ c0;
+        d3 = (c3 << 1 | c3 >>> 63) ^ c1;
+        d4 = (c4 << 1 | c4 >>> 63) ^ c2;
+        d0 = (c0 << 1 | c0 >>> 63) ^ c3;
+
+        a00 ^= d1;
+        a05 ^= d1;
+        a10 ^= d1;
+        a15 ^= d1;
+        a20 ^= d1;
+        a01 ^= d2;
+        a06 ^= d2;
+        a11 ^= d2;
+        a16 ^= d2;
+        a21 ^= d2;
+        a02 ^= d3;
+        a07 ^= d3;
+        a12 ^= d3;
+        a17 ^= d3;
+        a22 ^= d3;
+        a03 ^= d4;
+        a08 ^= d4;
+        a13 ^= d4;
+        a18 ^= d4;
+        a23 ^= d4;
+        a04 ^= d0;
+        a09 ^= d0;
+        a14 ^= d0;
+        a19 ^= d0;
+        a24 ^= d0;
+
+        // rho and pi, following the lane cycle starting at a01
+        c1 = a01 << 1 | a01 >>> 63;
+        a01 = a06 << 44 | a06 >>> 20;
+        a06 = a09 << 20 | a09 >>> 44;
+        a09 = a22 << 61 | a22 >>> 3;
+        a22 = a14 << 39 | a14 >>> 25;
+        a14 = a20 << 18 | a20 >>> 46;
+        a20 = a02 << 62 | a02 >>> 2;
+        a02 = a12 << 43 | a12 >>> 21;
+        a12 = a13 << 25 | a13 >>> 39;
+        a13 = a19 << 8 | a19 >>> 56;
+        a19 = a23 << 56 | a23 >>> 8;
+        a23 = a15 << 41 | a15 >>> 23;
+        a15 = a04 << 27 | a04 >>> 37;
+        a04 = a24 << 14 | a24 >>> 50;
+        a24 = a21 << 2 | a21 >>> 62;
+        a21 = a08 << 55 | a08 >>> 9;
+        a08 = a16 << 45 | a16 >>> 19;
+        a16 = a05 << 36 | a05 >>> 28;
+        a05 = a03 << 28 | a03 >>> 36;
+        a03 = a18 << 21 | a18 >>> 43;
+        a18 = a17 << 15 | a17 >>> 49;
+        a17 = a11 << 10 | a11 >>> 54;
+        a11 = a07 << 6 | a07 >>> 58;
+        a07 = a10 << 3 | a10 >>> 61;
+        a10 = c1;
+
+        // chi, row by row
+        c0 = a00 ^ (~a01 & a02);
+        c1 = a01 ^ (~a02 & a03);
+        a02 ^= ~a03 & a04;
+        a03 ^= ~a04 & a00;
+        a04 ^= ~a00 & a01;
+        a00 = c0;
+        a01 = c1;
+
+        c0 = a05 ^ (~a06 & a07);
+        c1 = a06 ^ (~a07 & a08);
+        a07 ^= ~a08 & a09;
+        a08 ^= ~a09 & a05;
+        a09 ^= ~a05 & a06;
+        a05 = c0;
+        a06 = c1;
+
+        c0 = a10 ^ (~a11 & a12);
+        c1 = a11 ^ (~a12 & a13);
+        a12 ^= ~a13 & a14;
+        a13 ^= ~a14 & a10;
+        a14 ^= ~a10 & a11;
+        a10 = c0;
+        a11 = c1;
+
+        c0 = a15 ^ (~a16 & a17);
+        c1 = a16 ^ (~a17 & a18);
+        a17 ^= ~a18 & a19;
+        a18 ^= ~a19 & a15;
+        a19 ^= ~a15 & a16;
+        a15 = c0;
+        a16 = c1;
+
+        c0 = a20 ^ (~a21 & a22);
+        c1 = a21 ^ (~a22 & a23);
+        a22 ^= ~a23 & a24;
+        a23 ^= ~a24 & a20;
+        a24 ^= ~a20 & a21;
+        a20 = c0;
+        a21 = c1;
+
+        // iota
+        a00 ^= RC[round];
+      }
+    }
+
+    putLe(a00, out, outOff);
+    putLe(a01, out, outOff + 8);
+    putLe(a02, out, outOff + 16);
+    putLe(a03, out, outOff + 24);
+  }
+
+  private static long le(byte[] buf, int off) {
+    return (buf[off] & 0xFFL)
+        | ((buf[off + 1] & 0xFFL) << 8)
+        | ((buf[off + 2] & 0xFFL) << 16)
+        | ((buf[off + 3] & 0xFFL) << 24)
+        | ((buf[off + 4] & 0xFFL) << 32)
+        | ((buf[off + 5] & 0xFFL) << 40)
+        | ((buf[off + 6] & 0xFFL) << 48)
+        | ((buf[off + 7] & 0xFFL) << 56);
+  }
+
+  private static void putLe(long val, byte[] buf, int off) {
+    buf[off] = (byte) val;
+    buf[off + 1] = (byte) (val >>> 8);
+    buf[off + 2] = (byte) (val >>> 16);
+    buf[off + 3] = (byte) (val >>> 24);
+    buf[off + 4] = (byte) (val >>> 32);
+    buf[off + 5] = (byte) (val >>> 40);
+    buf[off + 6] = (byte) (val >>> 48);
+    buf[off + 7] = (byte) (val >>> 56);
+  }
+}
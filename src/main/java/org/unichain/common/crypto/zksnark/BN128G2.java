@@ -17,7 +17,13 @@
  */
 package org.unichain.common.crypto.zksnark;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.unichain.common.crypto.zksnark.PairingCheck.EllCoeffs;
+
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
 
 import static org.unichain.common.crypto.zksnark.Params.*;
 
@@ -37,6 +43,15 @@ import static org.unichain.common.crypto.zksnark.Params.*;
  */
 public class BN128G2 extends BN128Fp2 {
 
+  /**
+   * Validated points by encoding. Pairing checks mostly pair proofs with the same few points of a
+   * verifying key, the subgroup check and the line coefficients of those are computed once.
+   */
+  private static final Cache<ByteBuffer, BN128G2> CREATED = CacheBuilder.newBuilder()
+      .maximumSize(64).build();
+
+  private volatile List<EllCoeffs> ellCoeffs;
+
   BN128G2(BN128<Fp2> p) {
     super(p.x, p.y, p.z);
   }
@@ -56,6 +71,14 @@ public class BN128G2 extends BN128Fp2 {
    */
   public static BN128G2 create(byte[] a, byte[] b, byte[] c, byte[] d) {
 
+    ByteBuffer key = ByteBuffer.allocate(a.length + b.length + c.length + d.length)
+        .put(a).put(b).put(c).put(d);
+    key.flip();
+    BN128G2 created = CREATED.getIfPresent(key);
+    if (created != null) {
+      return created;
+    }
+
     BN128<Fp2> p = BN128Fp2.create(a, b, c, d);
 
     // fails if point is invalid
@@ -68,7 +91,21 @@ public class BN128G2 extends BN128Fp2 {
       return null;
     }
 
-    return new BN128G2(p);
+    created = new BN128G2(p);
+    CREATED.put(key, created);
+    return created;
+  }
+
+  /**
+   * Line coefficients of the Miller loop for this point, computed on first use
+   */
+  List<EllCoeffs> ellCoeffs() {
+    List<EllCoeffs> coeffs = ellCoeffs;
+    if (coeffs == null) {
+      coeffs = PairingCheck.calcEllCoeffs(toAffine());
+      ellCoeffs = coeffs;
+    }
+    return coeffs;
   }
 
   private static boolean isGroupMember(BN128<Fp2> p) {
@@ -18,68 +18,93 @@
 package org.unichain.common.crypto.zksnark;
 
 import java.math.BigInteger;
-
-import static org.unichain.common.crypto.zksnark.Params.P;
+import java.util.Arrays;
 
 /**
  * Arithmetic in F_p, p = 21888242871839275222246405745257275088696311157297823662689037894645226208583
  *
+ * Elements are kept in Montgomery form x * 2^256 mod p as eight 32-bit limbs, least significant
+ * first, so that a multiplication is a schoolbook product and a Montgomery reduction instead of a
+ * BigInteger product and division. The double width product and reduction steps are exposed to
+ * {@link Fp2}, which sums several products before reducing once. Values read from input that are
+ * not below p are kept, reduced, only to be reported by {@link #isValid()}.
+ *
  * @author Mikhail Kalinin
  * @since 01.09.2017
  */
 public class Fp implements Field<Fp> {
 
+  private static final long MASK = 0xFFFFFFFFL;
+
+  // same as Params.P, Params is not read here since its constants are built from Fp
+  private static final BigInteger MODULUS = new BigInteger(
+      "21888242871839275222246405745257275088696311157297823662689037894645226208583");
+
+  private static final int[] P = toLimbs(MODULUS, 8);
+  private static final int[] P_SQUARED = toLimbs(MODULUS.multiply(MODULUS), 16);
+  private static final int[] R_SQUARED = toLimbs(BigInteger.ONE.shiftLeft(512).mod(MODULUS), 8);
+  // -p^-1 mod 2^32
+  private static final long P_INV = BigInteger.ONE.shiftLeft(32)
+      .subtract(MODULUS.modInverse(BigInteger.ONE.shiftLeft(32))).longValue();
+
   static final Fp ZERO = new Fp(BigInteger.ZERO);
   static final Fp _1 = new Fp(BigInteger.ONE);
   static final Fp NON_RESIDUE = new Fp(new BigInteger(
       "21888242871839275222246405745257275088696311157297823662689037894645226208582"));
 
-  static final Fp _2_INV = new Fp(BigInteger.valueOf(2).modInverse(P));
+  static final Fp _2_INV = new Fp(BigInteger.valueOf(2).modInverse(MODULUS));
 
-  BigInteger v;
+  final int[] m;
+  private final boolean valid;
 
   Fp(BigInteger v) {
-    this.v = v;
+    this.valid = v.signum() >= 0 && v.compareTo(MODULUS) < 0;
+    this.m = montMul(toLimbs(valid ? v : v.mod(MODULUS), 8), R_SQUARED);
+  }
+
+  Fp(int[] m) {
+    this.m = m;
+    this.valid = true;
   }
 
   @Override
   public Fp add(Fp o) {
-    return new Fp(this.v.add(o.v).mod(P));
+    return new Fp(addMod(m, o.m));
   }
 
   @Override
   public Fp mul(Fp o) {
-    return new Fp(this.v.multiply(o.v).mod(P));
+    return new Fp(montMul(m, o.m));
   }
 
   @Override
   public Fp sub(Fp o) {
-    return new Fp(this.v.subtract(o.v).mod(P));
+    return new Fp(subMod(m, o.m));
   }
 
   @Override
   public Fp squared() {
-    return new Fp(v.multiply(v).mod(P));
+    return new Fp(montMul(m, m));
   }
 
   @Override
   public Fp dbl() {
-    return new Fp(v.add(v).mod(P));
+    return new Fp(addMod(m, m));
   }
 
   @Override
   public Fp inverse() {
-    return new Fp(v.modInverse(P));
+    return new Fp(toBigInteger().modInverse(MODULUS));
   }
 
   @Override
   public Fp negate() {
-    return new Fp(v.negate().mod(P));
+    return new Fp(subMod(ZERO.m, m));
   }
 
   @Override
   public boolean isZero() {
-    return v.compareTo(BigInteger.ZERO) == 0;
+    return valid && isZero(m);
   }
 
   /**
@@ -87,7 +112,7 @@ public class Fp implements Field<Fp> {
    */
   @Override
   public boolean isValid() {
-    return v.compareTo(P) < 0;
+    return valid;
   }
 
   Fp2 mul(Fp2 o) {
@@ -103,7 +128,21 @@ public class Fp implements Field<Fp> {
   }
 
   public byte[] bytes() {
-    return v.toByteArray();
+    return toBigInteger().toByteArray();
+  }
+
+  BigInteger toBigInteger() {
+    int[] t = Arrays.copyOf(m, 16);
+    int[] v = reduce(t);
+    byte[] bytes = new byte[32];
+    for (int i = 0; i < 8; i++) {
+      int limb = v[7 - i];
+      bytes[i * 4] = (byte) (limb >>> 24);
+      bytes[i * 4 + 1] = (byte) (limb >>> 16);
+      bytes[i * 4 + 2] = (byte) (limb >>> 8);
+      bytes[i * 4 + 3] = (byte) limb;
+    }
+    return new BigInteger(1, bytes);
   }
 
   @Override
@@ -117,16 +156,175 @@ public class Fp implements Field<Fp> {
 
     Fp fp = (Fp) o;
 
-    return !(v != null ? v.compareTo(fp.v) != 0 : fp.v != null);
+    return valid == fp.valid && Arrays.equals(m, fp.m);
   }
 
   @Override
   public int hashCode() {
-    return v.hashCode();
+    return Arrays.hashCode(m);
   }
 
   @Override
   public String toString() {
-    return v.toString();
+    return toBigInteger().toString();
+  }
+
+  private static int[] toLimbs(BigInteger v, int n) {
+    int[] limbs = new int[n];
+    for (int i = 0; i < n; i++) {
+      limbs[i] = v.shiftRight(32 * i).intValue();
+    }
+    return limbs;
+  }
+
+  private static boolean isZero(int[] a) {
+    for (int limb : a) {
+      if (limb != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // a >= p, for values below 2^256
+  private static boolean geqP(int[] a) {
+    for (int i = 7; i >= 0; i--) {
+      long x = a[i] & MASK;
+      long y = P[i] & MASK;
+      if (x != y) {
+        return x > y;
+      }
+    }
+    return true;
+  }
+
+  // a -= p in place
+  private static void subP(int[] a) {
+    long borrow = 0;
+    for (int i = 0; i < 8; i++) {
+      long d = (a[i] & MASK) - (P[i] & MASK) - borrow;
+      a[i] = (int) d;
+      borrow = d >>> 63;
+    }
+  }
+
+  /**
+   * a + b without reduction, below 2p for reduced inputs. Only to be fed to {@link #mulWide}.
+   */
+  static int[] addRaw(int[] a, int[] b) {
+    int[] r = new int[8];
+    long carry = 0;
+    for (int i = 0; i < 8; i++) {
+      long s = (a[i] & MASK) + (b[i] & MASK) + carry;
+      r[i] = (int) s;
+      carry = s >>> 32;
+    }
+    return r;
+  }
+
+  static int[] addMod(int[] a, int[] b) {
+    int[] r = addRaw(a, b);
+    if (geqP(r)) {
+      subP(r);
+    }
+    return r;
+  }
+
+  static int[] subMod(int[] a, int[] b) {
+    int[] r = new int[8];
+    long borrow = 0;
+    for (int i = 0; i < 8; i++) {
+      long d = (a[i] & MASK) - (b[i] & MASK) - borrow;
+      r[i] = (int) d;
+      borrow = d >>> 63;
+    }
+    if (borrow != 0) {
+      long carry = 0;
+      for (int i = 0; i < 8; i++) {
+        long s = (r[i] & MASK) + (P[i] & MASK) + carry;
+        r[i] = (int) s;
+        carry = s >>> 32;
+      }
+    }
+    return r;
+  }
+
+  static int[] montMul(int[] a, int[] b) {
+    return reduce(mulWide(a, b));
+  }
+
+  /**
+   * The 512-bit product of two values below 2p.
+   */
+  static int[] mulWide(int[] a, int[] b) {
+    int[] t = new int[16];
+    for (int i = 0; i < 8; i++) {
+      long ai = a[i] & MASK;
+      long carry = 0;
+      for (int j = 0; j < 8; j++) {
+        long s = ai * (b[j] & MASK) + (t[i + j] & MASK) + carry;
+        t[i + j] = (int) s;
+        carry = s >>> 32;
+      }
+      t[i + 8] = (int) carry;
+    }
+    return t;
+  }
+
+  /**
+   * t -= s in place for double width values, t >= s.
+   */
+  static void subWide(int[] t, int[] s) {
+    long borrow = 0;
+    for (int i = 0; i < 16; i++) {
+      long d = (t[i] & MASK) - (s[i] & MASK) - borrow;
+      t[i] = (int) d;
+      borrow = d >>> 63;
+    }
+  }
+
+  /**
+   * t -= s in place for double width values below p^2, adding p^2 back when s > t.
+   */
+  static void subWideModP2(int[] t, int[] s) {
+    long borrow = 0;
+    for (int i = 0; i < 16; i++) {
+      long d = (t[i] & MASK) - (s[i] & MASK) - borrow;
+      t[i] = (int) d;
+      borrow = d >>> 63;
+    }
+    if (borrow != 0) {
+      long carry = 0;
+      for (int i = 0; i < 16; i++) {
+        long sum = (t[i] & MASK) + (P_SQUARED[i] & MASK) + carry;
+        t[i] = (int) sum;
+        carry = sum >>> 32;
+      }
+    }
+  }
+
+  /**
+   * Montgomery reduction t * 2^-256 mod p of a double width value below p * 2^256, the value is
+   * overwritten.
+   */
+  static int[] reduce(int[] t) {
+    long high = 0;
+    for (int i = 0; i < 8; i++) {
+      long q = ((t[i] & MASK) * P_INV) & MASK;
+      long carry = 0;
+      for (int j = 0; j < 8; j++) {
+        long s = q * (P[j] & MASK) + (t[i + j] & MASK) + carry;
+        t[i + j] = (int) s;
+        carry = s >>> 32;
+      }
+      long s = (t[i + 8] & MASK) + carry + high;
+      t[i + 8] = (int) s;
+      high = s >>> 32;
+    }
+    int[] r = Arrays.copyOfRange(t, 8, 16);
+    if (high != 0 || geqP(r)) {
+      subP(r);
+    }
+    return r;
   }
 }
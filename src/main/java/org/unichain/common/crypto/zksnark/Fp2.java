@@ -38,12 +38,6 @@ class Fp2 implements Field<Fp2> {
   static final Fp2 _1 = new Fp2(Fp._1, Fp.ZERO);
   static final Fp2 NON_RESIDUE = new Fp2(BigInteger.valueOf(9), BigInteger.ONE);
 
-  static final Fp[] FROBENIUS_COEFFS_B = new Fp[]{
-      new Fp(BigInteger.ONE),
-      new Fp(new BigInteger(
-          "21888242871839275222246405745257275088696311157297823662689037894645226208582"))
-  };
-
   Fp a;
   Fp b;
 
@@ -59,29 +53,27 @@ class Fp2 implements Field<Fp2> {
   @Override
   public Fp2 squared() {
 
-    // using Complex squaring
-
-    Fp ab = a.mul(b);
+    // using Complex squaring, NON_RESIDUE = -1
 
-    Fp ra = a.add(b).mul(b.mul(Fp.NON_RESIDUE).add(a))
-        .sub(ab)
-        .sub(ab.mul(Fp.NON_RESIDUE)); // ra = (a + b)(a + NON_RESIDUE * b) - ab - NON_RESIDUE * b
-    Fp rb = ab.dbl();
+    int[] ra = Fp.reduce(Fp.mulWide(Fp.addRaw(a.m, b.m), Fp.subMod(a.m, b.m))); // ra = (a + b)(a - b)
+    int[] rb = Fp.reduce(Fp.mulWide(Fp.addRaw(a.m, a.m), b.m));                 // rb = 2ab
 
-    return new Fp2(ra, rb);
+    return new Fp2(new Fp(ra), new Fp(rb));
   }
 
   @Override
   public Fp2 mul(Fp2 o) {
 
-    Fp aa = a.mul(o.a);
-    Fp bb = b.mul(o.b);
+    // Karatsuba on double width products, reducing each coefficient once
 
-    Fp ra = bb.mul(Fp.NON_RESIDUE).add(aa);    // ra = a1 * a2 + NON_RESIDUE * b1 * b2
-    Fp rb = a.add(b).mul(o.a.add(o.b)).sub(aa)
-        .sub(bb);     // rb = (a1 + b1)(a2 + b2) - a1 * a2 - b1 * b2
+    int[] aa = Fp.mulWide(a.m, o.a.m);
+    int[] bb = Fp.mulWide(b.m, o.b.m);
+    int[] rb = Fp.mulWide(Fp.addRaw(a.m, b.m), Fp.addRaw(o.a.m, o.b.m));
+    Fp.subWide(rb, aa);
+    Fp.subWide(rb, bb);       // rb = (a1 + b1)(a2 + b2) - a1 * a2 - b1 * b2
+    Fp.subWideModP2(aa, bb);  // ra = a1 * a2 + NON_RESIDUE * b1 * b2
 
-    return new Fp2(ra, rb);
+    return new Fp2(new Fp(Fp.reduce(aa)), new Fp(Fp.reduce(rb)));
   }
 
   @Override
@@ -104,7 +96,7 @@ class Fp2 implements Field<Fp2> {
 
     Fp t0 = a.squared();
     Fp t1 = b.squared();
-    Fp t2 = t0.sub(Fp.NON_RESIDUE.mul(t1));
+    Fp t2 = t0.add(t1); // t2 = t0 - NON_RESIDUE * t1
     Fp t3 = t2.inverse();
 
     Fp ra = a.mul(t3);          // ra = a * t3
@@ -169,14 +161,22 @@ class Fp2 implements Field<Fp2> {
 
   Fp2 frobeniusMap(int power) {
 
-    Fp ra = a;
-    Fp rb = FROBENIUS_COEFFS_B[power % 2].mul(b);
+    if (power % 2 == 0) {
+      return this;
+    }
 
-    return new Fp2(ra, rb);
+    // the coefficient of odd powers is -1
+    return new Fp2(a, b.negate());
   }
 
   Fp2 mulByNonResidue() {
-    return NON_RESIDUE.mul(this);
+
+    // (9 + i)(a + bi) = (9a - b) + (a + 9b)i, with additions only
+
+    Fp a9 = a.dbl().dbl().dbl().add(a);
+    Fp b9 = b.dbl().dbl().dbl().add(b);
+
+    return new Fp2(a9.sub(b), a.add(b9));
   }
 
   @Override
@@ -64,16 +64,16 @@ public class PairingCheck {
 
   public void run() {
 
+    // miller loop result equals "1" if at least one of the points is zero
+    List<Pair> nonTrivial = new ArrayList<>(pairs.size());
     for (Pair pair : pairs) {
-
-      Fp12 miller = pair.millerLoop();
-
-      if (!miller.equals(Fp12._1))    // run mul code only if necessary
-      {
-        product = product.mul(miller);
+      if (!pair.g1.isZero() && !pair.g2.isZero()) {
+        nonTrivial.add(pair);
       }
     }
 
+    product = millerLoop(nonTrivial);
+
     // finalize
     product = finalExponentiation(product);
   }
@@ -82,14 +82,20 @@ public class PairingCheck {
     return product.equals(Fp12._1) ? 1 : 0;
   }
 
-  private static Fp12 millerLoop(BN128G1 g1, BN128G2 g2) {
-
-    // convert to affine coordinates
-    g1 = g1.toAffine();
-    g2 = g2.toAffine();
-
-    // calculate Ell coefficients
-    List<EllCoeffs> coeffs = calcEllCoeffs(g2);
+  /**
+   * Product of the Miller loops of all pairs, run as one loop so that the accumulator is squared
+   * once per bit instead of once per bit and pair.
+   */
+  private static Fp12 millerLoop(List<Pair> pairs) {
+
+    int n = pairs.size();
+    BN128G1[] g1s = new BN128G1[n];
+    List<List<EllCoeffs>> coeffs = new ArrayList<>(n);
+    for (int k = 0; k < n; k++) {
+      // convert to affine coordinates
+      g1s[k] = pairs.get(k).g1.toAffine();
+      coeffs.add(pairs.get(k).g2.ellCoeffs());
+    }
 
     Fp12 f = Fp12._1;
     int idx = 0;
@@ -97,27 +103,34 @@ public class PairingCheck {
     // for each bit except most significant one
     for (int i = LOOP_COUNT.bitLength() - 2; i >= 0; i--) {
 
-      EllCoeffs c = coeffs.get(idx++);
       f = f.squared();
-      f = f.mulBy024(c.ell0, g1.y.mul(c.ellVW), g1.x.mul(c.ellVV));
+      f = mulByLines(f, g1s, coeffs, idx++);
 
       if (LOOP_COUNT.testBit(i)) {
-        c = coeffs.get(idx++);
-        f = f.mulBy024(c.ell0, g1.y.mul(c.ellVW), g1.x.mul(c.ellVV));
+        f = mulByLines(f, g1s, coeffs, idx++);
       }
 
     }
 
-    EllCoeffs c = coeffs.get(idx++);
-    f = f.mulBy024(c.ell0, g1.y.mul(c.ellVW), g1.x.mul(c.ellVV));
+    f = mulByLines(f, g1s, coeffs, idx++);
+    f = mulByLines(f, g1s, coeffs, idx);
 
-    c = coeffs.get(idx);
-    f = f.mulBy024(c.ell0, g1.y.mul(c.ellVW), g1.x.mul(c.ellVV));
+    return f;
+  }
 
+  private static Fp12 mulByLines(Fp12 f, BN128G1[] g1s, List<List<EllCoeffs>> coeffs, int idx) {
+    for (int k = 0; k < g1s.length; k++) {
+      EllCoeffs c = coeffs.get(k).get(idx);
+      BN128G1 g1 = g1s[k];
+      f = f.mulBy024(c.ell0, g1.y.mul(c.ellVW), g1.x.mul(c.ellVV));
+    }
     return f;
   }
 
-  private static List<EllCoeffs> calcEllCoeffs(BN128G2 base) {
+  /**
+   * Line coefficients of the Miller loop for an affine G2 point, see {@link BN128G2#ellCoeffs()}
+   */
+  static List<EllCoeffs> calcEllCoeffs(BN128G2 base) {
 
     List<EllCoeffs> coeffs = new ArrayList<>();
 
@@ -274,19 +287,6 @@ public class PairingCheck {
       this.g1 = g1;
       this.g2 = g2;
     }
-
-    Fp12 millerLoop() {
-
-      // miller loop result equals "1" if at least one of the points is zero
-      if (g1.isZero()) {
-        return Fp12._1;
-      }
-      if (g2.isZero()) {
-        return Fp12._1;
-      }
-
-      return PairingCheck.millerLoop(g1, g2);
-    }
   }
 
   static class EllCoeffs {
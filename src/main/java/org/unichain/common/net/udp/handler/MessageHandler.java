@@ -21,8 +21,8 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.DatagramPacket;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import lombok.extern.slf4j.Slf4j;
 
 import java.net.InetSocketAddress;
@@ -36,7 +36,7 @@ public class MessageHandler extends SimpleChannelInboundHandler<UdpEvent>
 
   private EventHandler eventHandler;
 
-  public MessageHandler(NioDatagramChannel channel, EventHandler eventHandler) {
+  public MessageHandler(DatagramChannel channel, EventHandler eventHandler) {
     this.channel = channel;
     this.eventHandler = eventHandler;
   }
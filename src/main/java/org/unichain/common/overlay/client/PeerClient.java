@@ -2,14 +2,13 @@ package org.unichain.common.overlay.client;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.unichain.common.overlay.discover.node.Node;
 import org.unichain.common.overlay.discover.node.NodeHandler;
+import org.unichain.common.overlay.server.NettyTransport;
 import org.unichain.common.overlay.server.UnichainChannelInitializer;
 import org.unichain.core.config.args.Args;
 import org.unichain.protos.Protocol.ReasonCode;
@@ -27,7 +26,7 @@ public class PeerClient {
   private EventLoopGroup workerGroup;
 
   public PeerClient() {
-    workerGroup = new NioEventLoopGroup(0, new ThreadFactory() {
+    workerGroup = NettyTransport.newEventLoopGroup(0, new ThreadFactory() {
       private AtomicInteger cnt = new AtomicInteger(0);
 
       @Override
@@ -72,7 +71,7 @@ public class PeerClient {
 
     Bootstrap b = new Bootstrap();
     b.group(workerGroup);
-    b.channel(NioSocketChannel.class);
+    b.channel(NettyTransport.socketChannelClass());
 
     b.option(ChannelOption.SO_KEEPALIVE, true);
     b.option(ChannelOption.MESSAGE_SIZE_ESTIMATOR, DefaultMessageSizeEstimator.DEFAULT);
@@ -21,8 +21,9 @@ package org.unichain.common.overlay.discover;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,7 @@ import org.springframework.stereotype.Component;
 import org.unichain.common.net.udp.handler.MessageHandler;
 import org.unichain.common.net.udp.handler.PacketDecoder;
 import org.unichain.common.overlay.discover.node.NodeManager;
+import org.unichain.common.overlay.server.NettyTransport;
 import org.unichain.common.overlay.server.WireTrafficStats;
 import org.unichain.core.config.args.Args;
 
@@ -75,17 +77,17 @@ public class DiscoverServer {
   }
 
   public void start() throws Exception {
-    NioEventLoopGroup group = new NioEventLoopGroup(args.getUdpNettyWorkThreadNum());
+    EventLoopGroup group = NettyTransport.newEventLoopGroup(args.getUdpNettyWorkThreadNum());
     try {
       discoveryExecutor = new DiscoveryExecutor(nodeManager);
       discoveryExecutor.start();
       while (!shutdown) {
         Bootstrap b = new Bootstrap();
         b.group(group)
-            .channel(NioDatagramChannel.class)
-            .handler(new ChannelInitializer<NioDatagramChannel>() {
+            .channel(NettyTransport.datagramChannelClass())
+            .handler(new ChannelInitializer<DatagramChannel>() {
               @Override
-              public void initChannel(NioDatagramChannel ch)
+              public void initChannel(DatagramChannel ch)
                   throws Exception {
                 ch.pipeline().addLast(stats.udp);
                 ch.pipeline().addLast(new ProtobufVarint32LengthFieldPrepender());
@@ -96,6 +98,10 @@ public class DiscoverServer {
                 ch.pipeline().addLast(messageHandler);
               }
             });
+        if (NettyTransport.isEpoll()) {
+          // a restarted server binds again while the old socket may still be closing
+          b.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
 
         channel = b.bind(port).sync().channel();
 
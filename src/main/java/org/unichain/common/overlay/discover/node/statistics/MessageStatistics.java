@@ -68,6 +68,7 @@ public class MessageStatistics {
   public final MessageCount unichainInBlock = new MessageCount();
   public final MessageCount unichainOutBlock = new MessageCount();
   public final MessageCount unichainOutAdvBlock = new MessageCount();
+  public final MessageCount unichainInFetchBlockTransactions = new MessageCount();
 
   public void addUdpInMessage(UdpMessageTypeEnum type) {
     addUdpMessage(type, true);
@@ -22,6 +22,7 @@ import lombok.Getter;
 import org.unichain.core.config.args.Args;
 import org.unichain.protos.Protocol.ReasonCode;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class NodeStatistics {
@@ -48,6 +49,9 @@ public class NodeStatistics {
 
   public final SimpleStatter discoverMessageLatency;
   public final SimpleStatter pingMessageLatency;
+  public final FetchStatter syncBlockFetch = new FetchStatter();
+
+  public final FetchLatency advFetch = new FetchLatency();
 
   public final AtomicLong lastPongReplyTime = new AtomicLong(0L); // in milliseconds
 
@@ -208,6 +212,69 @@ public class NodeStatistics {
 
   }
 
+  /**
+   * How fast a node serves the blocks we fetch from it during sync. The service time of a block is
+   * the time from its request, or from the previous block if that came later, to its arrival; a
+   * moving average of it, recent blocks weighing most, is the inverse of the node's throughput.
+   */
+  public class FetchStatter {
+    private static final double WEIGHT = 0.2;
+    private double serviceTime;
+    @Getter
+    private volatile long lastReceiveTime;
+
+    public synchronized void add(long requestTime, long receiveTime) {
+      long sample = Math.max(0, receiveTime - Math.max(requestTime, lastReceiveTime));
+      serviceTime = serviceTime == 0 ? sample : serviceTime + WEIGHT * (sample - serviceTime);
+      lastReceiveTime = receiveTime;
+    }
+
+    /**
+     * Milliseconds per block, 0 before the first block.
+     */
+    public synchronized long getServiceTime() {
+      return Math.round(serviceTime);
+    }
+  }
+
+  /**
+   * How fast a node answers the blocks and transactions we fetch from it after it announced them:
+   * its most recent response times, a fetch it did not answer by its deadline counting with the
+   * time waited until then.
+   */
+  public class FetchLatency {
+    private static final int SAMPLES = 32;
+    private final long[] samples = new long[SAMPLES];
+    private int count;
+    @Getter
+    private volatile int timeouts;
+
+    public synchronized void add(long latency) {
+      samples[count++ % SAMPLES] = Math.max(0, latency);
+      if (count == 2 * SAMPLES) {
+        count = SAMPLES;
+      }
+    }
+
+    public synchronized void timeout(long waited) {
+      timeouts++;
+      add(waited);
+    }
+
+    /**
+     * The latency the given fraction of the recent responses came within, -1 before any response.
+     */
+    public synchronized long getPercentile(double fraction) {
+      int n = Math.min(count, SAMPLES);
+      if (n == 0) {
+        return -1;
+      }
+      long[] sorted = Arrays.copyOf(samples, n);
+      Arrays.sort(sorted);
+      return sorted[Math.max(0, Math.min(n - 1, (int) Math.ceil(fraction * n) - 1))];
+    }
+  }
+
   public boolean nodeIsHaveDataTransfer() {
     return tcpFlow.getTotalCount() > MIN_DATA_LENGTH;
   }
@@ -51,6 +51,8 @@ public class HelloMessage extends P2pMessage {
     builder.setGenesisBlockId(gBlockId);
     builder.setSolidBlockId(sBlockId);
     builder.setHeadBlockId(hBlockId);
+    builder.setCompactBlock(Args.getInstance().isCompactBlockRelay());
+    builder.setCompression(Args.getInstance().isFrameCompression());
 
     this.helloMessage = builder.build();
     this.type = MessageTypes.P2P_HELLO.asByte();
@@ -71,6 +73,14 @@ public class HelloMessage extends P2pMessage {
         ByteArray.toStr(from.getAddress().toByteArray()), from.getPort());
   }
 
+  public boolean isCompactBlock() {
+    return this.helloMessage.getCompactBlock();
+  }
+
+  public boolean isCompression() {
+    return this.helloMessage.getCompression();
+  }
+
   public BlockCapsule.BlockId getGenesisBlockId() {
     return new BlockCapsule.BlockId(this.helloMessage.getGenesisBlockId().getHash(),
         this.helloMessage.getGenesisBlockId().getNumber());
@@ -24,14 +24,15 @@ public class MessageCodec extends ByteToMessageDecoder {
   protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out)
       throws Exception {
     int length = buffer.readableBytes();
-    byte[] encoded = new byte[length];
-    buffer.readBytes(encoded);
     try {
-      Message msg = createMessage(encoded);
+      Message msg = createMessage(buffer);
       channel.getNodeStatistics().tcpFlow.add(length);
       out.add(msg);
     } catch (Exception e) {
       channel.processException(e);
+    } finally {
+      // a frame is consumed even when it does not parse, nothing may be left for the next one
+      buffer.skipBytes(buffer.readableBytes());
     }
   }
 
@@ -39,15 +40,15 @@ public class MessageCodec extends ByteToMessageDecoder {
     this.channel = channel;
   }
 
-  private Message createMessage(byte[] encoded) throws Exception {
-    byte type = encoded[0];
+  private Message createMessage(ByteBuf frame) throws Exception {
+    byte type = frame.getByte(frame.readerIndex());
     if (MessageTypes.inP2pRange(type)) {
-      return p2pMessageFactory.create(encoded);
+      return p2pMessageFactory.create(frame);
     }
     if (MessageTypes.inUnichainRange(type)) {
-      return unichainMessageFactory.create(encoded);
+      return unichainMessageFactory.create(frame);
     }
-    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + encoded[0]);
+    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + type);
   }
 
 }
\ No newline at end of file
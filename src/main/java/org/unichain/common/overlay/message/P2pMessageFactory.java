@@ -18,6 +18,7 @@
 
 package org.unichain.common.overlay.message;
 
+import io.netty.buffer.ByteBuf;
 import org.apache.commons.lang3.ArrayUtils;
 import org.unichain.core.exception.P2pException;
 import org.unichain.core.exception.P2pException.TypeEnum;
@@ -31,21 +32,38 @@ public class P2pMessageFactory extends MessageFactory {
       throw new P2pException(TypeEnum.MESSAGE_WITH_WRONG_LENGTH,
           "messageType=" + (data.length == 1 ? data[0] : "unknow"));
     }
+    return create(data[0], ArrayUtils.subarray(data, 1, data.length));
+  }
+
+  /**
+   * Creates the message of a frame, the message bytes are copied out of the buffer only once.
+   */
+  public P2pMessage create(ByteBuf frame) throws Exception {
+    int length = frame.readableBytes();
+    if (length <= 1) {
+      throw new P2pException(TypeEnum.MESSAGE_WITH_WRONG_LENGTH,
+          "messageType=" + (length == 1 ? frame.getByte(frame.readerIndex()) : "unknow"));
+    }
+    byte type = frame.readByte();
+    byte[] rawData = new byte[length - 1];
+    frame.readBytes(rawData);
+    return create(type, rawData);
+  }
+
+  private P2pMessage create(byte type, byte[] rawData) throws Exception {
     try {
-      byte type = data[0];
-      byte[] rawData = ArrayUtils.subarray(data, 1, data.length);
-      return create(type, rawData);
+      return createMessage(type, rawData);
     } catch (Exception e) {
       if (e instanceof P2pException) {
         throw e;
       } else {
         throw new P2pException(P2pException.TypeEnum.PARSE_MESSAGE_FAILED,
-            "type=" + data[0] + ", len=" + data.length);
+            "type=" + type + ", len=" + (rawData.length + 1));
       }
     }
   }
 
-  private P2pMessage create(byte type, byte[] rawData) throws Exception {
+  private P2pMessage createMessage(byte type, byte[] rawData) throws Exception {
     MessageTypes messageType = MessageTypes.fromByte(type);
     if (messageType == null) {
       throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
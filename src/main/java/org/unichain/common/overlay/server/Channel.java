@@ -2,7 +2,6 @@ package org.unichain.common.overlay.server;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
-import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +16,7 @@ import org.unichain.common.overlay.message.DisconnectMessage;
 import org.unichain.common.overlay.message.HelloMessage;
 import org.unichain.common.overlay.message.MessageCodec;
 import org.unichain.common.overlay.message.StaticMessages;
+import org.unichain.core.config.args.Args;
 import org.unichain.core.db.ByteArrayWrapper;
 import org.unichain.core.exception.P2pException;
 import org.unichain.core.net.UnichainNetHandler;
@@ -79,6 +79,10 @@ public class Channel {
 
   private boolean isFastForwardPeer;
 
+  private FrameCompressor frameCompressor;
+
+  private FrameDecompressor frameDecompressor;
+
   public void init(ChannelPipeline pipeline, String remoteId, boolean discoveryMode,
       ChannelManager channelManager) {
 
@@ -91,8 +95,13 @@ public class Channel {
     //TODO: use config here
     pipeline.addLast("readTimeoutHandler", new ReadTimeoutHandler(60, TimeUnit.SECONDS));
     pipeline.addLast(stats.tcp);
-    pipeline.addLast("protoPender", new ProtobufVarint32LengthFieldPrepender());
+    pipeline.addLast("protoPender", new UnxProtobufVarint32LengthFieldPrepender());
+    // compresses once negotiated, the handshake is never compressed
+    frameCompressor = new FrameCompressor(stats.compression);
+    pipeline.addLast("compress", frameCompressor);
     pipeline.addLast("lengthDecode", new UnxProtobufVarint32FrameDecoder(this));
+    frameDecompressor = new FrameDecompressor(stats.compression);
+    pipeline.addLast("decompress", frameDecompressor);
 
     //handshake first
     pipeline.addLast("handshakeHandler", handshakeHandler);
@@ -110,6 +119,9 @@ public class Channel {
   public void publicHandshakeFinished(ChannelHandlerContext ctx, HelloMessage msg) {
     isTrustPeer = channelManager.getTrustNodes().getIfPresent(getInetAddress()) != null;
     isFastForwardPeer = channelManager.getFastForwardNodes().containsKey(getInetAddress());
+    boolean compression = Args.getInstance().isFrameCompression() && msg.isCompression();
+    frameCompressor.setEnabled(compression);
+    frameDecompressor.setEnabled(compression);
     ctx.pipeline().remove(handshakeHandler);
     msgQueue.activate(ctx);
     ctx.pipeline().addLast("messageCodec", messageCodec);
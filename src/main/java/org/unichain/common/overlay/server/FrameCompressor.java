@@ -0,0 +1,84 @@
+package org.unichain.common.overlay.server;
+
+import com.google.common.collect.ImmutableMap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import lombok.Setter;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.unichain.common.overlay.server.WireTrafficStats.CompressionStats;
+import org.unichain.core.net.message.MessageTypes;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compresses the outgoing messages carrying blocks and transactions, once both sides announced
+ * compression in their hello messages.
+ *
+ * A compressed frame is the {@link MessageTypes#COMPRESSED} byte, the length of the message as an
+ * int and the message, type byte included, as an LZ4 block. Messages which do not shrink are sent
+ * as they are. LZ4 runs natively where the platform has a build of it, in pure Java otherwise.
+ */
+public class FrameCompressor extends MessageToMessageEncoder<ByteBuf> {
+
+  static final int HEADER_LENGTH = 5;
+
+  private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+  // smallest message of a type worth compressing, other types are never compressed: hashes and
+  // signatures do not compress
+  private static final Map<MessageTypes, Integer> THRESHOLDS = ImmutableMap.of(
+      MessageTypes.BLOCK, 1024,
+      MessageTypes.BLOCKS, 1024,
+      MessageTypes.UNWS, 2048,
+      MessageTypes.BLOCK_TRANSACTIONS, 2048);
+
+  private final CompressionStats stats;
+
+  @Setter
+  private volatile boolean enabled;
+
+  public FrameCompressor(CompressionStats stats) {
+    this.stats = stats;
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+    int length = msg.readableBytes();
+    Integer threshold = !enabled || length == 0 ? null
+        : THRESHOLDS.get(MessageTypes.fromByte(msg.getByte(msg.readerIndex())));
+    if (threshold == null || length < threshold) {
+      out.add(msg.retain());
+      return;
+    }
+
+    long start = System.nanoTime();
+    // sent messages are read-only views over the type byte and the message, lz4 wants one array:
+    // a pooled one, given back right after
+    ByteBuf src = msg.hasArray() ? msg : ctx.alloc().heapBuffer(length).writeBytes(msg,
+        msg.readerIndex(), length);
+    int maxLength = COMPRESSOR.maxCompressedLength(length);
+    ByteBuf frame = ctx.alloc().heapBuffer(HEADER_LENGTH + maxLength);
+    int compressedLength;
+    try {
+      compressedLength = COMPRESSOR.compress(src.array(), src.arrayOffset() + src.readerIndex(),
+          length, frame.array(), frame.arrayOffset() + HEADER_LENGTH, maxLength);
+    } finally {
+      if (src != msg) {
+        src.release();
+      }
+    }
+    if (HEADER_LENGTH + compressedLength >= length) {
+      frame.release();
+      out.add(msg.retain());
+      return;
+    }
+    frame.writeByte(MessageTypes.COMPRESSED.asByte());
+    frame.writeInt(length);
+    frame.writerIndex(HEADER_LENGTH + compressedLength);
+    out.add(frame);
+    stats.compressed(length, frame.readableBytes(), System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,92 @@
+package org.unichain.common.overlay.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import lombok.Setter;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.unichain.common.overlay.server.WireTrafficStats.CompressionStats;
+import org.unichain.core.exception.P2pException;
+import org.unichain.core.exception.P2pException.TypeEnum;
+import org.unichain.core.net.message.MessageTypes;
+
+import java.util.List;
+
+/**
+ * Restores the frames compressed by the {@link FrameCompressor} of the peer, other frames pass
+ * through. A compressed frame from a peer which has not negotiated compression is a bad message.
+ */
+public class FrameDecompressor extends MessageToMessageDecoder<ByteBuf> {
+
+  // the safe decompressor, the peer controls the input
+  private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance()
+      .safeDecompressor();
+
+  private final CompressionStats stats;
+
+  @Setter
+  private volatile boolean enabled;
+
+  public FrameDecompressor(CompressionStats stats) {
+    this.stats = stats;
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out)
+      throws Exception {
+    if (!frame.isReadable() || frame.getByte(frame.readerIndex()) != MessageTypes.COMPRESSED
+        .asByte()) {
+      out.add(frame.retain());
+      return;
+    }
+
+    if (!enabled) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "compressed frame, compression not negotiated");
+    }
+
+    long start = System.nanoTime();
+    int frameLength = frame.readableBytes();
+    if (frameLength <= FrameCompressor.HEADER_LENGTH) {
+      throw new P2pException(TypeEnum.MESSAGE_WITH_WRONG_LENGTH,
+          "compressed frame length " + frameLength);
+    }
+    frame.skipBytes(1);
+    int length = frame.readInt();
+    if (length <= 0 || length >= UnxProtobufVarint32FrameDecoder.maxMsgLength) {
+      throw new P2pException(TypeEnum.MESSAGE_WITH_WRONG_LENGTH,
+          "compressed message length " + length);
+    }
+
+    byte[] src;
+    int srcOff;
+    int srcLength = frame.readableBytes();
+    if (frame.hasArray()) {
+      src = frame.array();
+      srcOff = frame.arrayOffset() + frame.readerIndex();
+    } else {
+      src = ByteBufUtil.getBytes(frame);
+      srcOff = 0;
+    }
+    ByteBuf message = ctx.alloc().heapBuffer(length);
+    int decompressed;
+    try {
+      decompressed = DECOMPRESSOR.decompress(src, srcOff, srcLength, message.array(),
+          message.arrayOffset(), length);
+    } catch (LZ4Exception e) {
+      message.release();
+      throw new P2pException(TypeEnum.PARSE_MESSAGE_FAILED, "decompress failed", e);
+    }
+    if (decompressed != length) {
+      message.release();
+      throw new P2pException(TypeEnum.PARSE_MESSAGE_FAILED,
+          "compressed message length " + length + ", decompressed " + decompressed);
+    }
+    frame.skipBytes(srcLength);
+    message.writerIndex(length);
+    out.add(message);
+    stats.decompressed(frameLength, length, System.nanoTime() - start);
+  }
+}
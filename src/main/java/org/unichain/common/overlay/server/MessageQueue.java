@@ -1,5 +1,6 @@
 package org.unichain.common.overlay.server;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import lombok.extern.slf4j.Slf4j;
@@ -9,77 +10,62 @@ import org.unichain.common.overlay.message.Message;
 import org.unichain.common.overlay.message.PingMessage;
 import org.unichain.common.overlay.message.PongMessage;
 import org.unichain.core.net.message.InventoryMessage;
+import org.unichain.core.net.message.TransactionMessage;
 import org.unichain.core.net.message.TransactionsMessage;
 import org.unichain.protos.Protocol.Inventory.InventoryType;
 import org.unichain.protos.Protocol.ReasonCode;
 
 import java.util.Queue;
-import java.util.concurrent.*;
-
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Outgoing messages of one peer, written on the event loop of its channel.
+ *
+ * Sending a message only queues it and wakes the event loop once; the loop then writes everything
+ * queued and flushes once, or every FLUSH_BYTES, so a burst of messages costs one syscall instead
+ * of one each. Transactions queue behind everything else, so blocks and inventories are not stuck
+ * behind bulk transaction data. Requests expecting an answer are sent one at a time, the next one
+ * goes out as soon as the answer to the previous one arrives. While more than the write buffer high
+ * water mark is waiting for the socket, messages stay queued here until the channel is writable
+ * again.
+ */
 @Slf4j(topic = "net")
 @Component
 @Scope("prototype")
 public class MessageQueue {
 
+  private static final int FLUSH_BYTES = 64 * 1024;
+
+  // writes per event loop task, so one busy peer does not hold up the others on the same loop
+  private static final int MAX_WRITES_PER_DRAIN = 256;
+
   private volatile boolean sendMsgFlag = false;
 
   private volatile long sendTime;
 
   private volatile long sendPing;
 
-  private Thread sendMsgThread;
-
   private Channel channel;
 
-  private ChannelHandlerContext ctx = null;
+  private volatile ChannelHandlerContext ctx = null;
 
   private Queue<MessageRoundtrip> requestQueue = new ConcurrentLinkedQueue<>();
 
-  private BlockingQueue<Message> msgQueue = new LinkedBlockingQueue<>();
+  private Queue<Message> msgQueue = new ConcurrentLinkedQueue<>();
 
-  private static ScheduledExecutorService sendTimer = Executors.
-      newSingleThreadScheduledExecutor(r -> new Thread(r, "sendTimer"));
+  private Queue<Message> bulkMsgQueue = new ConcurrentLinkedQueue<>();
 
-  private ScheduledFuture<?> sendTask;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
 
+  private volatile ScheduledFuture<?> timeoutTask;
 
   public void activate(ChannelHandlerContext ctx) {
-
     this.ctx = ctx;
-
     sendMsgFlag = true;
-
-    sendTask = sendTimer.scheduleAtFixedRate(() -> {
-      try {
-        if (sendMsgFlag) {
-          send();
-        }
-      } catch (Exception e) {
-        logger.error("Unhandled exception", e);
-      }
-    }, 10, 10, TimeUnit.MILLISECONDS);
-
-    sendMsgThread = new Thread(() -> {
-      while (sendMsgFlag) {
-        try {
-          if (msgQueue.isEmpty()) {
-            Thread.sleep(10);
-            continue;
-          }
-          Message msg = msgQueue.take();
-          ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-            if (!future.isSuccess() && !channel.isDisconnect()) {
-              logger.error("Fail send to {}, {}", ctx.channel().remoteAddress(), msg);
-            }
-          });
-        } catch (Exception e) {
-          logger.error("Fail send to {}, error info: {}", ctx.channel().remoteAddress(),
-              e.getMessage());
-        }
-      }
-    });
-    sendMsgThread.setName("sendMsgThread-" + ctx.channel().remoteAddress());
-    sendMsgThread.start();
+    scheduleDrain();
   }
 
   public void setChannel(Channel channel) {
@@ -101,9 +87,12 @@ public class MessageQueue {
     sendTime = System.currentTimeMillis();
     if (msg.getAnswerMessage() != null) {
       requestQueue.add(new MessageRoundtrip(msg));
+    } else if (isBulk(msg)) {
+      bulkMsgQueue.offer(msg);
     } else {
       msgQueue.offer(msg);
     }
+    scheduleDrain();
     return true;
   }
 
@@ -119,22 +108,25 @@ public class MessageQueue {
         channel.getNodeStatistics().pingMessageLatency
             .add(System.currentTimeMillis() - rt.getTime());
       }
+      if (!requestQueue.isEmpty()) {
+        scheduleDrain();
+      }
     }
   }
 
+  /**
+   * The socket caught up with the messages written, called on the event loop.
+   */
+  public void channelWritable() {
+    scheduleDrain();
+  }
+
   public void close() {
     sendMsgFlag = false;
-    if (sendTask != null && !sendTask.isCancelled()) {
-      sendTask.cancel(false);
-      sendTask = null;
-    }
-    if (sendMsgThread != null) {
-      try {
-        sendMsgThread.join(20);
-        sendMsgThread = null;
-      } catch (Exception e) {
-        logger.warn("Join send thread failed, peer {}", ctx.channel().remoteAddress());
-      }
+    ScheduledFuture<?> task = timeoutTask;
+    if (task != null) {
+      task.cancel(false);
+      timeoutTask = null;
     }
   }
 
@@ -153,32 +145,86 @@ public class MessageQueue {
     return true;
   }
 
-  private void send() {
-    MessageRoundtrip rt = requestQueue.peek();
-    if (!sendMsgFlag || rt == null) {
-      return;
+  private boolean isBulk(Message msg) {
+    return msg instanceof TransactionsMessage || msg instanceof TransactionMessage;
+  }
+
+  private void scheduleDrain() {
+    ChannelHandlerContext context = ctx;
+    if (sendMsgFlag && context != null && drainScheduled.compareAndSet(false, true)) {
+      context.executor().execute(this::drain);
     }
-    if (rt.getRetryTimes() > 0 && !rt.hasToRetry()) {
+  }
+
+  // runs on the event loop of the channel
+  private void drain() {
+    drainScheduled.set(false);
+    if (!sendMsgFlag) {
       return;
     }
-    if (rt.getRetryTimes() > 0) {
-      channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
-      logger.warn("Wait {} timeout. close channel {}.",
-          rt.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
-      channel.close();
-      return;
+    try {
+      int writes = 0;
+      int unflushed = 0;
+      MessageRoundtrip rt = requestQueue.peek();
+      if (rt != null && rt.getRetryTimes() == 0) {
+        unflushed += write(rt.getMsg());
+        writes++;
+        rt.incRetryTimes();
+        rt.saveTime();
+        scheduleTimeout(rt);
+      }
+      Message msg;
+      while (writes < MAX_WRITES_PER_DRAIN && ctx.channel().isWritable()
+          && (msg = nextMessage()) != null) {
+        unflushed += write(msg);
+        writes++;
+        if (unflushed >= FLUSH_BYTES) {
+          ctx.flush();
+          unflushed = 0;
+        }
+      }
+      if (unflushed > 0) {
+        ctx.flush();
+      }
+    } catch (Exception e) {
+      logger.error("Fail send to {}, error info: {}", ctx.channel().remoteAddress(),
+          e.getMessage());
     }
+    if ((!msgQueue.isEmpty() || !bulkMsgQueue.isEmpty()) && ctx.channel().isWritable()) {
+      scheduleDrain();
+    }
+  }
 
-    Message msg = rt.getMsg();
+  private Message nextMessage() {
+    Message msg = msgQueue.poll();
+    return msg != null ? msg : bulkMsgQueue.poll();
+  }
 
-    ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-      if (!future.isSuccess()) {
+  private int write(Message msg) {
+    ByteBuf data = msg.getSendData();
+    int size = data.readableBytes();
+    ctx.write(data).addListener((ChannelFutureListener) future -> {
+      if (!future.isSuccess() && !channel.isDisconnect()) {
         logger.error("Fail send to {}, {}", ctx.channel().remoteAddress(), msg);
       }
     });
+    return size;
+  }
 
-    rt.incRetryTimes();
-    rt.saveTime();
+  private void scheduleTimeout(MessageRoundtrip rt) {
+    ScheduledFuture<?> previous = timeoutTask;
+    if (previous != null) {
+      previous.cancel(false);
+    }
+    timeoutTask = ctx.executor().schedule(() -> {
+      // still unanswered: the answer would have removed it from the queue
+      if (sendMsgFlag && requestQueue.peek() == rt) {
+        channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
+        logger.warn("Wait {} timeout. close channel {}.",
+            rt.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
+        channel.close();
+      }
+    }, MessageRoundtrip.TIMEOUT, TimeUnit.MILLISECONDS);
   }
 
 }
@@ -4,6 +4,8 @@ import org.unichain.common.overlay.message.Message;
 
 public class MessageRoundtrip {
 
+  public static final long TIMEOUT = 20_000;
+
   private final Message msg;
   private long time = 0;
   private long retryTimes = 0;
@@ -30,7 +32,7 @@ public class MessageRoundtrip {
   }
 
   public boolean hasToRetry() {
-    return 20000 < System.currentTimeMillis() - time;
+    return TIMEOUT < System.currentTimeMillis() - time;
   }
 
   public Message getMsg() {
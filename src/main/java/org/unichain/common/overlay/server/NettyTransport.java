@@ -0,0 +1,103 @@
+package org.unichain.common.overlay.server;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.SocketChannelConfig;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.config.args.Args;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Transport and buffer settings of the peer server, the peer client and the discovery server.
+ *
+ * With node.nettyEpoll set, Linux hosts use the native epoll transport and discovery binds its port
+ * with SO_REUSEPORT; elsewhere, or when the native library does not load, NIO is used. With
+ * node.nettyPooledAllocator set, peer connections read into pooled buffers sized after what they
+ * recently received, instead of one 256KB buffer per read.
+ */
+@Slf4j(topic = "net")
+public final class NettyTransport {
+
+  private static final int RECEIVE_BUFFER_MIN = 64;
+  private static final int RECEIVE_BUFFER_INITIAL = 16 * 1024;
+  private static final int RECEIVE_BUFFER_MAX = 256 * 1024;
+
+  private static final boolean EPOLL = useEpoll();
+
+  private static final WriteBufferWaterMark WRITE_BUFFER_WATER_MARK = new WriteBufferWaterMark(
+      Args.getInstance().getWriteBufferLowWaterMark(),
+      Args.getInstance().getWriteBufferHighWaterMark());
+
+  private NettyTransport() {
+  }
+
+  public static boolean isEpoll() {
+    return EPOLL;
+  }
+
+  public static EventLoopGroup newEventLoopGroup(int threads) {
+    return newEventLoopGroup(threads, null);
+  }
+
+  public static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+    return EPOLL ? new EpollEventLoopGroup(threads, threadFactory)
+        : new NioEventLoopGroup(threads, threadFactory);
+  }
+
+  public static Class<? extends ServerChannel> serverChannelClass() {
+    return EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+  }
+
+  public static Class<? extends SocketChannel> socketChannelClass() {
+    return EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
+  }
+
+  public static Class<? extends DatagramChannel> datagramChannelClass() {
+    return EPOLL ? EpollDatagramChannel.class : NioDatagramChannel.class;
+  }
+
+  /**
+   * Applies the buffer settings to a peer connection, accepted or opened.
+   */
+  public static void configure(SocketChannelConfig config) {
+    Args args = Args.getInstance();
+    if (args.isNettyPooledAllocator()) {
+      config.setAllocator(PooledByteBufAllocator.DEFAULT);
+      config.setRecvByteBufAllocator(new AdaptiveRecvByteBufAllocator(RECEIVE_BUFFER_MIN,
+          RECEIVE_BUFFER_INITIAL, RECEIVE_BUFFER_MAX));
+    } else {
+      config.setRecvByteBufAllocator(new FixedRecvByteBufAllocator(RECEIVE_BUFFER_MAX));
+    }
+    config.setTcpNoDelay(args.isTcpNoDelay());
+    config.setWriteBufferWaterMark(WRITE_BUFFER_WATER_MARK);
+  }
+
+  private static boolean useEpoll() {
+    if (!Args.getInstance().isNettyEpoll()) {
+      return false;
+    }
+    if (!Epoll.isAvailable()) {
+      logger.warn("Native epoll transport is not available, use NIO: {}",
+          Epoll.unavailabilityCause().getMessage());
+      return false;
+    }
+    logger.info("Use native epoll transport");
+    return true;
+  }
+}
@@ -5,8 +5,6 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultMessageSizeEstimator;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.logging.LoggingHandler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,15 +31,15 @@ public class PeerServer {
 
   public void start(int port) {
 
-    EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-    EventLoopGroup workerGroup = new NioEventLoopGroup(args.getTcpNettyWorkThreadNum());
+    EventLoopGroup bossGroup = NettyTransport.newEventLoopGroup(1);
+    EventLoopGroup workerGroup = NettyTransport.newEventLoopGroup(args.getTcpNettyWorkThreadNum());
     UnichainChannelInitializer unichainChannelInitializer = ctx.getBean(UnichainChannelInitializer.class, "");
 
     try {
       ServerBootstrap b = new ServerBootstrap();
 
       b.group(bossGroup, workerGroup);
-      b.channel(NioServerSocketChannel.class);
+      b.channel(NettyTransport.serverChannelClass());
 
       b.option(ChannelOption.SO_KEEPALIVE, true);
       b.option(ChannelOption.MESSAGE_SIZE_ESTIMATOR, DefaultMessageSizeEstimator.DEFAULT);
@@ -3,8 +3,7 @@ package org.unichain.common.overlay.server;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.FixedRecvByteBufAllocator;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
@@ -15,7 +14,7 @@ import org.unichain.core.net.peer.PeerConnection;
 @Slf4j(topic = "net")
 @Component
 @Scope("prototype")
-public class UnichainChannelInitializer extends ChannelInitializer<NioSocketChannel> {
+public class UnichainChannelInitializer extends ChannelInitializer<SocketChannel> {
 
   @Autowired
   private ApplicationContext ctx;
@@ -32,14 +31,13 @@ public class UnichainChannelInitializer extends ChannelInitializer<NioSocketChan
   }
 
   @Override
-  public void initChannel(NioSocketChannel ch) throws Exception {
+  public void initChannel(SocketChannel ch) throws Exception {
     try {
       final Channel channel = ctx.getBean(PeerConnection.class);
 
       channel.init(ch.pipeline(), remoteId, peerDiscoveryMode, channelManager);
 
-      // limit the size of receiving buffer to 1024
-      ch.config().setRecvByteBufAllocator(new FixedRecvByteBufAllocator(256 * 1024));
+      NettyTransport.configure(ch.config());
       ch.config().setOption(ChannelOption.SO_RCVBUF, 256 * 1024);
       ch.config().setOption(ChannelOption.SO_BACKLOG, 1024);
 
@@ -14,7 +14,7 @@ public class UnxProtobufVarint32FrameDecoder extends ByteToMessageDecoder {
   private final static Logger logger = LoggerFactory
       .getLogger(UnxProtobufVarint32FrameDecoder.class);
 
-  private final static int maxMsgLength = 5 * 1024 * 1024;//5M
+  final static int maxMsgLength = 5 * 1024 * 1024;//5M
 
   private Channel channel;
 
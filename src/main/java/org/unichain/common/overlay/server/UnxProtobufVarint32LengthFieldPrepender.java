@@ -0,0 +1,37 @@
+package org.unichain.common.overlay.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
+/**
+ * Prefixes each frame with its length as a protobuf varint, like netty's
+ * ProtobufVarint32LengthFieldPrepender, without copying the frame: the prefix goes out as a buffer
+ * of its own, followed by the frame itself, so a frame shared by many peers is never copied per
+ * peer.
+ */
+@Sharable
+public class UnxProtobufVarint32LengthFieldPrepender extends MessageToMessageEncoder<ByteBuf> {
+
+  private static final int MAX_HEADER_LENGTH = 5;
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+    int length = msg.readableBytes();
+    ByteBuf header = ctx.alloc().heapBuffer(MAX_HEADER_LENGTH, MAX_HEADER_LENGTH);
+    writeRawVarint32(header, length);
+    out.add(header);
+    out.add(msg.retain());
+  }
+
+  static void writeRawVarint32(ByteBuf out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+}
@@ -37,9 +37,16 @@ import java.util.concurrent.atomic.AtomicLong;
 @Component
 public class WireTrafficStats implements Runnable {
 
+  // the compression totals are logged every COMPRESSION_REPORT_RUNS runs, when they changed
+  private static final int COMPRESSION_REPORT_RUNS = 6;
+
   private ScheduledExecutorService executor;
   public final TrafficStatHandler tcp = new TrafficStatHandler();
   public final TrafficStatHandler udp = new TrafficStatHandler();
+  public final CompressionStats compression = new CompressionStats();
+
+  private int runs;
+  private long reportedMessages;
 
   public WireTrafficStats() {
     executor = Executors.newSingleThreadScheduledExecutor(
@@ -49,6 +56,14 @@ public class WireTrafficStats implements Runnable {
 
   @Override
   public void run() {
+    if (++runs % COMPRESSION_REPORT_RUNS != 0) {
+      return;
+    }
+    long messages = compression.compressedMessages.get() + compression.decompressedMessages.get();
+    if (messages != reportedMessages) {
+      reportedMessages = messages;
+      logger.info("Frame compression: {}", compression);
+    }
   }
 
   @PreDestroy
@@ -106,4 +121,64 @@ public class WireTrafficStats implements Runnable {
       super.write(ctx, msg, promise);
     }
   }
+
+  /**
+   * Totals of the frames compressed by {@link FrameCompressor} and decompressed by
+   * {@link FrameDecompressor}, over all peers.
+   */
+  public static class CompressionStats {
+
+    private final AtomicLong compressedMessages = new AtomicLong();
+    private final AtomicLong compressedIn = new AtomicLong();
+    private final AtomicLong compressedOut = new AtomicLong();
+    private final AtomicLong compressNanos = new AtomicLong();
+    private final AtomicLong decompressedMessages = new AtomicLong();
+    private final AtomicLong decompressedIn = new AtomicLong();
+    private final AtomicLong decompressedOut = new AtomicLong();
+    private final AtomicLong decompressNanos = new AtomicLong();
+
+    void compressed(int messageSize, int frameSize, long nanos) {
+      compressedMessages.incrementAndGet();
+      compressedIn.addAndGet(messageSize);
+      compressedOut.addAndGet(frameSize);
+      compressNanos.addAndGet(nanos);
+    }
+
+    void decompressed(int frameSize, int messageSize, long nanos) {
+      decompressedMessages.incrementAndGet();
+      decompressedIn.addAndGet(frameSize);
+      decompressedOut.addAndGet(messageSize);
+      decompressNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Bytes sent for compressed messages per byte of the messages, 1 when nothing was compressed.
+     */
+    public double getCompressRatio() {
+      long in = compressedIn.get();
+      return in == 0 ? 1 : (double) compressedOut.get() / in;
+    }
+
+    public double getDecompressRatio() {
+      long out = decompressedOut.get();
+      return out == 0 ? 1 : (double) decompressedIn.get() / out;
+    }
+
+    public long getCompressTimeMs() {
+      return compressNanos.get() / 1_000_000;
+    }
+
+    public long getDecompressTimeMs() {
+      return decompressNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("out %d msg, %d -> %d bytes, ratio %.2f, %d ms; "
+              + "in %d msg, %d -> %d bytes, ratio %.2f, %d ms",
+          compressedMessages.get(), compressedIn.get(), compressedOut.get(), getCompressRatio(),
+          getCompressTimeMs(), decompressedMessages.get(), decompressedIn.get(),
+          decompressedOut.get(), getDecompressRatio(), getDecompressTimeMs());
+    }
+  }
 }
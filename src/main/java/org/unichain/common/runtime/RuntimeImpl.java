@@ -508,6 +508,7 @@ public class RuntimeImpl implements Runtime {
       this.vm = new VM(config);
       rootInternalTransaction = new InternalTransaction(unx, unxType);
       this.program = new Program(code, programInvoke, rootInternalTransaction, config, this.blockCap);
+      this.program.setCodeHash(deployedContract.getCodeHash());
       byte[] txId = new TransactionCapsule(unx).getTransactionId().getBytes();
       this.program.setRootTransactionId(txId);
 
@@ -20,6 +20,8 @@ package org.unichain.common.runtime.config;
 import lombok.Setter;
 import org.unichain.core.config.args.Args;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * For developer only
  */
@@ -31,6 +33,8 @@ public class VMConfig {
 
   private boolean vmTraceCompressed = false;
   private boolean vmTrace = Args.getInstance().isVmTrace();
+  @Setter
+  private boolean blockEnergyCharging = Args.getInstance().isVmBlockEnergyCharging();
 
 //  @Getter
 //  @Setter
@@ -48,6 +52,10 @@ public class VMConfig {
   @Setter
   private static boolean ALLOW_TVM_SOLIDITY_059 = false;
 
+  private static final ThreadLocal<ForkFlags> THREAD_FORK_FLAGS = new ThreadLocal<>();
+
+  // threads running with flags of their own, while there are none the flags are read directly
+  private static final AtomicInteger threadForkFlagsCount = new AtomicInteger();
 
   private VMConfig() {
   }
@@ -65,6 +73,14 @@ public class VMConfig {
     return vmTrace;
   }
 
+  /**
+   * Charge static energy per basic block instead of per op, off while tracing since the trace
+   * records the energy of every op.
+   */
+  public boolean blockEnergyCharging() {
+    return blockEnergyCharging && !vmTrace;
+  }
+
   public boolean vmTraceCompressed() {
     return vmTraceCompressed;
   }
@@ -90,18 +106,75 @@ public class VMConfig {
   }
 
   public static boolean allowTvmTransferUnc() {
-    return ALLOW_TVM_TRANSFER_UNC;
+    ForkFlags flags = threadForkFlags();
+    return flags == null ? ALLOW_TVM_TRANSFER_UNC : flags.allowTvmTransferUnc;
   }
 
   public static boolean allowTvmConstantinople() {
-    return ALLOW_TVM_CONSTANTINOPLE;
+    ForkFlags flags = threadForkFlags();
+    return flags == null ? ALLOW_TVM_CONSTANTINOPLE : flags.allowTvmConstantinople;
   }
 
   public static boolean allowMultiSign() {
-    return ALLOW_MULTI_SIGN;
+    ForkFlags flags = threadForkFlags();
+    return flags == null ? ALLOW_MULTI_SIGN : flags.allowMultiSign;
   }
 
   public static boolean allowTvmSolidity059() {
-    return ALLOW_TVM_SOLIDITY_059;
+    ForkFlags flags = threadForkFlags();
+    return flags == null ? ALLOW_TVM_SOLIDITY_059 : flags.allowTvmSolidity059;
+  }
+
+  /**
+   * Runs the executions of the current thread with the given flags instead of the ones set by block
+   * processing, until the returned scope is closed.
+   */
+  public static ForkScope withForkFlags(ForkFlags flags) {
+    ForkScope scope = new ForkScope(THREAD_FORK_FLAGS.get());
+    THREAD_FORK_FLAGS.set(flags);
+    threadForkFlagsCount.incrementAndGet();
+    return scope;
+  }
+
+  private static ForkFlags threadForkFlags() {
+    return threadForkFlagsCount.get() == 0 ? null : THREAD_FORK_FLAGS.get();
+  }
+
+  /**
+   * The fork flags an execution runs with, taken from the dynamic properties.
+   */
+  public static final class ForkFlags {
+
+    private final boolean allowTvmTransferUnc;
+    private final boolean allowTvmConstantinople;
+    private final boolean allowMultiSign;
+    private final boolean allowTvmSolidity059;
+
+    public ForkFlags(long allowTvmTransferUnc, long allowTvmConstantinople, long allowMultiSign,
+        long allowTvmSolidity059) {
+      this.allowTvmTransferUnc = allowTvmTransferUnc == 1;
+      this.allowTvmConstantinople = allowTvmConstantinople == 1;
+      this.allowMultiSign = allowMultiSign == 1;
+      this.allowTvmSolidity059 = allowTvmSolidity059 == 1;
+    }
+  }
+
+  public static final class ForkScope implements AutoCloseable {
+
+    private final ForkFlags previous;
+
+    private ForkScope(ForkFlags previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        THREAD_FORK_FLAGS.remove();
+      } else {
+        THREAD_FORK_FLAGS.set(previous);
+      }
+      threadForkFlagsCount.decrementAndGet();
+    }
   }
 }
\ No newline at end of file
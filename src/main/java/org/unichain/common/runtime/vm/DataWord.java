@@ -49,11 +49,21 @@ public class DataWord implements Comparable<DataWord> {
     return DataWord.of((byte)1);
   }
   public static DataWord ZERO() {
-    return new DataWord(new byte[32]);
+    return new DataWord(new byte[32], true);
   }
 
+  private static final long INT_MASK = 0xFFFFFFFFL;
+  private static final byte[] ZERO_WORD = new byte[WORD_SIZE];
+
   private byte[] data = new byte[32];
 
+  /**
+   * Whether {@link #data} was allocated by this word and never handed out. Only then may the
+   * arithmetic write its result in place, otherwise it allocates a new array so that arrays passed
+   * to the constructor or returned by {@link #getData()} keep their value.
+   */
+  private boolean owned = true;
+
   public DataWord() {
   }
 
@@ -75,7 +85,7 @@ public class DataWord implements Comparable<DataWord> {
   public static DataWord of(byte num) {
     byte[] bb = new byte[WORD_SIZE];
     bb[31] = num;
-    return new DataWord(bb);
+    return new DataWord(bb, true);
 
   }
 
@@ -91,8 +101,10 @@ public class DataWord implements Comparable<DataWord> {
   public DataWord(byte[] data) {
     if (data == null) {
       this.data = ByteUtil.EMPTY_BYTE_ARRAY;
+      this.owned = false;
     } else if (data.length == WORD_SIZE) {
       this.data = data;
+      this.owned = false;
     } else if (data.length < WORD_SIZE) {
       System.arraycopy(data, 0, this.data, WORD_SIZE - data.length, data.length);
     } else {
@@ -100,7 +112,13 @@ public class DataWord implements Comparable<DataWord> {
     }
   }
 
+  private DataWord(byte[] data, boolean owned) {
+    this.data = data;
+    this.owned = owned;
+  }
+
   public byte[] getData() {
+    owned = false;
     return data;
   }
 
@@ -119,6 +137,9 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public byte[] getNoLeadZeroesData() {
+    if (data.length > 0 && data[0] != 0) {
+      owned = false;
+    }
     return ByteUtil.stripLeadingZeroes(data);
   }
 
@@ -251,45 +272,50 @@ public class DataWord implements Comparable<DataWord> {
   public void negate() {
     if (this.isZero()) return;
 
-    bnot();
-    add(DataWord.ONE());
+    byte[] a = words(this);
+    long a0 = limb(a, 0), a1 = limb(a, 1), a2 = limb(a, 2), a3 = limb(a, 3);
+    long r0 = -a0;
+    long b = borrow(0, a0, r0);
+    long r1 = -a1 - b;
+    b = borrow(0, a1, r1);
+    long r2 = -a2 - b;
+    b = borrow(0, a2, r2);
+    long r3 = -a3 - b;
+    setLimbs(target(), r0, r1, r2, r3);
   }
 
   public void bnot() {
-    if (this.isZero()) {
-      this.data = ByteUtil.copyToArray(MAX_VALUE);
-      return;
-    }
-    this.data = ByteUtil.copyToArray(MAX_VALUE.subtract(this.value()));
+    byte[] a = words(this);
+    long a0 = limb(a, 0), a1 = limb(a, 1), a2 = limb(a, 2), a3 = limb(a, 3);
+    setLimbs(target(), ~a0, ~a1, ~a2, ~a3);
   }
 
-  // By   : Holger
-  // From : http://stackoverflow.com/a/24023466/459349
   public void add(DataWord word) {
-    byte[] result = new byte[32];
-    for (int i = 31, overflow = 0; i >= 0; i--) {
-      int v = (this.data[i] & 0xff) + (word.data[i] & 0xff) + overflow;
-      result[i] = (byte) v;
-      overflow = v >>> 8;
-    }
-    this.data = result;
+    byte[] a = words(this);
+    byte[] b = words(word);
+    long a0 = limb(a, 0), a1 = limb(a, 1), a2 = limb(a, 2), a3 = limb(a, 3);
+    long b0 = limb(b, 0), b1 = limb(b, 1), b2 = limb(b, 2), b3 = limb(b, 3);
+    long r0 = a0 + b0;
+    long c = carry(a0, b0, r0);
+    long r1 = a1 + b1 + c;
+    c = carry(a1, b1, r1);
+    long r2 = a2 + b2 + c;
+    c = carry(a2, b2, r2);
+    long r3 = a3 + b3 + c;
+    setLimbs(target(), r0, r1, r2, r3);
   }
 
   // old add-method with BigInteger quick hack
   public void add2(DataWord word) {
     BigInteger result = value().add(word.value());
     this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    this.owned = true;
   }
 
-  // TODO: mul can be done in more efficient way
-  // TODO:     with shift left shift right trick
-  // TODO      without BigInteger quick hack
   public void mul(DataWord word) {
-    BigInteger result = value().multiply(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    mul(words(this), words(word), target());
   }
 
-  // TODO: improve with no BigInteger
   public void div(DataWord word) {
 
     if (word.isZero()) {
@@ -297,11 +323,18 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().divide(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    byte[] a = words(this);
+    byte[] b = words(word);
+    if (fitsLong(a) && fitsLong(b)) {
+      setLimbs(target(), Long.divideUnsigned(limb(a, 0), limb(b, 0)), 0, 0, 0);
+      return;
+    }
+
+    int[] q = new int[8];
+    divRem(digits(a, 8), digits(b, 8), q, null);
+    storeDigits(q, target());
   }
 
-  // TODO: improve with no BigInteger
   public void sDiv(DataWord word) {
 
     if (word.isZero()) {
@@ -309,23 +342,94 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = sValue().divide(word.sValue());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    byte[] a = words(this);
+    byte[] b = words(word);
+    boolean negativeA = a[0] < 0;
+    boolean negativeB = b[0] < 0;
+    if (!negativeA && !negativeB && fitsLong(a) && fitsLong(b)) {
+      setLimbs(target(), Long.divideUnsigned(limb(a, 0), limb(b, 0)), 0, 0, 0);
+      return;
+    }
+
+    int[] x = digits(a, 8);
+    int[] y = digits(b, 8);
+    if (negativeA) {
+      negateDigits(x);
+    }
+    if (negativeB) {
+      negateDigits(y);
+    }
+    int[] q = new int[8];
+    divRem(x, y, q, null);
+    if (negativeA != negativeB) {
+      negateDigits(q);
+    }
+    storeDigits(q, target());
   }
 
-  // TODO: improve with no BigInteger
   public void sub(DataWord word) {
-    BigInteger result = value().subtract(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    byte[] a = words(this);
+    byte[] b = words(word);
+    long a0 = limb(a, 0), a1 = limb(a, 1), a2 = limb(a, 2), a3 = limb(a, 3);
+    long b0 = limb(b, 0), b1 = limb(b, 1), b2 = limb(b, 2), b3 = limb(b, 3);
+    long r0 = a0 - b0;
+    long c = borrow(a0, b0, r0);
+    long r1 = a1 - b1 - c;
+    c = borrow(a1, b1, r1);
+    long r2 = a2 - b2 - c;
+    c = borrow(a2, b2, r2);
+    long r3 = a3 - b3 - c;
+    setLimbs(target(), r0, r1, r2, r3);
   }
 
-  // TODO: improve with no BigInteger
   public void exp(DataWord word) {
-    BigInteger result = value().modPow(word.value(), _2_256);
-    this.data = ByteUtil.copyToArray(result);
+    byte[] a = words(this);
+    byte[] e = words(word);
+    long e0 = limb(e, 0), e1 = limb(e, 1), e2 = limb(e, 2), e3 = limb(e, 3);
+    long a0 = limb(a, 0);
+    boolean smallBase = fitsLong(a);
+
+    if ((e0 | e1 | e2 | e3) == 0 || (smallBase && a0 == 1)) {
+      setLimbs(target(), 1, 0, 0, 0);
+      return;
+    }
+    if (smallBase && a0 == 0) {
+      setLimbs(target(), 0, 0, 0, 0);
+      return;
+    }
+    if (smallBase && a0 == 2) {
+      byte[] result = target();
+      java.util.Arrays.fill(result, (byte) 0);
+      if ((e1 | e2 | e3) == 0 && e0 >= 0 && e0 < MAX_POW) {
+        result[31 - (int) (e0 >>> 3)] = (byte) (1 << (e0 & 7));
+      }
+      return;
+    }
+
+    // square and multiply on limbs, the exponent bits are taken from the least significant end
+    long[] base = {a0, limb(a, 1), limb(a, 2), limb(a, 3)};
+    long[] result = {1, 0, 0, 0};
+    int bits = e3 != 0 ? 256 - Long.numberOfLeadingZeros(e3)
+        : e2 != 0 ? 192 - Long.numberOfLeadingZeros(e2)
+        : e1 != 0 ? 128 - Long.numberOfLeadingZeros(e1)
+        : 64 - Long.numberOfLeadingZeros(e0);
+    for (int i = 0; i < bits; i++) {
+      long limb = i < 64 ? e0 : i < 128 ? e1 : i < 192 ? e2 : e3;
+      if (((limb >>> (i & 63)) & 1) != 0) {
+        mul(result[0], result[1], result[2], result[3], base[0], base[1], base[2], base[3], result, null);
+      }
+      if (i < bits - 1) {
+        mul(base[0], base[1], base[2], base[3], base[0], base[1], base[2], base[3], base, null);
+        if ((base[0] | base[1] | base[2] | base[3]) == 0) {
+          // an even base vanishes after a few squarings, and the top exponent bit is still ahead
+          result[0] = result[1] = result[2] = result[3] = 0;
+          break;
+        }
+      }
+    }
+    setLimbs(target(), result[0], result[1], result[2], result[3]);
   }
 
-  // TODO: improve with no BigInteger
   public void mod(DataWord word) {
 
     if (word.isZero()) {
@@ -333,8 +437,16 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().mod(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    byte[] a = words(this);
+    byte[] b = words(word);
+    if (fitsLong(a) && fitsLong(b)) {
+      setLimbs(target(), Long.remainderUnsigned(limb(a, 0), limb(b, 0)), 0, 0, 0);
+      return;
+    }
+
+    int[] r = new int[8];
+    divRem(digits(a, 8), digits(b, 8), null, r);
+    storeDigits(r, target());
   }
 
   public void sMod(DataWord word) {
@@ -344,31 +456,384 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = sValue().abs().mod(word.sValue().abs());
-    result = (sValue().signum() == -1) ? result.negate() : result;
+    byte[] a = words(this);
+    byte[] b = words(word);
+    boolean negativeA = a[0] < 0;
+    boolean negativeB = b[0] < 0;
+    if (!negativeA && !negativeB && fitsLong(a) && fitsLong(b)) {
+      setLimbs(target(), Long.remainderUnsigned(limb(a, 0), limb(b, 0)), 0, 0, 0);
+      return;
+    }
 
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    int[] x = digits(a, 8);
+    int[] y = digits(b, 8);
+    if (negativeA) {
+      negateDigits(x);
+    }
+    if (negativeB) {
+      negateDigits(y);
+    }
+    int[] r = new int[8];
+    divRem(x, y, null, r);
+    if (negativeA) {
+      negateDigits(r);
+    }
+    storeDigits(r, target());
   }
 
   public void addmod(DataWord word1, DataWord word2) {
     if (word2.isZero()) {
       this.data = new byte[32];
+      this.owned = true;
       return;
     }
 
-    BigInteger result = value().add(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    byte[] a = words(this);
+    byte[] b = words(word1);
+    byte[] m = words(word2);
+    if (fitsLong(a) && fitsLong(b) && fitsLong(m) && limb(a, 0) >= 0 && limb(b, 0) >= 0) {
+      setLimbs(target(), Long.remainderUnsigned(limb(a, 0) + limb(b, 0), limb(m, 0)), 0, 0, 0);
+      return;
+    }
+
+    int[] x = digits(a, 8);
+    int[] y = digits(b, 8);
+    int[] sum = new int[9];
+    long c = 0;
+    for (int i = 0; i < 8; i++) {
+      long t = (x[i] & INT_MASK) + (y[i] & INT_MASK) + c;
+      sum[i] = (int) t;
+      c = t >>> 32;
+    }
+    sum[8] = (int) c;
+    int[] r = new int[8];
+    divRem(sum, digits(m, 8), null, r);
+    storeDigits(r, target());
   }
 
   public void mulmod(DataWord word1, DataWord word2) {
 
     if (this.isZero() || word1.isZero() || word2.isZero()) {
       this.data = new byte[32];
+      this.owned = true;
       return;
     }
 
-    BigInteger result = value().multiply(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    byte[] a = words(this);
+    byte[] b = words(word1);
+    byte[] m = words(word2);
+    if (fitsLong(a) && fitsLong(b) && fitsLong(m) && (limb(a, 0) >>> 32) == 0 && (limb(b, 0) >>> 32) == 0) {
+      setLimbs(target(), Long.remainderUnsigned(limb(a, 0) * limb(b, 0), limb(m, 0)), 0, 0, 0);
+      return;
+    }
+
+    int[] x = digits(a, 8);
+    int[] y = digits(b, 8);
+    int[] product = new int[16];
+    for (int i = 0; i < 8; i++) {
+      long xi = x[i] & INT_MASK;
+      if (xi == 0) {
+        continue;
+      }
+      long c = 0;
+      for (int j = 0; j < 8; j++) {
+        long t = xi * (y[j] & INT_MASK) + (product[i + j] & INT_MASK) + c;
+        product[i + j] = (int) t;
+        c = t >>> 32;
+      }
+      product[i + 8] = (int) c;
+    }
+    int[] r = new int[8];
+    divRem(product, digits(m, 8), null, r);
+    storeDigits(r, target());
+  }
+
+  /*
+   * 256-bit arithmetic works on four 64-bit limbs loaded from and stored back to the big-endian
+   * data array, limb 0 being the least significant. Division and the modular operations fall back
+   * to 32-bit digits (Knuth, TAOCP vol. 2, 4.3.1, algorithm D) unless both sides fit in a long.
+   */
+
+  /**
+   * Bytes of a word for reading, a DataWord built from null reads as zero.
+   */
+  private static byte[] words(DataWord word) {
+    return word.data.length == WORD_SIZE ? word.data : ZERO_WORD;
+  }
+
+  /**
+   * Array to store this word's result in, only call it once all operands have been read.
+   */
+  private byte[] target() {
+    if (!owned || data.length != WORD_SIZE) {
+      data = new byte[WORD_SIZE];
+      owned = true;
+    }
+    return data;
+  }
+
+  private static long limb(byte[] d, int i) {
+    int off = 24 - (i << 3);
+    return ((long) d[off] << 56)
+        | ((d[off + 1] & 0xffL) << 48)
+        | ((d[off + 2] & 0xffL) << 40)
+        | ((d[off + 3] & 0xffL) << 32)
+        | ((d[off + 4] & 0xffL) << 24)
+        | ((d[off + 5] & 0xffL) << 16)
+        | ((d[off + 6] & 0xffL) << 8)
+        | (d[off + 7] & 0xffL);
+  }
+
+  private static void setLimb(byte[] d, int i, long v) {
+    int off = 24 - (i << 3);
+    d[off] = (byte) (v >>> 56);
+    d[off + 1] = (byte) (v >>> 48);
+    d[off + 2] = (byte) (v >>> 40);
+    d[off + 3] = (byte) (v >>> 32);
+    d[off + 4] = (byte) (v >>> 24);
+    d[off + 5] = (byte) (v >>> 16);
+    d[off + 6] = (byte) (v >>> 8);
+    d[off + 7] = (byte) v;
+  }
+
+  private static void setLimbs(byte[] d, long l0, long l1, long l2, long l3) {
+    setLimb(d, 0, l0);
+    setLimb(d, 1, l1);
+    setLimb(d, 2, l2);
+    setLimb(d, 3, l3);
+  }
+
+  private static boolean fitsLong(byte[] d) {
+    return (limb(d, 1) | limb(d, 2) | limb(d, 3)) == 0;
+  }
+
+  private static long carry(long a, long b, long sum) {
+    return ((a & b) | ((a | b) & ~sum)) >>> 63;
+  }
+
+  private static long borrow(long a, long b, long difference) {
+    return ((~a & b) | (~(a ^ b) & difference)) >>> 63;
+  }
+
+  private static long unsignedMultiplyHigh(long x, long y) {
+    long x0 = x & INT_MASK, x1 = x >>> 32;
+    long y0 = y & INT_MASK, y1 = y >>> 32;
+    long p01 = x0 * y1, p10 = x1 * y0;
+    long middle = ((x0 * y0) >>> 32) + (p01 & INT_MASK) + (p10 & INT_MASK);
+    return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (middle >>> 32);
+  }
+
+  /**
+   * out = a * b mod 2^256, out may be the same array as a or b.
+   */
+  private static void mul(byte[] a, byte[] b, byte[] out) {
+    mul(limb(a, 0), limb(a, 1), limb(a, 2), limb(a, 3), limb(b, 0), limb(b, 1), limb(b, 2), limb(b, 3),
+        null, out);
+  }
+
+  /**
+   * a * b mod 2^256 into either the limbs or the bytes of the result, which may alias an operand.
+   */
+  private static void mul(long a0, long a1, long a2, long a3, long b0, long b1, long b2, long b3,
+      long[] limbs, byte[] bytes) {
+    long r0 = a0 * b0;
+    long r1;
+    long r2;
+    long r3;
+    if ((a1 | a2 | a3 | b1 | b2 | b3) == 0) {
+      r1 = unsignedMultiplyHigh(a0, b0);
+      r2 = 0;
+      r3 = 0;
+    } else {
+      // column by column into the accumulator (c0, c1, c2), only the low word of column 3 is kept
+      long lo;
+      long hi;
+      long c0 = unsignedMultiplyHigh(a0, b0);
+      long c1 = 0;
+      long c2 = 0;
+
+      lo = a0 * b1;
+      hi = unsignedMultiplyHigh(a0, b1);
+      c0 += lo;
+      hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+      c1 += hi;
+      c2 += Long.compareUnsigned(c1, hi) < 0 ? 1 : 0;
+      lo = a1 * b0;
+      hi = unsignedMultiplyHigh(a1, b0);
+      c0 += lo;
+      hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+      c1 += hi;
+      c2 += Long.compareUnsigned(c1, hi) < 0 ? 1 : 0;
+      r1 = c0;
+      c0 = c1;
+      c1 = c2;
+
+      lo = a0 * b2;
+      hi = unsignedMultiplyHigh(a0, b2);
+      c0 += lo;
+      hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+      c1 += hi;
+      lo = a1 * b1;
+      hi = unsignedMultiplyHigh(a1, b1);
+      c0 += lo;
+      hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+      c1 += hi;
+      lo = a2 * b0;
+      hi = unsignedMultiplyHigh(a2, b0);
+      c0 += lo;
+      hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+      c1 += hi;
+      r2 = c0;
+
+      r3 = c1 + a0 * b3 + a1 * b2 + a2 * b1 + a3 * b0;
+    }
+
+    if (limbs != null) {
+      limbs[0] = r0;
+      limbs[1] = r1;
+      limbs[2] = r2;
+      limbs[3] = r3;
+    } else {
+      setLimbs(bytes, r0, r1, r2, r3);
+    }
+  }
+
+  /**
+   * Little-endian 32-bit digits of a word, zero padded to size digits.
+   */
+  private static int[] digits(byte[] d, int size) {
+    int[] x = new int[size];
+    for (int i = 0; i < 8; i++) {
+      int off = 28 - (i << 2);
+      x[i] = ((d[off] & 0xff) << 24) | ((d[off + 1] & 0xff) << 16) | ((d[off + 2] & 0xff) << 8) | (d[off + 3] & 0xff);
+    }
+    return x;
+  }
+
+  private static void storeDigits(int[] x, byte[] d) {
+    for (int i = 0; i < 8; i++) {
+      int off = 28 - (i << 2);
+      d[off] = (byte) (x[i] >>> 24);
+      d[off + 1] = (byte) (x[i] >>> 16);
+      d[off + 2] = (byte) (x[i] >>> 8);
+      d[off + 3] = (byte) x[i];
+    }
+  }
+
+  private static int digitLength(int[] x) {
+    int n = x.length;
+    while (n > 0 && x[n - 1] == 0) {
+      n--;
+    }
+    return n;
+  }
+
+  /**
+   * Two's complement of the low 8 digits.
+   */
+  private static void negateDigits(int[] x) {
+    long c = 1;
+    for (int i = 0; i < 8; i++) {
+      long t = (~x[i] & INT_MASK) + c;
+      x[i] = (int) t;
+      c = t >>> 32;
+    }
+  }
+
+  /**
+   * Unsigned u / v into q and u % v into r, both zero-filled and either may be null. v has 8
+   * digits and is not zero, u has any number of digits and is left untouched.
+   */
+  private static void divRem(int[] u, int[] v, int[] q, int[] r) {
+    int m = digitLength(u);
+    int n = digitLength(v);
+    if (m < n) {
+      if (r != null) {
+        System.arraycopy(u, 0, r, 0, m);
+      }
+      return;
+    }
+
+    if (n == 1) {
+      long divisor = v[0] & INT_MASK;
+      long k = 0;
+      for (int j = m - 1; j >= 0; j--) {
+        long t = (k << 32) | (u[j] & INT_MASK);
+        long digit = Long.divideUnsigned(t, divisor);
+        k = t - digit * divisor;
+        if (q != null) {
+          q[j] = (int) digit;
+        }
+      }
+      if (r != null) {
+        r[0] = (int) k;
+      }
+      return;
+    }
+
+    // normalize so that the top digit of the divisor has its high bit set
+    int s = Integer.numberOfLeadingZeros(v[n - 1]);
+    int[] vn = new int[n];
+    int[] un = new int[m + 1];
+    for (int i = n - 1; i > 0; i--) {
+      vn[i] = s == 0 ? v[i] : (v[i] << s) | (v[i - 1] >>> (32 - s));
+    }
+    vn[0] = v[0] << s;
+    un[m] = s == 0 ? 0 : u[m - 1] >>> (32 - s);
+    for (int i = m - 1; i > 0; i--) {
+      un[i] = s == 0 ? u[i] : (u[i] << s) | (u[i - 1] >>> (32 - s));
+    }
+    un[0] = u[0] << s;
+
+    long base = 1L << 32;
+    long top = vn[n - 1] & INT_MASK;
+    long next = vn[n - 2] & INT_MASK;
+    for (int j = m - n; j >= 0; j--) {
+      long numerator = ((un[j + n] & INT_MASK) << 32) | (un[j + n - 1] & INT_MASK);
+      long qhat = Long.divideUnsigned(numerator, top);
+      long rhat = numerator - qhat * top;
+      while (qhat >= base
+          || Long.compareUnsigned(qhat * next, (rhat << 32) | (un[j + n - 2] & INT_MASK)) > 0) {
+        qhat--;
+        rhat += top;
+        if (rhat >= base) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long k = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * (vn[i] & INT_MASK);
+        t = (un[i + j] & INT_MASK) - k - (p & INT_MASK);
+        un[i + j] = (int) t;
+        k = (p >>> 32) - (t >> 32);
+      }
+      t = (un[j + n] & INT_MASK) - k;
+      un[j + n] = (int) t;
+
+      if (t < 0) {
+        // qhat was one too large, add the divisor back
+        qhat--;
+        k = 0;
+        for (int i = 0; i < n; i++) {
+          t = (un[i + j] & INT_MASK) + (vn[i] & INT_MASK) + k;
+          un[i + j] = (int) t;
+          k = t >>> 32;
+        }
+        un[j + n] += (int) k;
+      }
+      if (q != null) {
+        q[j] = (int) qhat;
+      }
+    }
+
+    if (r != null) {
+      for (int i = 0; i < n; i++) {
+        r[i] = s == 0 ? un[i] : (un[i] >>> s) | (un[i + 1] << (32 - s));
+      }
+    }
   }
 
   @JsonValue
@@ -400,7 +865,7 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public DataWord clone() {
-    return new DataWord(Arrays.clone(data));
+    return new DataWord(Arrays.clone(data), data.length == WORD_SIZE);
   }
 
 
@@ -434,7 +899,7 @@ public class DataWord implements Comparable<DataWord> {
   public void signExtend(byte k) {
     if (0 > k || k > 31)
       throw new IndexOutOfBoundsException();
-    byte mask = this.sValue().testBit((k * 8) + 7) ? (byte) 0xff : 0;
+    byte mask = this.data[31 - k] < 0 ? (byte) 0xff : 0;
     for (int i = 31; i > k; i--) {
       this.data[31 - i] = mask;
     }
@@ -464,12 +929,22 @@ public class DataWord implements Comparable<DataWord> {
    * @return this << arg
    */
   public DataWord shiftLeft(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    int shift = shiftAmount(arg);
+    if (shift < 0) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftLeft(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    byte[] a = words(this);
+    long a0 = limb(a, 0), a1 = limb(a, 1), a2 = limb(a, 2), a3 = limb(a, 3);
+    int q = shift >>> 6;
+    int r = shift & 63;
+    byte[] result = new byte[WORD_SIZE];
+    for (int i = 0; i < 4; i++) {
+      long hi = select(i - q, a0, a1, a2, a3, 0);
+      long lo = r == 0 ? 0 : select(i - q - 1, a0, a1, a2, a3, 0) >>> (64 - r);
+      setLimb(result, i, (hi << r) | lo);
+    }
+    return new DataWord(result, true);
   }
 
   /**
@@ -478,12 +953,12 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRight(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    int shift = shiftAmount(arg);
+    if (shift < 0) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    return shiftRight(shift, 0);
   }
 
   /**
@@ -492,7 +967,8 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRightSigned(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    int shift = shiftAmount(arg);
+    if (shift < 0) {
       if (this.isNegative()) {
         DataWord result = ONE();
         result.negate();
@@ -502,8 +978,52 @@ public class DataWord implements Comparable<DataWord> {
       }
     }
 
-    BigInteger result = sValue().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    return shiftRight(shift, this.isNegative() ? -1 : 0);
+  }
+
+  private DataWord shiftRight(int shift, long fill) {
+    byte[] a = words(this);
+    long a0 = limb(a, 0), a1 = limb(a, 1), a2 = limb(a, 2), a3 = limb(a, 3);
+    int q = shift >>> 6;
+    int r = shift & 63;
+    byte[] result = new byte[WORD_SIZE];
+    for (int i = 0; i < 4; i++) {
+      long lo = select(i + q, a0, a1, a2, a3, fill);
+      long hi = r == 0 ? 0 : select(i + q + 1, a0, a1, a2, a3, fill) << (64 - r);
+      setLimb(result, i, (lo >>> r) | hi);
+    }
+    return new DataWord(result, true);
+  }
+
+  /**
+   * Shift distance in [0, 256), or -1 when arg is 256 or more.
+   */
+  private static int shiftAmount(DataWord arg) {
+    byte[] d = words(arg);
+    for (int i = 0; i < WORD_SIZE - 1; i++) {
+      if (d[i] != 0) {
+        return -1;
+      }
+    }
+    return d[WORD_SIZE - 1] & 0xff;
+  }
+
+  /**
+   * Limb i of (l0, l1, l2, l3), zero below limb 0 and fill above limb 3.
+   */
+  private static long select(int i, long l0, long l1, long l2, long l3, long fill) {
+    switch (i) {
+      case 0:
+        return l0;
+      case 1:
+        return l1;
+      case 2:
+        return l2;
+      case 3:
+        return l3;
+      default:
+        return i < 0 ? 0 : fill;
+    }
   }
 
   public static long sizeInWords(long bytesSize) {
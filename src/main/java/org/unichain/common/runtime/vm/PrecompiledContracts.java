@@ -38,6 +38,7 @@ import org.unichain.common.utils.Sha256Hash;
 import org.unichain.core.Constant;
 import org.unichain.core.capsule.AccountCapsule;
 import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.capsule.utils.SignatureCache;
 import org.unichain.protos.Protocol.Permission;
 
 import java.math.BigInteger;
@@ -817,7 +818,7 @@ public class PrecompiledContracts {
       }
       ECKey.ECDSASignature signature = ECKey.ECDSASignature.fromComponents(r, s, v);
       if (signature.validateComponents()) {
-        out = ECKey.signatureToAddress(hash, signature);
+        out = SignatureCache.recoverAddress(hash, sign, () -> ECKey.recoverAddress(hash, sign));
       }
     } catch (Throwable any) {
       logger.info("ECRecover error", any.getMessage());
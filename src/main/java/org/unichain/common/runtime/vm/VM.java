@@ -15,7 +15,6 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.unichain.common.crypto.Hash.sha3;
 import static org.unichain.common.runtime.utils.MUtil.convertToUnichainAddress;
 import static org.unichain.common.runtime.vm.OpCode.*;
 import static org.unichain.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
@@ -69,35 +68,96 @@ public class VM {
     return energyCost;
   }
 
-  public void step(Program program) {
-    if (config.vmTrace()) {
-      program.saveOpTrace();
+  /**
+   * Energy of op when it depends on nothing but the op, as charged by {@link #step(Program)}, or -1
+   * when it is computed from the stack, memory or state, when the op reads the energy left (GAS)
+   * or when it may fail without spending all energy (TOKENBALANCE).
+   */
+  public static long staticEnergy(OpCode op) {
+    EnergyCost energyCosts = EnergyCost.getInstance();
+    switch (op) {
+      case STOP:
+        return energyCosts.getSTOP();
+      case SLOAD:
+        return energyCosts.getSLOAD();
+      case BALANCE:
+      case ISCONTRACT:
+        return energyCosts.getBALANCE();
+      case EXTCODESIZE:
+        return energyCosts.getEXT_CODE_SIZE();
+      case EXTCODEHASH:
+        return energyCosts.getEXT_CODE_HASH();
+      case SUICIDE:
+      case SSTORE:
+      case TOKENBALANCE:
+      case MSTORE:
+      case MSTORE8:
+      case MLOAD:
+      case RETURN:
+      case REVERT:
+      case SHA3:
+      case CALLDATACOPY:
+      case RETURNDATACOPY:
+      case CODECOPY:
+      case EXTCODECOPY:
+      case CALL:
+      case CALLCODE:
+      case DELEGATECALL:
+      case STATICCALL:
+      case CALLTOKEN:
+      case CREATE:
+      case CREATE2:
+      case LOG0:
+      case LOG1:
+      case LOG2:
+      case LOG3:
+      case LOG4:
+      case EXP:
+      case GAS:
+        return -1;
+      default:
+        return op.getTier().asInt();
     }
-    try {
-      OpCode op = OpCode.code(program.getCurrentOp());
-      if (op == null) {
+  }
+
+  private static void verifyOp(Program program, OpCode op) {
+    if (op == null) {
+      throw Program.Exception.invalidOpCode(program.getCurrentOp());
+    }
+
+    if (!VMConfig.allowTvmTransferUnc()) {
+      if (op == CALLTOKEN || op == TOKENBALANCE || op == CALLTOKENVALUE || op == CALLTOKENID) {
         throw Program.Exception.invalidOpCode(program.getCurrentOp());
       }
+    }
 
-      
-      if (!VMConfig.allowTvmTransferUnc()) {
-        if (op == CALLTOKEN || op == TOKENBALANCE || op == CALLTOKENVALUE || op == CALLTOKENID) {
-          throw Program.Exception.invalidOpCode(program.getCurrentOp());
-        }
+    if (!VMConfig.allowTvmConstantinople()) {
+      if (op == SHL || op == SHR || op == SAR || op == CREATE2 || op == EXTCODEHASH) {
+        throw Program.Exception.invalidOpCode(program.getCurrentOp());
       }
+    }
 
-      if (!VMConfig.allowTvmConstantinople()) {
-        if (op == SHL || op == SHR || op == SAR || op == CREATE2 || op == EXTCODEHASH) {
-          throw Program.Exception.invalidOpCode(program.getCurrentOp());
-        }
-      }
+    if (!VMConfig.allowTvmSolidity059() && op == ISCONTRACT) {
+      throw Program.Exception.invalidOpCode(program.getCurrentOp());
+    }
+  }
 
-      if (!VMConfig.allowTvmSolidity059() && op == ISCONTRACT) {
-        throw Program.Exception.invalidOpCode(program.getCurrentOp());
+  public void step(Program program) {
+    if (config.vmTrace()) {
+      program.saveOpTrace();
+    }
+    try {
+      // ops inside an already charged basic block passed the checks below for the whole block
+      boolean charged = config.blockEnergyCharging() && program.chargeBlock();
+      OpCode op = OpCode.code(program.getCurrentOp());
+      if (!charged) {
+        verifyOp(program, op);
       }
       program.setLastOp(op.val());
-      program.verifyStackSize(op.require());
-      program.verifyStackOverflow(op.require(), op.ret()); //Check not exceeding stack limits
+      if (!charged) {
+        program.verifyStackSize(op.require());
+        program.verifyStackOverflow(op.require(), op.ret()); //Check not exceeding stack limits
+      }
 
       long oldMemSize = program.getMemSize();
       Stack stack = program.getStack();
@@ -107,187 +167,190 @@ public class VM {
       EnergyCost energyCosts = EnergyCost.getInstance();
       DataWord adjustedCallEnergy = null;
 
-      // Calculate fees and spend energy
-      switch (op) {
-        case STOP:
-          energyCost = energyCosts.getSTOP();
-          break;
-        case SUICIDE:
-          energyCost = energyCosts.getSUICIDE();
-          DataWord suicideAddressWord = stack.get(stack.size() - 1);
-          if (isDeadAccount(program, suicideAddressWord)
-              && !program.getBalance(program.getContractAddress()).isZero()) {
-            energyCost += energyCosts.getNEW_ACCT_SUICIDE();
-          }
-          break;
-        case SSTORE:
-          // todo: check the reset to 0, refund or not
-          DataWord newValue = stack.get(stack.size() - 2);
-          DataWord oldValue = program.storageLoad(stack.peek());
-          if (oldValue == null && !newValue.isZero()) {
-            // set a new not-zero value
-            energyCost = energyCosts.getSET_SSTORE();
-          } else if (oldValue != null && newValue.isZero()) {
-            // set zero to an old value
-            program.futureRefundEnergy(energyCosts.getREFUND_SSTORE());
-            energyCost = energyCosts.getCLEAR_SSTORE();
-          } else {
-            // include:
-            // [1] oldValue == null && newValue == 0
-            // [2] oldValue != null && newValue != 0
-            energyCost = energyCosts.getRESET_SSTORE();
-          }
-          break;
-        case SLOAD:
-          energyCost = energyCosts.getSLOAD();
-          break;
-        case TOKENBALANCE:
-        case BALANCE:
-        case ISCONTRACT:
-          energyCost = energyCosts.getBALANCE();
-          break;
+      if (!charged) {
+        // Calculate fees and spend energy
+        switch (op) {
+          case STOP:
+            energyCost = energyCosts.getSTOP();
+            break;
+          case SUICIDE:
+            energyCost = energyCosts.getSUICIDE();
+            DataWord suicideAddressWord = stack.get(stack.size() - 1);
+            if (isDeadAccount(program, suicideAddressWord)
+                && !program.getBalance(program.getContractAddress()).isZero()) {
+              energyCost += energyCosts.getNEW_ACCT_SUICIDE();
+            }
+            break;
+          case SSTORE:
+            // todo: check the reset to 0, refund or not
+            DataWord newValue = stack.get(stack.size() - 2);
+            DataWord oldValue = program.storageLoad(stack.peek());
+            if (oldValue == null && !newValue.isZero()) {
+              // set a new not-zero value
+              energyCost = energyCosts.getSET_SSTORE();
+            } else if (oldValue != null && newValue.isZero()) {
+              // set zero to an old value
+              program.futureRefundEnergy(energyCosts.getREFUND_SSTORE());
+              energyCost = energyCosts.getCLEAR_SSTORE();
+            } else {
+              // include:
+              // [1] oldValue == null && newValue == 0
+              // [2] oldValue != null && newValue != 0
+              energyCost = energyCosts.getRESET_SSTORE();
+            }
+            break;
+          case SLOAD:
+            energyCost = energyCosts.getSLOAD();
+            break;
+          case TOKENBALANCE:
+          case BALANCE:
+          case ISCONTRACT:
+            energyCost = energyCosts.getBALANCE();
+            break;
+
+          // These all operate on memory and therefore potentially expand it:
+          case MSTORE:
+            energyCost = calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), new DataWord(32)),
+                0, op);
+            break;
+          case MSTORE8:
+            energyCost = calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), new DataWord(1)),
+                0, op);
+            break;
+          case MLOAD:
+            energyCost = calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), new DataWord(32)),
+                0, op);
+            break;
+          case RETURN:
+          case REVERT:
+            energyCost = energyCosts.getSTOP() + calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), stack.get(stack.size() - 2)), 0, op);
+            break;
+          case SHA3:
+            energyCost = energyCosts.getSHA3() + calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), stack.get(stack.size() - 2)), 0, op);
+            DataWord size = stack.get(stack.size() - 2);
+            long chunkUsed = (size.longValueSafe() + 31) / 32;
+            energyCost += chunkUsed * energyCosts.getSHA3_WORD();
+            break;
+          case CALLDATACOPY:
+          case RETURNDATACOPY:
+            energyCost = calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), stack.get(stack.size() - 3)),
+                stack.get(stack.size() - 3).longValueSafe(), op);
+            break;
+          case CODECOPY:
+            energyCost = calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), stack.get(stack.size() - 3)),
+                stack.get(stack.size() - 3).longValueSafe(), op);
+            break;
+          case EXTCODESIZE:
+            energyCost = energyCosts.getEXT_CODE_SIZE();
+            break;
+          case EXTCODECOPY:
+            energyCost = energyCosts.getEXT_CODE_COPY() + calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.get(stack.size() - 2), stack.get(stack.size() - 4)),
+                stack.get(stack.size() - 4).longValueSafe(), op);
+            break;
+          case EXTCODEHASH:
+            energyCost = energyCosts.getEXT_CODE_HASH();
+            break;
+          case CALL:
+          case CALLCODE:
+          case DELEGATECALL:
+          case STATICCALL:
+          case CALLTOKEN:
+            // here, contract call an other contract, or a library, and so on
+            energyCost = energyCosts.getCALL();
+            DataWord callEnergyWord = stack.get(stack.size() - 1);
+            DataWord callAddressWord = stack.get(stack.size() - 2);
+            DataWord value = op.callHasValue() ? stack.get(stack.size() - 3) : DataWord.ZERO;
+
+            //check to see if account does not exist and is not a precompiled contract
+            if (op == CALL || op == CALLTOKEN) {
+              if (isDeadAccount(program, callAddressWord) && !value.isZero()) {
+                energyCost += energyCosts.getNEW_ACCT_CALL();
+              }
+            }
 
-        // These all operate on memory and therefore potentially expand it:
-        case MSTORE:
-          energyCost = calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), new DataWord(32)),
-              0, op);
-          break;
-        case MSTORE8:
-          energyCost = calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), new DataWord(1)),
-              0, op);
-          break;
-        case MLOAD:
-          energyCost = calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), new DataWord(32)),
-              0, op);
-          break;
-        case RETURN:
-        case REVERT:
-          energyCost = energyCosts.getSTOP() + calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), stack.get(stack.size() - 2)), 0, op);
-          break;
-        case SHA3:
-          energyCost = energyCosts.getSHA3() + calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), stack.get(stack.size() - 2)), 0, op);
-          DataWord size = stack.get(stack.size() - 2);
-          long chunkUsed = (size.longValueSafe() + 31) / 32;
-          energyCost += chunkUsed * energyCosts.getSHA3_WORD();
-          break;
-        case CALLDATACOPY:
-        case RETURNDATACOPY:
-          energyCost = calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), stack.get(stack.size() - 3)),
-              stack.get(stack.size() - 3).longValueSafe(), op);
-          break;
-        case CODECOPY:
-          energyCost = calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), stack.get(stack.size() - 3)),
-              stack.get(stack.size() - 3).longValueSafe(), op);
-          break;
-        case EXTCODESIZE:
-          energyCost = energyCosts.getEXT_CODE_SIZE();
-          break;
-        case EXTCODECOPY:
-          energyCost = energyCosts.getEXT_CODE_COPY() + calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.get(stack.size() - 2), stack.get(stack.size() - 4)),
-              stack.get(stack.size() - 4).longValueSafe(), op);
-          break;
-        case EXTCODEHASH:
-          energyCost = energyCosts.getEXT_CODE_HASH();
-          break;
-        case CALL:
-        case CALLCODE:
-        case DELEGATECALL:
-        case STATICCALL:
-        case CALLTOKEN:
-          // here, contract call an other contract, or a library, and so on
-          energyCost = energyCosts.getCALL();
-          DataWord callEnergyWord = stack.get(stack.size() - 1);
-          DataWord callAddressWord = stack.get(stack.size() - 2);
-          DataWord value = op.callHasValue() ? stack.get(stack.size() - 3) : DataWord.ZERO;
-
-          //check to see if account does not exist and is not a precompiled contract
-          if (op == CALL || op == CALLTOKEN) {
-            if (isDeadAccount(program, callAddressWord) && !value.isZero()) {
-              energyCost += energyCosts.getNEW_ACCT_CALL();
+            // TODO #POC9 Make sure this is converted to BigInteger (256num support)
+            if (!value.isZero()) {
+              energyCost += energyCosts.getVT_CALL();
             }
-          }
 
-          // TODO #POC9 Make sure this is converted to BigInteger (256num support)
-          if (!value.isZero()) {
-            energyCost += energyCosts.getVT_CALL();
-          }
+            int opOff = op.callHasValue() ? 4 : 3;
+            if (op == CALLTOKEN) {
+              opOff++;
+            }
+            BigInteger in = memNeeded(stack.get(stack.size() - opOff),
+                stack.get(stack.size() - opOff - 1)); // in offset+size
+            BigInteger out = memNeeded(stack.get(stack.size() - opOff - 2),
+                stack.get(stack.size() - opOff - 3)); // out offset+size
+            energyCost += calcMemEnergy(energyCosts, oldMemSize, in.max(out), 0, op);
+            checkMemorySize(op, in.max(out));
+
+            if (energyCost > program.getEnergyLimitLeft().longValueSafe()) {
+              throw new OutOfEnergyException(
+                  "Not enough energy for '%s' operation executing: opEnergy[%d], programEnergy[%d]",
+                  op.name(),
+                  energyCost, program.getEnergyLimitLeft().longValueSafe());
+            }
+            DataWord getEnergyLimitLeft = program.getEnergyLimitLeft().clone();
+            getEnergyLimitLeft.sub(new DataWord(energyCost));
+
+            adjustedCallEnergy = program.getCallEnergy(op, callEnergyWord, getEnergyLimitLeft);
+            energyCost += adjustedCallEnergy.longValueSafe();
+            break;
+          case CREATE:
+            energyCost = energyCosts.getCREATE() + calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.get(stack.size() - 2), stack.get(stack.size() - 3)), 0, op);
+            break;
+          case CREATE2:
+            DataWord codeSize = stack.get(stack.size() - 3);
+            energyCost = energyCosts.getCREATE();
+            energyCost += calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.get(stack.size() - 2), stack.get(stack.size() - 3)), 0, op);
+            energyCost += DataWord.sizeInWords(codeSize.intValueSafe()) * energyCosts.getSHA3_WORD();
+
+            break;
+          case LOG0:
+          case LOG1:
+          case LOG2:
+          case LOG3:
+          case LOG4:
+            int nTopics = op.val() - OpCode.LOG0.val();
+            BigInteger dataSize = stack.get(stack.size() - 2).value();
+            BigInteger dataCost = dataSize.multiply(BigInteger.valueOf(energyCosts.getLOG_DATA_ENERGY()));
+            if (program.getEnergyLimitLeft().value().compareTo(dataCost) < 0) {
+              throw new OutOfEnergyException(
+                  "Not enough energy for '%s' operation executing: opEnergy[%d], programEnergy[%d]",
+                  op.name(),
+                  dataCost.longValueExact(), program.getEnergyLimitLeft().longValueSafe());
+            }
+            energyCost = energyCosts.getLOG_ENERGY()
+                + energyCosts.getLOG_TOPIC_ENERGY() * nTopics
+                + energyCosts.getLOG_DATA_ENERGY() * stack.get(stack.size() - 2).longValue()
+                + calcMemEnergy(energyCosts, oldMemSize,
+                memNeeded(stack.peek(), stack.get(stack.size() - 2)), 0, op);
 
-          int opOff = op.callHasValue() ? 4 : 3;
-          if (op == CALLTOKEN) {
-            opOff++;
-          }
-          BigInteger in = memNeeded(stack.get(stack.size() - opOff),
-              stack.get(stack.size() - opOff - 1)); // in offset+size
-          BigInteger out = memNeeded(stack.get(stack.size() - opOff - 2),
-              stack.get(stack.size() - opOff - 3)); // out offset+size
-          energyCost += calcMemEnergy(energyCosts, oldMemSize, in.max(out), 0, op);
-          checkMemorySize(op, in.max(out));
-
-          if (energyCost > program.getEnergyLimitLeft().longValueSafe()) {
-            throw new OutOfEnergyException(
-                "Not enough energy for '%s' operation executing: opEnergy[%d], programEnergy[%d]",
-                op.name(),
-                energyCost, program.getEnergyLimitLeft().longValueSafe());
-          }
-          DataWord getEnergyLimitLeft = program.getEnergyLimitLeft().clone();
-          getEnergyLimitLeft.sub(new DataWord(energyCost));
-
-          adjustedCallEnergy = program.getCallEnergy(op, callEnergyWord, getEnergyLimitLeft);
-          energyCost += adjustedCallEnergy.longValueSafe();
-          break;
-        case CREATE:
-          energyCost = energyCosts.getCREATE() + calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.get(stack.size() - 2), stack.get(stack.size() - 3)), 0, op);
-          break;
-        case CREATE2:
-          DataWord codeSize = stack.get(stack.size() - 3);
-          energyCost = energyCosts.getCREATE();
-          energyCost += calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.get(stack.size() - 2), stack.get(stack.size() - 3)), 0, op);
-          energyCost += DataWord.sizeInWords(codeSize.intValueSafe()) * energyCosts.getSHA3_WORD();
+            checkMemorySize(op, memNeeded(stack.peek(), stack.get(stack.size() - 2)));
+            break;
+          case EXP:
 
-          break;
-        case LOG0:
-        case LOG1:
-        case LOG2:
-        case LOG3:
-        case LOG4:
-          int nTopics = op.val() - OpCode.LOG0.val();
-          BigInteger dataSize = stack.get(stack.size() - 2).value();
-          BigInteger dataCost = dataSize.multiply(BigInteger.valueOf(energyCosts.getLOG_DATA_ENERGY()));
-          if (program.getEnergyLimitLeft().value().compareTo(dataCost) < 0) {
-            throw new OutOfEnergyException(
-                "Not enough energy for '%s' operation executing: opEnergy[%d], programEnergy[%d]",
-                op.name(),
-                dataCost.longValueExact(), program.getEnergyLimitLeft().longValueSafe());
-          }
-          energyCost = energyCosts.getLOG_ENERGY()
-              + energyCosts.getLOG_TOPIC_ENERGY() * nTopics
-              + energyCosts.getLOG_DATA_ENERGY() * stack.get(stack.size() - 2).longValue()
-              + calcMemEnergy(energyCosts, oldMemSize,
-              memNeeded(stack.peek(), stack.get(stack.size() - 2)), 0, op);
-
-          checkMemorySize(op, memNeeded(stack.peek(), stack.get(stack.size() - 2)));
-          break;
-        case EXP:
+            DataWord exp = stack.get(stack.size() - 2);
+            int bytesOccupied = exp.bytesOccupied();
+            energyCost = (long) energyCosts.getEXP_ENERGY() + energyCosts.getEXP_BYTE_ENERGY() * bytesOccupied;
+            break;
+          default:
+            break;
+        }
 
-          DataWord exp = stack.get(stack.size() - 2);
-          int bytesOccupied = exp.bytesOccupied();
-          energyCost = (long) energyCosts.getEXP_ENERGY() + energyCosts.getEXP_BYTE_ENERGY() * bytesOccupied;
-          break;
-        default:
-          break;
-      }
 
-      program.spendEnergy(energyCost, op.name());
+        program.spendEnergy(energyCost, op.name());
+      }
       program.checkCPUTimeLimit(op.name());
 
       // Execute operation
@@ -670,11 +733,7 @@ public class VM {
         case SHA3: {
           DataWord memOffsetData = program.stackPop();
           DataWord lengthData = program.stackPop();
-          byte[] buffer = program
-              .memoryChunk(memOffsetData.intValueSafe(), lengthData.intValueSafe());
-
-          byte[] encoded = sha3(buffer);
-          DataWord word = new DataWord(encoded);
+          DataWord word = program.memorySha3(memOffsetData.intValueSafe(), lengthData.intValueSafe());
 
           if (logger.isDebugEnabled()) {
             hint = word.toString();
@@ -839,18 +898,15 @@ public class VM {
           DataWord dataOffsetData = program.stackPop();
           DataWord lengthData = program.stackPop();
 
-          byte[] msgData = program.getReturnDataBufferData(dataOffsetData, lengthData);
-
-          if (msgData == null) {
+          if (!program.memorySaveReturnData(memOffsetData.intValueSafe(), dataOffsetData, lengthData)) {
             throw new Program.ReturnDataCopyIllegalBoundsException(dataOffsetData, lengthData,
                 program.getReturnDataBufferSize().longValueSafe());
           }
 
           if (logger.isDebugEnabled()) {
-            hint = "data: " + Hex.toHexString(msgData);
+            hint = "data: " + Hex.toHexString(program.getReturnDataBufferData(dataOffsetData, lengthData));
           }
 
-          program.memorySave(memOffsetData.intValueSafe(), msgData);
           program.step();
         }
         break;
@@ -891,22 +947,13 @@ public class VM {
           int codeOffset = program.stackPop().intValueSafe();
           int lengthData = program.stackPop().intValueSafe();
 
-          int sizeToBeCopied =
-              (long) codeOffset + lengthData > fullCode.length
-                  ? (fullCode.length < codeOffset ? 0 : fullCode.length - codeOffset)
-                  : lengthData;
-
-          byte[] codeCopy = new byte[lengthData];
-
-          if (codeOffset < fullCode.length) {
-            System.arraycopy(fullCode, codeOffset, codeCopy, 0, sizeToBeCopied);
-          }
+          // past the end of the code the copy is zero filled
+          program.memorySave(memOffset, fullCode, codeOffset, lengthData);
 
           if (logger.isDebugEnabled()) {
-            hint = "code: " + Hex.toHexString(codeCopy);
+            hint = "code: " + Hex.toHexString(program.memoryChunk(memOffset, lengthData));
           }
 
-          program.memorySave(memOffset, codeCopy);
           program.step();
           break;
         }
@@ -1433,8 +1480,19 @@ public class VM {
         return;
       }
 
-      while (!program.isStopped()) {
-        this.step(program);
+      VMProfiler.Run run = VMProfiler.getInstance().begin(program);
+      if (run == null) {
+        while (!program.isStopped()) {
+          this.step(program);
+        }
+      } else {
+        try {
+          while (!program.isStopped()) {
+            run.step(this);
+          }
+        } finally {
+          run.end();
+        }
       }
 
     } catch (JVMStackOverFlowException | OutOfTimeException e) {
@@ -0,0 +1,270 @@
+package org.unichain.common.runtime.vm;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.common.runtime.vm.program.Program;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.config.args.Args;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Where contract execution spends its time and energy, per contract and per opcode.
+ *
+ * Every step counts its opcode and the energy it spent, for ops of static energy their own cost
+ * also when vm.blockEnergyCharging charges their whole block at its first op; one step in
+ * vm.profilerSampleInterval is timed with System.nanoTime and stands for the whole interval. Calls
+ * and creates only account for their own cost, the nested execution is accounted to the callee. Per
+ * contract the execution time is measured exactly, once per execution, also without nested
+ * executions. Contracts are keyed by the address their code was loaded from, so delegatecall time
+ * goes to the library, at most MAX_CONTRACTS of them are kept.
+ *
+ * Off unless vm.profiler is set or it is enabled later. Reported by the /getvmprofile HTTP API
+ * and, as top contracts, in the "unichain" metric registry, published over JMX.
+ */
+@Slf4j(topic = "VM")
+public class VMProfiler {
+
+  public static final String METRIC_REGISTRY = "unichain";
+
+  private static final int MAX_CONTRACTS = 10_000;
+  private static final int METRIC_TOP = 10;
+
+  private static final VMProfiler INSTANCE = new VMProfiler(Args.getInstance().isVmProfiler(),
+      Args.getInstance().getVmProfilerSampleInterval());
+
+  private static final ThreadLocal<Run> CURRENT = new ThreadLocal<>();
+
+  // VM.staticEnergy of each op, -1 for dynamic and undefined ops
+  private static final long[] STATIC_ENERGY = new long[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      OpCode op = OpCode.code((byte) i);
+      STATIC_ENERGY[i] = op == null ? -1 : VM.staticEnergy(op);
+    }
+  }
+
+  @Getter
+  private volatile boolean enabled;
+  private final AtomicBoolean metricsRegistered = new AtomicBoolean();
+  @Getter
+  private final int sampleInterval;
+
+  private final Cache<String, ContractProfile> contracts = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CONTRACTS).build();
+  private final AtomicLongArray opCount = new AtomicLongArray(256);
+  private final AtomicLongArray opEnergy = new AtomicLongArray(256);
+  private final AtomicLongArray opNanos = new AtomicLongArray(256);
+
+  VMProfiler(boolean enabled, int sampleInterval) {
+    this.sampleInterval = Math.max(1, sampleInterval);
+    setEnabled(enabled);
+  }
+
+  public void setEnabled(boolean enabled) {
+    if (enabled && metricsRegistered.compareAndSet(false, true)) {
+      registerMetrics();
+    }
+    this.enabled = enabled;
+  }
+
+  public static VMProfiler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts profiling an execution, null when the profiler is off.
+   */
+  Run begin(Program program) {
+    if (!enabled) {
+      return null;
+    }
+    Run run = new Run(CURRENT.get(), program);
+    CURRENT.set(run);
+    return run;
+  }
+
+  public List<ContractProfile> topContracts(int n, Comparator<ContractProfile> order) {
+    return contracts.asMap().values().stream().sorted(order.reversed()).limit(n)
+        .collect(Collectors.toList());
+  }
+
+  public List<OpProfile> opcodes() {
+    List<OpProfile> ops = new ArrayList<>();
+    for (int i = 0; i < 256; i++) {
+      long count = opCount.get(i);
+      if (count > 0) {
+        OpCode op = OpCode.code((byte) i);
+        ops.add(new OpProfile(op == null ? String.format("0x%02x", i) : op.name(), count,
+            opEnergy.get(i), opNanos.get(i)));
+      }
+    }
+    ops.sort(Comparator.comparingLong(OpProfile::getCpuTimeNanos).reversed());
+    return ops;
+  }
+
+  public void reset() {
+    contracts.invalidateAll();
+    for (int i = 0; i < 256; i++) {
+      opCount.set(i, 0);
+      opEnergy.set(i, 0);
+      opNanos.set(i, 0);
+    }
+  }
+
+  private void record(Run run, long nanos, long energy) {
+    String address = ByteArray.toHexString(run.program.getCodeAddress());
+    ContractProfile profile = contracts.asMap().computeIfAbsent(address, ContractProfile::new);
+    long ops = 0;
+    for (int i = 0; i < 256; i++) {
+      long count = run.counts[i];
+      if (count > 0) {
+        ops += count;
+        opCount.addAndGet(i, count);
+        opEnergy.addAndGet(i, run.energy[i]);
+        if (run.nanos[i] != 0) {
+          opNanos.addAndGet(i, run.nanos[i]);
+        }
+      }
+    }
+    profile.executions.increment();
+    profile.ops.add(ops);
+    profile.energy.add(energy);
+    profile.cpuTimeNanos.add(nanos);
+  }
+
+  private void registerMetrics() {
+    MetricRegistry registry = SharedMetricRegistries.getOrCreate(METRIC_REGISTRY);
+    registry.register(MetricRegistry.name("vm", "profiler", "contracts"),
+        (Gauge<Long>) contracts::size);
+    registry.register(MetricRegistry.name("vm", "profiler", "topByCpuTime"),
+        (Gauge<List<String>>) () -> topContracts(METRIC_TOP,
+            Comparator.comparingLong(ContractProfile::getCpuTimeNanos)).stream()
+            .map(ContractProfile::toString).collect(Collectors.toList()));
+    registry.register(MetricRegistry.name("vm", "profiler", "topByEnergy"),
+        (Gauge<List<String>>) () -> topContracts(METRIC_TOP,
+            Comparator.comparingLong(ContractProfile::getEnergy)).stream()
+            .map(ContractProfile::toString).collect(Collectors.toList()));
+    JmxReporter.forRegistry(registry).inDomain("org.unichain").build().start();
+    logger.info("VM profiler on, timing 1 of {} steps", sampleInterval);
+  }
+
+  /**
+   * One execution of a program, confined to the thread running it.
+   */
+  final class Run {
+
+    private final Run parent;
+    private final Program program;
+    private final long start = System.nanoTime();
+    private final long[] counts = new long[256];
+    private final long[] energy = new long[256];
+    private final long[] nanos = new long[256];
+    // spent by executions nested in this one
+    private long childNanos;
+    private long childEnergy;
+    // a random phase, so short executions get their share of samples
+    private int countdown = ThreadLocalRandom.current().nextInt(sampleInterval) + 1;
+
+    private Run(Run parent, Program program) {
+      this.parent = parent;
+      this.program = program;
+    }
+
+    void step(VM vm) {
+      int op = program.getCurrentOp() & 0xFF;
+      long used = program.getResult().getEnergyUsed();
+      long nestedEnergy = childEnergy;
+      if (--countdown > 0) {
+        vm.step(program);
+      } else {
+        countdown = sampleInterval;
+        long nestedNanos = childNanos;
+        long t = System.nanoTime();
+        vm.step(program);
+        nanos[op] += (System.nanoTime() - t - (childNanos - nestedNanos)) * sampleInterval;
+      }
+      counts[op]++;
+      long cost = STATIC_ENERGY[op];
+      energy[op] += cost >= 0 ? cost
+          : program.getResult().getEnergyUsed() - used - (childEnergy - nestedEnergy);
+    }
+
+    void end() {
+      long wall = System.nanoTime() - start;
+      long used = program.getResult().getEnergyUsed();
+      CURRENT.set(parent);
+      if (parent != null) {
+        parent.childNanos += wall;
+        parent.childEnergy += used;
+      }
+      record(this, wall - childNanos, used - childEnergy);
+    }
+  }
+
+  public static class ContractProfile {
+
+    @Getter
+    private final String address;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder ops = new LongAdder();
+    private final LongAdder energy = new LongAdder();
+    private final LongAdder cpuTimeNanos = new LongAdder();
+
+    ContractProfile(String address) {
+      this.address = address;
+    }
+
+    public long getExecutions() {
+      return executions.sum();
+    }
+
+    public long getOps() {
+      return ops.sum();
+    }
+
+    public long getEnergy() {
+      return energy.sum();
+    }
+
+    public long getCpuTimeNanos() {
+      return cpuTimeNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+      return address + " executions=" + getExecutions() + " ops=" + getOps() + " energy="
+          + getEnergy() + " cpuTimeMs=" + getCpuTimeNanos() / 1_000_000;
+    }
+  }
+
+  @Getter
+  public static class OpProfile {
+
+    private final String op;
+    private final long count;
+    private final long energy;
+    private final long cpuTimeNanos;
+
+    OpProfile(String op, long count, long energy, long cpuTimeNanos) {
+      this.op = op;
+      this.count = count;
+      this.energy = energy;
+      this.cpuTimeNanos = cpuTimeNanos;
+    }
+  }
+}
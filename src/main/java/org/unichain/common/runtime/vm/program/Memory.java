@@ -17,25 +17,34 @@
  */
 package org.unichain.common.runtime.vm.program;
 
+import org.unichain.common.crypto.cryptohash.KeccakHash;
 import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.runtime.vm.program.listener.ProgramListener;
 import org.unichain.common.runtime.vm.program.listener.ProgramListenerAware;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 import static java.lang.Math.ceil;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static org.unichain.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.unichain.common.utils.ByteUtil.oneByteToHexString;
 
+/**
+ * Contract memory as one contiguous array. The allocated size still grows in 1 KB chunks, the
+ * backing array at least doubles when it has to grow so that extending stays amortized O(1).
+ * Bytes past the allocated size are always zero.
+ */
 public class Memory implements ProgramListenerAware {
 
   private static final int CHUNK_SIZE = 1024;
   private static final int WORD_SIZE = 32;
 
-  private List<byte[]> chunks = new LinkedList<>();
+  private byte[] buffer = EMPTY_BYTE_ARRAY;
+  private int allocatedSize;
   private int softSize;
   private ProgramListener programListener;
 
@@ -50,27 +59,7 @@ public class Memory implements ProgramListenerAware {
     }
 
     extend(address, size);
-    byte[] data = new byte[size];
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    int toGrab = data.length;
-    int start = 0;
-
-    while (toGrab > 0) {
-      int copied = grabMax(chunkIndex, chunkOffset, toGrab, data, start);
-
-      // read next chunk from the start
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toGrab -= copied;
-      start += copied;
-    }
-
-    return data;
+    return Arrays.copyOfRange(buffer, address, address + size);
   }
 
   public void write(int address, byte[] data, int dataSize, boolean limited) {
@@ -83,9 +72,6 @@ public class Memory implements ProgramListenerAware {
       extend(address, dataSize);
     }
 
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
     int toCapture = 0;
     if (limited) {
       toCapture = (address + dataSize > softSize) ? softSize - address : dataSize;
@@ -93,17 +79,8 @@ public class Memory implements ProgramListenerAware {
       toCapture = dataSize;
     }
 
-    int start = 0;
-    while (toCapture > 0) {
-      int captured = captureMax(chunkIndex, chunkOffset, toCapture, data, start);
-
-      // capture next chunk
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toCapture -= captured;
-      start += captured;
+    if (toCapture > 0) {
+      System.arraycopy(data, 0, buffer, address, toCapture);
     }
 
     if (programListener != null) {
@@ -111,6 +88,30 @@ public class Memory implements ProgramListenerAware {
     }
   }
 
+  /**
+   * Write size bytes taken from src at srcOffset, zero filled past the end of src. Same result as
+   * {@link #write} of the corresponding slice, without materializing the slice unless tracing.
+   */
+  public void copy(int address, byte[] src, long srcOffset, int size) {
+    if (programListener != null) {
+      byte[] data = new byte[max(size, 0)];
+      if (srcOffset < src.length) {
+        System.arraycopy(src, (int) srcOffset, data, 0, (int) min(size, src.length - srcOffset));
+      }
+      write(address, data, data.length, false);
+      return;
+    }
+
+    if (size <= 0) {
+      return;
+    }
+    extend(address, size);
+    int available = srcOffset < src.length ? (int) min(size, src.length - srcOffset) : 0;
+    if (available > 0) {
+      System.arraycopy(src, (int) srcOffset, buffer, address, available);
+    }
+    Arrays.fill(buffer, address + available, address + size, (byte) 0);
+  }
 
   public void extendAndWrite(int address, int allocSize, byte[] data) {
     extend(address, allocSize);
@@ -125,7 +126,7 @@ public class Memory implements ProgramListenerAware {
     final int newSize = Math.addExact(address, size);
     int toAllocate = newSize - internalSize();
     if (toAllocate > 0) {
-      addChunks((int) ceil((double) toAllocate / CHUNK_SIZE));
+      allocate((int) ceil((double) toAllocate / CHUNK_SIZE));
     }
 
     toAllocate = newSize - softSize;
@@ -143,15 +144,26 @@ public class Memory implements ProgramListenerAware {
     return new DataWord(read(address, 32));
   }
 
+  /**
+   * Keccak-256 of a memory range, hashed in place instead of reading a copy of the range first.
+   */
+  public DataWord sha3(int address, int size) {
+    byte[] hash = new byte[KeccakHash.DIGEST_LENGTH];
+    if (size <= 0) {
+      KeccakHash.sha3(EMPTY_BYTE_ARRAY, 0, 0, hash, 0);
+    } else {
+      extend(address, size);
+      KeccakHash.sha3(buffer, address, size, hash, 0);
+    }
+    return new DataWord(hash);
+  }
+
   // just access expecting all data valid
   public byte readByte(int address) {
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    byte[] chunk = chunks.get(chunkIndex);
-
-    return chunk[chunkOffset];
+    if (address >= allocatedSize) {
+      throw new IndexOutOfBoundsException("Index: " + address + ", Size: " + allocatedSize);
+    }
+    return buffer[address];
   }
 
   @Override
@@ -192,35 +204,23 @@ public class Memory implements ProgramListenerAware {
   }
 
   public int internalSize() {
-    return chunks.size() * CHUNK_SIZE;
+    return allocatedSize;
   }
 
   public List<byte[]> getChunks() {
-    return new LinkedList<>(chunks);
-  }
-
-  private int captureMax(int chunkIndex, int chunkOffset, int size, byte[] src, int srcPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toCapture = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(src, srcPos, chunk, chunkOffset, toCapture);
-    return toCapture;
-  }
-
-  private int grabMax(int chunkIndex, int chunkOffset, int size, byte[] dest, int destPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toGrab = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(chunk, chunkOffset, dest, destPos, toGrab);
-
-    return toGrab;
+    List<byte[]> chunks = new LinkedList<>();
+    for (int offset = 0; offset < allocatedSize; offset += CHUNK_SIZE) {
+      chunks.add(Arrays.copyOfRange(buffer, offset, offset + CHUNK_SIZE));
+    }
+    return chunks;
   }
 
-  private void addChunks(int num) {
-    for (int i = 0; i < num; ++i) {
-      chunks.add(new byte[CHUNK_SIZE]);
+  private void allocate(int chunks) {
+    int newSize = Math.addExact(allocatedSize, Math.multiplyExact(chunks, CHUNK_SIZE));
+    if (newSize > buffer.length) {
+      int capacity = (int) min(Integer.MAX_VALUE - 8L, max(newSize, 2L * buffer.length));
+      buffer = Arrays.copyOf(buffer, max(capacity, newSize));
     }
+    allocatedSize = newSize;
   }
 }
@@ -72,7 +72,7 @@ import static org.unichain.common.utils.ByteUtil.stripLeadingZeroes;
 @Slf4j(topic = "VM")
 public class Program {
   private static final int MAX_DEPTH = 64;
-  private static final int MAX_STACK_SIZE = 1024;
+  private static final int MAX_STACK_SIZE = Stack.MAX_SIZE;
   private static final String VALIDATE_FOR_SMART_CONTRACT_FAILURE = "validateForSmartContract failure:%s";
   private static final String INVALID_TOKEN_ID_MSG = "not valid token id";
 
@@ -80,6 +80,8 @@ public class Program {
 
   private long nonce;
   private byte[] rootTransactionId;
+  // the address the code was loaded from, differs from the contract address under delegatecall
+  private byte[] codeAddress;
 
   private InternalTransaction internalTransaction;
 
@@ -106,6 +108,9 @@ public class Program {
   private boolean stopped;
 
   private ProgramPrecompile programPrecompile;
+  private byte[] codeHash;
+  private int chargedBlockPc = -1;
+  private int chargedBlockEnd = -1;
 
   private final VMConfig config;
 
@@ -127,7 +132,8 @@ public class Program {
 
     traceListener = new ProgramTraceListener(config.vmTrace());
     this.memory = setupProgramListener(new Memory());
-    this.stack = setupProgramListener(new Stack());
+    // only the trace listener observes the stack, skip the callbacks when tracing is off
+    this.stack = config.vmTrace() ? setupProgramListener(new Stack()) : new Stack();
     this.contractState = setupProgramListener(new ContractState(programInvoke));
     this.trace = new ProgramTrace(config, programInvoke);
     this.nonce = internalTransaction.getNonce();
@@ -141,6 +147,15 @@ public class Program {
     this.rootTransactionId = rootTransactionId.clone();
   }
 
+  public byte[] getCodeAddress() {
+    return codeAddress != null ? codeAddress.clone()
+        : convertToUnichainAddress(getContractAddress().getLast20Bytes());
+  }
+
+  public void setCodeAddress(byte[] codeAddress) {
+    this.codeAddress = codeAddress.clone();
+  }
+
   public long getNonce() {
     return nonce;
   }
@@ -151,11 +166,48 @@ public class Program {
 
   public ProgramPrecompile getProgramPrecompile() {
     if (programPrecompile == null) {
-      programPrecompile = ProgramPrecompile.compile(ops);
+      programPrecompile = ProgramPrecompile.compile(codeHash, ops);
     }
     return programPrecompile;
   }
 
+  /**
+   * Hash of the deployed code this program runs, lets it share the code analysis with other calls.
+   */
+  public void setCodeHash(byte[] codeHash) {
+    this.codeHash = codeHash;
+  }
+
+  /**
+   * Validates and charges the basic block starting at the current pc as a whole, see
+   * {@link ProgramPrecompile#blockAt(int)}. A block is only charged when all of its ops would pass
+   * their checks and their static energy fits in the energy left, otherwise its ops are checked and
+   * charged one by one, so either way the same exception is raised at the same op.
+   *
+   * @return true when the current op was checked and charged as part of a block
+   */
+  public boolean chargeBlock() {
+    if (pc > chargedBlockPc && pc < chargedBlockEnd) {
+      return true;
+    }
+    chargedBlockPc = -1;
+    chargedBlockEnd = -1;
+
+    ProgramPrecompile precompile = getProgramPrecompile();
+    int block = precompile.blockAt(pc);
+    if (block < 0 || !precompile.isBlockValid(block, stack.size())) {
+      return false;
+    }
+    long energy = precompile.getBlockEnergy(block);
+    if (getEnergylimitLeftLong() < energy) {
+      return false;
+    }
+    getResult().spendEnergy(energy);
+    chargedBlockPc = pc;
+    chargedBlockEnd = precompile.getBlockEnd(block);
+    return true;
+  }
+
   public int getCallDeep() {
     return invoke.getCallDeep();
   }
@@ -337,6 +389,13 @@ public class Program {
     memory.extendAndWrite(addr, allocSize, value);
   }
 
+  /**
+   * Save size bytes of src starting at srcOffset, zero filled past the end of src.
+   */
+  public void memorySave(int addr, byte[] src, long srcOffset, int size) {
+    memory.copy(addr, src, srcOffset, size);
+  }
+
   public void memorySaveLimited(int addr, byte[] data, int dataSize) {
     memory.write(addr, data, dataSize, true);
   }
@@ -359,6 +418,10 @@ public class Program {
     return memory.read(offset, size);
   }
 
+  public DataWord memorySha3(int offset, int size) {
+    return memory.sha3(offset, size);
+  }
+
   /**
    * . Allocates extra memory in the program for a specified size, calculated from a given offset
    *
@@ -730,6 +793,7 @@ public class Program {
       Program program = new Program(programCode, programInvoke, internalTx, config,
           this.blockCap);
       program.setRootTransactionId(this.rootTransactionId);
+      program.setCodeAddress(codeAddress);
       vm.play(program);
       callResult = program.getResult();
 
@@ -975,6 +1039,20 @@ public class Program {
             off.intValueSafe() + size.intValueSafe());
   }
 
+  /**
+   * RETURNDATACOPY straight from the return data buffer.
+   *
+   * @return false when the range is out of the buffer bounds, nothing is saved then
+   */
+  public boolean memorySaveReturnData(int addr, DataWord off, DataWord size) {
+    if ((long) off.intValueSafe() + size.intValueSafe() > getReturnDataBufferSizeI()) {
+      return false;
+    }
+    memory.copy(addr, returnDataBuffer == null ? EMPTY_BYTE_ARRAY : returnDataBuffer, off.intValueSafe(),
+        size.intValueSafe());
+    return true;
+  }
+
   public DataWord storageLoad(DataWord key) {
     DataWord ret = getContractState()
         .getStorageValue(convertToUnichainAddress(getContractAddress().getLast20Bytes()), key.clone());
@@ -17,13 +17,19 @@
  */
 package org.unichain.common.runtime.vm.program;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import lombok.extern.slf4j.Slf4j;
 import org.unichain.common.runtime.config.VMConfig;
 import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.runtime.vm.OpCode;
+import org.unichain.common.runtime.vm.VM;
+import org.unichain.common.utils.ByteUtil;
+import org.unichain.core.db.ByteArrayWrapper;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.BitSet;
 
 
 @Slf4j(topic = "VM")
@@ -32,26 +38,93 @@ import java.util.Set;
  */
 public class ProgramPrecompile {
 
-  private Set<Integer> jumpdest = new HashSet<>();
+  private static final long CACHE_SIZE = 4096;
+
+  /**
+   * Analysis of deployed code by code hash, shared by every program running that code. Entries are
+   * never modified once compiled.
+   */
+  private static final Cache<ByteArrayWrapper, ProgramPrecompile> cache = CacheBuilder.newBuilder()
+      .maximumSize(CACHE_SIZE).recordStats().build();
+
+  private static final int FORK_TRANSFER_UNC = 1;
+  private static final int FORK_CONSTANTINOPLE = 1 << 1;
+  private static final int FORK_SOLIDITY_059 = 1 << 2;
+
+  private final BitSet jumpdest = new BitSet();
+  private int codeLength;
+
+  /**
+   * Basic blocks: straight-line runs of at least two ops whose energy is static, entered only at
+   * their first op and left only after their last op (a JUMP, JUMPI, STOP or the op before a
+   * JUMPDEST or a dynamically priced op). Sorted by start pc.
+   */
+  private final BitSet blockStart = new BitSet();
+  private int blocks;
+  private int[] blockPc = new int[0];
+  private int[] blockEnd = new int[0];
+  private long[] blockEnergy = new long[0];
+  private int[] blockRequire = new int[0];
+  private int[] blockGrowth = new int[0];
+  private int[] blockForks = new int[0];
+
+  /**
+   * @param codeHash hash of ops as kept by the contract, may be empty when the contract has none,
+   * the code is then analysed for this caller only
+   */
+  public static ProgramPrecompile compile(byte[] codeHash, byte[] ops) {
+    if (ByteUtil.isNullOrZeroArray(codeHash)) {
+      return compile(ops);
+    }
+
+    ByteArrayWrapper key = new ByteArrayWrapper(codeHash);
+    ProgramPrecompile ret = cache.getIfPresent(key);
+    if (ret == null || ret.codeLength != ops.length) {
+      ret = compile(ops);
+      cache.put(key, ret);
+    }
+    return ret;
+  }
+
+  public static CacheStats cacheStats() {
+    return cache.stats();
+  }
 
   public static ProgramPrecompile compile(byte[] ops) {
     ProgramPrecompile ret = new ProgramPrecompile();
+    ret.codeLength = ops.length;
+    BlockBuilder block = new BlockBuilder();
     for (int i = 0; i < ops.length; ++i) {
 
       OpCode op = OpCode.code(ops[i]);
       if (op == null) {
+        block.close(ret, i);
         continue;
       }
 
-      if (op.equals(OpCode.JUMPDEST)) {
-        logger.debug("JUMPDEST:" + i);
-        ret.jumpdest.add(i);
+      if (op == OpCode.JUMPDEST) {
+        ret.jumpdest.set(i);
+        block.close(ret, i);
       }
 
+      int next = i + 1;
       if (op.asInt() >= OpCode.PUSH1.asInt() && op.asInt() <= OpCode.PUSH32.asInt()) {
-        i += op.asInt() - OpCode.PUSH1.asInt() + 1;
+        next += op.asInt() - OpCode.PUSH1.asInt() + 1;
       }
+
+      long energy = VM.staticEnergy(op);
+      if (energy < 0) {
+        block.close(ret, i);
+      } else {
+        block.add(i, op, energy);
+        if (op == OpCode.JUMP || op == OpCode.JUMPI || op == OpCode.STOP) {
+          block.close(ret, next);
+        }
+      }
+      i = next - 1;
     }
+    block.close(ret, ops.length);
+    ret.trimBlocks();
     return ret;
   }
 
@@ -89,6 +162,133 @@ public class ProgramPrecompile {
   }
 
   public boolean hasJumpDest(int pc) {
-    return jumpdest.contains(pc);
+    return pc >= 0 && jumpdest.get(pc);
+  }
+
+  /**
+   * @return index of the basic block starting at pc, or -1 when pc does not start one
+   */
+  public int blockAt(int pc) {
+    if (pc < 0 || !blockStart.get(pc)) {
+      return -1;
+    }
+    return Arrays.binarySearch(blockPc, 0, blocks, pc);
+  }
+
+  /**
+   * @return pc after the last op of the block
+   */
+  public int getBlockEnd(int block) {
+    return blockEnd[block];
+  }
+
+  /**
+   * @return sum of the static energy of every op in the block
+   */
+  public long getBlockEnergy(int block) {
+    return blockEnergy[block];
+  }
+
+  /**
+   * Whether every op of the block would pass the opcode and stack checks of {@code VM.step} when
+   * entered with a stack of the given size.
+   */
+  public boolean isBlockValid(int block, int stackSize) {
+    int forks = blockForks[block];
+    if ((forks & FORK_TRANSFER_UNC) != 0 && !VMConfig.allowTvmTransferUnc()
+        || (forks & FORK_CONSTANTINOPLE) != 0 && !VMConfig.allowTvmConstantinople()
+        || (forks & FORK_SOLIDITY_059) != 0 && !VMConfig.allowTvmSolidity059()) {
+      return false;
+    }
+    return stackSize >= blockRequire[block]
+        && stackSize + blockGrowth[block] <= Stack.MAX_SIZE;
+  }
+
+  private void addBlock(int start, int end, long energy, int require, int growth, int forks) {
+    if (blocks == blockPc.length) {
+      int capacity = Math.max(16, blocks * 2);
+      blockPc = Arrays.copyOf(blockPc, capacity);
+      blockEnd = Arrays.copyOf(blockEnd, capacity);
+      blockEnergy = Arrays.copyOf(blockEnergy, capacity);
+      blockRequire = Arrays.copyOf(blockRequire, capacity);
+      blockGrowth = Arrays.copyOf(blockGrowth, capacity);
+      blockForks = Arrays.copyOf(blockForks, capacity);
+    }
+    blockStart.set(start);
+    blockPc[blocks] = start;
+    blockEnd[blocks] = end;
+    blockEnergy[blocks] = energy;
+    blockRequire[blocks] = require;
+    blockGrowth[blocks] = growth;
+    blockForks[blocks] = forks;
+    blocks++;
+  }
+
+  private void trimBlocks() {
+    blockPc = Arrays.copyOf(blockPc, blocks);
+    blockEnd = Arrays.copyOf(blockEnd, blocks);
+    blockEnergy = Arrays.copyOf(blockEnergy, blocks);
+    blockRequire = Arrays.copyOf(blockRequire, blocks);
+    blockGrowth = Arrays.copyOf(blockGrowth, blocks);
+    blockForks = Arrays.copyOf(blockForks, blocks);
+  }
+
+  private static int forksOf(OpCode op) {
+    switch (op) {
+      case CALLTOKEN:
+      case TOKENBALANCE:
+      case CALLTOKENVALUE:
+      case CALLTOKENID:
+        return FORK_TRANSFER_UNC;
+      case SHL:
+      case SHR:
+      case SAR:
+      case CREATE2:
+      case EXTCODEHASH:
+        return FORK_CONSTANTINOPLE;
+      case ISCONTRACT:
+        return FORK_SOLIDITY_059;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Accumulates the block being scanned. Stack heights are relative to the height on entry.
+   */
+  private static class BlockBuilder {
+
+    private int start = -1;
+    private int ops;
+    private long energy;
+    private int height;
+    private int require;
+    private int growth;
+    private int forks;
+
+    void add(int pc, OpCode op, long opEnergy) {
+      if (start < 0) {
+        start = pc;
+      }
+      ops++;
+      energy += opEnergy;
+      require = Math.max(require, op.require() - height);
+      height += op.ret() - op.require();
+      growth = Math.max(growth, height);
+      forks |= forksOf(op);
+    }
+
+    void close(ProgramPrecompile precompile, int end) {
+      if (ops > 1) {
+        precompile.addBlock(start, end, energy, require, growth, forks);
+      }
+      start = -1;
+      ops = 0;
+      energy = 0;
+      height = 0;
+      require = 0;
+      growth = 0;
+      forks = 0;
+    }
   }
 }
@@ -21,33 +21,74 @@ import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.runtime.vm.program.listener.ProgramListener;
 import org.unichain.common.runtime.vm.program.listener.ProgramListenerAware;
 
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.Objects;
 
-public class Stack extends java.util.Stack<DataWord> implements ProgramListenerAware {
+/**
+ * Operand stack of a single {@link Program}, never shared between threads, so it is a plain array
+ * with a top index instead of a synchronized {@link java.util.Stack}. The program checks the stack
+ * height before each opcode, capacity is the VM limit of {@link #MAX_SIZE} words.
+ *
+ * The listener is only set when vm tracing is on.
+ */
+public class Stack implements ProgramListenerAware {
+
+  public static final int MAX_SIZE = 1024;
 
-  private static final long serialVersionUID = 1;
+  private final DataWord[] elements = new DataWord[MAX_SIZE];
+  private int size;
 
-  private transient ProgramListener programListener;
+  private ProgramListener programListener;
 
   @Override
   public void setProgramListener(ProgramListener listener) {
     this.programListener = listener;
   }
 
-  @Override
-  public synchronized DataWord pop() {
+  public DataWord pop() {
     if (programListener != null) {
       programListener.onStackPop();
     }
-    return super.pop();
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
+    DataWord item = elements[--size];
+    elements[size] = null;
+    return item;
   }
 
-  @Override
   public DataWord push(DataWord item) {
     if (programListener != null) {
       programListener.onStackPush(item);
     }
-    return super.push(item);
+    elements[size++] = item;
+    return item;
+  }
+
+  public DataWord peek() {
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
+    return elements[size - 1];
+  }
+
+  /**
+   * @param index position from the bottom of the stack
+   */
+  public DataWord get(int index) {
+    if (index < 0 || index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return elements[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
   }
 
   public void swap(int from, int to) {
@@ -55,13 +96,14 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
       if (programListener != null) {
         programListener.onStackSwap(from, to);
       }
-      DataWord tmp = get(from);
-      set(from, set(to, tmp));
+      DataWord tmp = elements[from];
+      elements[from] = elements[to];
+      elements[to] = tmp;
     }
   }
 
   private boolean isAccessible(int from) {
-    return from >= 0 && from < size();
+    return from >= 0 && from < size;
   }
 
   @Override
@@ -75,16 +117,30 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
     if (o.getClass() != this.getClass()) {
       return false;
     }
-    if (!super.equals(o)) {
+    Stack dataWords = (Stack) o;
+    if (size != dataWords.size) {
       return false;
     }
-    Stack dataWords = (Stack) o;
+    for (int i = 0; i < size; i++) {
+      if (!Objects.equals(elements[i], dataWords.elements[i])) {
+        return false;
+      }
+    }
     return Objects.equals(programListener, dataWords.programListener);
   }
 
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), programListener);
+    int result = 1;
+    for (int i = 0; i < size; i++) {
+      result = 31 * result + Objects.hashCode(elements[i]);
+    }
+    return Objects.hash(result, programListener);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(elements, size));
   }
 }
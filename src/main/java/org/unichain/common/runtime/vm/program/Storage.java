@@ -1,13 +1,18 @@
 package org.unichain.common.runtime.vm.program;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.Getter;
 import org.unichain.common.crypto.Hash;
 import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.utils.ByteUtil;
 import org.unichain.core.capsule.StorageRowCapsule;
 import org.unichain.core.db.StorageRowStore;
+import org.unichain.core.db.common.WrappedByteArray;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.System.arraycopy;
@@ -26,6 +31,13 @@ public class Storage {
 
   private static final int PREFIX_BYTES = 16;
 
+  /**
+   * Row key prefixes by address (and creating transaction), each transaction touching a contract
+   * would hash them again otherwise.
+   */
+  private static final Cache<WrappedByteArray, byte[]> addrHashCache = CacheBuilder.newBuilder()
+      .maximumSize(10_000).build();
+
   public Storage(byte[] address, StorageRowStore store) {
     addrHash = addrHash(address);
     this.address = address;
@@ -79,25 +91,33 @@ public class Storage {
 
   // 32 bytes
   private static byte[] addrHash(byte[] address) {
-    return Hash.sha3(address);
+    return cachedSha3(address);
   }
 
   private static byte[] addrHash(byte[] address, byte[] unxHash) {
     if (ByteUtil.isNullOrZeroArray(unxHash)) {
-      return Hash.sha3(address);
+      return cachedSha3(address);
+    }
+    return cachedSha3(ByteUtil.merge(address, unxHash));
+  }
+
+  // only the first PREFIX_BYTES are ever read, the cached array is shared
+  private static byte[] cachedSha3(byte[] input) {
+    byte[] hash = addrHashCache.getIfPresent(WrappedByteArray.of(input));
+    if (hash == null) {
+      hash = Hash.sha3(input);
+      addrHashCache.put(WrappedByteArray.copyOf(input), hash);
     }
-    return Hash.sha3(ByteUtil.merge(address, unxHash));
+    return hash;
   }
 
   public void commit() {
+    List<StorageRowCapsule> dirty = new ArrayList<>();
     rowCache.forEach((DataWord rowKey, StorageRowCapsule row) -> {
       if (row.isDirty()) {
-        if (row.getValue().isZero()) {
-          this.store.delete(row.getRowKey());
-        } else {
-          this.store.put(row.getRowKey(), row);
-        }
+        dirty.add(row);
       }
     });
+    this.store.commitRows(dirty);
   }
 }
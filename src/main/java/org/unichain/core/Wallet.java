@@ -44,12 +44,6 @@ import org.unichain.common.crypto.Hash;
 import org.unichain.common.overlay.discover.node.NodeHandler;
 import org.unichain.common.overlay.discover.node.NodeManager;
 import org.unichain.common.overlay.message.Message;
-import org.unichain.common.runtime.Runtime;
-import org.unichain.common.runtime.RuntimeImpl;
-import org.unichain.common.runtime.config.VMConfig;
-import org.unichain.common.runtime.vm.program.ProgramResult;
-import org.unichain.common.runtime.vm.program.invoke.ProgramInvokeFactoryImpl;
-import org.unichain.common.storage.DepositImpl;
 import org.unichain.common.utils.*;
 import org.unichain.core.actuator.Actuator;
 import org.unichain.core.actuator.ActuatorFactory;
@@ -63,6 +57,7 @@ import org.unichain.core.exception.*;
 import org.unichain.core.net.UnichainNetDelegate;
 import org.unichain.core.net.UnichainNetService;
 import org.unichain.core.net.message.TransactionMessage;
+import org.unichain.core.services.ConstantCallService;
 import org.unichain.protos.Contract.*;
 import org.unichain.protos.Protocol;
 import org.unichain.protos.Protocol.*;
@@ -71,7 +66,6 @@ import org.unichain.protos.Protocol.SmartContract.ABI;
 import org.unichain.protos.Protocol.SmartContract.ABI.Entry.StateMutabilityType;
 import org.unichain.protos.Protocol.Transaction.Contract;
 import org.unichain.protos.Protocol.Transaction.Contract.ContractType;
-import org.unichain.protos.Protocol.Transaction.Result.code;
 import org.web3j.utils.Numeric;
 
 import java.security.SignatureException;
@@ -101,6 +95,8 @@ public class Wallet {
   private Manager dbManager;
   @Autowired
   private NodeManager nodeManager;
+  @Autowired
+  private ConstantCallService constantCallService;
 
   public Wallet() {
     this.ecKey = new ECKey(Utils.getRandom());
@@ -572,8 +568,7 @@ public class Wallet {
           if (sig.size() < 65) {
             throw new SignatureFormatException("Signature size is " + sig.size());
           }
-          String base64 = TransactionCapsule.getBase64FromByteString(sig);
-          byte[] address = ECKey.signatureToAddress(hash, base64);
+          byte[] address = ECKey.recoverAddress(hash, sig.toByteArray());
           approveList.add(ByteString.copyFrom(address)); //out put approve list.
         }
         tswBuilder.addAllApprovedList(approveList);
@@ -1296,47 +1291,7 @@ public class Wallet {
     if (!Args.getInstance().isSupportConstant()) {
       throw new ContractValidateException("this node don't support constant");
     }
-    DepositImpl deposit = DepositImpl.createRoot(dbManager);
-
-    Block headBlock;
-    List<BlockCapsule> blockCapsuleList = dbManager.getBlockStore().getBlockByLatestNum(1);
-    if (CollectionUtils.isEmpty(blockCapsuleList)) {
-      throw new HeaderNotFound("latest block not found");
-    } else {
-      headBlock = blockCapsuleList.get(0).getInstance();
-    }
-
-    Runtime runtime = new RuntimeImpl(unxCap.getInstance(), new BlockCapsule(headBlock), deposit, new ProgramInvokeFactoryImpl(), true);
-    VMConfig.initVmHardFork();
-    VMConfig.initAllowTvmTransferUnc(dbManager.getDynamicPropertiesStore().getAllowTvmTransferUnc());
-    VMConfig.initAllowMultiSign(dbManager.getDynamicPropertiesStore().getAllowMultiSign());
-    VMConfig.initAllowTvmConstantinople(dbManager.getDynamicPropertiesStore().getAllowTvmConstantinople());
-    VMConfig.initAllowTvmSolidity059(dbManager.getDynamicPropertiesStore().getAllowUvmSolidity059());
-    runtime.setup();
-    runtime.go();
-    runtime.finalization();
-    // TODO exception
-    if (runtime.getResult().getException() != null) {
-      RuntimeException e = runtime.getResult().getException();
-      logger.error("Constant call has error {}", e.getMessage(), e);
-      throw e;
-    }
-
-    ProgramResult result = runtime.getResult();
-    TransactionResultCapsule ret = new TransactionResultCapsule();
-
-    builder.addConstantResult(ByteString.copyFrom(result.getHReturn()));
-    ret.setStatus(0, code.SUCESS);
-    if (StringUtils.isNoneEmpty(runtime.getRuntimeError())) {
-      ret.setStatus(0, code.FAILED);
-      retBuilder.setMessage(ByteString.copyFromUtf8(runtime.getRuntimeError())).build();
-    }
-    if (runtime.getResult().isRevert()) {
-      ret.setStatus(0, code.FAILED);
-      retBuilder.setMessage(ByteString.copyFromUtf8("REVERT OPCODE EXECUTED")).build();
-    }
-    unxCap.setResult(ret);
-    return unxCap.getInstance();
+    return constantCallService.call(unxCap, builder, retBuilder);
   }
 
   public SmartContract getContract(GrpcAPI.BytesMessage bytesMessage) {
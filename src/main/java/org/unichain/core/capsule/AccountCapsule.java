@@ -38,8 +38,16 @@ import java.util.Map;
 @Slf4j(topic = "capsule")
 public class AccountCapsule implements ProtoCapsule<Account>, Comparable<AccountCapsule> {
 
+  /**
+   * Last built state, null while {@link #accountBuilder} holds changes that were not built yet.
+   */
   private Account account;
 
+  /**
+   * Created by the first mutation and kept afterwards. Setters no longer copy the whole message,
+   * and after a build the builder copies a map or list only when that field is modified again.
+   */
+  private Account.Builder accountBuilder;
 
   @Override
   public int compareTo(AccountCapsule otherObject) {
@@ -163,32 +171,56 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public byte[] getData() {
-    return this.account.toByteArray();
+    return getInstance().toByteArray();
   }
 
   @Override
   public Account getInstance() {
+    if (this.account == null && this.accountBuilder != null) {
+      this.account = this.accountBuilder.build();
+    }
     return this.account;
   }
 
+  /**
+   * Current state without forcing a build. Only for scalar and message reads: collections read from
+   * a builder are live views, so methods handing out maps or lists go through getInstance().
+   */
+  private AccountOrBuilder current() {
+    return this.accountBuilder != null ? this.accountBuilder : this.account;
+  }
+
+  /**
+   * Builder to apply a mutation on. Reads inside a mutation go through {@link #current()}: a
+   * getInstance() call in the middle of one would cache an instance that is already stale.
+   */
+  private Account.Builder mutable() {
+    if (this.accountBuilder == null) {
+      this.accountBuilder = getInstance().toBuilder();
+    }
+    this.account = null;
+    return this.accountBuilder;
+  }
+
   public void clearFutureToken(byte[] tokenKey){
-      this.account = this.account.toBuilder().removeTokenFuture(new String(tokenKey)).build();
+      mutable().removeTokenFuture(new String(tokenKey));
   }
 
   public void clearUrc20FutureToken(String base58Addr){
-    this.account = this.account.toBuilder().removeUrc20Future(base58Addr).build();
+    mutable().removeUrc20Future(base58Addr);
   }
 
   public void clearFuture(){
-    this.account = this.account.toBuilder().clearFutureSupply().build();
+    mutable().clearFutureSupply();
   }
 
   public void setInstance(Account account) {
     this.account = account;
+    this.accountBuilder = null;
   }
 
   public ByteString getAddress() {
-    return this.account.getAddress();
+    return current().getAddress();
   }
 
   public byte[] createDbKey() {
@@ -200,15 +232,15 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public AccountType getType() {
-    return this.account.getType();
+    return current().getType();
   }
 
   public ByteString getAccountName() {
-    return this.account.getAccountName();
+    return current().getAccountName();
   }
 
   public ByteString getAccountId() {
-    return this.account.getAccountId();
+    return current().getAccountId();
   }
 
   private static ByteString getActiveDefaultOperations(Manager manager) {
@@ -265,81 +297,82 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public void setDefaultWitnessPermission(Manager manager) {
-    Account.Builder builder = this.account.toBuilder();
-    Permission witness = createDefaultWitnessPermission(this.getAddress());
-    if (!this.account.hasOwnerPermission()) {
-      Permission owner = createDefaultOwnerPermission(this.getAddress());
+    Account.Builder builder = mutable();
+    Permission witness = createDefaultWitnessPermission(builder.getAddress());
+    if (!builder.hasOwnerPermission()) {
+      Permission owner = createDefaultOwnerPermission(builder.getAddress());
       builder.setOwnerPermission(owner);
     }
-    if (this.account.getActivePermissionCount() == 0) {
-      Permission active = createDefaultActivePermission(this.getAddress(), manager);
+    if (builder.getActivePermissionCount() == 0) {
+      Permission active = createDefaultActivePermission(builder.getAddress(), manager);
       builder.addActivePermission(active);
     }
-    this.account = builder.setWitnessPermission(witness).build();
+    builder.setWitnessPermission(witness);
   }
 
   public byte[] getWitnessPermissionAddress() {
-    if (this.account.getWitnessPermission().getKeysCount() == 0) {
+    if (current().getWitnessPermission().getKeysCount() == 0) {
       return getAddress().toByteArray();
     } else {
-      return this.account.getWitnessPermission().getKeys(0).getAddress().toByteArray();
+      return current().getWitnessPermission().getKeys(0).getAddress().toByteArray();
     }
   }
 
   public long getBalance() {
-    return this.account.getBalance();
+    return current().getBalance();
   }
 
   public long getLatestOperationTime() {
-    return this.account.getLatestOprationTime();
+    return current().getLatestOprationTime();
   }
 
   public void setLatestOperationTime(long latest_time) {
-    this.account = this.account.toBuilder().setLatestOprationTime(latest_time).build();
+    mutable().setLatestOprationTime(latest_time);
   }
 
   public long getLatestConsumeTime() {
-    return this.account.getLatestConsumeTime();
+    return current().getLatestConsumeTime();
   }
 
   public void setLatestConsumeTime(long latest_time) {
-    this.account = this.account.toBuilder().setLatestConsumeTime(latest_time).build();
+    mutable().setLatestConsumeTime(latest_time);
   }
 
   public long getLatestConsumeFreeTime() {
-    return this.account.getLatestConsumeFreeTime();
+    return current().getLatestConsumeFreeTime();
   }
 
   public void setLatestConsumeFreeTime(long latest_time) {
-    this.account = this.account.toBuilder().setLatestConsumeFreeTime(latest_time).build();
+    mutable().setLatestConsumeFreeTime(latest_time);
   }
 
   public void setBalance(long balance) {
-    this.account = this.account.toBuilder().setBalance(balance).build();
+    mutable().setBalance(balance);
   }
 
   public void setFutureSummary(FutureSummary summary){
-    this.account = account.toBuilder()
-            .setFutureSupply(summary)
-            .build();
+    mutable()
+            .setFutureSupply(summary);
   }
   public void addDelegatedFrozenBalanceForBandwidth(long balance) {
-    this.account = this.account.toBuilder()
-            .setDelegatedFrozenBalanceForBandwidth(Math.addExact(this.account.getDelegatedFrozenBalanceForBandwidth(), balance)).build();
+    long delegated = Math.addExact(current().getDelegatedFrozenBalanceForBandwidth(), balance);
+    mutable()
+            .setDelegatedFrozenBalanceForBandwidth(delegated);
   }
 
   public long getAcquiredDelegatedFrozenBalanceForBandwidth() {
-    return this.account.getAcquiredDelegatedFrozenBalanceForBandwidth();
+    return current().getAcquiredDelegatedFrozenBalanceForBandwidth();
   }
 
 
   public void setAcquiredDelegatedFrozenBalanceForBandwidth(long balance) {
-    this.account = this.account.toBuilder()
-            .setAcquiredDelegatedFrozenBalanceForBandwidth(balance).build();
+    mutable()
+            .setAcquiredDelegatedFrozenBalanceForBandwidth(balance);
   }
   public void addAcquiredDelegatedFrozenBalanceForBandwidth(long balance) {
-    this.account = this.account.toBuilder()
-            .setAcquiredDelegatedFrozenBalanceForBandwidth(Math.addExact(this.account.getAcquiredDelegatedFrozenBalanceForBandwidth(), balance)).build();
+    long acquired = Math.addExact(current().getAcquiredDelegatedFrozenBalanceForBandwidth(), balance);
+    mutable()
+            .setAcquiredDelegatedFrozenBalanceForBandwidth(acquired);
   }
 
   public long getAcquiredDelegatedFrozenBalanceForEnergy() {
@@ -350,9 +383,8 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
     AccountResource newAccountResource = getAccountResource().toBuilder()
             .setAcquiredDelegatedFrozenBalanceForEnergy(balance).build();
 
-    this.account = this.account.toBuilder()
-            .setAccountResource(newAccountResource)
-            .build();
+    mutable()
+            .setAccountResource(newAccountResource);
   }
 
   public long getDelegatedFrozenBalanceForEnergy() {
@@ -360,13 +392,12 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public long getDelegatedFrozenBalanceForBandwidth() {
-    return this.account.getDelegatedFrozenBalanceForBandwidth();
+    return current().getDelegatedFrozenBalanceForBandwidth();
   }
 
   public void setDelegatedFrozenBalanceForBandwidth(long balance) {
-    this.account = this.account.toBuilder()
-        .setDelegatedFrozenBalanceForBandwidth(balance)
-        .build();
+    mutable()
+        .setDelegatedFrozenBalanceForBandwidth(balance);
   }
 
   public void addAcquiredDelegatedFrozenBalanceForEnergy(long balance) {
@@ -374,9 +405,8 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
         .setAcquiredDelegatedFrozenBalanceForEnergy(
             Math.addExact(getAccountResource().getAcquiredDelegatedFrozenBalanceForEnergy(), balance)).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(newAccountResource)
-        .build();
+    mutable()
+        .setAccountResource(newAccountResource);
   }
 
   public void addDelegatedFrozenBalanceForEnergy(long balance) {
@@ -384,20 +414,19 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
         .setDelegatedFrozenBalanceForEnergy(
             Math.addExact(getAccountResource().getDelegatedFrozenBalanceForEnergy(), balance)).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(newAccountResource)
-        .build();
+    mutable()
+        .setAccountResource(newAccountResource);
   }
 
 
   public void setAllowance(long allowance) {
-    this.account = this.account.toBuilder().setAllowance(allowance).build();
+    mutable().setAllowance(allowance);
   }
 
 
   @Override
   public String toString() {
-    return this.account.toString();
+    return getInstance().toString();
   }
 
 
@@ -405,51 +434,46 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
    * set votes.
    */
   public void addVotes(ByteString voteAddress, long voteAdd) {
-    this.account = this.account.toBuilder()
-        .addVotes(Vote.newBuilder().setVoteAddress(voteAddress).setVoteCount(voteAdd).build())
-        .build();
+    mutable()
+        .addVotes(Vote.newBuilder().setVoteAddress(voteAddress).setVoteCount(voteAdd).build());
   }
 
   public void clearAssetV2() {
-    this.account = this.account.toBuilder()
-        .clearAssetV2()
-        .build();
+    mutable()
+        .clearAssetV2();
   }
 
   public void clearLatestAssetOperationTimeV2() {
-    this.account = this.account.toBuilder()
-        .clearLatestAssetOperationTimeV2()
-        .build();
+    mutable()
+        .clearLatestAssetOperationTimeV2();
   }
 
   public void clearFreeAssetNetUsageV2() {
-    this.account = this.account.toBuilder()
-        .clearFreeAssetNetUsageV2()
-        .build();
+    mutable()
+        .clearFreeAssetNetUsageV2();
   }
 
   public void clearVotes() {
-    this.account = this.account.toBuilder()
-        .clearVotes()
-        .build();
+    mutable()
+        .clearVotes();
   }
 
   /**
    * get votes.
    */
   public List<Vote> getVotesList() {
-      return this.account.getVotesList();
+      return getInstance().getVotesList();
   }
 
   public long getUnichainPower() {
     long tp = 0L;
-    for (int i = 0; i < account.getFrozenCount(); ++i) {
-      tp = Math.addExact(account.getFrozen(i).getFrozenBalance(), tp);
+    for (int i = 0; i < current().getFrozenCount(); ++i) {
+      tp = Math.addExact(current().getFrozen(i).getFrozenBalance(), tp);
     }
 
-    tp = Math.addExact(account.getAccountResource().getFrozenBalanceForEnergy().getFrozenBalance(), tp);
-    tp = Math.addExact(account.getDelegatedFrozenBalanceForBandwidth(), tp);
-    tp = Math.addExact(account.getAccountResource().getDelegatedFrozenBalanceForEnergy(), tp);
+    tp = Math.addExact(current().getAccountResource().getFrozenBalanceForEnergy().getFrozenBalance(), tp);
+    tp = Math.addExact(current().getDelegatedFrozenBalanceForBandwidth(), tp);
+    tp = Math.addExact(current().getAccountResource().getDelegatedFrozenBalanceForEnergy(), tp);
     return tp;
   }
 
@@ -457,7 +481,7 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
    * asset balance enough
    */
   public boolean assetBalanceEnough(byte[] key, long amount) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(key);
     Long currentAmount = assetMap.get(nameKey);
 
@@ -469,12 +493,12 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
     String nameKey;
     Long currentAmount;
     if (manager.getDynamicPropertiesStore().getAllowSameTokenName() == 0) {
-      assetMap = this.account.getAssetMap();
+      assetMap = current().getAssetMap();
       nameKey = ByteArray.toStr(key);
       currentAmount = assetMap.get(nameKey);
     } else {
       String tokenID = ByteArray.toStr(key);
-      assetMap = this.account.getAssetV2Map();
+      assetMap = current().getAssetV2Map();
       currentAmount = assetMap.get(tokenID);
     }
 
@@ -486,12 +510,12 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
    * reduce asset amount.
    */
   public boolean reduceAssetAmount(byte[] key, long amount) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(key);
     Long currentAmount = assetMap.get(nameKey);
     if (amount > 0 && null != currentAmount && amount <= currentAmount) {
-      this.account = this.account.toBuilder()
-          .putAsset(nameKey, Math.subtractExact(currentAmount, amount)).build();
+      mutable()
+          .putAsset(nameKey, Math.subtractExact(currentAmount, amount));
       return true;
     }
 
@@ -504,28 +528,26 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   public boolean reduceAssetAmountV2(byte[] key, long amount, Manager manager) {
     //key is token name
     if (manager.getDynamicPropertiesStore().getAllowSameTokenName() == 0) {
-      Map<String, Long> assetMap = this.account.getAssetMap();
+      Map<String, Long> assetMap = current().getAssetMap();
       AssetIssueCapsule assetIssueCapsule = manager.getAssetIssueStore().get(key);
       String tokenID = assetIssueCapsule.getId();
       String nameKey = ByteArray.toStr(key);
       Long currentAmount = assetMap.get(nameKey);
       if (amount > 0 && null != currentAmount && amount <= currentAmount) {
-        this.account = this.account.toBuilder()
+        mutable()
             .putAsset(nameKey, Math.subtractExact(currentAmount, amount))
-            .putAssetV2(tokenID, Math.subtractExact(currentAmount, amount))
-            .build();
+            .putAssetV2(tokenID, Math.subtractExact(currentAmount, amount));
         return true;
       }
     }
     //key is token id
     if (manager.getDynamicPropertiesStore().getAllowSameTokenName() == 1) {
       String tokenID = ByteArray.toStr(key);
-      Map<String, Long> assetMapV2 = this.account.getAssetV2Map();
+      Map<String, Long> assetMapV2 = current().getAssetV2Map();
       Long currentAmount = assetMapV2.get(tokenID);
       if (amount > 0 && null != currentAmount && amount <= currentAmount) {
-        this.account = this.account.toBuilder()
-            .putAssetV2(tokenID, Math.subtractExact(currentAmount, amount))
-            .build();
+        mutable()
+            .putAssetV2(tokenID, Math.subtractExact(currentAmount, amount));
         return true;
       }
     }
@@ -534,21 +556,20 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public boolean addAssetAmount(byte[] key, long amount) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(key);
     Long currentAmount = assetMap.get(nameKey);
     if (currentAmount == null) {
       currentAmount = 0L;
     }
-    this.account = this.account.toBuilder().putAsset(nameKey, Math.addExact(currentAmount, amount))
-        .build();
+    mutable().putAsset(nameKey, Math.addExact(currentAmount, amount));
     return true;
   }
 
   public boolean addAssetAmountV2(byte[] key, long amount, Manager manager) {
     //key is token name
     if (manager.getDynamicPropertiesStore().getAllowSameTokenName() == 0) {
-      Map<String, Long> assetMap = this.account.getAssetMap();
+      Map<String, Long> assetMap = current().getAssetMap();
       AssetIssueCapsule assetIssueCapsule = manager.getAssetIssueStore().get(key);
       String tokenID = assetIssueCapsule.getId();
       String nameKey = ByteArray.toStr(key);
@@ -556,99 +577,96 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
       if (currentAmount == null) {
         currentAmount = 0L;
       }
-      this.account = this.account.toBuilder()
+      mutable()
           .putAsset(nameKey, Math.addExact(currentAmount, amount))
-          .putAssetV2(tokenID, Math.addExact(currentAmount, amount))
-          .build();
+          .putAssetV2(tokenID, Math.addExact(currentAmount, amount));
     }
     //key is token id
     if (manager.getDynamicPropertiesStore().getAllowSameTokenName() == 1) {
       String tokenIDStr = ByteArray.toStr(key);
-      Map<String, Long> assetMapV2 = this.account.getAssetV2Map();
+      Map<String, Long> assetMapV2 = current().getAssetV2Map();
       Long currentAmount = assetMapV2.get(tokenIDStr);
       if (currentAmount == null) {
         currentAmount = 0L;
       }
-      this.account = this.account.toBuilder()
-          .putAssetV2(tokenIDStr, Math.addExact(currentAmount, amount))
-          .build();
+      mutable()
+          .putAssetV2(tokenIDStr, Math.addExact(currentAmount, amount));
     }
     return true;
   }
 
   public void setAccountName(byte[] name) {
-    this.account = this.account.toBuilder().setAccountName(ByteString.copyFrom(name)).build();
+    mutable().setAccountName(ByteString.copyFrom(name));
   }
 
   public void setAccountId(byte[] id) {
-    this.account = this.account.toBuilder().setAccountId(ByteString.copyFrom(id)).build();
+    mutable().setAccountId(ByteString.copyFrom(id));
   }
 
   public boolean addAsset(byte[] key, long value) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(key);
     if (!assetMap.isEmpty() && assetMap.containsKey(nameKey)) {
       return false;
     }
 
-    this.account = this.account.toBuilder().putAsset(nameKey, value).build();
+    mutable().putAsset(nameKey, value);
 
     return true;
   }
 
   public boolean addToken(byte[] key, long value) {
-    Map<String, Long> tokenMap = this.account.getTokenMap();
+    Map<String, Long> tokenMap = current().getTokenMap();
     String nameKey = ByteArray.toStr(key);
 
     long totalValue = tokenMap.containsKey(nameKey) ? Math.addExact(tokenMap.get(nameKey), value) : value;
-    this.account = this.account.toBuilder().putToken(nameKey, totalValue).build();
+    mutable().putToken(nameKey, totalValue);
     return true;
   }
 
   public boolean addUrc20Token(byte[] addr, BigInteger value) {
-    Map<String, String> tokenMap = this.account.getUrc20Map();
+    Map<String, String> tokenMap = current().getUrc20Map();
     String addrBase58 = Wallet.encode58Check(addr);
     BigInteger totalValue = tokenMap.containsKey(addrBase58) ? (new BigInteger(tokenMap.get(addrBase58))).add(value) : value;
-    this.account = this.account.toBuilder().putUrc20(addrBase58, totalValue.toString()).build();
+    mutable().putUrc20(addrBase58, totalValue.toString());
     return true;
   }
 
   public void addBalance(long value){
-    this.account = this.account.toBuilder().setBalance(Math.addExact(account.getBalance(), value)).build();
+    long balance = Math.addExact(current().getBalance(), value);
+    mutable().setBalance(balance);
   }
 
   public boolean setFutureTokenSummary(FutureTokenSummaryV2 summary){
-      this.account = this.account.toBuilder()
-              .putTokenFuture(summary.getTokenName(), summary)
-              .build();
+      mutable()
+              .putTokenFuture(summary.getTokenName(), summary);
       return true;
   }
 
   public boolean setUrc20FutureTokenSummary(String base58Addr, Urc20FutureTokenSummary summary){
-    this.account = this.account.toBuilder()
-            .putUrc20Future(base58Addr, summary)
-            .build();
+    mutable()
+            .putUrc20Future(base58Addr, summary);
     return true;
   }
 
 
   public FutureTokenSummaryV2 getFutureTokenSummary(String tokenName){
-    return account.getTokenFutureMap().get(tokenName);
+    return current().getTokenFutureMap().get(tokenName);
   }
 
   public Urc20FutureTokenSummary getUrc20FutureTokenSummary(String addrBase58){
-    return account.getUrc20FutureMap().get(addrBase58);
+    return current().getUrc20FutureMap().get(addrBase58);
   }
 
   public FutureSummary getFutureSummary(){
-    return account.hasFutureSupply() ? account.getFutureSupply() : null;
+    return current().hasFutureSupply() ? current().getFutureSupply() : null;
   }
 
   /**
    * burn more token issued by this account
    */
   public boolean burnToken(byte[] key, long amount) {
-    Map<String, Long> tokenMap = this.account.getTokenMap();
+    Map<String, Long> tokenMap = current().getTokenMap();
     String nameKey = ByteArray.toStr(key);
     if (!tokenMap.containsKey(nameKey) || tokenMap.get(nameKey) < amount) {
       return false;
@@ -657,17 +675,17 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
     long remain = Math.subtractExact(tokenMap.get(nameKey), amount);
     if(remain > 0)
     {
-      this.account = this.account.toBuilder().putToken(nameKey, remain).build();
+      mutable().putToken(nameKey, remain);
     }
     else
     {
-      this.account = this.account.toBuilder().removeToken(nameKey).build();
+      mutable().removeToken(nameKey);
     }
     return true;
   }
 
   public boolean burnUrc20Token(byte[] addr, BigInteger amount) {
-    Map<String, String> tokenMap = this.account.getUrc20Map();
+    Map<String, String> tokenMap = current().getUrc20Map();
     String addrBase58 = Wallet.encode58Check(addr);
     Assert.isTrue(tokenMap.containsKey(addrBase58)
             && (new BigInteger(tokenMap.get(addrBase58))).compareTo(amount) >= 0, "burn amount violate available token amount!");
@@ -675,17 +693,17 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
     BigInteger remain = new BigInteger(tokenMap.get(addrBase58)).subtract(amount);
     if(remain.compareTo(BigInteger.ZERO) > 0)
     {
-      this.account = this.account.toBuilder().putUrc20(addrBase58, remain.toString()).build();
+      mutable().putUrc20(addrBase58, remain.toString());
     }
     else
     {
-      this.account = this.account.toBuilder().removeUrc20(addrBase58).build();
+      mutable().removeUrc20(addrBase58);
     }
     return true;
   }
 
   public long burnAllAvailableToken(byte[] key) {
-    Map<String, Long> tokenMap = this.account.getTokenMap();
+    Map<String, Long> tokenMap = current().getTokenMap();
     String nameKey = ByteArray.toStr(key);
     if (!tokenMap.containsKey(nameKey)) {
       logger.warn("missing token {}", nameKey);
@@ -693,45 +711,44 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
     }
     else {
       long available = tokenMap.get(nameKey);
-      this.account = this.account.toBuilder().removeToken(nameKey).build();
+      mutable().removeToken(nameKey);
       return available;
     }
   }
 
   public BigInteger burnUrc20AllAvailableToken(byte[] addr) {
-    Map<String, String> tokenMap = this.account.getUrc20Map();
+    Map<String, String> tokenMap = current().getUrc20Map();
     String addrBase58 = Wallet.encode58Check(addr);
     if (!tokenMap.containsKey(addrBase58)) {
       return BigInteger.ZERO;
     }
     else {
       BigInteger available = new BigInteger(tokenMap.get(addrBase58));
-      this.account = this.account.toBuilder().removeUrc20(addrBase58).build();
+      mutable().removeUrc20(addrBase58);
       return available;
     }
   }
 
   public Long getTokenAvailable(byte[] key) {
-    Map<String, Long> tokenMap = this.account.getTokenMap();
+    Map<String, Long> tokenMap = current().getTokenMap();
     String nameKey = ByteArray.toStr(key);
     return tokenMap.containsKey(nameKey) ? tokenMap.get(nameKey) : 0L;
   }
 
   public BigInteger getUrc20TokenAvailable(String addrBase58) {
-    Map<String, String> tokenMap = this.account.getUrc20Map();
+    Map<String, String> tokenMap = current().getUrc20Map();
     return tokenMap.containsKey(addrBase58) ? new BigInteger(tokenMap.get(addrBase58)) : BigInteger.ZERO;
   }
 
   public boolean addAssetV2(byte[] key, long value) {
     String tokenID = ByteArray.toStr(key);
-    Map<String, Long> assetV2Map = this.account.getAssetV2Map();
+    Map<String, Long> assetV2Map = current().getAssetV2Map();
     if (!assetV2Map.isEmpty() && assetV2Map.containsKey(tokenID)) {
       return false;
     }
 
-    this.account = this.account.toBuilder()
-        .putAssetV2(tokenID, value)
-        .build();
+    mutable()
+        .putAssetV2(tokenID, value);
     return true;
   }
 
@@ -739,13 +756,13 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
    * add asset.
    */
   public boolean addAssetMapV2(Map<String, Long> assetMap) {
-    this.account = this.account.toBuilder().putAllAssetV2(assetMap).build();
+    mutable().putAllAssetV2(assetMap);
     return true;
   }
 
 
   public Map<String, Long> getAssetMap() {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = getInstance().getAssetMap();
     if (assetMap.isEmpty()) {
       assetMap = Maps.newHashMap();
     }
@@ -754,7 +771,7 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public Map<String, Long> getAssetMapV2() {
-    Map<String, Long> assetMap = this.account.getAssetV2Map();
+    Map<String, Long> assetMap = getInstance().getAssetV2Map();
     if (assetMap.isEmpty()) {
       assetMap = Maps.newHashMap();
     }
@@ -763,36 +780,36 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public boolean addAllLatestAssetOperationTimeV2(Map<String, Long> map) {
-    this.account = this.account.toBuilder().putAllLatestAssetOperationTimeV2(map).build();
+    mutable().putAllLatestAssetOperationTimeV2(map);
     return true;
   }
 
   public Map<String, Long> getLatestAssetOperationTimeMap() {
-    return this.account.getLatestAssetOperationTimeMap();
+    return getInstance().getLatestAssetOperationTimeMap();
   }
 
   public Map<String, Long> getLatestAssetOperationTimeMapV2() {
-    return this.account.getLatestAssetOperationTimeV2Map();
+    return getInstance().getLatestAssetOperationTimeV2Map();
   }
 
   public long getLatestAssetOperationTime(String assetName) {
-    return this.account.getLatestAssetOperationTimeOrDefault(assetName, 0);
+    return current().getLatestAssetOperationTimeOrDefault(assetName, 0);
   }
 
   public long getLatestAssetOperationTimeV2(String assetName) {
-    return this.account.getLatestAssetOperationTimeV2OrDefault(assetName, 0);
+    return current().getLatestAssetOperationTimeV2OrDefault(assetName, 0);
   }
 
   public void putLatestAssetOperationTimeMap(String key, Long value) {
-    this.account = this.account.toBuilder().putLatestAssetOperationTime(key, value).build();
+    mutable().putLatestAssetOperationTime(key, value);
   }
 
   public void putLatestAssetOperationTimeMapV2(String key, Long value) {
-    this.account = this.account.toBuilder().putLatestAssetOperationTimeV2(key, value).build();
+    mutable().putLatestAssetOperationTimeV2(key, value);
   }
 
   public int getFrozenCount() {
-    return getInstance().getFrozenCount();
+    return current().getFrozenCount();
   }
 
   public List<Frozen> getFrozenList() {
@@ -811,7 +828,7 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public int getFrozenSupplyCount() {
-    return getInstance().getFrozenSupplyCount();
+    return current().getFrozenSupplyCount();
   }
 
   public List<Frozen> getFrozenSupplyList() {
@@ -826,45 +843,45 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public ByteString getAssetIssuedName() {
-    return getInstance().getAssetIssuedName();
+    return current().getAssetIssuedName();
   }
 
   public void setAssetIssuedName(byte[] nameKey) {
     ByteString assetIssuedName = ByteString.copyFrom(nameKey);
-    this.account = this.account.toBuilder().setAssetIssuedName(assetIssuedName).build();
+    mutable().setAssetIssuedName(assetIssuedName);
   }
 
   public ByteString getAssetIssuedID() {
-    return getInstance().getAssetIssuedID();
+    return current().getAssetIssuedID();
   }
 
   public void setAssetIssuedID(byte[] id) {
     ByteString assetIssuedID = ByteString.copyFrom(id);
-    this.account = this.account.toBuilder().setAssetIssuedID(assetIssuedID).build();
+    mutable().setAssetIssuedID(assetIssuedID);
   }
 
   public long getAllowance() {
-    return getInstance().getAllowance();
+    return current().getAllowance();
   }
 
   public long getLatestWithdrawTime() {
-    return getInstance().getLatestWithdrawTime();
+    return current().getLatestWithdrawTime();
   }
 
   public boolean getIsWitness() {
-    return getInstance().getIsWitness();
+    return current().getIsWitness();
   }
 
   public void setIsWitness(boolean isWitness) {
-    this.account = this.account.toBuilder().setIsWitness(isWitness).build();
+    mutable().setIsWitness(isWitness);
   }
 
   public boolean getIsCommittee() {
-    return getInstance().getIsCommittee();
+    return current().getIsCommittee();
   }
 
   public void setIsCommittee(boolean isCommittee) {
-    this.account = this.account.toBuilder().setIsCommittee(isCommittee).build();
+    mutable().setIsCommittee(isCommittee);
   }
 
   public void setFrozenForBandwidth(long frozenBalance, long expireTime) {
@@ -875,14 +892,9 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
 
     long frozenCount = getFrozenCount();
     if (frozenCount == 0) {
-      setInstance(getInstance().toBuilder()
-          .addFrozen(newFrozen)
-          .build());
+      mutable().addFrozen(newFrozen);
     } else {
-      setInstance(getInstance().toBuilder()
-          .setFrozen(0, newFrozen)
-          .build()
-      );
+      mutable().setFrozen(0, newFrozen);
     }
   }
 
@@ -894,29 +906,27 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
         .setExpireTime(expireTime)
         .build();
 
-    this.account = this.account.toBuilder()
-        .addFrozen(newFrozen)
-        .build();
+    mutable()
+        .addFrozen(newFrozen);
   }
 
   //for test only
   public void setLatestWithdrawTime(long latestWithdrawTime) {
-    this.account = this.account.toBuilder()
-        .setLatestWithdrawTime(latestWithdrawTime)
-        .build();
+    mutable()
+        .setLatestWithdrawTime(latestWithdrawTime);
   }
 
   public long getNetUsage() {
-    return this.account.getNetUsage();
+    return current().getNetUsage();
   }
 
   public void setNetUsage(long netUsage) {
-    this.account = this.account.toBuilder()
-        .setNetUsage(netUsage).build();
+    mutable()
+        .setNetUsage(netUsage);
   }
 
   public AccountResource getAccountResource() {
-    return this.account.getAccountResource();
+    return current().getAccountResource();
   }
 
 
@@ -929,18 +939,17 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
     AccountResource newAccountResource = getAccountResource().toBuilder()
         .setFrozenBalanceForEnergy(newFrozenForEnergy).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(newAccountResource)
-        .build();
+    mutable()
+        .setAccountResource(newAccountResource);
   }
 
 
   public long getEnergyFrozenBalance() {
-    return this.account.getAccountResource().getFrozenBalanceForEnergy().getFrozenBalance();
+    return current().getAccountResource().getFrozenBalanceForEnergy().getFrozenBalance();
   }
 
   public long getEnergyUsage() {
-    return this.account.getAccountResource().getEnergyUsage();
+    return current().getAccountResource().getEnergyUsage();
   }
 
   public long getAllFrozenBalanceForEnergy() {
@@ -949,79 +958,77 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
 
 
   public void setEnergyUsage(long energyUsage) {
-    this.account = this.account.toBuilder()
-        .setAccountResource(
-            this.account.getAccountResource().toBuilder().setEnergyUsage(energyUsage).build())
-        .build();
+    AccountResource accountResource = current().getAccountResource().toBuilder().setEnergyUsage(energyUsage).build();
+    mutable()
+        .setAccountResource(accountResource);
   }
 
   public void setLatestConsumeTimeForEnergy(long latest_time) {
-    this.account = this.account.toBuilder()
-        .setAccountResource(
-            this.account.getAccountResource().toBuilder().setLatestConsumeTimeForEnergy(latest_time)
-                .build()).build();
+    AccountResource accountResource = current().getAccountResource().toBuilder().setLatestConsumeTimeForEnergy(latest_time)
+        .build();
+    mutable()
+        .setAccountResource(accountResource);
   }
 
   public long getLatestConsumeTimeForEnergy() {
-    return this.account.getAccountResource().getLatestConsumeTimeForEnergy();
+    return current().getAccountResource().getLatestConsumeTimeForEnergy();
   }
 
   public long getFreeNetUsage() {
-    return this.account.getFreeNetUsage();
+    return current().getFreeNetUsage();
   }
 
   public void setFreeNetUsage(long freeNetUsage) {
-    this.account = this.account.toBuilder()
-        .setFreeNetUsage(freeNetUsage).build();
+    mutable()
+        .setFreeNetUsage(freeNetUsage);
   }
 
 
   public boolean addAllFreeAssetNetUsageV2(Map<String, Long> map) {
-    this.account = this.account.toBuilder().putAllFreeAssetNetUsageV2(map).build();
+    mutable().putAllFreeAssetNetUsageV2(map);
     return true;
   }
 
   public long getFreeAssetNetUsage(String assetName) {
-    return this.account.getFreeAssetNetUsageOrDefault(assetName, 0);
+    return current().getFreeAssetNetUsageOrDefault(assetName, 0);
   }
 
   public long getFreeAssetNetUsageV2(String assetName) {
-    return this.account.getFreeAssetNetUsageV2OrDefault(assetName, 0);
+    return current().getFreeAssetNetUsageV2OrDefault(assetName, 0);
   }
 
   public Map<String, Long> getAllFreeAssetNetUsage() {
-    return this.account.getFreeAssetNetUsageMap();
+    return getInstance().getFreeAssetNetUsageMap();
   }
 
   public Map<String, Long> getAllFreeAssetNetUsageV2() {
-    return this.account.getFreeAssetNetUsageV2Map();
+    return getInstance().getFreeAssetNetUsageV2Map();
   }
 
   public void putFreeAssetNetUsage(String s, long freeAssetNetUsage) {
-    this.account = this.account.toBuilder()
-        .putFreeAssetNetUsage(s, freeAssetNetUsage).build();
+    mutable()
+        .putFreeAssetNetUsage(s, freeAssetNetUsage);
   }
 
   public void putFreeAssetNetUsageV2(String s, long freeAssetNetUsage) {
-    this.account = this.account.toBuilder()
-        .putFreeAssetNetUsageV2(s, freeAssetNetUsage).build();
+    mutable()
+        .putFreeAssetNetUsageV2(s, freeAssetNetUsage);
   }
 
   public long getStorageLimit() {
-    return this.account.getAccountResource().getStorageLimit();
+    return current().getAccountResource().getStorageLimit();
   }
 
   public void setStorageLimit(long limit) {
-    AccountResource accountResource = this.account.getAccountResource();
+    AccountResource accountResource = current().getAccountResource();
     accountResource = accountResource.toBuilder().setStorageLimit(limit).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(accountResource)
-        .build();
+    mutable()
+        .setAccountResource(accountResource);
   }
 
   public long getStorageUsage() {
-    return this.account.getAccountResource().getStorageUsage();
+    return current().getAccountResource().getStorageUsage();
   }
 
   public long getStorageLeft() {
@@ -1029,38 +1036,35 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public void setStorageUsage(long usage) {
-    AccountResource accountResource = this.account.getAccountResource();
+    AccountResource accountResource = current().getAccountResource();
     accountResource = accountResource.toBuilder().setStorageUsage(usage).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(accountResource)
-        .build();
+    mutable()
+        .setAccountResource(accountResource);
   }
 
   public long getLatestExchangeStorageTime() {
-    return this.account.getAccountResource().getLatestExchangeStorageTime();
+    return current().getAccountResource().getLatestExchangeStorageTime();
   }
 
   public void setLatestExchangeStorageTime(long time) {
-    AccountResource accountResource = this.account.getAccountResource();
+    AccountResource accountResource = current().getAccountResource();
     accountResource = accountResource.toBuilder().setLatestExchangeStorageTime(time).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(accountResource)
-        .build();
+    mutable()
+        .setAccountResource(accountResource);
   }
 
   public void addStorageUsage(long storageUsage) {
     if (storageUsage <= 0) {
       return;
     }
-    AccountResource accountResource = this.account.getAccountResource();
+    AccountResource accountResource = current().getAccountResource();
     accountResource = accountResource.toBuilder()
         .setStorageUsage(Math.addExact(accountResource.getStorageUsage(), storageUsage)).build();
 
-    this.account = this.account.toBuilder()
-        .setAccountResource(accountResource)
-        .build();
+    mutable()
+        .setAccountResource(accountResource);
   }
 
   public static Permission getDefaultPermission(ByteString owner) {
@@ -1069,18 +1073,18 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
 
   public Permission getPermissionById(int id) {
     if (id == 0) {
-      if (this.account.hasOwnerPermission()) {
-        return this.account.getOwnerPermission();
+      if (current().hasOwnerPermission()) {
+        return current().getOwnerPermission();
       }
-      return getDefaultPermission(this.account.getAddress());
+      return getDefaultPermission(current().getAddress());
     }
     if (id == 1) {
-      if (this.account.hasWitnessPermission()) {
-        return this.account.getWitnessPermission();
+      if (current().hasWitnessPermission()) {
+        return current().getWitnessPermission();
       }
       return null;
     }
-    for (Permission permission : this.account.getActivePermissionList()) {
+    for (Permission permission : current().getActivePermissionList()) {
       if (id == permission.getId()) {
         return permission;
       }
@@ -1089,7 +1093,7 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
   }
 
   public void updatePermissions(Permission owner, Permission witness, List<Permission> actives) {
-    Account.Builder builder = this.account.toBuilder();
+    Account.Builder builder = mutable();
     owner = owner.toBuilder().setId(0).build();
     builder.setOwnerPermission(owner);
     if (builder.getIsWitness()) {
@@ -1101,20 +1105,18 @@ public class AccountCapsule implements ProtoCapsule<Account>, Comparable<Account
       Permission permission = actives.get(i).toBuilder().setId(i + 2).build();
       builder.addActivePermission(permission);
     }
-    this.account = builder.build();
   }
 
   public void updateAccountType(AccountType accountType) {
-    this.account = this.account.toBuilder().setType(accountType).build();
+    mutable().setType(accountType);
   }
 
   // just for vm create2 instruction
   public void clearDelegatedResource() {
-    Builder builder = account.toBuilder();
     AccountResource newAccountResource = getAccountResource().toBuilder()
         .setAcquiredDelegatedFrozenBalanceForEnergy(0L).build();
+    Builder builder = mutable();
     builder.setAccountResource(newAccountResource);
     builder.setAcquiredDelegatedFrozenBalanceForBandwidth(0L);
-    this.account = builder.build();
   }
 }
\ No newline at end of file
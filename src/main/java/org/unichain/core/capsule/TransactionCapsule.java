@@ -15,6 +15,7 @@
 
 package org.unichain.core.capsule;
 
+import com.google.common.collect.Lists;
 import com.google.protobuf.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -30,6 +31,7 @@ import org.unichain.common.runtime.vm.program.Program.*;
 import org.unichain.common.utils.ByteArray;
 import org.unichain.common.utils.Sha256Hash;
 import org.unichain.core.Wallet;
+import org.unichain.core.capsule.utils.SignatureCache;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.db.AccountStore;
 import org.unichain.core.db.Manager;
@@ -49,6 +51,7 @@ import java.io.IOException;
 import java.lang.Exception;
 import java.security.SignatureException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
@@ -77,7 +80,20 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
 
   private Transaction transaction;
 
-  private static final ExecutorService executorService = Executors.newFixedThreadPool(Args.getInstance().getValidContractProtoThreadNum());
+  /**
+   * Memoized views of {@link #transaction}: the raw hash and owner of a raw_data, the serialized
+   * form of a transaction. Each is published with the instance it was computed from, through one
+   * volatile reference, and used only while that instance is still the current one, so a thread
+   * never sees the view of another transaction nor a half-built one.
+   */
+  private volatile Memo<Transaction.raw, Sha256Hash> rawHash;
+
+  private volatile Memo<Transaction.raw, byte[]> owner;
+
+  private volatile Memo<Transaction, byte[]> data;
+
+  private static final int VALID_CONTRACT_PROTO_THREADS = Math.max(1, Args.getInstance().getValidContractProtoThreadNum());
+  private static final ExecutorService executorService = Executors.newFixedThreadPool(VALID_CONTRACT_PROTO_THREADS);
 
   /**
    * constructor TransactionCapsule.
@@ -167,13 +183,13 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
 
   public void resetResult() {
     if (this.getInstance().getRetCount() > 0) {
-      this.transaction = this.getInstance().toBuilder().clearRet().build();
+      setInstance(this.getInstance().toBuilder().clearRet().build());
     }
   }
 
   public void setResult(TransactionResultCapsule transactionResultCapsule) {
-    this.transaction = this.getInstance().toBuilder().addRet(transactionResultCapsule.getInstance())
-        .build();
+    setInstance(this.getInstance().toBuilder().addRet(transactionResultCapsule.getInstance())
+        .build());
   }
 
   public void setReference(long blockNum, byte[] blockHash) {
@@ -182,7 +198,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         .setRefBlockHash(ByteString.copyFrom(ByteArray.subArray(blockHash, 8, 16)))
         .setRefBlockBytes(ByteString.copyFrom(ByteArray.subArray(refBlockNum, 6, 8)))
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   /**
@@ -191,7 +207,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public void setExpiration(long expiration) {
     Transaction.raw rawData = this.transaction.getRawData().toBuilder().setExpiration(expiration)
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   public long getExpiration() {
@@ -202,7 +218,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     Transaction.raw rawData = this.transaction.getRawData().toBuilder()
         .setTimestamp(System.currentTimeMillis())
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   public long getTimestamp() {
@@ -226,23 +242,35 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     Transaction.raw.Builder transactionBuilder = Transaction.raw.newBuilder().addContract(
         Transaction.Contract.newBuilder().setType(contractType).setParameter(
             Any.pack(message)).build());
-    transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    setInstance(Transaction.newBuilder().setRawData(transactionBuilder.build()).build());
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
-    return Sha256Hash.of(transBytes);
+    return Sha256Hash.of(getData());
   }
 
   private Sha256Hash getRawHash() {
-    return Sha256Hash.of(this.transaction.getRawData().toByteArray());
+    Transaction.raw raw = this.transaction.getRawData();
+    Memo<Transaction.raw, Sha256Hash> memo = this.rawHash;
+    if (memo == null || memo.source != raw) {
+      memo = new Memo<>(raw, Sha256Hash.of(raw.toByteArray()));
+      this.rawHash = memo;
+    }
+    return memo.value;
+  }
+
+  /**
+   * The memoized views need no reset, they are checked against the instance on every read.
+   */
+  private void setInstance(Transaction transaction) {
+    this.transaction = transaction;
   }
 
   public void sign(byte[] privateKey) {
     ECKey ecKey = ECKey.fromPrivate(privateKey);
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toByteArray());
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    setInstance(this.transaction.toBuilder().addSignature(sig).build());
   }
 
   public static long getWeight(Permission permission, byte[] address) {
@@ -260,21 +288,27 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     if (sigs.size() > permission.getKeysCount()) {
       throw new PermissionException("Signature count is " + (sigs.size()) + " more than key counts of permission : " + permission.getKeysCount());
     }
-    HashMap addMap = new HashMap();
+    HashMap<ByteString, Long> addMap = new HashMap<>();
     for (ByteString sig : sigs) {
       if (sig.size() < 65) {
         throw new SignatureFormatException("Signature size is " + sig.size());
       }
-      String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = ECKey.signatureToAddress(hash, base64);
+      byte[] sigBytes = sig.toByteArray();
+      byte[] address = SignatureCache.recoverAddress(hash, sigBytes, () -> ECKey.recoverAddress(hash, sigBytes));
       long weight = getWeight(permission, address);
       if (weight == 0) {
-        throw new PermissionException(ByteArray.toHexString(sig.toByteArray()) + " is signed by " + Wallet.encode58Check(address) + " but it is not contained of permission.");
+        throw new PermissionException(ByteArray.toHexString(sigBytes) + " is signed by " + Wallet.encode58Check(address) + " but it is not contained of permission.");
       }
-      if (addMap.containsKey(base64)) {
+      //r || s || header, same identity as the former base64 form
+      byte[] sigKey = Arrays.copyOf(sigBytes, 65);
+      if (sigKey[64] < 27) {
+        sigKey[64] += 27;
+      }
+      ByteString signed = ByteString.copyFrom(sigKey);
+      if (addMap.containsKey(signed)) {
         throw new PermissionException(Wallet.encode58Check(address) + " has signed twice!");
       }
-      addMap.put(base64, weight);
+      addMap.put(signed, weight);
       if (approveList != null) {
         approveList.add(ByteString.copyFrom(address)); //out put approve list.
       }
@@ -319,7 +353,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toByteArray());
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    setInstance(this.transaction.toBuilder().addSignature(sig).build());
   }
 
   /**
@@ -573,12 +607,19 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return (T) defaultInstance.getParserForType().parseFrom(codedInputStream);
   }
 
+  /**
+   * Checks the contracts of a message on the proto pool, one task per chunk of transactions rather
+   * than per transaction.
+   */
   public static void validContractProto(List<Transaction> transactionList) throws P2pException {
     List<Future<Boolean>> futureList = new ArrayList<>();
-    transactionList.forEach(transaction -> {
+    int chunk = Math.max(1, (transactionList.size() + VALID_CONTRACT_PROTO_THREADS - 1) / VALID_CONTRACT_PROTO_THREADS);
+    Lists.partition(transactionList, chunk).forEach(part -> {
       Future<Boolean> future = executorService.submit(() -> {
         try {
-          validContractProto(transaction.getRawData().getContract(0));
+          for (Transaction transaction : part) {
+            validContractProto(transaction.getRawData().getContract(0));
+          }
           return true;
         } catch (Exception e) {
           logger.error("{}", e.getMessage());
@@ -831,8 +872,9 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
     }
     com.google.protobuf.Message src = contractParameter.unpack(clazz);
-    com.google.protobuf.Message contractMessage = parse(clazz, Message.getCodedInputStream(src.toByteArray()));
-    Message.compareBytes(src.toByteArray(), contractMessage.toByteArray());
+    byte[] srcBytes = src.toByteArray();
+    com.google.protobuf.Message contractMessage = parse(clazz, Message.getCodedInputStream(srcBytes));
+    Message.compareBytes(srcBytes, contractMessage);
   }
 
   public static byte[] getToAddress(Transaction.Contract contract) {
@@ -986,9 +1028,46 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return getRawHash();
   }
 
+  /**
+   * The returned array is shared until the next mutation, callers must not modify it.
+   */
   @Override
   public byte[] getData() {
-    return this.transaction.toByteArray();
+    Transaction transaction = this.transaction;
+    Memo<Transaction, byte[]> memo = this.data;
+    if (memo == null || memo.source != transaction) {
+      memo = new Memo<>(transaction, transaction.toByteArray());
+      this.data = memo;
+    }
+    return memo.value;
+  }
+
+  /**
+   * Owner of the first contract, see {@link #getOwner(Transaction.Contract)}.
+   * The returned array is shared until raw_data changes, callers must not modify it.
+   */
+  public byte[] getOwnerAddress() {
+    Transaction.raw raw = this.transaction.getRawData();
+    Memo<Transaction.raw, byte[]> memo = this.owner;
+    if (memo == null || memo.source != raw) {
+      memo = new Memo<>(raw, raw.getContractCount() > 0 ? getOwner(raw.getContract(0)) : null);
+      this.owner = memo;
+    }
+    return memo.value;
+  }
+
+  /**
+   * A value computed from source, null value included.
+   */
+  private static final class Memo<S, V> {
+
+    private final S source;
+    private final V value;
+
+    private Memo(S source, V value) {
+      this.source = source;
+      this.value = value;
+    }
   }
 
   public long getSerializedSize() {
@@ -1117,10 +1196,10 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     if (this.transaction.getRetCount() > 0) {
       ret = this.transaction.getRet(0).toBuilder().setContractRet(code).build();
 
-      this.transaction = transaction.toBuilder().setRet(0, ret).build();
+      setInstance(transaction.toBuilder().setRet(0, ret).build());
       return;
     }
-    this.transaction = transaction.toBuilder().addRet(ret).build();
+    setInstance(transaction.toBuilder().addRet(ret).build());
   }
 
   public contractResult getContractRet() {
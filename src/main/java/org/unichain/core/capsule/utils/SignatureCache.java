@@ -0,0 +1,91 @@
+/*
+ * unichain-core is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * unichain-core is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.unichain.core.capsule.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SignatureException;
+
+/**
+ * Process-wide cache of recovered signer addresses keyed by (message hash, 65 signature bytes).
+ *
+ * A transaction verified when it enters the pending pool is verified again when it arrives inside
+ * a block, and multi-sign precompiles recover the same signatures over and over. ECDSA recovery
+ * is by far the most expensive part of those checks, and its result only depends on the hash and
+ * the signature bytes, so it is shared here. Permission, weight and threshold checks are cheap and
+ * depend on the current account state, so callers always re-evaluate them.
+ *
+ * Failed recoveries are never cached: each caller keeps its own validation rules and error
+ * reporting, and must apply its pre-checks before consulting the cache.
+ */
+@Slf4j(topic = "capsule")
+public class SignatureCache {
+
+  private static final int SIGNATURE_SIZE = 65;
+  private static final long MAX_SIZE = 100_000;
+
+  private static final Cache<ByteArrayWrapper, byte[]> addressCache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SIZE).recordStats().build();
+
+  @FunctionalInterface
+  public interface Recovery {
+
+    byte[] recover() throws SignatureException;
+  }
+
+  private SignatureCache() {
+  }
+
+  /**
+   * @param hash 32-byte signed message hash
+   * @param sig signature, only the first 65 bytes (r, s, v) are significant
+   * @param recovery invoked on cache miss, may return null or throw to signal failure
+   * @return the recovered address, or whatever the recovery returned on failure
+   */
+  public static byte[] recoverAddress(byte[] hash, byte[] sig, Recovery recovery) throws SignatureException {
+    if (hash == null || sig == null || sig.length < SIGNATURE_SIZE) {
+      return recovery.recover();
+    }
+    ByteArrayWrapper key = buildKey(hash, sig);
+    byte[] address = addressCache.getIfPresent(key);
+    if (address != null) {
+      return address.clone();
+    }
+    address = recovery.recover();
+    if (address != null && address.length > 0) {
+      addressCache.put(key, address.clone());
+    }
+    return address;
+  }
+
+  public static CacheStats stats() {
+    return addressCache.stats();
+  }
+
+  public static void invalidateAll() {
+    addressCache.invalidateAll();
+  }
+
+  private static ByteArrayWrapper buildKey(byte[] hash, byte[] sig) {
+    byte[] key = new byte[hash.length + SIGNATURE_SIZE];
+    System.arraycopy(hash, 0, key, 0, hash.length);
+    System.arraycopy(sig, 0, key, hash.length, SIGNATURE_SIZE);
+    return new ByteArrayWrapper(key);
+  }
+}
@@ -100,6 +100,14 @@ public class Args {
   @Parameter(names = {"--long-running-time"})
   private int longRunningTime = 10;
 
+  @Getter
+  @Setter
+  private int constantCallThreads = Runtime.getRuntime().availableProcessors();
+
+  @Getter
+  @Setter
+  private long constantCallResultCacheSize = 0;
+
   @Getter
   @Setter
   @Parameter(names = {"--max-connect-number"})
@@ -411,6 +419,34 @@ public class Args {
   @Setter
   private boolean isOpenFullTcpDisconnect;
 
+  @Getter
+  @Setter
+  private boolean compactBlockRelay;
+
+  @Getter
+  @Setter
+  private boolean frameCompression;
+
+  @Getter
+  @Setter
+  private boolean nettyEpoll;
+
+  @Getter
+  @Setter
+  private boolean nettyPooledAllocator;
+
+  @Getter
+  @Setter
+  private boolean tcpNoDelay;
+
+  @Getter
+  @Setter
+  private int writeBufferLowWaterMark;
+
+  @Getter
+  @Setter
+  private int writeBufferHighWaterMark;
+
   @Getter
   @Setter
   private int allowMultiSign;
@@ -419,6 +455,22 @@ public class Args {
   @Setter
   private boolean vmTrace;
 
+  @Getter
+  @Setter
+  private boolean vmBlockEnergyCharging;
+
+  @Getter
+  @Setter
+  private boolean vmProfiler;
+
+  @Getter
+  @Setter
+  private int vmProfilerSampleInterval = 64;
+
+  @Getter
+  @Setter
+  private boolean vmProfilerAllowReset;
+
   @Getter
   @Setter
   private boolean needToUpdateAsset;
@@ -546,11 +598,21 @@ public class Args {
     INSTANCE.maxConnectNumberFactor = 0.8;
     INSTANCE.receiveTcpMinDataLength = 2048;
     INSTANCE.isOpenFullTcpDisconnect = false;
+    INSTANCE.compactBlockRelay = true;
+    INSTANCE.frameCompression = false;
+    INSTANCE.nettyEpoll = false;
+    INSTANCE.nettyPooledAllocator = false;
+    INSTANCE.tcpNoDelay = true;
+    INSTANCE.writeBufferLowWaterMark = 256 * 1024;
+    INSTANCE.writeBufferHighWaterMark = 1024 * 1024;
     INSTANCE.supportConstant = false;
     INSTANCE.debug = false;
     INSTANCE.minTimeRatio = 0.0;
     INSTANCE.maxTimeRatio = 5.0;
     INSTANCE.longRunningTime = 10;
+    INSTANCE.constantCallThreads = Runtime.getRuntime().availableProcessors();
+    INSTANCE.constantCallResultCacheSize = 0;
+    INSTANCE.vmProfilerSampleInterval = 64;
     INSTANCE.maxHttpConnectNumber = 50;
     INSTANCE.allowMultiSign = 0;
     INSTANCE.unxExpirationTimeInMilliseconds = 0;
@@ -685,6 +747,14 @@ public class Args {
       INSTANCE.longRunningTime = config.getInt("vm.longRunningTime");
     }
 
+    if (config.hasPath("vm.constantCallThreads")) {
+      INSTANCE.constantCallThreads = Math.max(1, config.getInt("vm.constantCallThreads"));
+    }
+
+    if (config.hasPath("vm.constantCallResultCacheSize")) {
+      INSTANCE.constantCallResultCacheSize = config.getLong("vm.constantCallResultCacheSize");
+    }
+
     INSTANCE.storage = new Storage();
     INSTANCE.storage.setDbVersion(Optional.ofNullable(INSTANCE.storageDbVersion)
         .filter(StringUtils::isNotEmpty)
@@ -926,6 +996,25 @@ public class Args {
         config.getLong("node.receiveTcpMinDataLength") : 2048;
     INSTANCE.isOpenFullTcpDisconnect = config.hasPath("node.isOpenFullTcpDisconnect") && config
         .getBoolean("node.isOpenFullTcpDisconnect");
+    INSTANCE.compactBlockRelay = !config.hasPath("node.compactBlockRelay") || config
+        .getBoolean("node.compactBlockRelay");
+    INSTANCE.frameCompression = config.hasPath("node.frameCompression") && config
+        .getBoolean("node.frameCompression");
+    INSTANCE.nettyEpoll = config.hasPath("node.nettyEpoll") && config
+        .getBoolean("node.nettyEpoll");
+    INSTANCE.nettyPooledAllocator = config.hasPath("node.nettyPooledAllocator") && config
+        .getBoolean("node.nettyPooledAllocator");
+    INSTANCE.tcpNoDelay = !config.hasPath("node.tcpNoDelay") || config
+        .getBoolean("node.tcpNoDelay");
+    INSTANCE.writeBufferLowWaterMark = config.hasPath("node.writeBufferLowWaterMark") ? config
+        .getInt("node.writeBufferLowWaterMark") : 256 * 1024;
+    INSTANCE.writeBufferHighWaterMark = config.hasPath("node.writeBufferHighWaterMark") ? config
+        .getInt("node.writeBufferHighWaterMark") : 1024 * 1024;
+    if (INSTANCE.writeBufferLowWaterMark < 0
+        || INSTANCE.writeBufferHighWaterMark < INSTANCE.writeBufferLowWaterMark) {
+      throw new RuntimeException("node.writeBufferLowWaterMark must be >= 0 and <= "
+          + "node.writeBufferHighWaterMark");
+    }
     INSTANCE.needToUpdateAsset =
         config.hasPath("storage.needToUpdateAsset") ? config
             .getBoolean("storage.needToUpdateAsset")
@@ -949,6 +1038,18 @@ public class Args {
         config.hasPath("vm.vmTrace") ? config
             .getBoolean("vm.vmTrace") : false;
 
+    INSTANCE.vmBlockEnergyCharging =
+        config.hasPath("vm.blockEnergyCharging") && config.getBoolean("vm.blockEnergyCharging");
+
+    INSTANCE.vmProfiler = config.hasPath("vm.profiler") && config.getBoolean("vm.profiler");
+
+    if (config.hasPath("vm.profilerSampleInterval")) {
+      INSTANCE.vmProfilerSampleInterval = Math.max(1, config.getInt("vm.profilerSampleInterval"));
+    }
+
+    INSTANCE.vmProfilerAllowReset =
+        config.hasPath("vm.profilerAllowReset") && config.getBoolean("vm.profilerAllowReset");
+
     INSTANCE.saveInternalTx =
         config.hasPath("vm.saveInternalTx") && config.getBoolean("vm.saveInternalTx");
 
@@ -228,11 +228,13 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
         return;
       }
 
+      StateVersion.next();
       state.oldValues.forEach((k, v) -> k.database.putData(k.key, v));
       state.newIds.forEach(e -> e.database.deleteData(e.key));
       state.removed.forEach((k, v) -> k.database.putData(k.key, v));
       stack.pollLast();
     } finally {
+      StateVersion.next();
       disabled = false;
     }
     --activeDialog;
@@ -269,12 +271,14 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     disabled = true;
 
     try {
+      StateVersion.next();
       RevokingState state = stack.peekLast();
       state.oldValues.forEach((k, v) -> k.database.putData(k.key, v, optionsWrapper));
       state.newIds.forEach(e -> e.database.deleteData(e.key, optionsWrapper));
       state.removed.forEach((k, v) -> k.database.putData(k.key, v, optionsWrapper));
       stack.pollLast();
     } finally {
+      StateVersion.next();
       disabled = false;
     }
   }
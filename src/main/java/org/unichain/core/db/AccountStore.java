@@ -10,6 +10,7 @@ import org.unichain.core.Wallet;
 import org.unichain.core.capsule.AccountCapsule;
 import org.unichain.core.db.accountstate.callback.AccountStateCallBack;
 import org.unichain.core.db.accountstate.storetrie.AccountStateStoreTrie;
+import org.unichain.core.exception.BadItemException;
 
 import java.util.HashMap;
 import java.util.List;
@@ -27,15 +28,26 @@ public class AccountStore extends UnichainStoreWithRevoking<AccountCapsule> {
   @Autowired
   private AccountStateStoreTrie accountStateStoreTrie;
 
+  private static final long DECODED_CACHE_SIZE = 10_000;
+
   @Autowired
   private AccountStore(@Value("account") String dbName) {
     super(dbName);
+    // shares the immutable account, AccountCapsule copies it into its own builder on first write
+    enableDecodedCache(DECODED_CACHE_SIZE, item -> new AccountCapsule(item.getInstance()));
   }
 
   @Override
   public AccountCapsule get(byte[] key) {
     byte[] value = revokingDB.getUnchecked(key);
-    return ArrayUtils.isEmpty(value) ? null : new AccountCapsule(value);
+    if (ArrayUtils.isEmpty(value)) {
+      return null;
+    }
+    try {
+      return of(key, value);
+    } catch (BadItemException e) {
+      return new AccountCapsule(value);
+    }
   }
 
   @Override
@@ -13,9 +13,12 @@ import org.unichain.protos.Protocol.SmartContract;
 @Component
 public class ContractStore extends UnichainStoreWithRevoking<ContractCapsule> {
 
+  private static final long DECODED_CACHE_SIZE = 4096;
+
   @Autowired
   private ContractStore(@Value("contract") String dbName) {
     super(dbName);
+    enableDecodedCache(DECODED_CACHE_SIZE, item -> new ContractCapsule(item.getInstance()));
   }
 
   @Override
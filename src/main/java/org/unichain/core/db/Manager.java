@@ -9,6 +9,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import javafx.util.Pair;
@@ -227,6 +228,12 @@ public class Manager {
 
   private ExecutorService validateSignService;
 
+  // checks the signatures of inbound transaction batches, apart from validateSignService so a
+  // flood of transactions never delays the checks of a block; a full queue runs the check on the
+  // pushing thread, which slows the handlers down instead of queueing without bound, and so does
+  // a shut down service
+  private ExecutorService pushSignService;
+
   private boolean isRunRepushThread = true;
 
   private boolean isRunTriggerCapsuleProcessThread = true;
@@ -239,6 +246,12 @@ public class Manager {
 
   private BlockingQueue<TransactionCapsule> pushTransactionQueue = new LinkedBlockingQueue<>();
 
+  // transactions of a batch pushed per hold of the lock
+  private static final int PUSH_BATCH_SIZE = 100;
+
+  // signature checks of inbound transactions waiting for a thread
+  private static final int PUSH_SIGN_QUEUE_SIZE = 1000;
+
   @Getter
   private Cache<Sha256Hash, Boolean> transactionIdCache = CacheBuilder.newBuilder().maximumSize(100_000).recordStats().build();
 
@@ -456,6 +469,12 @@ public class Manager {
     initCacheTxs();
     revokingStore.enable();
     validateSignService = Executors.newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+    int pushSignThreadNum = Args.getInstance().getValidateSignThreadNum();
+    pushSignService = new ThreadPoolExecutor(pushSignThreadNum, pushSignThreadNum, 0L,
+        TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(PUSH_SIGN_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("push-sign-%d").build(),
+        // CallerRunsPolicy would drop the checks once shut down, leaving their futures unfinished
+        (task, executor) -> task.run());
     Thread repushThread = new Thread(repushLoop);
     repushThread.start();
     // add contract event listener for subscribing
@@ -771,6 +790,72 @@ public class Manager {
     return true;
   }
 
+  /**
+   * Pushes a batch of transactions into pending. Transactions already in the transaction cache are
+   * dropped, the signatures of the others are checked in parallel on pushSignService outside the
+   * lock; the survivors are then processed taking the lock once per PUSH_BATCH_SIZE of them, so
+   * block production does not wait for a whole large batch. Returns why each transaction not
+   * pushed failed.
+   */
+  public Map<TransactionCapsule, Exception> pushTransactions(List<TransactionCapsule> txs) {
+    Map<TransactionCapsule, Exception> failures = new HashMap<>();
+    synchronized (pushTransactionQueue) {
+      pushTransactionQueue.addAll(txs);
+    }
+
+    try {
+      List<TransactionCapsule> fresh = new ArrayList<>(txs.size());
+      for (TransactionCapsule tx : txs) {
+        if (containsTransaction(tx)) {
+          failures.put(tx, new DupTransactionException("dup trans"));
+        } else {
+          fresh.add(tx);
+        }
+      }
+
+      List<Future<Boolean>> futures = new ArrayList<>(fresh.size());
+      for (TransactionCapsule tx : fresh) {
+        futures.add(pushSignService.submit(() -> tx.validateSignature(this)));
+      }
+      List<TransactionCapsule> verified = new ArrayList<>(fresh.size());
+      for (int i = 0; i < fresh.size(); i++) {
+        try {
+          futures.get(i).get();
+          verified.add(fresh.get(i));
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          failures.put(fresh.get(i), cause instanceof Exception ? (Exception) cause
+              : new ValidateSignatureException(cause.getMessage()));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failures.put(fresh.get(i), e);
+        }
+      }
+
+      for (List<TransactionCapsule> part : Lists.partition(verified, PUSH_BATCH_SIZE)) {
+        synchronized (this) {
+          if (!session.valid()) {
+            session.setValue(revokingStore.buildSession());
+          }
+          for (TransactionCapsule tx : part) {
+            try (ISession tmpSession = revokingStore.buildSession()) {
+              processTransaction(tx, null);
+              pendingTransactions.add(tx);
+              tmpSession.merge();
+            } catch (Exception e) {
+              failures.put(tx, e);
+            }
+          }
+        }
+      }
+    } finally {
+      Set<TransactionCapsule> batch = Collections.newSetFromMap(new IdentityHashMap<>());
+      batch.addAll(txs);
+      pushTransactionQueue.removeIf(batch::contains);
+    }
+    return failures;
+  }
+
   public void consumeMultiSignFee(TransactionCapsule tx, TransactionTrace trace, BlockCapsule block) throws AccountResourceInsufficientException, ContractExeException {
     val blockVersion = findBlockVersion(block);
     switch (blockVersion){
@@ -1339,9 +1424,8 @@ public class Manager {
   TransactionInfoCapsule transactionInfo = TransactionInfoCapsule.buildInstance(txCap, block, trace);
 
   postContractTrigger(trace, false);
-  Contract contract = txCap.getInstance().getRawData().getContract(0);
   if (isMultiSignTransaction(txCap.getInstance())) {
-    ownerAddressSet.add(ByteArray.toHexString(TransactionCapsule.getOwner(contract)));
+    ownerAddressSet.add(ByteArray.toHexString(txCap.getOwnerAddress()));
   }
 
   return transactionInfo.getInstance();
@@ -1424,8 +1508,7 @@ public class Manager {
         continue;
       }
 
-      Contract contract = tx.getInstance().getRawData().getContract(0);
-      byte[] owner = TransactionCapsule.getOwner(contract);
+      byte[] owner = tx.getOwnerAddress();
       String ownerAddress = ByteArray.toHexString(owner);
       if (accountSet.contains(ownerAddress)) {
         continue;
@@ -1545,8 +1628,7 @@ public class Manager {
   }
 
   private void filterOwnerAddress(TransactionCapsule transactionCapsule, Set<String> result) {
-    Contract contract = transactionCapsule.getInstance().getRawData().getContract(0);
-    byte[] owner = TransactionCapsule.getOwner(contract);
+    byte[] owner = transactionCapsule.getOwnerAddress();
     String ownerAddress = ByteArray.toHexString(owner);
     if (ownerAddressSet.contains(ownerAddress)) {
       result.add(ownerAddress);
@@ -1781,6 +1863,9 @@ public class Manager {
   }
 
   public void closeAllStore() {
+    if (pushSignService != null) {
+      pushSignService.shutdown();
+    }
     logger.warn("******** begin to close db ********");
     closeOneStore(urc721MinterContractRelationStore);
     closeOneStore(urc721TokenApproveRelationStore);
@@ -0,0 +1,53 @@
+package org.unichain.core.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts changes of the visible state of the stores that do not go through their put and delete,
+ * that is revoked or popped snapshots. A cache in front of a store may only serve an entry read at
+ * the current version, and only to threads reading the head rather than the solidified state.
+ *
+ * Puts and deletes are counted apart, for caches of results computed from many stores at once.
+ */
+public final class StateVersion {
+
+  private static final AtomicLong version = new AtomicLong();
+  private static final AtomicLong writes = new AtomicLong();
+  private static final ThreadLocal<Boolean> solidityReads = ThreadLocal.withInitial(() -> false);
+
+  private StateVersion() {
+  }
+
+  public static long get() {
+    return version.get();
+  }
+
+  /**
+   * Called before and after the state changes, so nothing read while it changes stays current.
+   */
+  public static void next() {
+    version.incrementAndGet();
+  }
+
+  public static long getWrites() {
+    return writes.get();
+  }
+
+  /**
+   * Called by every put and delete of a store.
+   */
+  public static void written() {
+    writes.incrementAndGet();
+  }
+
+  public static boolean isSolidityReads() {
+    return solidityReads.get();
+  }
+
+  /**
+   * Follows the read mode of the stores for the current thread.
+   */
+  public static void setSolidityReads(boolean solidity) {
+    solidityReads.set(solidity);
+  }
+}
@@ -1,24 +1,158 @@
 package org.unichain.core.db;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.unichain.core.capsule.StorageRowCapsule;
+import org.unichain.core.db.common.WrappedByteArray;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 @Slf4j(topic = "DB")
 @Component
 public class StorageRowStore extends UnichainStoreWithRevoking<StorageRowCapsule> {
 
+  private static final long ROW_CACHE_SIZE = 100_000;
+
+  /**
+   * Rows read or written by recent transactions, shared by all of them. Entries are tagged with the
+   * {@link StateVersion} they were read at, revoked or popped snapshots make them stale at once.
+   * Writes count up before and after changing the store, a read only fills the cache when no write
+   * started or ended while it was reading.
+   */
+  private final Cache<WrappedByteArray, CachedRow> rowCache = CacheBuilder.newBuilder()
+      .maximumSize(ROW_CACHE_SIZE).recordStats().build();
+  private final Object rowLock = new Object();
+  private long writes;
+
   @Autowired
   private StorageRowStore(@Value("storage-row") String dbName) {
     super(dbName);
   }
 
+  // only for test
+  public StorageRowStore(String dbName, RevokingDatabase revokingDatabase) {
+    super(dbName);
+    revokingDatabase.add(revokingDB);
+  }
+
   @Override
   public StorageRowCapsule get(byte[] key) {
-    StorageRowCapsule row = getUnchecked(key);
+    StorageRowCapsule row = new StorageRowCapsule(readRow(key));
     row.setRowKey(key);
     return row;
   }
+
+  @Override
+  public void put(byte[] key, StorageRowCapsule item) {
+    if (key == null || item == null) {
+      return;
+    }
+    countWrite();
+    super.put(key, item);
+    synchronized (rowLock) {
+      writes++;
+      cacheRow(key, item.getData());
+    }
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    countWrite();
+    super.delete(key);
+    synchronized (rowLock) {
+      writes++;
+      cacheRow(key, null);
+    }
+  }
+
+  /**
+   * Writes the dirty rows of a contract storage, deleting the rows set to zero.
+   */
+  public void commitRows(Collection<StorageRowCapsule> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    Map<byte[], StorageRowCapsule> batch = new HashMap<>(rows.size());
+    for (StorageRowCapsule row : rows) {
+      batch.put(row.getRowKey(), row.getValue().isZero() ? null : row);
+    }
+    countWrite();
+    updateByBatch(batch);
+    synchronized (rowLock) {
+      writes++;
+      for (StorageRowCapsule row : rows) {
+        cacheRow(row.getRowKey(), row.getValue().isZero() ? null : row.getData());
+      }
+    }
+  }
+
+  public CacheStats getRowCacheStats() {
+    return rowCache.stats();
+  }
+
+  @Override
+  public void close() {
+    rowCache.invalidateAll();
+    super.close();
+  }
+
+  @Override
+  public void reset() {
+    rowCache.invalidateAll();
+    super.reset();
+  }
+
+  private byte[] readRow(byte[] key) {
+    if (StateVersion.isSolidityReads()) {
+      return revokingDB.getUnchecked(key);
+    }
+
+    long version = StateVersion.get();
+    CachedRow cached = rowCache.getIfPresent(WrappedByteArray.of(key));
+    if (cached != null && cached.version == version) {
+      return cached.value == null ? null : cached.value.clone();
+    }
+
+    long seen;
+    synchronized (rowLock) {
+      seen = writes;
+    }
+    byte[] value = revokingDB.getUnchecked(key);
+    synchronized (rowLock) {
+      // a write or revoke racing with the read may have made the value stale already
+      if (seen == writes && version == StateVersion.get()) {
+        rowCache.put(WrappedByteArray.copyOf(key), new CachedRow(value == null ? null : value.clone(), version));
+      }
+    }
+    return value;
+  }
+
+  private void countWrite() {
+    synchronized (rowLock) {
+      writes++;
+    }
+  }
+
+  // callers hold rowLock
+  private void cacheRow(byte[] key, byte[] value) {
+    rowCache.put(WrappedByteArray.copyOf(key), new CachedRow(value == null ? null : value.clone(), StateVersion.get()));
+  }
+
+  private static final class CachedRow {
+
+    private final byte[] value;
+    private final long version;
+
+    private CachedRow(byte[] value, long version) {
+      this.value = value;
+      this.version = version;
+    }
+  }
 }
@@ -168,7 +168,7 @@ public class TransactionTrace {
     long percent = 0;
     switch (unxType) {
       case UNW_CONTRACT_CREATION_TYPE:
-        callerAccount = TransactionCapsule.getOwner(unx.getInstance().getRawData().getContract(0));
+        callerAccount = unx.getOwnerAddress();
         originAccount = callerAccount;
         break;
       case UNW_CONTRACT_CALL_TYPE:
@@ -198,7 +198,7 @@ public class TransactionTrace {
     long originEnergyLimit = 0;
     switch (unxType) {
       case UNW_CONTRACT_CREATION_TYPE:
-        callerAccount = TransactionCapsule.getOwner(unx.getInstance().getRawData().getContract(0));
+        callerAccount = unx.getOwnerAddress();
         originAccount = callerAccount;
         break;
       case UNW_CONTRACT_CALL_TYPE:
@@ -1,5 +1,8 @@
 package org.unichain.core.db;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
@@ -13,6 +16,7 @@ import org.unichain.core.capsule.ProtoCapsule;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.db.api.IndexHelper;
 import org.unichain.core.db.common.DataPage;
+import org.unichain.core.db.common.WrappedByteArray;
 import org.unichain.core.db2.common.DB;
 import org.unichain.core.db2.common.IRevokingDB;
 import org.unichain.core.db2.common.LevelDB;
@@ -28,6 +32,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Slf4j(topic = "DB")
@@ -46,6 +51,25 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
   @Getter
   private String dbName;
 
+  /**
+   * Decoded values of hot keys, see {@link #enableDecodedCache(long, UnaryOperator)}. Null when
+   * disabled.
+   */
+  private Cache<WrappedByteArray, Decoded<T>> decodedCache;
+
+  private UnaryOperator<T> decodedCopy;
+
+  private static final class Decoded<T> {
+
+    private final byte[] data;
+    private final T item;
+
+    private Decoded(byte[] data, T item) {
+      this.data = data;
+      this.item = item;
+    }
+  }
+
   protected UnichainStoreWithRevoking(String dbName) {
     this.dbName = dbName;
     int dbVersion = Args.getInstance().getStorage().getDbVersion();
@@ -90,17 +114,34 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
       return;
     }
 
+    invalidateDecoded(key);
     revokingDB.put(key, item.getData());
+    StateVersion.written();
   }
 
   @Override
   public void delete(byte[] key) {
+    invalidateDecoded(key);
     revokingDB.delete(key);
+    StateVersion.written();
+  }
+
+  /**
+   * Puts the items and deletes the keys mapped to null, taking the revoking layer once.
+   */
+  protected void updateByBatch(Map<byte[], T> items) {
+    Map<byte[], byte[]> rows = new HashMap<>(items.size());
+    items.forEach((key, item) -> {
+      invalidateDecoded(key);
+      rows.put(key, item == null ? null : item.getData());
+    });
+    revokingDB.updateByBatch(rows);
+    StateVersion.written();
   }
 
   @Override
   public T get(byte[] key) throws ItemNotFoundException, BadItemException {
-    return of(revokingDB.get(key));
+    return of(key, revokingDB.get(key));
   }
 
   @Override
@@ -108,12 +149,55 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
     byte[] value = revokingDB.getUnchecked(key);
 
     try {
-      return of(value);
+      return of(key, value);
     } catch (BadItemException e) {
       return null;
     }
   }
 
+  /**
+   * Keep up to maxSize decoded items of this store, so hot keys are parsed once instead of on every
+   * get. A cached item is handed to callers through copy: the cached instance is shared and never
+   * mutated, so the returned capsule must wrap its immutable proto and copy on first write.
+   *
+   * An entry is only served while the revoking layer still returns the exact bytes it was decoded
+   * from, so puts, deletes, snapshot revokes, fork switches and solidity mode reads never see a
+   * stale item. Puts and deletes through this store also drop the entry eagerly.
+   */
+  protected void enableDecodedCache(long maxSize, UnaryOperator<T> copy) {
+    decodedCopy = Objects.requireNonNull(copy);
+    decodedCache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  public CacheStats getDecodedCacheStats() {
+    return decodedCache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : decodedCache.stats();
+  }
+
+  protected T of(byte[] key, byte[] value) throws BadItemException {
+    if (decodedCache == null || key == null || value == null) {
+      return of(value);
+    }
+
+    WrappedByteArray cacheKey = WrappedByteArray.of(key);
+    Decoded<T> decoded = decodedCache.getIfPresent(cacheKey);
+    if (decoded != null && Arrays.equals(decoded.data, value)) {
+      return decodedCopy.apply(decoded.item);
+    }
+
+    T item = of(value);
+    if (item.getInstance() == null) {
+      return item;
+    }
+    decodedCache.put(WrappedByteArray.copyOf(key), new Decoded<>(value, item));
+    return decodedCopy.apply(item);
+  }
+
+  private void invalidateDecoded(byte[] key) {
+    if (decodedCache != null && key != null) {
+      decodedCache.invalidate(WrappedByteArray.of(key));
+    }
+  }
+
   public T of(byte[] value) throws BadItemException {
     try {
       Constructor constructor = token.getRawType().getConstructor(byte[].class);
@@ -137,11 +221,17 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
 
   @Override
   public void close() {
+    if (decodedCache != null) {
+      decodedCache.invalidateAll();
+    }
     revokingDB.close();
   }
 
   @Override
   public void reset() {
+    if (decodedCache != null) {
+      decodedCache.invalidateAll();
+    }
     revokingDB.reset();
   }
 
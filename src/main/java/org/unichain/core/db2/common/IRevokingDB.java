@@ -12,6 +12,11 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
 
   void delete(byte[] key);
 
+  /**
+   * Puts the rows with a value and deletes the rows mapped to null.
+   */
+  void updateByBatch(Map<byte[], byte[]> rows);
+
   boolean has(byte[] key);
 
   byte[] get(byte[] key) throws ItemNotFoundException;
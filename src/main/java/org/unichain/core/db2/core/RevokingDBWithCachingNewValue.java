@@ -76,6 +76,18 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
     head().remove(key);
   }
 
+  @Override
+  public synchronized void updateByBatch(Map<byte[], byte[]> rows) {
+    Snapshot head = head();
+    rows.forEach((key, value) -> {
+      if (value == null) {
+        head.remove(key);
+      } else {
+        head.put(key, value);
+      }
+    });
+  }
+
   @Override
   public synchronized byte[] get(byte[] key) throws ItemNotFoundException {
     byte[] value = getUnchecked(key);
@@ -55,6 +55,18 @@ public class RevokingDBWithCachingOldValue implements IRevokingDB {
     dbSource.deleteData(key);
   }
 
+  // every row keeps its own undo entry, so the rows are written one by one
+  @Override
+  public void updateByBatch(Map<byte[], byte[]> rows) {
+    rows.forEach((key, value) -> {
+      if (value == null) {
+        delete(key);
+      } else {
+        put(key, value);
+      }
+    });
+  }
+
   @Override
   public boolean has(byte[] key) {
     return dbSource.getData(key) != null;
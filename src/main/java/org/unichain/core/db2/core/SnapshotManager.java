@@ -12,6 +12,7 @@ import org.unichain.common.storage.WriteOptionsWrapper;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.db.CheckTmpStore;
 import org.unichain.core.db.RevokingDatabase;
+import org.unichain.core.db.StateVersion;
 import org.unichain.core.db.common.WrappedByteArray;
 import org.unichain.core.db2.common.DB;
 import org.unichain.core.db2.common.IRevokingDB;
@@ -86,6 +87,7 @@ public class SnapshotManager implements RevokingDatabase {
 
   @Override
   public void setMode(boolean mode) {
+    StateVersion.setSolidityReads(!mode);
     dbs.forEach(db -> db.setMode(mode));
   }
 
@@ -105,7 +107,9 @@ public class SnapshotManager implements RevokingDatabase {
   }
 
   private void retreat() {
+    StateVersion.next();
     dbs.forEach(db -> db.setHead(db.getHead().retreat()));
+    StateVersion.next();
     --size;
   }
 
@@ -22,8 +22,12 @@ import org.unichain.core.net.message.TransactionMessage;
 import org.unichain.core.net.peer.PeerConnection;
 import org.unichain.protos.Protocol.Inventory.InventoryType;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -155,6 +159,15 @@ public class UnichainNetDelegate {
     }
   }
 
+  /**
+   * Transactions received but not in a block yet.
+   */
+  public List<TransactionCapsule> getPendingTransactions() {
+    List<TransactionCapsule> pending = new ArrayList<>(dbManager.getPendingTransactions());
+    pending.addAll(dbManager.getRepushTransactions());
+    return pending;
+  }
+
   public void processBlock(BlockCapsule block) throws P2pException {
     synchronized (blockLock) {
       try {
@@ -190,6 +203,21 @@ public class UnichainNetDelegate {
     }
   }
 
+  /**
+   * Pushes a batch of transactions, returns why each transaction not pushed failed.
+   */
+  public Map<TransactionCapsule, P2pException> pushTransactions(List<TransactionCapsule> unxs) {
+    Map<TransactionCapsule, P2pException> failures = new HashMap<>();
+    dbManager.pushTransactions(unxs).forEach((unx, e) -> {
+      if (e instanceof ContractSizeNotEqualToOneException || e instanceof VMIllegalException) {
+        failures.put(unx, new P2pException(TypeEnum.BAD_UNW, e));
+      } else {
+        failures.put(unx, new P2pException(TypeEnum.UNW_EXE_FAILED, e));
+      }
+    });
+    return failures;
+  }
+
   public void pushTransaction(TransactionCapsule unx) throws P2pException {
     try {
       dbManager.pushTransaction(unx);
@@ -52,6 +52,12 @@ public class UnichainNetService {
   @Autowired
   private TransactionsMsgHandler transactionsMsgHandler;
 
+  @Autowired
+  private CompactBlockMsgHandler compactBlockMsgHandler;
+
+  @Autowired
+  private FetchBlockTransactionsMsgHandler fetchBlockTransactionsMsgHandler;
+
   @Autowired
   private Manager manager;
 
@@ -112,6 +118,17 @@ public class UnichainNetService {
         case UNWS:
           transactionsMsgHandler.processMessage(peer, msg);
           break;
+
+        //handle fresh blocks sent as header & short tx ids, and the txs fetched to complete them
+        case COMPACT_BLOCK:
+        case BLOCK_TRANSACTIONS:
+          compactBlockMsgHandler.processMessage(peer, msg);
+          break;
+
+        //handle txs of a compact block missing at the remote peer
+        case FETCH_BLOCK_TRANSACTIONS:
+          fetchBlockTransactionsMsgHandler.processMessage(peer, msg);
+          break;
         default:
           throw new P2pException(TypeEnum.NO_SUCH_MESSAGE, msg.getType().toString());
       }
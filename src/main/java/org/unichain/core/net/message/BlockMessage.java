@@ -15,7 +15,7 @@ public class BlockMessage extends UnichainMessage {
     this.type = MessageTypes.BLOCK.asByte();
     this.block = new BlockCapsule(getCodedInputStream(data));
     if (Message.isFilter()) {
-      Message.compareBytes(data, block.getInstance().toByteArray());
+      Message.compareBytes(data, block.getInstance());
       TransactionCapsule.validContractProto(block.getInstance().getTransactionsList());
     }
   }
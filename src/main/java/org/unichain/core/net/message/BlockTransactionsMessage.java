@@ -0,0 +1,56 @@
+package org.unichain.core.net.message;
+
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.protos.Protocol.BlockTransactions;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.util.List;
+
+/**
+ * The transactions of a block asked for by a {@link FetchBlockTransactionsMessage}, in the order
+ * they were asked for.
+ */
+public class BlockTransactionsMessage extends UnichainMessage {
+
+  private BlockTransactions blockTransactions;
+
+  public BlockTransactionsMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.BLOCK_TRANSACTIONS.asByte();
+    this.blockTransactions = BlockTransactions.parseFrom(getCodedInputStream(data));
+    if (isFilter()) {
+      compareBytes(data, blockTransactions);
+      TransactionCapsule.validContractProto(blockTransactions.getTransactionsList());
+    }
+  }
+
+  public BlockTransactionsMessage(BlockId blockId, List<Transaction> transactions) {
+    this.blockTransactions = BlockTransactions.newBuilder()
+        .setBlockId(blockId.getByteString())
+        .addAllTransactions(transactions)
+        .build();
+    this.type = MessageTypes.BLOCK_TRANSACTIONS.asByte();
+    this.data = blockTransactions.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return new BlockId(Sha256Hash.wrap(blockTransactions.getBlockId()));
+  }
+
+  public List<Transaction> getTransactions() {
+    return blockTransactions.getTransactionsList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", unx size: ").append(blockTransactions.getTransactionsCount()).toString();
+  }
+}
@@ -19,7 +19,7 @@ public class BlocksMessage extends UnichainMessage {
       blocks = items.getBlocksList();
     }
     if (isFilter() && CollectionUtils.isNotEmpty(blocks)) {
-      compareBytes(data, items.toByteArray());
+      compareBytes(data, items);
       for (Block block : blocks) {
         TransactionCapsule.validContractProto(block.getTransactionsList());
       }
@@ -0,0 +1,79 @@
+package org.unichain.core.net.message;
+
+import com.google.common.primitives.Longs;
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.protos.Protocol.BlockHeader;
+import org.unichain.protos.Protocol.CompactBlock;
+
+import java.util.List;
+
+/**
+ * A block as its header and short ids of its transactions, sent instead of the block to peers
+ * which announced compact blocks in their hello message.
+ */
+public class CompactBlockMessage extends UnichainMessage {
+
+  private CompactBlock compactBlock;
+
+  private BlockId blockId;
+
+  public CompactBlockMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.compactBlock = CompactBlock.parseFrom(getCodedInputStream(data));
+    if (isFilter()) {
+      compareBytes(data, compactBlock);
+    }
+  }
+
+  public CompactBlockMessage(BlockCapsule block) {
+    CompactBlock.Builder builder = CompactBlock.newBuilder()
+        .setBlockHeader(block.getInstance().getBlockHeader());
+    block.getTransactions().forEach(unx -> builder.addShortIds(shortId(unx.getTransactionId())));
+    this.compactBlock = builder.build();
+    this.blockId = block.getBlockId();
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.data = compactBlock.toByteArray();
+  }
+
+  /**
+   * The first 8 bytes of a transaction id. Colliding ids are caught by the merkle root of the block.
+   */
+  public static long shortId(Sha256Hash transactionId) {
+    return Longs.fromByteArray(transactionId.getBytes());
+  }
+
+  public BlockHeader getBlockHeader() {
+    return compactBlock.getBlockHeader();
+  }
+
+  public List<Long> getShortIds() {
+    return compactBlock.getShortIdsList();
+  }
+
+  public BlockId getBlockId() {
+    if (blockId == null) {
+      BlockHeader.raw raw = compactBlock.getBlockHeader().getRawData();
+      blockId = new BlockId(Sha256Hash.of(raw.toByteArray()), raw.getNumber());
+    }
+    return blockId;
+  }
+
+  @Override
+  public Sha256Hash getMessageId() {
+    return getBlockId();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", unx size: ").append(compactBlock.getShortIdsCount()).toString();
+  }
+}
@@ -0,0 +1,49 @@
+package org.unichain.core.net.message;
+
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.protos.Protocol.BlockTransactionsRequest;
+
+import java.util.List;
+
+/**
+ * Asks the sender of a compact block for the transactions at the given positions of the block.
+ */
+public class FetchBlockTransactionsMessage extends UnichainMessage {
+
+  private BlockTransactionsRequest request;
+
+  public FetchBlockTransactionsMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.FETCH_BLOCK_TRANSACTIONS.asByte();
+    this.request = BlockTransactionsRequest.parseFrom(getCodedInputStream(data));
+  }
+
+  public FetchBlockTransactionsMessage(BlockId blockId, List<Integer> indexes) {
+    this.request = BlockTransactionsRequest.newBuilder()
+        .setBlockId(blockId.getByteString())
+        .addAllIndexes(indexes)
+        .build();
+    this.type = MessageTypes.FETCH_BLOCK_TRANSACTIONS.asByte();
+    this.data = request.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return new BlockId(Sha256Hash.wrap(request.getBlockId()));
+  }
+
+  public List<Integer> getIndexes() {
+    return request.getIndexesList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", unx size: ").append(request.getIndexesCount()).toString();
+  }
+}
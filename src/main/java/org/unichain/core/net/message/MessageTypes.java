@@ -33,6 +33,12 @@ public enum MessageTypes {
 
   UNW_INVENTORY(0x13),
 
+  COMPACT_BLOCK(0x14),
+
+  FETCH_BLOCK_TRANSACTIONS(0x15),
+
+  BLOCK_TRANSACTIONS(0x16),
+
   P2P_HELLO(0x20),
 
   P2P_DISCONNECT(0x21),
@@ -49,6 +55,9 @@ public enum MessageTypes {
 
   DISCOVER_PEERS(0x33),
 
+  // not a message, marks a frame holding a compressed message
+  COMPRESSED(0x40),
+
   LAST(0xFF);
 
   private final int type;
@@ -82,7 +91,7 @@ public enum MessageTypes {
   }
 
   public static boolean inUnichainRange(byte code) {
-    return code <= UNW_INVENTORY.asByte() && code >= FIRST.asByte();
+    return code <= BLOCK_TRANSACTIONS.asByte() && code >= FIRST.asByte();
   }
 
   @Override
@@ -14,7 +14,7 @@ public class TransactionMessage extends UnichainMessage {
     this.transactionCapsule = new TransactionCapsule(getCodedInputStream(data));
     this.type = MessageTypes.UNW.asByte();
     if (Message.isFilter()) {
-      compareBytes(data, transactionCapsule.getInstance().toByteArray());
+      compareBytes(data, transactionCapsule.getInstance());
       transactionCapsule.validContractProto(transactionCapsule.getInstance().getRawData().getContract(0));
     }
   }
@@ -23,7 +23,7 @@ public class TransactionsMessage extends UnichainMessage {
     this.type = MessageTypes.UNWS.asByte();
     this.transactions = Protocol.Transactions.parseFrom(getCodedInputStream(data));
     if (isFilter()) {
-      compareBytes(data, transactions.toByteArray());
+      compareBytes(data, transactions);
       TransactionCapsule.validContractProto(transactions.getTransactionsList());
     }
   }
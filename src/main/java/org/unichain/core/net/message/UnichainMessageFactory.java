@@ -1,5 +1,6 @@
 package org.unichain.core.net.message;
 
+import io.netty.buffer.ByteBuf;
 import org.apache.commons.lang3.ArrayUtils;
 import org.unichain.common.overlay.message.MessageFactory;
 import org.unichain.core.exception.P2pException;
@@ -11,19 +12,31 @@ public class UnichainMessageFactory extends MessageFactory {
 
   @Override
   public UnichainMessage create(byte[] data) throws Exception {
+    return create(data[0], ArrayUtils.subarray(data, 1, data.length));
+  }
+
+  /**
+   * Creates the message of a frame, the message bytes are copied out of the buffer only once.
+   */
+  public UnichainMessage create(ByteBuf frame) throws Exception {
+    byte type = frame.readByte();
+    byte[] packed = new byte[frame.readableBytes()];
+    frame.readBytes(packed);
+    return create(type, packed);
+  }
+
+  private UnichainMessage create(byte type, byte[] packed) throws Exception {
     try {
-      byte type = data[0];
-      byte[] rawData = ArrayUtils.subarray(data, 1, data.length);
-      return create(type, rawData);
+      return createMessage(type, packed);
     } catch (final P2pException e) {
       throw e;
     } catch (final Exception e) {
       throw new P2pException(P2pException.TypeEnum.PARSE_MESSAGE_FAILED,
-          "type=" + data[0] + ", len=" + data.length + ", error msg: " + e.getMessage());
+          "type=" + type + ", len=" + (packed.length + 1) + ", error msg: " + e.getMessage());
     }
   }
 
-  private UnichainMessage create(byte type, byte[] packed) throws Exception {
+  private UnichainMessage createMessage(byte type, byte[] packed) throws Exception {
     MessageTypes receivedTypes = MessageTypes.fromByte(type);
     if (receivedTypes == null) {
       throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
@@ -52,6 +65,12 @@ public class UnichainMessageFactory extends MessageFactory {
         return new FetchBlockHeadersMessage(packed);
       case UNW_INVENTORY:
         return new TransactionInventoryMessage(packed);
+      case COMPACT_BLOCK:
+        return new CompactBlockMessage(packed);
+      case FETCH_BLOCK_TRANSACTIONS:
+        return new FetchBlockTransactionsMessage(packed);
+      case BLOCK_TRANSACTIONS:
+        return new BlockTransactionsMessage(packed);
       default:
         throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
             receivedTypes.toString() + ", len=" + packed.length);
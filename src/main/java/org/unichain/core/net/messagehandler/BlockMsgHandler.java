@@ -58,13 +58,17 @@ public class BlockMsgHandler implements UnichainMsgHandler {
       check(peer, blockMessage);
     }
 
-    if (peer.getSyncBlockRequested().containsKey(blockId)) {
+    Long requestTime = peer.getSyncBlockRequested().remove(blockId);
+    if (requestTime != null) {
       //if sync block: queue up block to process later & ignite next turn
-      peer.getSyncBlockRequested().remove(blockId);
+      peer.getNodeStatistics().syncBlockFetch.add(requestTime, System.currentTimeMillis());
       syncService.processBlock(peer, blockMessage);
     } else {
       Long time = peer.getAdvInvRequest().remove(new Item(blockId, InventoryType.BLOCK));
       long now = System.currentTimeMillis();
+      if (time != null) {
+        peer.getNodeStatistics().advFetch.add(now - time);
+      }
       long interval = blockId.getNum() - unichainNetDelegate.getHeadBlockId().getNum();
       processBlock(peer, blockMessage.getBlockCapsule());
       logger.info("Receive block/interval {}/{} from {} fetch/delay {}/{}ms, txs/process {}/{}ms, witness: {}",
@@ -114,7 +118,7 @@ public class BlockMsgHandler implements UnichainMsgHandler {
 
     Item item = new Item(blockId, InventoryType.BLOCK);
     if (fastForward || peer.isFastForwardPeer()) {
-      peer.getAdvInvReceive().put(item, System.currentTimeMillis());
+      peer.getKnownInventory().add(item);
       advService.addInvToCache(item);
     }
 
@@ -131,11 +135,7 @@ public class BlockMsgHandler implements UnichainMsgHandler {
 
     unichainNetDelegate.processBlock(block);
     witnessProductBlockService.validWitnessProductTwoBlock(block);
-    unichainNetDelegate.getActivePeer().forEach(p -> {
-      if (p.getAdvInvReceive().getIfPresent(blockId) != null) {
-        p.setBlockBothHave(blockId);
-      }
-    });
+    advService.getHolders(item).forEach(p -> p.setBlockBothHave(blockId));
 
     if (!fastForward) {
       advService.broadcast(new BlockMessage(block));
@@ -0,0 +1,122 @@
+package org.unichain.core.net.messagehandler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.exception.P2pException;
+import org.unichain.core.exception.P2pException.TypeEnum;
+import org.unichain.core.net.message.BlockMessage;
+import org.unichain.core.net.message.BlockTransactionsMessage;
+import org.unichain.core.net.message.CompactBlockMessage;
+import org.unichain.core.net.message.FetchBlockTransactionsMessage;
+import org.unichain.core.net.message.UnichainMessage;
+import org.unichain.core.net.peer.Item;
+import org.unichain.core.net.peer.PartialBlock;
+import org.unichain.core.net.peer.PeerConnection;
+import org.unichain.core.net.service.AdvService;
+import org.unichain.protos.Protocol.Block;
+import org.unichain.protos.Protocol.Inventory.InventoryType;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Rebuilds blocks received as compact blocks from the transactions known here, fetching the
+ * others from the peer, and hands them to the {@link BlockMsgHandler}. A block fetched by sync
+ * comes compact too when the peer had announced it to us, the BlockMsgHandler then processes it
+ * as a sync block.
+ */
+@Slf4j(topic = "net")
+@Component
+public class CompactBlockMsgHandler implements UnichainMsgHandler {
+
+  @Autowired
+  private AdvService advService;
+
+  @Autowired
+  private BlockMsgHandler blockMsgHandler;
+
+  @Override
+  public void processMessage(PeerConnection peer, UnichainMessage msg) throws P2pException {
+    switch (msg.getType()) {
+      case COMPACT_BLOCK:
+        processCompactBlock(peer, (CompactBlockMessage) msg);
+        break;
+      case BLOCK_TRANSACTIONS:
+        processBlockTransactions(peer, (BlockTransactionsMessage) msg);
+        break;
+      default:
+        throw new P2pException(TypeEnum.NO_SUCH_MESSAGE, msg.getType().toString());
+    }
+  }
+
+  private void processCompactBlock(PeerConnection peer, CompactBlockMessage msg)
+      throws P2pException {
+    BlockId blockId = msg.getBlockId();
+    if (!peer.getAdvInvRequest().containsKey(new Item(blockId, InventoryType.BLOCK))
+        && !peer.getSyncBlockRequested().containsKey(blockId)) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "no request");
+    }
+
+    Transaction[] transactions = new Transaction[msg.getShortIds().size()];
+    List<Integer> missing = advService.fillTransactions(msg.getShortIds(), transactions);
+    logger.info("Receive compact block {} from {}, unx {}, missing {}", blockId.getString(),
+        peer.getInetAddress(), transactions.length, missing.size());
+    if (missing.isEmpty()) {
+      complete(peer, new PartialBlock(msg, transactions, missing));
+    } else {
+      fetch(peer, new PartialBlock(msg, transactions, missing));
+    }
+  }
+
+  private void processBlockTransactions(PeerConnection peer, BlockTransactionsMessage msg)
+      throws P2pException {
+    PartialBlock partialBlock = peer.getCompactBlockInProcess().remove(msg.getBlockId());
+    if (partialBlock == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "no request");
+    }
+    List<Integer> missing = partialBlock.getMissing();
+    List<Transaction> received = msg.getTransactions();
+    if (received.size() != missing.size()) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE,
+          "request " + missing.size() + " unx, receive " + received.size());
+    }
+    for (int i = 0; i < missing.size(); i++) {
+      partialBlock.getTransactions()[missing.get(i)] = received.get(i);
+    }
+    complete(peer, partialBlock);
+  }
+
+  private void fetch(PeerConnection peer, PartialBlock partialBlock) {
+    BlockId blockId = partialBlock.getCompactBlock().getBlockId();
+    peer.getCompactBlockInProcess().put(blockId, partialBlock);
+    peer.sendMessage(new FetchBlockTransactionsMessage(blockId, partialBlock.getMissing()));
+  }
+
+  private void complete(PeerConnection peer, PartialBlock partialBlock) throws P2pException {
+    Block block = Block.newBuilder()
+        .setBlockHeader(partialBlock.getCompactBlock().getBlockHeader())
+        .addAllTransactions(Arrays.asList(partialBlock.getTransactions()))
+        .build();
+    BlockCapsule blockCapsule = new BlockCapsule(block);
+
+    // a short id matched another transaction: fetch them all, the merkle root of a block fetched
+    // in full is checked when the block is processed
+    if (!partialBlock.isFullFetch()
+        && !blockCapsule.calcMerkleRoot().equals(blockCapsule.getMerkleRoot())) {
+      logger.warn("Compact block {} from {} does not match its merkle root, fetch all unx",
+          blockCapsule.getBlockId().getString(), peer.getInetAddress());
+      int size = partialBlock.getTransactions().length;
+      fetch(peer, new PartialBlock(partialBlock.getCompactBlock(), new Transaction[size],
+          IntStream.range(0, size).boxed().collect(Collectors.toList())));
+      return;
+    }
+
+    blockMsgHandler.processMessage(peer, new BlockMessage(blockCapsule));
+  }
+}
@@ -0,0 +1,77 @@
+package org.unichain.core.net.messagehandler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.unichain.common.overlay.discover.node.statistics.MessageCount;
+import org.unichain.common.overlay.message.Message;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.config.Parameter.ChainConstant;
+import org.unichain.core.exception.P2pException;
+import org.unichain.core.exception.P2pException.TypeEnum;
+import org.unichain.core.net.UnichainNetDelegate;
+import org.unichain.core.net.message.BlockMessage;
+import org.unichain.core.net.message.BlockTransactionsMessage;
+import org.unichain.core.net.message.FetchBlockTransactionsMessage;
+import org.unichain.core.net.message.UnichainMessage;
+import org.unichain.core.net.peer.Item;
+import org.unichain.core.net.peer.PeerConnection;
+import org.unichain.core.net.service.AdvService;
+import org.unichain.protos.Protocol.Inventory.InventoryType;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j(topic = "net")
+@Component
+public class FetchBlockTransactionsMsgHandler implements UnichainMsgHandler {
+
+  @Autowired
+  private UnichainNetDelegate unichainNetDelegate;
+
+  @Autowired
+  private AdvService advService;
+
+  @Override
+  public void processMessage(PeerConnection peer, UnichainMessage msg) throws P2pException {
+    FetchBlockTransactionsMessage fetchMsg = (FetchBlockTransactionsMessage) msg;
+    BlockId blockId = fetchMsg.getBlockId();
+    Item item = new Item(blockId, InventoryType.BLOCK);
+    if (!peer.getSpreadInventory().mightContain(item)) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread block: " + blockId.getString());
+    }
+
+    // a compact block is fetched from at most twice, the second time in full after a short id
+    // collision
+    MessageCount fetchCount = peer.getNodeStatistics().messageStatistics
+        .unichainInFetchBlockTransactions;
+    fetchCount.add();
+    int fetchCountIn1min = fetchCount.getCount(60);
+    int maxFetchIn1min = 2 * 120_000 / ChainConstant.BLOCK_PRODUCED_INTERVAL;
+    if (fetchCountIn1min > maxFetchIn1min) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE,
+          "maxFetchIn1min: " + maxFetchIn1min + ", fetchCountIn1min: " + fetchCountIn1min);
+    }
+
+    Message message = advService.getMessage(item);
+    if (message == null) {
+      message = unichainNetDelegate.getData(blockId, InventoryType.BLOCK);
+    }
+    List<Transaction> blockTransactions = ((BlockMessage) message).getBlockCapsule().getInstance()
+        .getTransactionsList();
+
+    // increasing indexes, so a request never asks for more than the block
+    List<Transaction> transactions = new ArrayList<>(fetchMsg.getIndexes().size());
+    int previous = -1;
+    for (int index : fetchMsg.getIndexes()) {
+      if (index <= previous || index >= blockTransactions.size()) {
+        throw new P2pException(TypeEnum.BAD_MESSAGE, "unx index " + index + " after " + previous
+            + ", block unx size " + blockTransactions.size());
+      }
+      transactions.add(blockTransactions.get(index));
+      previous = index;
+    }
+    peer.sendMessage(new BlockTransactionsMessage(blockId, transactions));
+  }
+}
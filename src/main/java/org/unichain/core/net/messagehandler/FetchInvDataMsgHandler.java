@@ -69,7 +69,12 @@ public class FetchInvDataMsgHandler implements UnichainMsgHandler {
         if (peer.getBlockBothHave().getNum() < blockId.getNum()) {
           peer.setBlockBothHave(blockId);
         }
-        peer.sendMessage(message);
+        // an advertised block, the peer most likely has its transactions already
+        if (peer.isCompactBlockPeer() && peer.getSpreadInventory().mightContain(item)) {
+          peer.sendMessage(advService.getCompactBlock((BlockMessage) message));
+        } else {
+          peer.sendMessage(message);
+        }
       } else {
         transactions.add(((TransactionMessage) message).getTransactionCapsule().getInstance());
         size += ((TransactionMessage) message).getTransactionCapsule().getInstance().getSerializedSize();
@@ -90,7 +95,7 @@ public class FetchInvDataMsgHandler implements UnichainMsgHandler {
 
     if (type == MessageTypes.UNW) {
       for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
-        if (peer.getAdvInvSpread().getIfPresent(new Item(hash, InventoryType.UNW)) == null) {
+        if (!peer.getSpreadInventory().mightContain(new Item(hash, InventoryType.UNW))) {
           throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread inv: {}" + hash);
         }
       }
@@ -102,7 +107,7 @@ public class FetchInvDataMsgHandler implements UnichainMsgHandler {
     } else {
       boolean isAdv = true;
       for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
-        if (peer.getAdvInvSpread().getIfPresent(new Item(hash, InventoryType.BLOCK)) == null) {
+        if (!peer.getSpreadInventory().mightContain(new Item(hash, InventoryType.BLOCK))) {
           isAdv = false;
           break;
         }
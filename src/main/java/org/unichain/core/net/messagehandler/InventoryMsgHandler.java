@@ -38,8 +38,8 @@ public class InventoryMsgHandler implements UnichainMsgHandler {
 
     for (Sha256Hash id : inventoryMessage.getHashList()) {
       Item item = new Item(id, type);
-      peer.getAdvInvReceive().put(item, System.currentTimeMillis());
-      advService.addInv(item);
+      peer.getKnownInventory().add(item);
+      advService.addInv(item, peer);
     }
   }
 
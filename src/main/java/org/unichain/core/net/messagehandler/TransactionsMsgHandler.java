@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.unichain.core.capsule.TransactionCapsule;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.exception.P2pException;
 import org.unichain.core.exception.P2pException.TypeEnum;
@@ -19,7 +20,11 @@ import org.unichain.protos.Protocol.ReasonCode;
 import org.unichain.protos.Protocol.Transaction;
 import org.unichain.protos.Protocol.Transaction.Contract.ContractType;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j(topic = "net")
 @Component
@@ -41,6 +46,9 @@ public class TransactionsMsgHandler implements UnichainMsgHandler {
 
   private BlockingQueue<Runnable> queue = new LinkedBlockingQueue();
 
+  // transactions waiting in batches submitted to the pool
+  private AtomicInteger batchedUnxCount = new AtomicInteger();
+
   private int threadNum = Args.getInstance().getValidateSignThreadNum();
   private ExecutorService unxHandlePool = new ThreadPoolExecutor(threadNum, threadNum, 0L,
       TimeUnit.MILLISECONDS, queue);
@@ -73,35 +81,57 @@ public class TransactionsMsgHandler implements UnichainMsgHandler {
   }
 
   public boolean isBusy() {
-    return queue.size() + smartContractQueue.size() > MAX_UNW_SIZE;
+    return queue.size() + batchedUnxCount.get() + smartContractQueue.size() > MAX_UNW_SIZE;
   }
 
   @Override
   public void processMessage(PeerConnection peer, UnichainMessage msg) throws P2pException {
     TransactionsMessage transactionsMessage = (TransactionsMessage) msg;
-    check(peer, transactionsMessage);
-    for (Transaction unx : transactionsMessage.getTransactions().getTransactionsList()) {
-      int type = unx.getRawData().getContract(0).getType().getNumber();
+    List<TransactionMessage> batch = new ArrayList<>();
+    for (TransactionMessage unx : check(peer, transactionsMessage)) {
+      int type = unx.getTransactionCapsule().getInstance().getRawData().getContract(0).getType()
+          .getNumber();
       if (type == ContractType.TriggerSmartContract_VALUE
           || type == ContractType.CreateSmartContract_VALUE) {
-        if (!smartContractQueue.offer(new UnxEvent(peer, new TransactionMessage(unx)))) {
+        if (!smartContractQueue.offer(new UnxEvent(peer, unx))) {
           logger.warn("Add smart contract failed, queueSize {}:{}", smartContractQueue.size(), queue.size());
         }
       } else {
-        unxHandlePool.submit(() -> handleTransaction(peer, new TransactionMessage(unx)));
+        batch.add(unx);
       }
     }
+    if (!batch.isEmpty()) {
+      batchedUnxCount.addAndGet(batch.size());
+      unxHandlePool.submit(() -> {
+        try {
+          handleTransactions(peer, batch);
+        } finally {
+          batchedUnxCount.addAndGet(-batch.size());
+        }
+      });
+    }
   }
 
-  private void check(PeerConnection peer, TransactionsMessage msg) throws P2pException {
+  private List<TransactionMessage> check(PeerConnection peer, TransactionsMessage msg)
+      throws P2pException {
+    List<TransactionMessage> unxs = new ArrayList<>();
+    long lastRequest = 0;
     for (Transaction unx : msg.getTransactions().getTransactionsList()) {
-      Item item = new Item(new TransactionMessage(unx).getMessageId(), InventoryType.UNW);
-      if (!peer.getAdvInvRequest().containsKey(item)) {
+      TransactionMessage unxMsg = new TransactionMessage(unx);
+      Item item = new Item(unxMsg.getMessageId(), InventoryType.UNW);
+      Long time = peer.getAdvInvRequest().remove(item);
+      if (time == null) {
         throw new P2pException(TypeEnum.BAD_MESSAGE,
             "unx: " + msg.getMessageId() + " without request.");
       }
-      peer.getAdvInvRequest().remove(item);
+      lastRequest = Math.max(lastRequest, time);
+      unxs.add(unxMsg);
+    }
+    // one sample per message, the transactions of a fetch come together
+    if (lastRequest > 0) {
+      peer.getNodeStatistics().advFetch.add(System.currentTimeMillis() - lastRequest);
     }
+    return unxs;
   }
 
   private void handleSmartContract() {
@@ -131,14 +161,64 @@ public class TransactionsMsgHandler implements UnichainMsgHandler {
       unichainNetDelegate.pushTransaction(unx.getTransactionCapsule());
       advService.broadcast(unx);
     } catch (P2pException e) {
-      logger.warn("Unx {} from peer {} process failed. type: {}, reason: {}",
-          unx.getMessageId(), peer.getInetAddress(), e.getType(), e.getMessage());
-      if (e.getType().equals(TypeEnum.BAD_UNW)) {
-        peer.disconnect(ReasonCode.BAD_TX);
-      }
+      processFailed(peer, unx, e);
     } catch (Exception e) {
       logger.error("Unx {} from peer {} process failed.", unx.getMessageId(), peer.getInetAddress(),
           e);
     }
   }
+
+  /**
+   * Pushes the plain transactions of one message together: the signatures are checked in
+   * parallel and the chain lock is taken once per batch instead of once per transaction.
+   */
+  private void handleTransactions(PeerConnection peer, List<TransactionMessage> unxs) {
+    if (peer.isDisconnect()) {
+      logger.warn("Drop {} unxs from {}, peer is disconnect.", unxs.size(), peer.getInetAddress());
+      return;
+    }
+
+    List<TransactionMessage> fresh = new ArrayList<>(unxs.size());
+    List<TransactionCapsule> capsules = new ArrayList<>(unxs.size());
+    for (TransactionMessage unx : unxs) {
+      if (advService.getMessage(new Item(unx.getMessageId(), InventoryType.UNW)) == null) {
+        fresh.add(unx);
+        capsules.add(unx.getTransactionCapsule());
+      }
+    }
+    if (fresh.isEmpty()) {
+      return;
+    }
+
+    try {
+      Map<TransactionCapsule, P2pException> failures = unichainNetDelegate.pushTransactions(capsules);
+      // the accepted ones are pending whatever the others did, relay them before any disconnect
+      for (TransactionMessage unx : fresh) {
+        if (!failures.containsKey(unx.getTransactionCapsule())) {
+          advService.broadcast(unx);
+        }
+      }
+      for (TransactionMessage unx : fresh) {
+        P2pException e = failures.get(unx.getTransactionCapsule());
+        if (e != null && processFailed(peer, unx, e)) {
+          return;
+        }
+      }
+    } catch (Exception e) {
+      logger.error("{} unxs from peer {} process failed.", fresh.size(), peer.getInetAddress(), e);
+    }
+  }
+
+  /**
+   * Returns true when the peer got disconnected for the transaction.
+   */
+  private boolean processFailed(PeerConnection peer, TransactionMessage unx, P2pException e) {
+    logger.warn("Unx {} from peer {} process failed. type: {}, reason: {}",
+        unx.getMessageId(), peer.getInetAddress(), e.getType(), e.getMessage());
+    if (e.getType().equals(TypeEnum.BAD_UNW)) {
+      peer.disconnect(ReasonCode.BAD_TX);
+      return true;
+    }
+    return false;
+  }
 }
\ No newline at end of file
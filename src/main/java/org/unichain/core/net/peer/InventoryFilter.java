@@ -0,0 +1,127 @@
+package org.unichain.core.net.peer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.unichain.core.config.Parameter.NetConstants.MAX_INVENTORY_SIZE_IN_MINUTES;
+
+/**
+ * The inventory a peer knows about: items it announced to us and items we announced or sent to it.
+ *
+ * A rolling Bloom filter of two generations. Items are added to the current generation and looked
+ * up in both; once the current generation is older than the rotate interval it becomes the previous
+ * one and the previous one is dropped, so an item is remembered for one to two intervals. An item
+ * remembered is always found, one never added is found with a probability of about 3 in 10,000 for
+ * 100,000 items per generation. The item hashes are random already, the bit indexes are taken from
+ * them directly.
+ *
+ * A generation is 2^21 bits, 256KB, so a filter takes 512KB and a peer, with its known and spread
+ * inventories, about 1MB.
+ */
+public class InventoryFilter {
+
+  private static final int BITS = 1 << 21;
+  private static final int HASHES = 7;
+
+  private final long rotateInterval;
+
+  private volatile Generation current;
+  private volatile Generation previous;
+
+  public InventoryFilter() {
+    this(TimeUnit.MINUTES.toMillis(MAX_INVENTORY_SIZE_IN_MINUTES));
+  }
+
+  public InventoryFilter(long rotateInterval) {
+    this.rotateInterval = rotateInterval;
+    this.current = new Generation(System.currentTimeMillis());
+    this.previous = new Generation(0);
+  }
+
+  public boolean mightContain(Item item) {
+    long h1 = h1(item);
+    long h2 = h2(item);
+    Generation cur = current();
+    return cur.contains(h1, h2) || previous.contains(h1, h2);
+  }
+
+  /**
+   * Adds an item, returns false when it might have been known already.
+   */
+  public boolean add(Item item) {
+    long h1 = h1(item);
+    long h2 = h2(item);
+    Generation cur = current();
+    if (cur.contains(h1, h2)) {
+      return false;
+    }
+    boolean known = previous.contains(h1, h2);
+    cur.add(h1, h2);
+    return !known;
+  }
+
+  private Generation current() {
+    Generation cur = current;
+    long now = System.currentTimeMillis();
+    if (now - cur.start >= rotateInterval) {
+      synchronized (this) {
+        cur = current;
+        if (now - cur.start >= rotateInterval) {
+          previous = cur;
+          cur = new Generation(now);
+          current = cur;
+        }
+      }
+    }
+    return cur;
+  }
+
+  // the first 8 bytes of a block id are its number, the bytes after them are random for all items
+  private static long h1(Item item) {
+    return getLong(item.getHash().getBytes(), 8) + item.getType().getNumber();
+  }
+
+  private static long h2(Item item) {
+    return getLong(item.getHash().getBytes(), 16) | 1;
+  }
+
+  private static long getLong(byte[] bytes, int offset) {
+    long value = 0;
+    for (int i = offset; i < offset + 8; i++) {
+      value = value << 8 | (bytes[i] & 0xFF);
+    }
+    return value;
+  }
+
+  private static final class Generation {
+
+    private final long start;
+    private final AtomicLongArray bits = new AtomicLongArray(BITS / 64);
+
+    private Generation(long start) {
+      this.start = start;
+    }
+
+    private boolean contains(long h1, long h2) {
+      for (int i = 0; i < HASHES; i++) {
+        int index = (int) ((h1 + i * h2) & (BITS - 1));
+        if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void add(long h1, long h2) {
+      for (int i = 0; i < HASHES; i++) {
+        int index = (int) ((h1 + i * h2) & (BITS - 1));
+        long mask = 1L << index;
+        int word = index >>> 6;
+        long old = bits.get(word);
+        while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask)) {
+          old = bits.get(word);
+        }
+      }
+    }
+  }
+}
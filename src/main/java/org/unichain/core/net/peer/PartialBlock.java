@@ -0,0 +1,32 @@
+package org.unichain.core.net.peer;
+
+import lombok.Getter;
+import org.unichain.core.net.message.CompactBlockMessage;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.util.List;
+
+/**
+ * A compact block waiting for the transactions which were not found locally.
+ */
+@Getter
+public class PartialBlock {
+
+  private CompactBlockMessage compactBlock;
+  private Transaction[] transactions;
+  private List<Integer> missing;
+
+  public PartialBlock(CompactBlockMessage compactBlock, Transaction[] transactions,
+      List<Integer> missing) {
+    this.compactBlock = compactBlock;
+    this.transactions = transactions;
+    this.missing = missing;
+  }
+
+  /**
+   * Whether every transaction of the block was asked for.
+   */
+  public boolean isFullFetch() {
+    return missing.size() == transactions.length;
+  }
+}
@@ -15,6 +15,7 @@ import org.unichain.common.overlay.server.Channel;
 import org.unichain.common.utils.Sha256Hash;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
 import org.unichain.core.config.Parameter.NodeConstant;
+import org.unichain.core.config.args.Args;
 import org.unichain.core.net.UnichainNetDelegate;
 import org.unichain.core.net.service.AdvService;
 import org.unichain.core.net.service.SyncService;
@@ -25,7 +26,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j(topic = "net")
 @Component
@@ -45,17 +45,16 @@ public class PeerConnection extends Channel {
   @Getter
   private HelloMessage helloMessage;
 
-  private int invCacheSize = 100_000;
-
-  @Setter
+  // items the peer announced to us and items we announced or sent to it, not to announce them again
   @Getter
-  private Cache<Item, Long> advInvReceive = CacheBuilder.newBuilder().maximumSize(invCacheSize)
-      .expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
+  private InventoryFilter knownInventory = new InventoryFilter();
 
-  @Setter
+  // items we announced or sent to the peer, the only ones it may fetch from us as advertised; a
+  // false positive, about 3 in 10,000 lookups, lets the peer fetch an item never announced to it,
+  // which is harmless: it only gets a transaction or block we hold and relay anyway, and its
+  // fetches stay limited by the per-peer rate checks
   @Getter
-  private Cache<Item, Long> advInvSpread = CacheBuilder.newBuilder().maximumSize(invCacheSize)
-      .expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
+  private InventoryFilter spreadInventory = new InventoryFilter();
 
   @Setter
   @Getter
@@ -111,8 +110,20 @@ public class PeerConnection extends Channel {
   @Getter
   private volatile boolean needSyncFromUs;
 
+  @Getter
+  private Map<BlockId, PartialBlock> compactBlockInProcess = new ConcurrentHashMap<>();
+
   public boolean isIdle() {
-    return advInvRequest.isEmpty() && syncBlockRequested.isEmpty() && syncChainRequested == null;
+    return advInvRequest.isEmpty() && isSyncIdle();
+  }
+
+  public boolean isSyncIdle() {
+    return syncBlockRequested.isEmpty() && syncChainRequested == null;
+  }
+
+  public boolean isCompactBlockPeer() {
+    return Args.getInstance().isCompactBlockRelay() && helloMessage != null
+        && helloMessage.isCompactBlock();
   }
 
   public void sendMessage(Message message) {
@@ -131,14 +142,13 @@ public class PeerConnection extends Channel {
   public void onDisconnect() {
     syncService.onDisconnect(this);
     advService.onDisconnect(this);
-    advInvReceive.cleanUp();
-    advInvSpread.cleanUp();
     advInvRequest.clear();
     syncBlockIdCache.cleanUp();
     syncBlockToFetch.clear();
     syncBlockRequested.clear();
     syncBlockInProcess.clear();
     syncBlockInProcess.clear();
+    compactBlockInProcess.clear();
   }
 
   public String log() {
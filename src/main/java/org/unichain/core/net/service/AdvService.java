@@ -9,34 +9,60 @@ import org.springframework.stereotype.Component;
 import org.unichain.common.overlay.discover.node.statistics.MessageCount;
 import org.unichain.common.overlay.message.Message;
 import org.unichain.common.utils.Sha256Hash;
-import org.unichain.common.utils.Time;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.net.UnichainNetDelegate;
 import org.unichain.core.net.message.BlockMessage;
+import org.unichain.core.net.message.CompactBlockMessage;
 import org.unichain.core.net.message.FetchInvDataMessage;
 import org.unichain.core.net.message.InventoryMessage;
 import org.unichain.core.net.message.TransactionMessage;
 import org.unichain.core.net.peer.Item;
 import org.unichain.core.net.peer.PeerConnection;
 import org.unichain.protos.Protocol.Inventory.InventoryType;
+import org.unichain.protos.Protocol.Transaction;
 
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.unichain.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INTERVAL;
 import static org.unichain.core.config.Parameter.NetConstants.MAX_UNW_FETCH_PER_PEER;
 import static org.unichain.core.config.Parameter.NetConstants.MSG_CACHE_DURATION_IN_BLOCKS;
 
+/**
+ * Announces new blocks and transactions to peers and fetches the ones peers announce.
+ *
+ * What each peer knows is kept in its {@link InventoryFilter}; which peers announced an item, and
+ * when it was first seen, in one table shared by all peers. Items to announce are spread as soon as
+ * they are broadcast, by one task on the spread thread that takes everything queued meanwhile.
+ *
+ * An item is fetched from one of the peers that announced it and are not syncing with us. A block
+ * goes to the one answering fastest lately, and when that one has not answered it by the time it
+ * answers nine fetches in ten, it is fetched from the next fastest as well. Transactions go to the
+ * one with the fewest fetches in flight, up to MAX_UNW_FETCH_PER_PEER of them.
+ */
 @Slf4j(topic = "net")
 @Component
 public class AdvService {
 
+  // announcers remembered per item, enough to fetch it again when one of them disconnects
+  private static final int MAX_HOLDERS = 8;
+
+  // the recent fetch latencies of a peer its deadline for a block is taken at, and its bounds
+  private static final double HEDGE_PERCENTILE = 0.9;
+  private static final long MIN_HEDGE_DELAY = 200;
+  private static final long MAX_HEDGE_DELAY = BLOCK_PRODUCED_INTERVAL / 3;
+
+  // expected latency of a peer nothing was fetched from and that did not answer a ping yet
+  private static final long DEFAULT_FETCH_LATENCY = 500;
+
   @Autowired
   private UnichainNetDelegate unichainNetDelegate;
 
@@ -44,19 +70,31 @@ public class AdvService {
 
   private ConcurrentHashMap<Item, Long> invToSpread = new ConcurrentHashMap<>();
 
-  private Cache<Item, Long> invToFetchCache = CacheBuilder.newBuilder()
+  // blocks fetched and not answered nor fetched from a second peer yet, by the peer fetched from
+  private ConcurrentHashMap<Item, PeerConnection> blockFetches = new ConcurrentHashMap<>();
+
+  private Cache<Item, InvRecord> inventory = CacheBuilder.newBuilder()
       .maximumSize(100_000).expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
 
   private Cache<Item, Message> unxCache = CacheBuilder.newBuilder()
       .maximumSize(50_000).expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
 
+  // the transactions of unxCache by short id, to rebuild compact blocks from
+  private Cache<Long, Transaction> unxByShortId = CacheBuilder.newBuilder()
+      .maximumSize(50_000).expireAfterWrite(1, TimeUnit.HOURS).build();
+
   private Cache<Item, Message> blockCache = CacheBuilder.newBuilder()
       .maximumSize(10).expireAfterWrite(1, TimeUnit.MINUTES).recordStats().build();
 
+  private Cache<Item, CompactBlockMessage> compactBlockCache = CacheBuilder.newBuilder()
+      .maximumSize(10).expireAfterWrite(1, TimeUnit.MINUTES).build();
+
   private ScheduledExecutorService spreadExecutor = Executors.newSingleThreadScheduledExecutor();
 
   private ScheduledExecutorService fetchExecutor = Executors.newSingleThreadScheduledExecutor();
 
+  private final AtomicBoolean spreadScheduled = new AtomicBoolean();
+
   @Getter
   private MessageCount unxCount = new MessageCount();
 
@@ -70,14 +108,6 @@ public class AdvService {
       return;
     }
 
-    spreadExecutor.scheduleWithFixedDelay(() -> {
-      try {
-        consumerInvToSpread();
-      } catch (Throwable t) {
-        logger.error("Spread thread error.", t);
-      }
-    }, 100, 30, TimeUnit.MILLISECONDS);
-
     fetchExecutor.scheduleWithFixedDelay(() -> {
       try {
         consumerInvToFetch();
@@ -93,17 +123,24 @@ public class AdvService {
   }
 
   synchronized public void addInvToCache(Item item) {
-    invToFetchCache.put(item, System.currentTimeMillis());
+    if (inventory.getIfPresent(item) == null) {
+      inventory.put(item, new InvRecord(System.currentTimeMillis()));
+    }
     invToFetch.remove(item);
   }
 
-  synchronized public boolean addInv(Item item) {
+  /**
+   * Records an item announced by a peer, returns true when it is new and queued to fetch.
+   */
+  synchronized public boolean addInv(Item item, PeerConnection peer) {
 
     if (fastForward && item.getType().equals(InventoryType.UNW)) {
       return false;
     }
 
-    if (invToFetchCache.getIfPresent(item) != null) {
+    InvRecord record = inventory.getIfPresent(item);
+    if (record != null) {
+      record.addHolder(peer);
       return false;
     }
 
@@ -117,7 +154,9 @@ public class AdvService {
       }
     }
 
-    invToFetchCache.put(item, System.currentTimeMillis());
+    record = new InvRecord(System.currentTimeMillis());
+    record.addHolder(peer);
+    inventory.put(item, record);
     invToFetch.put(item, System.currentTimeMillis());
 
     if (InventoryType.BLOCK.equals(item.getType())) {
@@ -127,6 +166,14 @@ public class AdvService {
     return true;
   }
 
+  /**
+   * The peers that announced an item, as far as remembered.
+   */
+  public List<PeerConnection> getHolders(Item item) {
+    InvRecord record = inventory.getIfPresent(item);
+    return record == null ? Collections.emptyList() : record.holders;
+  }
+
   public Message getMessage(Item item) {
     if (item.getType().equals(InventoryType.UNW)) {
       return unxCache.getIfPresent(item);
@@ -135,6 +182,48 @@ public class AdvService {
     }
   }
 
+  /**
+   * The compact form of a block, built once per block.
+   */
+  public CompactBlockMessage getCompactBlock(BlockMessage msg) {
+    Item item = new Item(msg.getBlockId(), InventoryType.BLOCK);
+    CompactBlockMessage compactBlock = compactBlockCache.getIfPresent(item);
+    if (compactBlock == null) {
+      compactBlock = new CompactBlockMessage(msg.getBlockCapsule());
+      compactBlockCache.put(item, compactBlock);
+    }
+    return compactBlock;
+  }
+
+  /**
+   * Fills in the transactions of a compact block found in the transaction cache or among the
+   * pending transactions, returns the indexes of the transactions not found.
+   */
+  public List<Integer> fillTransactions(List<Long> shortIds, Transaction[] transactions) {
+    List<Integer> missing = new ArrayList<>();
+    for (int i = 0; i < transactions.length; i++) {
+      transactions[i] = unxByShortId.getIfPresent(shortIds.get(i));
+      if (transactions[i] == null) {
+        missing.add(i);
+      }
+    }
+    if (missing.isEmpty()) {
+      return missing;
+    }
+
+    Map<Long, Transaction> pending = new HashMap<>();
+    unichainNetDelegate.getPendingTransactions().forEach(unx -> pending
+        .put(CompactBlockMessage.shortId(unx.getTransactionId()), unx.getInstance()));
+    List<Integer> notFound = new ArrayList<>();
+    for (int i : missing) {
+      transactions[i] = pending.get(shortIds.get(i));
+      if (transactions[i] == null) {
+        notFound.add(i);
+      }
+    }
+    return notFound;
+  }
+
   public void broadcast(Message msg) {
     if (fastForward) {
       return;
@@ -154,6 +243,7 @@ public class AdvService {
         Sha256Hash tid = transactionCapsule.getTransactionId();
         invToSpread.remove(tid);
         unxCache.put(new Item(tid, InventoryType.UNW), new TransactionMessage(transactionCapsule.getInstance()));
+        unxByShortId.put(CompactBlockMessage.shortId(tid), transactionCapsule.getInstance());
       });
       blockCache.put(item, msg);
     } else if (msg instanceof TransactionMessage) {
@@ -161,6 +251,8 @@ public class AdvService {
       item = new Item(unxMsg.getMessageId(), InventoryType.UNW);
       unxCount.add();
       unxCache.put(item, new TransactionMessage(unxMsg.getTransactionCapsule().getInstance()));
+      unxByShortId.put(CompactBlockMessage.shortId(item.getHash()),
+          unxMsg.getTransactionCapsule().getInstance());
     } else {
       logger.error("Adv item is neither block nor unx, type: {}", msg.getType());
       return;
@@ -170,6 +262,8 @@ public class AdvService {
 
     if (InventoryType.BLOCK.equals(item.getType())) {
       consumerInvToSpread();
+    } else {
+      scheduleSpread();
     }
   }
 
@@ -177,8 +271,7 @@ public class AdvService {
     Item item = new Item(msg.getBlockId(), InventoryType.BLOCK);
     List<PeerConnection> peers = unichainNetDelegate.getActivePeer().stream()
         .filter(peer -> !peer.isNeedSyncFromPeer() && !peer.isNeedSyncFromUs())
-        .filter(peer -> peer.getAdvInvReceive().getIfPresent(item) == null
-            && peer.getAdvInvSpread().getIfPresent(item) == null)
+        .filter(peer -> !peer.getKnownInventory().mightContain(item))
         .collect(Collectors.toList());
 
     if (!fastForward) {
@@ -187,20 +280,27 @@ public class AdvService {
 
     peers.forEach(peer -> {
       peer.sendMessage(msg);
-      peer.getAdvInvSpread().put(item, System.currentTimeMillis());
+      peer.getKnownInventory().add(item);
+      peer.getSpreadInventory().add(item);
       peer.setFastForwardBlock(msg.getBlockId());
     });
   }
 
 
   public void onDisconnect(PeerConnection peer) {
+    // the records must not keep the peer, and its filters, reachable once it is gone
+    inventory.asMap().values().forEach(record -> record.holders.remove(peer));
+
     if (!peer.getAdvInvRequest().isEmpty()) {
       peer.getAdvInvRequest().keySet().forEach(item -> {
-        if (unichainNetDelegate.getActivePeer().stream()
-            .anyMatch(p -> !p.equals(peer) && p.getAdvInvReceive().getIfPresent(item) != null)) {
+        InvRecord record = inventory.getIfPresent(item);
+        if (isRequested(item, peer)) {
+          return;
+        }
+        if (record != null && record.holders.stream().anyMatch(p -> !p.isDisconnect())) {
           invToFetch.put(item, System.currentTimeMillis());
         } else {
-          invToFetchCache.invalidate(item);
+          inventory.invalidate(item);
         }
       });
     }
@@ -212,37 +312,108 @@ public class AdvService {
 
   synchronized private void consumerInvToFetch() {
     Collection<PeerConnection> peers = unichainNetDelegate.getActivePeer().stream()
-        .filter(peer -> peer.isIdle())
+        .filter(peer -> peer.isSyncIdle())
         .collect(Collectors.toList());
 
-    if (invToFetch.isEmpty() || peers.isEmpty()) {
+    if ((invToFetch.isEmpty() && blockFetches.isEmpty()) || peers.isEmpty()) {
       return;
     }
 
+    Map<PeerConnection, Long> latencies = new HashMap<>();
+    peers.forEach(peer -> latencies.put(peer, expectedLatency(peer)));
     InvSender invSender = new InvSender();
     long now = System.currentTimeMillis();
+
+    hedgeLateBlocks(latencies, invSender, now);
+
     invToFetch.forEach((item, time) -> {
-      if (time < now - MSG_CACHE_DURATION_IN_BLOCKS * BLOCK_PRODUCED_INTERVAL) {
+      // items fetched again after a disconnect count from when they were first announced
+      InvRecord record = inventory.getIfPresent(item);
+      long firstSeen = record == null ? time : record.firstSeen;
+      if (firstSeen < now - MSG_CACHE_DURATION_IN_BLOCKS * BLOCK_PRODUCED_INTERVAL) {
         logger.info("This obj is too late to fetch, type: {} hash: {}.", item.getType(),
             item.getHash());
         invToFetch.remove(item);
-        invToFetchCache.invalidate(item);
+        inventory.invalidate(item);
         return;
       }
-      peers.stream()
-          .filter(peer -> peer.getAdvInvReceive().getIfPresent(item) != null
-              && invSender.getSize(peer) < MAX_UNW_FETCH_PER_PEER)
-          .sorted(Comparator.comparingInt(peer -> invSender.getSize(peer)))
-          .findFirst().ifPresent(peer -> {
+      List<PeerConnection> holders = record == null ? Collections.emptyList() : record.holders;
+      Optional<PeerConnection> fetchFrom;
+      if (item.getType().equals(InventoryType.BLOCK)) {
+        fetchFrom = peers.stream().filter(holders::contains)
+            .min(Comparator.comparingLong(latencies::get));
+      } else {
+        fetchFrom = peers.stream()
+            .filter(peer -> holders.contains(peer)
+                && peer.getAdvInvRequest().size() < MAX_UNW_FETCH_PER_PEER)
+            .min(Comparator.comparingInt((PeerConnection peer) -> peer.getAdvInvRequest().size())
+                .thenComparingLong(latencies::get));
+      }
+      fetchFrom.ifPresent(peer -> {
         invSender.add(item, peer);
         peer.getAdvInvRequest().put(item, now);
         invToFetch.remove(item);
+        if (item.getType().equals(InventoryType.BLOCK)) {
+          blockFetches.put(item, peer);
+        }
       });
     });
 
     invSender.sendFetch();
   }
 
+  /**
+   * Fetches the blocks a peer did not answer by its deadline from the fastest other peer that
+   * announced them too, once per block.
+   */
+  private void hedgeLateBlocks(Map<PeerConnection, Long> latencies, InvSender invSender, long now) {
+    blockFetches.forEach((item, peer) -> {
+      Long time = peer.getAdvInvRequest().get(item);
+      if (time == null || peer.isDisconnect() || blockCache.getIfPresent(item) != null) {
+        blockFetches.remove(item);
+        return;
+      }
+      long waited = now - time;
+      if (waited < hedgeDelay(peer)) {
+        return;
+      }
+      blockFetches.remove(item);
+      peer.getNodeStatistics().advFetch.timeout(waited);
+      List<PeerConnection> holders = getHolders(item);
+      latencies.keySet().stream()
+          .filter(p -> p != peer && holders.contains(p) && !p.getAdvInvRequest().containsKey(item))
+          .min(Comparator.comparingLong(latencies::get)).ifPresent(p -> {
+        logger.info("Fetch block {} from {} too, {} did not send it in {}ms.",
+            new BlockId(item.getHash()).getString(), p.getInetAddress(), peer.getInetAddress(),
+            waited);
+        invSender.add(item, p);
+        p.getAdvInvRequest().put(item, now);
+      });
+    });
+  }
+
+  private long expectedLatency(PeerConnection peer) {
+    long latency = peer.getNodeStatistics().advFetch.getPercentile(0.5);
+    if (latency < 0) {
+      latency = peer.getNodeStatistics().pingMessageLatency.getAvrg();
+    }
+    return latency > 0 ? latency : DEFAULT_FETCH_LATENCY;
+  }
+
+  private long hedgeDelay(PeerConnection peer) {
+    long latency = peer.getNodeStatistics().advFetch.getPercentile(HEDGE_PERCENTILE);
+    if (latency < 0) {
+      return MAX_HEDGE_DELAY;
+    }
+    return Math.min(MAX_HEDGE_DELAY, Math.max(MIN_HEDGE_DELAY, latency));
+  }
+
+  // whether a peer other than the given one was asked for the item and has not answered yet
+  private boolean isRequested(Item item, PeerConnection except) {
+    return unichainNetDelegate.getActivePeer().stream()
+        .anyMatch(p -> p != except && p.getAdvInvRequest().containsKey(item));
+  }
+
   synchronized private void consumerInvToSpread() {
 
     List<PeerConnection> peers = unichainNetDelegate.getActivePeer().stream()
@@ -255,18 +426,48 @@ public class AdvService {
 
     InvSender invSender = new InvSender();
 
-    invToSpread.forEach((item, time) -> peers.forEach(peer -> {
-      if (peer.getAdvInvReceive().getIfPresent(item) == null &&
-          peer.getAdvInvSpread().getIfPresent(item) == null) {
-        peer.getAdvInvSpread().put(item, Time.getCurrentMillis());
-        invSender.add(item, peer);
-      }
+    invToSpread.forEach((item, time) -> {
+      peers.forEach(peer -> {
+        if (peer.getKnownInventory().add(item)) {
+          peer.getSpreadInventory().add(item);
+          invSender.add(item, peer);
+        }
+      });
       invToSpread.remove(item);
-    }));
+    });
 
     invSender.sendInv();
   }
 
+  private void scheduleSpread() {
+    if (!spreadExecutor.isShutdown() && spreadScheduled.compareAndSet(false, true)) {
+      spreadExecutor.execute(() -> {
+        spreadScheduled.set(false);
+        try {
+          consumerInvToSpread();
+        } catch (Throwable t) {
+          logger.error("Spread thread error.", t);
+        }
+      });
+    }
+  }
+
+  private static class InvRecord {
+
+    private final long firstSeen;
+    private final List<PeerConnection> holders = new CopyOnWriteArrayList<>();
+
+    InvRecord(long firstSeen) {
+      this.firstSeen = firstSeen;
+    }
+
+    void addHolder(PeerConnection peer) {
+      if (holders.size() < MAX_HOLDERS && !peer.isDisconnect() && !holders.contains(peer)) {
+        holders.add(peer);
+      }
+    }
+  }
+
   class InvSender {
 
     private HashMap<PeerConnection, HashMap<InventoryType, LinkedList<Sha256Hash>>> send = new HashMap<>();
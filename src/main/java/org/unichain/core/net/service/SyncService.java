@@ -7,6 +7,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.unichain.common.overlay.discover.node.statistics.NodeStatistics;
 import org.unichain.common.overlay.server.Channel.UnichainState;
 import org.unichain.core.capsule.BlockCapsule;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
@@ -26,12 +27,30 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.unichain.core.config.Parameter.NetConstants.MAX_BLOCK_FETCH_PER_PEER;
-
+import static org.unichain.core.config.Parameter.NetConstants.SYNC_TIME_OUT;
+
+/**
+ * Downloads the blocks found by chain sync from all syncing peers at once.
+ *
+ * Every peer keeps a window of requested blocks, refilled as its blocks arrive. The lowest blocks not
+ * requested yet go to the peer expected to deliver them first, judging by its ping round trip and by
+ * the service time of its recent blocks (see {@link NodeStatistics.FetchStatter}); a peer is not
+ * given more than it is expected to deliver in half of the sync timeout. Blocks are only fetched up to
+ * MAX_BLOCKS_ALREADY_FETCHED above the head, which bounds the blocks waiting to be processed in
+ * order. A peer that stops delivering has the blocks just above the head it was asked for requested
+ * from another peer as well, so processing goes on before the sync timeout drops it.
+ */
 @Slf4j(topic = "net")
 @Component
 public class SyncService {
+
+  private static final long DEFAULT_SERVICE_TIME = 100;
+  private static final long MIN_HEDGE_DELAY = 1000;
+  private static final int HEDGE_FACTOR = 3;
+
   @Autowired
   private UnichainNetDelegate unichainNetDelegate;
 
@@ -43,6 +62,9 @@ public class SyncService {
       .expireAfterWrite(1, TimeUnit.HOURS).initialCapacity(10_000)
       .recordStats().build();
 
+  private Cache<BlockId, Long> hedgedBlockIds = CacheBuilder.newBuilder().maximumSize(10_000)
+      .expireAfterWrite(1, TimeUnit.HOURS).build();
+
   private ScheduledExecutorService fetchExecutor = Executors.newSingleThreadScheduledExecutor();
 
   private ScheduledExecutorService blockHandleExecutor = Executors.newSingleThreadScheduledExecutor();
@@ -59,10 +81,11 @@ public class SyncService {
           fetchFlag = false;
           startFetchSyncBlock();
         }
+        hedgeLateBlocks();
       } catch (Throwable t) {
         logger.error("Fetch sync block error.", t);
       }
-    }, 10, 1, TimeUnit.SECONDS);
+    }, 10_000, 100, TimeUnit.MILLISECONDS);
 
     blockHandleExecutor.scheduleWithFixedDelay(() -> {
       try {
@@ -73,7 +96,7 @@ public class SyncService {
       } catch (Throwable t) {
         logger.error("Handle sync block error.", t);
       }
-    }, 10, 1, TimeUnit.SECONDS);
+    }, 10_000, 100, TimeUnit.MILLISECONDS);
   }
 
   public void close() {
@@ -113,19 +136,19 @@ public class SyncService {
       blockJustReceived.put(blockMessage, peer);
     }
     handleFlag = true;
-    if (peer.isIdle()) {
-      if (peer.getRemainNum() > 0 && peer.getSyncBlockToFetch().size() <= NodeConstant.SYNC_FETCH_BATCH_NUM) {
-        syncNext(peer);
-      } else {
-        fetchFlag = true;
-      }
+    fetchFlag = true;
+    if (peer.getRemainNum() > 0 && peer.getSyncChainRequested() == null
+        && peer.getSyncBlockToFetch().size() <= NodeConstant.SYNC_FETCH_BATCH_NUM) {
+      syncNext(peer);
     }
   }
 
   public void onDisconnect(PeerConnection peer) {
-    if (!peer.getSyncBlockRequested().isEmpty()) {
-      peer.getSyncBlockRequested().keySet().forEach(blockId -> invalid(blockId));
-    }
+    //blocks also requested from another peer are still on their way
+    peer.getSyncBlockRequested().keySet().stream()
+        .filter(blockId -> unichainNetDelegate.getActivePeer().stream()
+            .noneMatch(p -> p != peer && p.getSyncBlockRequested().containsKey(blockId)))
+        .forEach(this::invalid);
   }
 
   private void invalid(BlockId blockId) {
@@ -184,31 +207,123 @@ public class SyncService {
   }
 
   private void startFetchSyncBlock() {
-    HashMap<PeerConnection, List<BlockId>> send = new HashMap<>();
+    List<PeerConnection> peers = getSyncPeers();
+
+    //blocks not requested yet within the window above the head, and the peers having them
+    long maxNum = unichainNetDelegate.getHeadBlockId().getNum() + NodeConstant.MAX_BLOCKS_ALREADY_FETCHED;
+    Map<BlockId, List<PeerConnection>> holders = new HashMap<>();
+    for (PeerConnection peer : peers) {
+      for (BlockId blockId : peer.getSyncBlockToFetch()) {
+        if (blockId.getNum() > maxNum) {
+          break;
+        }
+        if (requestBlockIds.getIfPresent(blockId) == null) {
+          holders.computeIfAbsent(blockId, k -> new ArrayList<>()).add(peer);
+        }
+      }
+    }
 
-    unichainNetDelegate.getActivePeer().stream()
-        .filter(peer -> peer.isNeedSyncFromPeer() && peer.isIdle())
-        .forEach(peer -> {
-          if (!send.containsKey(peer)) {
-            send.put(peer, new LinkedList<>());
-          }
-          for (BlockId blockId : peer.getSyncBlockToFetch()) {
-            if (requestBlockIds.getIfPresent(blockId) == null) {
-              requestBlockIds.put(blockId, System.currentTimeMillis());
-              peer.getSyncBlockRequested().put(blockId, System.currentTimeMillis());
-              send.get(peer).add(blockId);
-              if (send.get(peer).size() >= MAX_BLOCK_FETCH_PER_PEER) {
-                break;
-              }
-            }
-          }
-        });
+    List<BlockId> blockIds = new ArrayList<>(holders.keySet());
+    blockIds.sort(Comparator.comparingLong(BlockId::getNum));
+
+    long now = System.currentTimeMillis();
+    Map<PeerConnection, List<BlockId>> send = new HashMap<>();
+    for (BlockId blockId : blockIds) {
+      PeerConnection peer = pickPeer(holders.get(blockId));
+      if (peer != null) {
+        requestBlockIds.put(blockId, now);
+        peer.getSyncBlockRequested().put(blockId, now);
+        send.computeIfAbsent(peer, k -> new LinkedList<>()).add(blockId);
+      }
+    }
+
+    send.forEach((peer, ids) -> peer.sendMessage(new FetchInvDataMessage(new LinkedList<>(ids), InventoryType.BLOCK)));
+  }
+
+  /**
+   * Requests the blocks close to the head again from other peers when the peer they were asked from
+   * has not delivered anything for several times its expected delivery time.
+   */
+  private void hedgeLateBlocks() {
+    List<PeerConnection> peers = getSyncPeers();
+    if (peers.size() < 2) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    long maxNum = unichainNetDelegate.getHeadBlockId().getNum() + MAX_BLOCK_FETCH_PER_PEER;
+    Map<PeerConnection, List<BlockId>> send = new HashMap<>();
+    for (PeerConnection peer : peers) {
+      Map<BlockId, Long> requested = peer.getSyncBlockRequested();
+      if (requested.isEmpty()) {
+        continue;
+      }
+      long oldest = requested.values().stream().min(Long::compare).orElse(now);
+      long waiting = now - Math.max(oldest, peer.getNodeStatistics().syncBlockFetch.getLastReceiveTime());
+      if (waiting < Math.max(MIN_HEDGE_DELAY, HEDGE_FACTOR * expectedDelivery(peer, 0))) {
+        continue;
+      }
+      int hedged = 0;
+      for (BlockId blockId : requested.keySet()) {
+        if (blockId.getNum() > maxNum || hedgedBlockIds.getIfPresent(blockId) != null) {
+          continue;
+        }
+        PeerConnection other = pickPeer(peers.stream()
+            .filter(p -> p != peer && !p.getSyncBlockRequested().containsKey(blockId)
+                && p.getSyncBlockToFetch().contains(blockId))
+            .collect(Collectors.toList()));
+        if (other != null) {
+          hedgedBlockIds.put(blockId, now);
+          other.getSyncBlockRequested().put(blockId, now);
+          send.computeIfAbsent(other, k -> new LinkedList<>()).add(blockId);
+          hedged++;
+        }
+      }
+      if (hedged > 0) {
+        logger.info("Peer {} sent no block for {}ms, request {} of its blocks from other peers",
+            peer.getInetAddress(), waiting, hedged);
+      }
+    }
+
+    send.forEach((peer, ids) -> peer.sendMessage(new FetchInvDataMessage(new LinkedList<>(ids), InventoryType.BLOCK)));
+  }
 
-    send.forEach((peer, blockIds) -> {
-      if (!blockIds.isEmpty()) {
-        peer.sendMessage(new FetchInvDataMessage(new LinkedList<>(blockIds), InventoryType.BLOCK));
+  private List<PeerConnection> getSyncPeers() {
+    return unichainNetDelegate.getActivePeer().stream()
+        .filter(peer -> peer.isNeedSyncFromPeer() && !peer.isDisconnect())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * The peer expected to deliver one more block first, null when all windows are full.
+   */
+  private PeerConnection pickPeer(List<PeerConnection> candidates) {
+    PeerConnection best = null;
+    long bestTime = Long.MAX_VALUE;
+    for (PeerConnection peer : candidates) {
+      int queued = peer.getSyncBlockRequested().size();
+      if (queued >= MAX_BLOCK_FETCH_PER_PEER) {
+        continue;
+      }
+      long time = expectedDelivery(peer, queued);
+      if (queued > 0 && time > SYNC_TIME_OUT / 2) {
+        continue;
+      }
+      if (time < bestTime) {
+        best = peer;
+        bestTime = time;
       }
-    });
+    }
+    return best;
+  }
+
+  private long expectedDelivery(PeerConnection peer, int queued) {
+    NodeStatistics statistics = peer.getNodeStatistics();
+    long serviceTime = statistics.syncBlockFetch.getServiceTime();
+    if (serviceTime == 0) {
+      serviceTime = DEFAULT_SERVICE_TIME;
+    }
+    return statistics.pingMessageLatency.getAvrg() + (queued + 1) * serviceTime;
   }
 
   private synchronized void handleSyncBlock() {
@@ -246,6 +361,11 @@ public class SyncService {
         });
       }
     }
+
+    //a block fetched from two peers arrives twice, the later copy is not needed any more
+    long headNum = unichainNetDelegate.getHeadBlockId().getNum();
+    blockWaitToProcess.keySet().removeIf(msg -> msg.getBlockId().getNum() <= headNum
+        && unichainNetDelegate.containBlock(msg.getBlockId()));
   }
 
   private void processSyncBlock(BlockCapsule block) {
@@ -0,0 +1,201 @@
+package org.unichain.core.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.unichain.api.GrpcAPI.Return;
+import org.unichain.api.GrpcAPI.TransactionExtention.Builder;
+import org.unichain.common.runtime.Runtime;
+import org.unichain.common.runtime.RuntimeImpl;
+import org.unichain.common.runtime.config.VMConfig;
+import org.unichain.common.runtime.config.VMConfig.ForkFlags;
+import org.unichain.common.runtime.config.VMConfig.ForkScope;
+import org.unichain.common.runtime.vm.program.ProgramResult;
+import org.unichain.common.runtime.vm.program.invoke.ProgramInvokeFactoryImpl;
+import org.unichain.common.storage.DepositImpl;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.capsule.TransactionResultCapsule;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.db.DynamicPropertiesStore;
+import org.unichain.core.db.Manager;
+import org.unichain.core.db.StateVersion;
+import org.unichain.core.db.common.WrappedByteArray;
+import org.unichain.core.exception.ContractExeException;
+import org.unichain.core.exception.ContractValidateException;
+import org.unichain.core.exception.HeaderNotFound;
+import org.unichain.core.exception.VMIllegalException;
+import org.unichain.protos.Protocol.Block;
+import org.unichain.protos.Protocol.Transaction;
+import org.unichain.protos.Protocol.Transaction.Result.code;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs constant (read-only) contract calls for the wallet APIs.
+ *
+ * Calls run against a view of the current state: the head block and the fork flags are shared
+ * until the head or any store changes, instead of being looked up by every call. The fork flags are
+ * passed to each execution on its own thread, the global ones belong to block processing. Storage
+ * rows are read through the row cache of the StorageRowStore, like the accounts and contracts
+ * through theirs. At most vm.constantCallThreads calls run at the same time, each one still bounded
+ * by the max cpu time of a transaction. With vm.constantCallResultCacheSize set, results of
+ * identical calls (same contract parameter) on the same state are served from memory.
+ */
+@Slf4j(topic = "API")
+@Component
+public class ConstantCallService {
+
+  @Autowired
+  private Manager dbManager;
+
+  private final Semaphore permits = new Semaphore(Args.getInstance().getConstantCallThreads());
+  private final long resultCacheSize = Args.getInstance().getConstantCallResultCacheSize();
+
+  private volatile StateView stateView;
+
+  public Transaction call(TransactionCapsule unxCap, Builder builder, Return.Builder retBuilder)
+      throws ContractValidateException, ContractExeException, HeaderNotFound, VMIllegalException {
+    StateView view = stateView();
+    WrappedByteArray key = null;
+    CallResult result = null;
+    // calls the runtime rejects, and calls on the solidified state, always run
+    long feeLimit = unxCap.getInstance().getRawData().getFeeLimit();
+    if (view.results != null && feeLimit >= 0 && feeLimit <= VMConfig.MAX_FEE_LIMIT
+        && !StateVersion.isSolidityReads()) {
+      key = WrappedByteArray.of(unxCap.getInstance().getRawData().getContract(0).getParameter().toByteArray());
+      result = view.results.getIfPresent(key);
+    }
+
+    if (result == null) {
+      acquire();
+      try {
+        result = execute(view, unxCap);
+      } finally {
+        permits.release();
+      }
+      if (key != null && view.isCurrent()) {
+        view.results.put(key, result);
+      }
+    }
+
+    builder.addConstantResult(ByteString.copyFrom(result.hReturn));
+    TransactionResultCapsule ret = new TransactionResultCapsule();
+    ret.setStatus(0, code.SUCESS);
+    if (StringUtils.isNoneEmpty(result.runtimeError)) {
+      ret.setStatus(0, code.FAILED);
+      retBuilder.setMessage(ByteString.copyFromUtf8(result.runtimeError)).build();
+    }
+    if (result.revert) {
+      ret.setStatus(0, code.FAILED);
+      retBuilder.setMessage(ByteString.copyFromUtf8("REVERT OPCODE EXECUTED")).build();
+    }
+    unxCap.setResult(ret);
+    return unxCap.getInstance();
+  }
+
+  private CallResult execute(StateView view, TransactionCapsule unxCap)
+      throws ContractValidateException, ContractExeException, VMIllegalException {
+    try (ForkScope ignored = VMConfig.withForkFlags(view.forkFlags)) {
+      Runtime runtime = new RuntimeImpl(unxCap.getInstance(), new BlockCapsule(view.block),
+          DepositImpl.createRoot(dbManager), new ProgramInvokeFactoryImpl(), true);
+      runtime.setup();
+      runtime.go();
+      runtime.finalization();
+      // out of time, out of energy and the like, the APIs report them as execution errors
+      if (runtime.getResult().getException() != null) {
+        RuntimeException e = runtime.getResult().getException();
+        logger.warn("Constant call failed: {}", e.getMessage());
+        throw e;
+      }
+
+      ProgramResult result = runtime.getResult();
+      return new CallResult(result.getHReturn(), runtime.getRuntimeError(), result.isRevert());
+    }
+  }
+
+  private void acquire() throws ContractValidateException {
+    long timeoutMs = dbManager.getDynamicPropertiesStore().getMaxCpuTimeOfOneTx();
+    try {
+      if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new ContractValidateException("too many constant calls, try again later");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContractValidateException("constant call interrupted");
+    }
+  }
+
+  private StateView stateView() throws HeaderNotFound {
+    StateView view = stateView;
+    if (view != null && view.isCurrent()) {
+      return view;
+    }
+    synchronized (this) {
+      view = stateView;
+      if (view == null || !view.isCurrent()) {
+        // read the versions first, a change while the view is built makes it stale at once
+        long version = StateVersion.get();
+        long writes = StateVersion.getWrites();
+        BlockId headId = dbManager.getHeadBlockId();
+        BlockCapsule head = dbManager.getHead();
+        DynamicPropertiesStore properties = dbManager.getDynamicPropertiesStore();
+        ForkFlags forkFlags = new ForkFlags(properties.getAllowTvmTransferUnc(),
+            properties.getAllowTvmConstantinople(), properties.getAllowMultiSign(),
+            properties.getAllowUvmSolidity059());
+        view = new StateView(headId, version, writes, head.getInstance(), forkFlags,
+            resultCacheSize);
+        stateView = view;
+      }
+    }
+    return view;
+  }
+
+  /**
+   * What the constant calls on one state share: the head block, the fork flags and the results.
+   */
+  private class StateView {
+
+    private final BlockId headId;
+    private final long version;
+    private final long writes;
+    private final Block block;
+    private final ForkFlags forkFlags;
+    private final Cache<WrappedByteArray, CallResult> results;
+
+    StateView(BlockId headId, long version, long writes, Block block, ForkFlags forkFlags,
+        long resultCacheSize) {
+      this.headId = headId;
+      this.version = version;
+      this.writes = writes;
+      this.block = block;
+      this.forkFlags = forkFlags;
+      this.results = resultCacheSize > 0
+          ? CacheBuilder.newBuilder().maximumSize(resultCacheSize).build() : null;
+    }
+
+    boolean isCurrent() {
+      return version == StateVersion.get() && writes == StateVersion.getWrites()
+          && headId.equals(dbManager.getHeadBlockId());
+    }
+  }
+
+  private static class CallResult {
+
+    private final byte[] hReturn;
+    private final String runtimeError;
+    private final boolean revert;
+
+    CallResult(byte[] hReturn, String runtimeError, boolean revert) {
+      this.hReturn = hReturn;
+      this.runtimeError = runtimeError;
+      this.revert = revert;
+    }
+  }
+}
@@ -311,6 +311,8 @@ public class FullNodeHttpApiService implements Service {
   @Autowired
   private GetNodeInfoServlet getNodeInfoServlet;
   @Autowired
+  private GetVmProfileServlet getVmProfileServlet;
+  @Autowired
   private AddTransactionSignServlet addTransactionSignServlet;
   @Autowired
   private GetTransactionSignWeightServlet getTransactionSignWeightServlet;
@@ -521,6 +523,7 @@ public class FullNodeHttpApiService implements Service {
       context.addServlet(new ServletHolder(getTransactionApprovedListServlet), "/getapprovedlist");
       context.addServlet(new ServletHolder(accountPermissionUpdateServlet), "/accountpermissionupdate");
       context.addServlet(new ServletHolder(getNodeInfoServlet), "/getnodeinfo");
+      context.addServlet(new ServletHolder(getVmProfileServlet), "/getvmprofile");
       context.addServlet(new ServletHolder(updateSettingServlet), "/updatesetting");
       context.addServlet(new ServletHolder(updateEnergyLimitServlet), "/updateenergylimit");
       context.addServlet(new ServletHolder(getDelegatedResourceServlet), "/getdelegatedresource");
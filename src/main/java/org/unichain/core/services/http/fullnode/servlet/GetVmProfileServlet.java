@@ -0,0 +1,102 @@
+package org.unichain.core.services.http.fullnode.servlet;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import org.unichain.common.runtime.vm.VMProfiler;
+import org.unichain.common.runtime.vm.VMProfiler.ContractProfile;
+import org.unichain.common.runtime.vm.VMProfiler.OpProfile;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.Wallet;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.services.http.utils.Util;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Comparator;
+
+
+/**
+ * Top contracts and opcodes by cpu time (default), energy, ops or executions, as measured by the
+ * {@link VMProfiler}. Parameters: top (default 20), sort_by, reset=true to start over, honored
+ * only with vm.profilerAllowReset set.
+ */
+@Component
+@Slf4j(topic = "API")
+public class GetVmProfileServlet extends HttpServlet {
+
+  private static final int DEFAULT_TOP = 20;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      VMProfiler profiler = VMProfiler.getInstance();
+      boolean visible = Util.getVisible(request);
+      int top = StringUtils.isNumeric(request.getParameter("top"))
+          ? Integer.parseInt(request.getParameter("top")) : DEFAULT_TOP;
+
+      JSONObject profile = new JSONObject(true);
+      profile.put("enabled", profiler.isEnabled());
+      profile.put("sample_interval", profiler.getSampleInterval());
+
+      JSONArray contracts = new JSONArray();
+      for (ContractProfile contract : profiler.topContracts(top, order(request.getParameter("sort_by")))) {
+        JSONObject item = new JSONObject(true);
+        item.put("address", visible
+            ? Wallet.encode58Check(ByteArray.fromHexString(contract.getAddress())) : contract.getAddress());
+        item.put("executions", contract.getExecutions());
+        item.put("ops", contract.getOps());
+        item.put("energy", contract.getEnergy());
+        item.put("cpu_time_ns", contract.getCpuTimeNanos());
+        contracts.add(item);
+      }
+      profile.put("contracts", contracts);
+
+      JSONArray opcodes = new JSONArray();
+      for (OpProfile op : profiler.opcodes()) {
+        JSONObject item = new JSONObject(true);
+        item.put("op", op.getOp());
+        item.put("count", op.getCount());
+        item.put("energy", op.getEnergy());
+        item.put("cpu_time_ns", op.getCpuTimeNanos());
+        opcodes.add(item);
+      }
+      profile.put("opcodes", opcodes);
+
+      boolean reset = Args.getInstance().isVmProfilerAllowReset()
+          && Boolean.parseBoolean(request.getParameter("reset"));
+      if (reset) {
+        profiler.reset();
+      }
+      profile.put("reset", reset);
+      response.getWriter().println(profile.toJSONString());
+    } catch (Exception e) {
+      logger.error("", e);
+      try {
+        response.getWriter().println(Util.printErrorMsg(e));
+      } catch (IOException ioe) {
+        logger.debug("IOException: {}", ioe.getMessage());
+      }
+    }
+  }
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    doGet(request, response);
+  }
+
+  private static Comparator<ContractProfile> order(String sortBy) {
+    if ("energy".equals(sortBy)) {
+      return Comparator.comparingLong(ContractProfile::getEnergy);
+    }
+    if ("ops".equals(sortBy)) {
+      return Comparator.comparingLong(ContractProfile::getOps);
+    }
+    if ("executions".equals(sortBy)) {
+      return Comparator.comparingLong(ContractProfile::getExecutions);
+    }
+    return Comparator.comparingLong(ContractProfile::getCpuTimeNanos);
+  }
+}
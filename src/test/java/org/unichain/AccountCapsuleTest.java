@@ -0,0 +1,91 @@
+package org.unichain;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.core.capsule.AccountCapsule;
+import org.unichain.protos.Protocol.Account;
+import org.unichain.protos.Protocol.AccountType;
+
+@Slf4j(topic = "Test")
+public class AccountCapsuleTest {
+
+    private static final ByteString ADDRESS = ByteString.copyFromUtf8("address");
+    private static final ByteString VOTE_ADDRESS = ByteString.copyFromUtf8("witness");
+
+    private static AccountCapsule account() {
+        return new AccountCapsule(ByteString.copyFromUtf8("name"), ADDRESS, AccountType.Normal, 100);
+    }
+
+    @org.junit.Test
+    public void testWrites() throws Exception {
+        var capsule = account();
+        capsule.addBalance(50);
+        capsule.setAccountName("other".getBytes());
+        capsule.addAsset("asset".getBytes(), 10);
+        capsule.addAssetAmount("asset".getBytes(), 5);
+        capsule.addVotes(VOTE_ADDRESS, 3);
+        capsule.setFrozen(20, 1000);
+        capsule.putFreeAssetNetUsage("asset", 7);
+
+        // scalar reads see the writes before any build
+        Assert.assertEquals(150, capsule.getBalance());
+        Assert.assertEquals("other", capsule.getAccountName().toStringUtf8());
+
+        var instance = capsule.getInstance();
+        Assert.assertEquals(150, instance.getBalance());
+        Assert.assertEquals("other", instance.getAccountName().toStringUtf8());
+        Assert.assertEquals(15L, (long) instance.getAssetMap().get("asset"));
+        Assert.assertEquals(1, instance.getVotesCount());
+        Assert.assertEquals(3, instance.getVotes(0).getVoteCount());
+        Assert.assertEquals(20, instance.getFrozen(0).getFrozenBalance());
+        Assert.assertEquals(7L, (long) instance.getFreeAssetNetUsageMap().get("asset"));
+        Assert.assertEquals(instance, Account.parseFrom(capsule.getData()));
+
+        // a write after a build is reflected too, in a new instance
+        capsule.addBalance(1);
+        Assert.assertNotSame(instance, capsule.getInstance());
+        Assert.assertEquals(151, capsule.getInstance().getBalance());
+        Assert.assertEquals(151, Account.parseFrom(capsule.getData()).getBalance());
+        Assert.assertEquals(capsule.getInstance(), new AccountCapsule(capsule.getData()).getInstance());
+
+        // without writes the built instance is kept
+        Assert.assertSame(capsule.getInstance(), capsule.getInstance());
+    }
+
+    @org.junit.Test
+    public void testSnapshot() {
+        var capsule = account();
+        capsule.addAsset("asset".getBytes(), 10);
+        capsule.addVotes(VOTE_ADDRESS, 3);
+        var snapshot = capsule.getInstance();
+        var assets = capsule.getAssetMap();
+        var votes = capsule.getVotesList();
+        var bytes = capsule.getData();
+
+        capsule.addBalance(50);
+        capsule.addAssetAmount("asset".getBytes(), 5);
+        capsule.addAsset("other".getBytes(), 1);
+        capsule.clearVotes();
+        capsule.addVotes(VOTE_ADDRESS, 9);
+
+        Assert.assertEquals(100, snapshot.getBalance());
+        Assert.assertEquals(1, snapshot.getAssetCount());
+        Assert.assertEquals(10L, (long) snapshot.getAssetMap().get("asset"));
+        Assert.assertEquals(1, assets.size());
+        Assert.assertEquals(10L, (long) assets.get("asset"));
+        Assert.assertEquals(3, snapshot.getVotes(0).getVoteCount());
+        Assert.assertEquals(3, votes.get(0).getVoteCount());
+        Assert.assertArrayEquals(bytes, snapshot.toByteArray());
+
+        Assert.assertEquals(150, capsule.getBalance());
+        Assert.assertEquals(15L, (long) capsule.getAssetMap().get("asset"));
+        Assert.assertEquals(9, capsule.getVotesList().get(0).getVoteCount());
+
+        // setInstance drops the pending writes
+        capsule.setInstance(snapshot);
+        Assert.assertSame(snapshot, capsule.getInstance());
+        Assert.assertEquals(100, capsule.getBalance());
+    }
+}
@@ -0,0 +1,345 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.crypto.zksnark.BN128;
+import org.unichain.common.crypto.zksnark.BN128Fp;
+import org.unichain.common.crypto.zksnark.BN128G1;
+import org.unichain.common.crypto.zksnark.BN128G2;
+import org.unichain.common.crypto.zksnark.Fp;
+import org.unichain.common.crypto.zksnark.PairingCheck;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.common.utils.ByteUtil;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.unichain.common.utils.ByteUtil.parseWord;
+
+@Slf4j(topic = "Test")
+public class BN128Test {
+
+    private static final BigInteger P = new BigInteger(
+            "21888242871839275222246405745257275088696311157297823662689037894645226208583");
+
+    /**
+     * {kind, input, output or "fail"}, recorded from the BigInteger field implementation. Covers
+     * random points, doubling, P + (-P), the point at infinity, short and invalid input, and pairing
+     * checks that hold by bilinearity next to random ones that do not.
+     */
+    private static final String[][] VECTORS = {
+                {"add",
+                        "1f50358dbb23962d58633c8c7768d15f26a73ba9570dca7d3bf9aa284feeb56424306f29f0be0624ab3285f7aa2a2c08" +
+                        "77cd1f879494fc21b6a6eb4771abeb520671ad9758290c6a383637b0ac827824e951e7520db0b7d6380d7191ec43da6e" +
+                        "2c960f2405160eb5d443bb798f2938ea31ba89e8551d6898a773d627c4cc343b",
+                        "225d1255009b8e3e13c7b035ee515cdc37892cf3932b6a327de24e3cc035827c0ea020390f75a05e1f5bccc121de382ffe391c3271c5b3580877042b46720234"},
+                {"add",
+                        "065259e9969809eeb00a5184d6ef315f90e9c39aac5881e5b5ee3a0a34a925fa212046d8a43526c232e49abac89b529b" +
+                        "288b958755902d7a9dc693b01713ce5b23f3532bd6e53cbeddd6be80dfbcf95f7df3492b7d7367323391e81e800c58e7" +
+                        "2586f969bef2f926dc672e779669eec72125012ff7c8de8e459aca59ccf0c0c4",
+                        "2314a902d5f9067a0bea7fea16c43a25b535b0f4ecec4a4c5ef7c9a81e5e883f1e2aec23deb91069cb6565011772c38791b46eae54b2af9ad54a3ca9b0a5c421"},
+                {"add",
+                        "034ecf107783ad669a3afe4bf721a79a2972b5c8e39c4f44c6851d41cfa678d71a01cd1184fb59dd56e6868ee53a306c" +
+                        "a1d772d9ef05ba58a86ba029c27e4df1048dcc6abafa4682caf707f8965affd87776e6b24c4a0fa2f4ad35c94282244e" +
+                        "125329e8d08a515eefadcadf9de3aa666fb36e08cc01462b383e4daa3a2c57e0",
+                        "0285e0c67039d618f7e9e40e1c4cd70a0ae650e2441418a53373cd867ba932bb2390b9ebc5083290246728a0d9ea7bc9cd3dc0f1a97dfe9657401a34ee8a42a4"},
+                {"add",
+                        "13cbc8ebb611eedbd686905307854df777aa8fac4c02b6a999766efddd71ba640589a0eef400c907624ab027113029a1" +
+                        "3eca10a67150980a1a4b7607f269b3c40a7cdc4894d4aad52e5dcf4cec38395fd0a8a31ad60a65097ee7120c4bde379e" +
+                        "0456c82e8806cea3590df17e4eace77f636c4b78af6b692de2dc6775cf96fdff",
+                        "1a7c2113c7e476f87813013da833db97fc80dce20ece60a812f6dacb089f777f0060fde5c32b319e7ba6ebada47e7734ba014e0ec798e9c22f5cbcafc4ffafb5"},
+                {"add",
+                        "2d1e34586ca8280e3f41691ac73440731d003e2b2ba6898a1e609323faf7f8201df3cc1c8a96e34f1b16903e3e25d720" +
+                        "26320377225f1ea5ed10a2a19af0fe8e20c92a35bb108eaedc19b0167f605f3e5f2af8e8d9c82d2397cbc45ee0a0a7e2" +
+                        "1ce493ee8efdbc9e4c43fe4459af4d1ea54662dcd39f4b69bf259057bfd3f33c",
+                        "1de8c185a3605105656f85a9c918e55ba8a402acd57d341e7effe97d63d6674e0bde95e065c7b4d88f9e85e589a0a5f6c63c6d38a9a5b2f4136f2e8214dbf8fb"},
+                {"add",
+                        "2e2b602a858c36047dd60d48b7fd546be9a4808106c201e64905f6494f48bb150c90e4f8f8616e648ee86a82e7dafb48" +
+                        "bbf2f8ce203b53726ba7a15fc7546f880adeaeb0103ca93cfdee40795a181476233c591206c0e748da5ed6af1e2fba11" +
+                        "28999eab5e51e4306c5bbec7b78e495e62786b6d8b4fae6295a37d57c8925a18",
+                        "0e4430b19aec359462447d9f61da80e3eeb9448a2d026cc205b85d328cd98b2c1c04e4b64f41ca93aafd4629b3a5e05c6d81590e3d8faa9c37ba060ff0b2adc1"},
+                {"add",
+                        "115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370157d72f5145c05dfac372461f4c54984" +
+                        "fbd5b8dd4f90d3721876fb1bf933394e115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370" +
+                        "157d72f5145c05dfac372461f4c54984fbd5b8dd4f90d3721876fb1bf933394e",
+                        "0a49be9e754e348921fda4b21fbfb18c9b17082ebf48c7751ea7f906d395cc961977e18f00148eb8d0f9d35e42f29c680933701dc001190111c6b93df5fd80bd"},
+                {"add",
+                        "115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370157d72f5145c05dfac372461f4c54984" +
+                        "fbd5b8dd4f90d3721876fb1bf933394e115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370" +
+                        "1ae6db7dccd59a4a0c1921548cbc0ed89babb1b418e0f71b23a990fadf49c3f9",
+                        "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"},
+                {"add",
+                        "115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370157d72f5145c05dfac372461f4c54984" +
+                        "fbd5b8dd4f90d3721876fb1bf933394e0000000000000000000000000000000000000000000000000000000000000000" +
+                        "0000000000000000000000000000000000000000000000000000000000000000",
+                        "115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370157d72f5145c05dfac372461f4c54984fbd5b8dd4f90d3721876fb1bf933394e"},
+                {"add",
+                        "",
+                        "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"},
+                {"add",
+                        "000000000000000000000000000000000000000000000000000000000000000100000000000000000000000000000000" +
+                        "00000000000000000000000000000003115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370" +
+                        "157d72f5145c05dfac372461f4c54984fbd5b8dd4f90d3721876fb1bf933394e",
+                        "fail"},
+                {"add",
+                        "30644e72e131a029b85045b68181585d97816a916871ca8d3c208c16d87cfd4800000000000000000000000000000000" +
+                        "00000000000000000000000000000002115bced45689e8112972bdfc0f3fa6cb06fa81eed8c8d64c9197d88f42e8b370" +
+                        "157d72f5145c05dfac372461f4c54984fbd5b8dd4f90d3721876fb1bf933394e",
+                        "fail"},
+                {"mul",
+                        "04c457ee4fe888034b8c615d1e952e122438f7092c3596c5043f5a6e9b7018972d932a9be4447b9103afcfb3d83e6413" +
+                        "dfa341cdc1feee711850dba597a59d73610ffaf7acc2eb65b33a5ff138572ddd5dd1c9087988100c4e80cc383f5abcbd",
+                        "2b076cad948480cbb193111f40a2b753a370a9f43ff503db22ee05c8bca1e6a808f49ed6df2fed507e2330537be7a0ae2c20b919bc14f467b03a237096b507fe"},
+                {"mul",
+                        "0c3ba543d1d97a8efd375da0018b6015b7181407c4cb81e7588a33684a2703090226947b3eb05f594e2df69e65a41460" +
+                        "5066f214bc38da10abec77327ccb0583db112320a490a90d50defb89bd0c42760c190dc8892460059e8263567ee05d4b",
+                        "2aa64ead3f20e0e17ef34740097f865f8e8665e5414918381f5c29a9c33e0ae72e28f687377ca40cf313ff1cb434c6fd3165e103d9516e3112999ecbf679cda2"},
+                {"mul",
+                        "1e4f53b58de1d0008334728c7ec4431dd06ef4bc52b4d475d8484ed6e1fadfd9220386211024dae265a7a4c62f6d2912" +
+                        "5b25cb4a4cd6bfdaa62d2a1ee00f96f68f9afc41e64c72e99f5071d9dede0e785da46fbe5917bb3d7a0b5d505afa4e1a",
+                        "010338680c807b41caeb005494715f986db835683a2e166f848c3c3051c8ec810f4a2401dcc9051e35181c4187aa5d8d7365fcade21b68c5a4c55635d1469b74"},
+                {"mul",
+                        "0460175987def30a853cc7f53af5291e9a77390971765fbdfdb425e2120d3bd023b0b7ceb2cd409af8ee2ab7f2a65971" +
+                        "dd6546abd180fbc9f3f72c34fb3c8b36513b5a08236dbcf0feb318a835fd2299742db8daa9e0179b0fe660abfb9707ba",
+                        "1509b42f347735caeca2b97abbb04690c32b3e7cf83b22d9da09b61918a8c15f2241fd56cd92b947b2d39be23dad1e726b5c28ed29efdd51fd6d4924d19637e2"},
+                {"mul",
+                        "26f8eb8b878faa06dff316077f2408140b4395ad4f9078f99b723233aa06a9940487c1db181a6a263cfea96d398b428b" +
+                        "bc1a8eefe03c0c271d5813d16b1ba6c837a59b6e4c35bb990a7cfcf89aaf8c43b54194837c7280b1cb020456cb0570ba",
+                        "07552968b1262ad8401180a3c725a906400a1a2b10b8d297025498b5497f109a04e2d09117f6b94dd0001bdd56769aa712b6a0d2ab6953b2b2158839844f5048"},
+                {"mul",
+                        "17135f89acabbb1b2a5429ed2f1d8edcd82a65f6164d20f1d2afd395788399712106dddd3d37b3f2a85b55a5353cf6fe" +
+                        "b3c3807ced662284a94435d79d99d85d0000000000000000000000000000000000000000000000000000000000000000",
+                        "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"},
+                {"mul",
+                        "0f42542f6d49de8bb0a74617ef8b1879c72293c6663f4c6adc288fa74111aefa130d7b2ebbe3ae98a6bce8c583a6b97e" +
+                        "5a2087dce351ee91a820063ed02a401730644e72e131a029b85045b68181585d2833e84879b9709143e1f593f0000001",
+                        "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"},
+                {"mul",
+                        "0946184786646f559f331fb967e415b430fa5637cc42e0ecae6c2f594b51481b2d1cf37e1068072d03db432539b1e387" +
+                        "011587c891d6f65a2c3e960d43fb78390000000000000000000000000000000000000000000000000000000000000002",
+                        "06ef3c0ef157942abb5c3e259d63c6202f7976931a3ab0edb7d13b1de0d4727a0c839961936bc0c2f4320f6ac8af02f03c876eb420d48b6e7f940d60743e815e"},
+                {"mul",
+                        "000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000" +
+                        "000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000005",
+                        "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"},
+                {"mul",
+                        "000000000000000000000000000000000000000000000000000000000000000100000000000000000000000000000000" +
+                        "0000000000000000000000000000000200000000000000000000",
+                        "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"},
+                {"mul",
+                        "000000000000000000000000000000000000000000000000000000000000000100000000000000000000000000000000" +
+                        "000000000000000000000000000000040000000000000000000000000000000000000000000000000000000000000002",
+                        "fail"},
+                {"pair",
+                        "",
+                        "0000000000000000000000000000000000000000000000000000000000000001"},
+                {"pair",
+                        "01bd18b719cf4aa80c5b522a4d256c042ef60500aa17d4e49a9bafa783b99aca2b5bd3ab113b80929cc40786f0a3c1e8" +
+                        "74165cf1707ba161f519aaae039ccdee0f2e5fc881ceaac665b221a29cdd42ee47fe5f55e60f9fb9b1c9713a5184cdcf" +
+                        "12afd97e81eca743d762ecf9338dad9ce5ac27635d8f6027117776fcc139a9ff24ef8fc0405200db2e5963636277aebe" +
+                        "f347cd77d921fe7f6ab83aa667cbe549036e6762db4bb02411900dd15f8b352d43180d4c1cbdeea5230262ac4a248455" +
+                        "0c55b3429a497cf8b50b0af4f9b391221aa6bc807a2e51e30dc1d7b39a8ab3b428eee9928fe6318ed09d3d3eef891186" +
+                        "a5fcb263b4728811ac235ca25908acbf198e9393920d483a7260bfb731fb5d25f1aa493335a9e71297e485b7aef312c2" +
+                        "1800deef121f1e76426a00665e5c4479674322d4f75edadd46debd5cd992f6ed090689d0585ff075ec9e99ad690c3395" +
+                        "bc4b313370b38ef355acdadcd122975b12c85ea5db8c6deb4aab71808dcb408fe3d1e7690c43d37b4ce6cc0166fa7daa",
+                        "0000000000000000000000000000000000000000000000000000000000000001"},
+                {"pair",
+                        "01bd18b719cf4aa80c5b522a4d256c042ef60500aa17d4e49a9bafa783b99aca2b5bd3ab113b80929cc40786f0a3c1e8" +
+                        "74165cf1707ba161f519aaae039ccdee0f2e5fc881ceaac665b221a29cdd42ee47fe5f55e60f9fb9b1c9713a5184cdcf" +
+                        "12afd97e81eca743d762ecf9338dad9ce5ac27635d8f6027117776fcc139a9ff24ef8fc0405200db2e5963636277aebe" +
+                        "f347cd77d921fe7f6ab83aa667cbe549036e6762db4bb02411900dd15f8b352d43180d4c1cbdeea5230262ac4a248455" +
+                        "0c55b3429a497cf8b50b0af4f9b391221aa6bc807a2e51e30dc1d7b39a8ab3b4077564e0514b6e9ae7b3087791f846d6" +
+                        "f184b82db3ff427b8ffd2f747f745088198e9393920d483a7260bfb731fb5d25f1aa493335a9e71297e485b7aef312c2" +
+                        "1800deef121f1e76426a00665e5c4479674322d4f75edadd46debd5cd992f6ed090689d0585ff075ec9e99ad690c3395" +
+                        "bc4b313370b38ef355acdadcd122975b12c85ea5db8c6deb4aab71808dcb408fe3d1e7690c43d37b4ce6cc0166fa7daa",
+                        "0000000000000000000000000000000000000000000000000000000000000000"},
+                {"pair",
+                        "173df4b3d1457896af5bd540635e46428d520302affa991a22e979eea3bf40722e9eae5a21616d8806e0359a0ccc6c3a" +
+                        "b775be270f245d3c0179a990f3c107ec056746a04ab02c35c344ccb9b04fa492782aea89b2ad23116244b9e190bb2cb0" +
+                        "10e14f3b358fc1de2fd22a56c5523a8203967be892e19be932d9637e94f5efd7001b280e0c7db2930859b4e051f38e21" +
+                        "f35d3fadeea424e430ea57753350d82807f9d5260940e97c16d69f83e4df0d2a0c948817a9ab9de11161c5dd37c6a0b4" +
+                        "2dd06551a4e73e36f4db19bc9ee332b0021815c59b18fd37cfa90eb10dbaefb52dcefe30dba4b159ed83ec1cdc6ed3e7" +
+                        "2413aead02dbf17889da9a89af28e4a2140bb5ba7b6d5a35f52af161059838168a46b7a75475c3cd298e3037dd8b9b66" +
+                        "167cc75353e4540077cfb9ee6e82a9fefde7b9977cc2c308eaeaf2f6052f4c6503aa97eac77d7eca9b5682a9adf937db" +
+                        "226edd65d90caf156325caccdef9ca1f1fc8bc46e976bb784d8589938e2f5b1b8112abd9ec225a3aa790dd10b5536510" +
+                        "06d471b0dbd1600817191c110816a7c1e18157df532ee66cdb58e05b5004f8bd0a6747692da8063721966b0135343940" +
+                        "86efe55592a853f9c010bb9d839731ba198e9393920d483a7260bfb731fb5d25f1aa493335a9e71297e485b7aef312c2" +
+                        "1800deef121f1e76426a00665e5c4479674322d4f75edadd46debd5cd992f6ed090689d0585ff075ec9e99ad690c3395" +
+                        "bc4b313370b38ef355acdadcd122975b12c85ea5db8c6deb4aab71808dcb408fe3d1e7690c43d37b4ce6cc0166fa7daa",
+                        "0000000000000000000000000000000000000000000000000000000000000001"},
+                {"pair",
+                        "02592263c34b22bad4a80a4ba8c0cbb469990ce5824b59c5b8c4673917f1840f12a75361dbecf5733c866b28f8aa13a3" +
+                        "e3f7c427e5e6572148b4917b981c79792881d97c64df552d4787acc0dece4246d15ea47f3696ac934ca48f3df9bc035d" +
+                        "2234d8c0eec9812e141f1495f0739418e062514fb6be0cfba1869349e8e5534b24c0d2b080b66690a0ec2d60415cdecc" +
+                        "e29b9c2067cfe1d4cf936a3efb48eecb1c1faf07d93f9a1d5fecadca814e41db68aa000856797c246aa52d357311a9b9",
+                        "0000000000000000000000000000000000000000000000000000000000000000"},
+                {"pair",
+                        "000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000" +
+                        "0000000000000000000000000000000004a1ea67949e79ae2e0f753fa3e22a3eb992d6e31234edccf7f13f41f21d323e" +
+                        "1b532824d6aac0462ad362cd3799c2cd18269d5ea4391bdf89551984f8d469901180398d219c7dfd5045f13d202d69d8" +
+                        "2b6e2bf02aa294a5333237de017abc0e11663f247aa3e287dfbbe627d001a46199ee179bcf0d618ae912e8bd2ead85bb",
+                        "0000000000000000000000000000000000000000000000000000000000000001"},
+                {"pair",
+                        "1a018c60fe43c40fc9fb9cdf75c23ddfa8fc988ac6213d6deaa0b9e14e8a930802fc1715e0cacbae283cc492f2a4ec06" +
+                        "d87b12a9c1c8310355d400c14d95fd7f0000000000000000000000000000000000000000000000000000000000000000" +
+                        "000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000" +
+                        "000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000",
+                        "0000000000000000000000000000000000000000000000000000000000000001"},
+                {"pair",
+                        "05db33a7780143b6ffcdd6d37ede9f6c555f8cafbc0efc117d9b185c71b56d30175a7cf8e457ee9251b1419fb4275257" +
+                        "4f76dfb58394beca57a3274b600ffd2f1bc40d986863b161b0e9108f8f506c800d0fc97c3c08c55cae9861573530cfde" +
+                        "0b8cf481a4cd71a6d9c9a837669d7f02fa6f3174bf0b16d92c3488f3d7760e630a14247b3e1c9045b67d3f3387e80455" +
+                        "3679defea5b371d8d6301cc242f30d151e31d3cd19c2084e42c6f9e42a3a2c6906180f03a4a1795aefb49c6ff5f3f69a" +
+                        "1f9c3b6dab5081c57f05e44b01df2cea2636fdb0972163f691c99cb4b2edbd34184aeccbe5a8c662c478f1c79bdb5585" +
+                        "8f19db9d9400a444ab4378ec06e016740fe08710babc209d88489f8b832fb7c91a07d2ec8030bbdcee35701f7ab28450" +
+                        "288dfbbbe9e6cd5c4b015654180ba99755dcc287108cd7a826a9122f71c06c3c2652fab1dd9f59a924fdd9af05511f23" +
+                        "cb7029125eae25f97297bc3b9a6e95f408cf667023520aabf6c227ed5f014043cd1d6653c1085c4324b8d635f0a26f53" +
+                        "21b34e0b1f0b4050fc685c69c9f6112574ba358292d0533eea0289571d7efbcf15babe7ec48d8c501ea2b87c89de0804" +
+                        "2e94ee3b56368d74e403c7150b17d5e6211538a04cc83f01f97d8d4589c2e366646e27b19c3337f8a82b732ed75576a9" +
+                        "21c18b292d8649fe204fbbe0d3aee4dd7458f74a50f7fa4fdce2c1afc26650f209d28f5e2e0717123e70bbd9af3684a8" +
+                        "0eb90491671b188da61100b0becf3d6a1129c8a3782b78023598a805c58cbe4124fc9179f8142311410a5c57dcf7d1a1" +
+                        "225a47959fc053f6f7bb2bf5d6c3e0eb62ac4f717eb3dd53facb8c02ac5134410ce232e45fa63f38ed80d1d97e1bf011" +
+                        "f589f13f38db718cabcfe44750b827e91d2abc179842d75c6c3210c5fe3f0a3019262e5b4a787f9a858516f1aa693f90" +
+                        "1c587084d80e8ba9fc0776be3ee735c4ea5a961d05f6a4f669802e4028382068286f438a8fb5828637977b3b5f368f2b" +
+                        "baad55bed5ec41b549cce73820cc5d0923346bf658e0081c6148b6e4a2cc864f56e52293f0c04798173fd1e09d7e5b30",
+                        "0000000000000000000000000000000000000000000000000000000000000000"},
+                {"pair",
+                        "0330e987d5ef7e3c8c0dd8f5eadeb6e18bb6d3b777117a4b8c2e3df48a7c770b2d0f8549eb4cdc1a791d65fa633bf75c" +
+                        "86093c24146e4d18041b27c9ddc94c6b160cfdad89eada5d5fb4f9b98e25414f0f8cd7b22f6a1a9c9c2df1490baa24d3" +
+                        "0c13d0829d0677e70c6b1676e2270d27f38f12d937834adb85b93562b317dd1d2fd685813b6601551400a8cd7ae99fbf" +
+                        "9d58a4a443b373171e24be5a4e5a28b52fd950ac99108503319986b43bbe4e08d4770fb50ba2bb780737296592b2f159",
+                        "fail"},
+                {"pair",
+                        "2479e70b8c6d92773b39c59343dc8a92e1571627959d2624dc55ffc801d478542ca558c1a20f2d9cf9d28ff7ad0c3fe7" +
+                        "1287dff647683d4310da8460fac1132e2da4d77e7d926c95fb9a1f0d5a4d1593fcce252505aa6f36d90d76320b69b14d" +
+                        "2e4401c812de4788e208f3af5a9a06f7e561f673bd3eec82d495255b2fc75ff229fd6d0c36308077e1121c63673c31ba" +
+                        "4ed639bd54be26812fb5671c2536c94a0aea634d16636c45645b160c75cc7eca215a885aea64ae2b19e2197bd0a43680" +
+                        "0000000000",
+                        "fail"}
+    };
+
+    @org.junit.Test
+    public void testConformanceVectors() {
+        for (var vector : VECTORS) {
+            var input = ByteArray.fromHexString(vector[1]);
+            byte[] output;
+            switch (vector[0]) {
+                case "add":
+                    output = add(input);
+                    break;
+                case "mul":
+                    output = mul(input);
+                    break;
+                default:
+                    output = pairing(input);
+            }
+            Assert.assertEquals(vector[0] + " " + vector[1], vector[2],
+                    output == null ? "fail" : ByteUtil.toHexString(output));
+        }
+    }
+
+    // affine double and add over BigInteger as the reference for the Montgomery field
+    @org.junit.Test
+    public void testScalarMultiplicationMatchesReference() {
+        var random = new Random(254);
+        var g = new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(2)};
+        for (int i = 0; i < 20; i++) {
+            var s = new BigInteger(256, random);
+            var expected = referenceMul(g, s);
+            var input = new byte[96];
+            System.arraycopy(word(BigInteger.ONE), 0, input, 0, 32);
+            System.arraycopy(word(BigInteger.valueOf(2)), 0, input, 32, 32);
+            System.arraycopy(word(s), 0, input, 64, 32);
+            var output = mul(input);
+            Assert.assertEquals(ByteUtil.toHexString(word(expected[0])) + ByteUtil.toHexString(word(expected[1])),
+                    ByteUtil.toHexString(output));
+        }
+    }
+
+    private static BigInteger[] referenceMul(BigInteger[] p, BigInteger s) {
+        BigInteger[] result = null;
+        for (int i = s.bitLength() - 1; i >= 0; i--) {
+            result = referenceAdd(result, result);
+            if (s.testBit(i)) {
+                result = referenceAdd(result, p);
+            }
+        }
+        return result == null ? new BigInteger[]{BigInteger.ZERO, BigInteger.ZERO} : result;
+    }
+
+    private static BigInteger[] referenceAdd(BigInteger[] a, BigInteger[] b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        BigInteger lambda;
+        if (a[0].equals(b[0])) {
+            if (!a[1].equals(b[1]) || a[1].signum() == 0) {
+                return null;
+            }
+            lambda = a[0].pow(2).multiply(BigInteger.valueOf(3)).multiply(a[1].shiftLeft(1).modInverse(P));
+        } else {
+            lambda = b[1].subtract(a[1]).multiply(b[0].subtract(a[0]).modInverse(P));
+        }
+        lambda = lambda.mod(P);
+        var x = lambda.pow(2).subtract(a[0]).subtract(b[0]).mod(P);
+        var y = lambda.multiply(a[0].subtract(x)).subtract(a[1]).mod(P);
+        return new BigInteger[]{x, y};
+    }
+
+    private static byte[] word(BigInteger value) {
+        var bytes = ByteUtil.stripLeadingZeroes(value.toByteArray());
+        var word = new byte[32];
+        System.arraycopy(bytes, 0, word, 32 - bytes.length, bytes.length);
+        return word;
+    }
+
+    // the BN128 precompiles, over the public curve API
+
+    private static byte[] add(byte[] input) {
+        BN128<Fp> p1 = BN128Fp.create(parseWord(input, 0), parseWord(input, 1));
+        BN128<Fp> p2 = BN128Fp.create(parseWord(input, 2), parseWord(input, 3));
+        if (p1 == null || p2 == null) {
+            return null;
+        }
+        return encode(p1.add(p2).toEthNotation());
+    }
+
+    private static byte[] mul(byte[] input) {
+        BN128<Fp> p = BN128Fp.create(parseWord(input, 0), parseWord(input, 1));
+        if (p == null) {
+            return null;
+        }
+        return encode(p.mul(new BigInteger(1, parseWord(input, 2))).toEthNotation());
+    }
+
+    private static byte[] pairing(byte[] input) {
+        if (input.length % 192 > 0) {
+            return null;
+        }
+        var check = PairingCheck.create();
+        for (int offset = 0; offset < input.length; offset += 192) {
+            var g1 = BN128G1.create(parseWord(input, offset, 0), parseWord(input, offset, 1));
+            var g2 = BN128G2.create(parseWord(input, offset, 3), parseWord(input, offset, 2),
+                    parseWord(input, offset, 5), parseWord(input, offset, 4));
+            if (g1 == null || g2 == null) {
+                return null;
+            }
+            check.addPair(g1, g2);
+        }
+        check.run();
+        return word(BigInteger.valueOf(check.result()));
+    }
+
+    private static byte[] encode(BN128<Fp> p) {
+        var x = ByteUtil.stripLeadingZeroes(p.x().bytes());
+        var y = ByteUtil.stripLeadingZeroes(p.y().bytes());
+        var result = new byte[64];
+        System.arraycopy(x, 0, result, 32 - x.length, x.length);
+        System.arraycopy(y, 0, result, 64 - y.length, y.length);
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.unichain.common.runtime.config.VMConfig;
+import org.unichain.common.runtime.vm.OpCode;
+import org.unichain.common.runtime.vm.VM;
+import org.unichain.common.runtime.vm.program.InternalTransaction;
+import org.unichain.common.runtime.vm.program.Program;
+import org.unichain.common.runtime.vm.program.invoke.ProgramInvokeMockImpl;
+import org.unichain.core.config.args.Args;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+/**
+ * Runs random code once charging energy op by op and once per basic block, both runs must end
+ * with the same energy used, the same exception at the same op and the same stack.
+ */
+@Slf4j(topic = "Test")
+public class BlockEnergyChargingTest {
+
+    private static final OpCode[] STRAIGHT = {OpCode.ADD, OpCode.MUL, OpCode.SUB, OpCode.DIV,
+            OpCode.ADDMOD, OpCode.LT, OpCode.ISZERO, OpCode.AND, OpCode.NOT, OpCode.BYTE, OpCode.POP,
+            OpCode.DUP1, OpCode.DUP2, OpCode.DUP16, OpCode.SWAP1, OpCode.SWAP3, OpCode.PC, OpCode.MSIZE,
+            OpCode.SHL, OpCode.SAR, OpCode.GAS, OpCode.MSTORE, OpCode.MLOAD, OpCode.EXP};
+
+    private static final int JUMPDESTS = 4;
+
+    private final Random random = new Random(2035);
+
+    @BeforeClass
+    public static void init() {
+        Args.getInstance().setDebug(true);
+    }
+
+    @AfterClass
+    public static void destroy() {
+        Args.getInstance().setDebug(false);
+        VMConfig.getInstance().setBlockEnergyCharging(false);
+        VMConfig.initAllowTvmConstantinople(0);
+    }
+
+    /**
+     * Straight-line ops with small pushes, a few JUMPDESTs at fixed offsets, jumps to them (or next
+     * to them) and the odd STOP or invalid opcode. Ops mostly find enough operands on the stack.
+     */
+    private byte[] randomCode() {
+        var code = new ByteArrayOutputStream();
+        var length = 20 + random.nextInt(200);
+        var segment = length / JUMPDESTS;
+        var height = 0;
+        while (code.size() < length) {
+            if (code.size() % segment == 0 && code.size() / segment < JUMPDESTS) {
+                code.write(OpCode.JUMPDEST.val());
+                continue;
+            }
+            var roll = random.nextInt(100);
+            var op = STRAIGHT[random.nextInt(STRAIGHT.length)];
+            if (roll < 25 || roll >= 31 && op.require() > height && random.nextInt(50) != 0) {
+                code.write(OpCode.PUSH1.val());
+                code.write(random.nextInt(4) == 0 ? 0xff : random.nextInt(64));
+                height++;
+            } else if (roll < 30) {
+                code.write(OpCode.PUSH2.val());
+                code.write(0);
+                code.write(segment * random.nextInt(JUMPDESTS) + (random.nextInt(10) == 0 ? 1 : 0));
+                code.write(random.nextBoolean() ? OpCode.JUMP.val() : OpCode.JUMPI.val());
+                height = Math.max(0, height - 1);
+            } else if (roll < 31) {
+                code.write(random.nextBoolean() ? OpCode.STOP.val() : (byte) 0xfe);
+            } else {
+                code.write(op.val());
+                height = Math.max(0, height + op.ret() - op.require());
+            }
+        }
+        return code.toByteArray();
+    }
+
+    private static String run(byte[] code, long energyLimit, boolean blockCharging) {
+        VMConfig.getInstance().setBlockEnergyCharging(blockCharging);
+        var invoke = new ProgramInvokeMockImpl(true);
+        invoke.setEnergyLimit(energyLimit);
+        var internalTransaction = new InternalTransaction(new byte[32], 0, 0, new byte[21], new byte[21], 0,
+                new byte[0], "", 0, null);
+        var program = new Program(code, invoke, internalTransaction);
+        var vm = new VM();
+        String exception = null;
+        var steps = 0;
+        try {
+            while (!program.isStopped()) {
+                vm.step(program);
+                steps++;
+            }
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+        }
+        return "energy " + program.getResult().getEnergyUsed() + " steps " + steps + " pc " + program.getPC()
+                + " exception " + exception + " memory " + program.getMemSize() + " stack " + program.getStack();
+    }
+
+    @org.junit.Test
+    public void testSameOutcomeAsPerOpCharging() {
+        var completed = 0;
+        for (int i = 0; i < 3000; i++) {
+            VMConfig.initAllowTvmConstantinople(random.nextInt(4) == 0 ? 0 : 1);
+            var code = randomCode();
+            var energyLimit = 1 + random.nextInt(3000);
+            var perOp = run(code, energyLimit, false);
+            var perBlock = run(code, energyLimit, true);
+            Assert.assertEquals(OpCode.class.getSimpleName() + " trace differs for code "
+                    + Program.stringify(code) + " with energy " + energyLimit, perOp, perBlock);
+            if (perOp.contains("exception null")) {
+                completed++;
+            }
+        }
+        Assert.assertTrue("too few runs without exception: " + completed, completed > 300);
+    }
+}
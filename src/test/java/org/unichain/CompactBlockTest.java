@@ -0,0 +1,199 @@
+package org.unichain;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.exception.P2pException;
+import org.unichain.core.net.message.BlockMessage;
+import org.unichain.core.net.message.BlockTransactionsMessage;
+import org.unichain.core.net.message.CompactBlockMessage;
+import org.unichain.core.net.message.FetchBlockTransactionsMessage;
+import org.unichain.core.net.messagehandler.BlockMsgHandler;
+import org.unichain.core.net.messagehandler.CompactBlockMsgHandler;
+import org.unichain.core.net.peer.Item;
+import org.unichain.core.net.peer.PartialBlock;
+import org.unichain.core.net.peer.PeerConnection;
+import org.unichain.core.net.service.AdvService;
+import org.unichain.protos.Protocol.Inventory.InventoryType;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j(topic = "Test")
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CompactBlockTest {
+
+    @Mock
+    private AdvService advService;
+
+    @Mock
+    private BlockMsgHandler blockMsgHandler;
+
+    @InjectMocks
+    private CompactBlockMsgHandler handler;
+
+    // the transactions known here, by short id
+    private final Map<Long, Transaction> known = new HashMap<>();
+
+    private final Map<Item, Long> advInvRequest = new ConcurrentHashMap<>();
+    private final Map<BlockId, Long> syncBlockRequested = new ConcurrentHashMap<>();
+    private final Map<BlockId, PartialBlock> compactBlockInProcess = new ConcurrentHashMap<>();
+
+    private PeerConnection peer;
+
+    @Before
+    public void init() {
+        doAnswer(invocation -> {
+            List<Long> shortIds = invocation.getArgument(0);
+            Transaction[] transactions = invocation.getArgument(1);
+            var missing = new ArrayList<Integer>();
+            for (var i = 0; i < transactions.length; i++) {
+                transactions[i] = known.get(shortIds.get(i));
+                if (transactions[i] == null) {
+                    missing.add(i);
+                }
+            }
+            return missing;
+        }).when(advService).fillTransactions(any(), any());
+
+        peer = mock(PeerConnection.class);
+        when(peer.getAdvInvRequest()).thenReturn(advInvRequest);
+        when(peer.getSyncBlockRequested()).thenReturn(syncBlockRequested);
+        when(peer.getCompactBlockInProcess()).thenReturn(compactBlockInProcess);
+    }
+
+    private static Transaction transaction(int i) {
+        var raw = Transaction.raw.newBuilder().setData(ByteString.copyFromUtf8("unx " + i));
+        return Transaction.newBuilder().setRawData(raw).build();
+    }
+
+    private static long shortId(Transaction transaction) {
+        return CompactBlockMessage.shortId(new TransactionCapsule(transaction).getTransactionId());
+    }
+
+    private static BlockCapsule block(Transaction... transactions) {
+        var block = new BlockCapsule(System.currentTimeMillis(), ByteString.EMPTY, 1,
+            Arrays.asList(transactions));
+        block.setMerkleRoot();
+        return block;
+    }
+
+    private void know(Transaction... transactions) {
+        for (var transaction : transactions) {
+            known.put(shortId(transaction), transaction);
+        }
+    }
+
+    private BlockCapsule processed() throws P2pException {
+        var captor = ArgumentCaptor.forClass(BlockMessage.class);
+        verify(blockMsgHandler).processMessage(any(), captor.capture());
+        return captor.getValue().getBlockCapsule();
+    }
+
+    private FetchBlockTransactionsMessage fetched() {
+        var captor = ArgumentCaptor.forClass(FetchBlockTransactionsMessage.class);
+        verify(peer).sendMessage(captor.capture());
+        return captor.getValue();
+    }
+
+    @org.junit.Test
+    public void testReconstruct() throws P2pException {
+        var t0 = transaction(0);
+        var t1 = transaction(1);
+        var block = block(t0, t1);
+        know(t0, t1);
+        advInvRequest.put(new Item(block.getBlockId(), InventoryType.BLOCK), 0L);
+
+        handler.processMessage(peer, new CompactBlockMessage(block));
+        verify(peer, never()).sendMessage(any());
+        Assert.assertEquals(block.getInstance(), processed().getInstance());
+    }
+
+    @org.junit.Test
+    public void testMissingTransactions() throws P2pException {
+        var t0 = transaction(0);
+        var t1 = transaction(1);
+        var t2 = transaction(2);
+        var block = block(t0, t1, t2);
+        know(t0, t2);
+        advInvRequest.put(new Item(block.getBlockId(), InventoryType.BLOCK), 0L);
+
+        handler.processMessage(peer, new CompactBlockMessage(block));
+        Assert.assertEquals(Arrays.asList(1), fetched().getIndexes());
+        verify(blockMsgHandler, never()).processMessage(any(), any());
+
+        // a wrong count of transactions is a bad message
+        try {
+            handler.processMessage(peer, new BlockTransactionsMessage(block.getBlockId(),
+                Arrays.asList(t1, t2)));
+            Assert.fail();
+        } catch (P2pException e) {
+            Assert.assertEquals(P2pException.TypeEnum.BAD_MESSAGE, e.getType());
+        }
+
+        handler.processMessage(peer, new CompactBlockMessage(block));
+        handler.processMessage(peer, new BlockTransactionsMessage(block.getBlockId(),
+            Arrays.asList(t1)));
+        Assert.assertEquals(block.getInstance(), processed().getInstance());
+        Assert.assertTrue(compactBlockInProcess.isEmpty());
+    }
+
+    @org.junit.Test
+    public void testFullFetch() throws P2pException {
+        var t0 = transaction(0);
+        var t1 = transaction(1);
+        var block = block(t0, t1);
+        know(t0);
+        // another transaction under the short id of t1
+        known.put(shortId(t1), transaction(3));
+        advInvRequest.put(new Item(block.getBlockId(), InventoryType.BLOCK), 0L);
+
+        handler.processMessage(peer, new CompactBlockMessage(block));
+        Assert.assertEquals(Arrays.asList(0, 1), fetched().getIndexes());
+        verify(blockMsgHandler, never()).processMessage(any(), any());
+
+        handler.processMessage(peer, new BlockTransactionsMessage(block.getBlockId(),
+            Arrays.asList(t0, t1)));
+        Assert.assertEquals(block.getInstance(), processed().getInstance());
+    }
+
+    @org.junit.Test
+    public void testRequested() throws P2pException {
+        var t0 = transaction(0);
+        var block = block(t0);
+        know(t0);
+        try {
+            handler.processMessage(peer, new CompactBlockMessage(block));
+            Assert.fail();
+        } catch (P2pException e) {
+            Assert.assertEquals(P2pException.TypeEnum.BAD_MESSAGE, e.getType());
+        }
+
+        // fetched by sync
+        syncBlockRequested.put(block.getBlockId(), 0L);
+        handler.processMessage(peer, new CompactBlockMessage(block));
+        Assert.assertEquals(block.getInstance(), processed().getInstance());
+    }
+}
@@ -0,0 +1,208 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.runtime.vm.DataWord;
+import org.unichain.common.utils.ByteUtil;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.unichain.common.runtime.vm.DataWord.MAX_VALUE;
+import static org.unichain.common.runtime.vm.DataWord._2_256;
+
+@Slf4j(topic = "Test")
+public class DataWordTest {
+
+    private static final int ROUNDS = 20_000;
+
+    private final Random random = new Random(2019);
+
+    /**
+     * Operands skewed towards the edges: zero, one, small values, powers of two, values around the
+     * sign bit and the maximum, and values with a random number of leading zero bytes.
+     */
+    private byte[] randomWord() {
+        var bytes = new byte[32];
+        switch (random.nextInt(8)) {
+            case 0:
+                return bytes;
+            case 1:
+                bytes[31] = (byte) random.nextInt(3);
+                return bytes;
+            case 2:
+                return ByteUtil.copyToArray(BigInteger.ONE.shiftLeft(random.nextInt(256)));
+            case 3:
+                Arrays.fill(bytes, (byte) 0xff);
+                bytes[31] -= random.nextInt(3);
+                return bytes;
+            case 4:
+                bytes[0] = (byte) 0x80;
+                bytes[31] = (byte) random.nextInt(3);
+                return bytes;
+            case 5:
+                random.nextBytes(bytes);
+                Arrays.fill(bytes, 0, 24 + random.nextInt(8), (byte) 0);
+                return bytes;
+            default:
+                random.nextBytes(bytes);
+                Arrays.fill(bytes, 0, random.nextInt(32), (byte) 0);
+                return bytes;
+        }
+    }
+
+    private static byte[] word(BigInteger value) {
+        return ByteUtil.copyToArray(value.and(MAX_VALUE));
+    }
+
+    private interface Op {
+        void apply(DataWord a, DataWord b, DataWord c);
+    }
+
+    private interface Reference {
+        byte[] apply(BigInteger a, BigInteger b, BigInteger c, BigInteger sa, BigInteger sb);
+    }
+
+    private void check(String name, Op op, Reference reference) {
+        for (int i = 0; i < ROUNDS; i++) {
+            var a = randomWord();
+            var b = randomWord();
+            var c = randomWord();
+            var expected = reference.apply(new BigInteger(1, a), new BigInteger(1, b), new BigInteger(1, c),
+                    new BigInteger(a), new BigInteger(b));
+            var x = new DataWord(a.clone());
+            op.apply(x, new DataWord(b.clone()), new DataWord(c.clone()));
+            if (!Arrays.equals(expected, x.getData())) {
+                Assert.fail(name + "(" + ByteUtil.toHexString(a) + ", " + ByteUtil.toHexString(b) + ", "
+                        + ByteUtil.toHexString(c) + ") expected " + ByteUtil.toHexString(expected)
+                        + " but was " + x);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testAddSubMul() {
+        check("add", (a, b, c) -> a.add(b), (a, b, c, sa, sb) -> word(a.add(b)));
+        check("sub", (a, b, c) -> a.sub(b), (a, b, c, sa, sb) -> word(a.subtract(b)));
+        check("mul", (a, b, c) -> a.mul(b), (a, b, c, sa, sb) -> word(a.multiply(b)));
+    }
+
+    @org.junit.Test
+    public void testDivMod() {
+        check("div", (a, b, c) -> a.div(b),
+                (a, b, c, sa, sb) -> b.signum() == 0 ? new byte[32] : word(a.divide(b)));
+        check("mod", (a, b, c) -> a.mod(b),
+                (a, b, c, sa, sb) -> b.signum() == 0 ? new byte[32] : word(a.mod(b)));
+        check("sdiv", (a, b, c) -> a.sDiv(b),
+                (a, b, c, sa, sb) -> sb.signum() == 0 ? new byte[32] : word(sa.divide(sb)));
+        check("smod", (a, b, c) -> a.sMod(b), (a, b, c, sa, sb) -> {
+            if (sb.signum() == 0) {
+                return new byte[32];
+            }
+            var result = sa.abs().mod(sb.abs());
+            return word(sa.signum() == -1 ? result.negate() : result);
+        });
+    }
+
+    @org.junit.Test
+    public void testModularArithmetic() {
+        check("addmod", (a, b, c) -> a.addmod(b, c),
+                (a, b, c, sa, sb) -> c.signum() == 0 ? new byte[32] : word(a.add(b).mod(c)));
+        check("mulmod", (a, b, c) -> a.mulmod(b, c),
+                (a, b, c, sa, sb) -> c.signum() == 0 ? new byte[32] : word(a.multiply(b).mod(c)));
+        check("exp", (a, b, c) -> a.exp(b), (a, b, c, sa, sb) -> word(a.modPow(b, _2_256)));
+        check("exp small", (a, b, c) -> a.exp(new DataWord(c.getData()[31] & 0xff)),
+                (a, b, c, sa, sb) -> word(a.modPow(BigInteger.valueOf(c.intValue() & 0xff), _2_256)));
+    }
+
+    // operands hitting the rare "add back" step of long division
+    @org.junit.Test
+    public void testDivisionAddBack() {
+        var cases = new String[][]{
+                {"7fffffff800000000000000000000000", "800000000000000000000001"},
+                {"8000000000000000fffffffe00000000", "8000000000000000ffffffff"},
+                {"7fffffff800000000000000000000000" + "00000000000000000000000000000000", "800000000000000000000001"}};
+        for (var c : cases) {
+            var a = new BigInteger(c[0], 16);
+            var b = new BigInteger(c[1], 16);
+            var x = new DataWord(word(a));
+            x.div(new DataWord(word(b)));
+            Assert.assertArrayEquals(word(a.divide(b)), x.getData());
+            x = new DataWord(word(a));
+            x.mod(new DataWord(word(b)));
+            Assert.assertArrayEquals(word(a.mod(b)), x.getData());
+        }
+    }
+
+    @org.junit.Test
+    public void testBitwise() {
+        check("not", (a, b, c) -> a.bnot(), (a, b, c, sa, sb) -> word(MAX_VALUE.subtract(a)));
+        check("negate", (a, b, c) -> a.negate(), (a, b, c, sa, sb) -> word(a.negate()));
+        check("shl", (a, b, c) -> copy(a, a.shiftLeft(shift(b))),
+                (a, b, c, sa, sb) -> shiftRef(b) >= 256 ? new byte[32] : word(a.shiftLeft(shiftRef(b))));
+        check("shr", (a, b, c) -> copy(a, a.shiftRight(shift(b))),
+                (a, b, c, sa, sb) -> shiftRef(b) >= 256 ? new byte[32] : word(a.shiftRight(shiftRef(b))));
+        check("sar", (a, b, c) -> copy(a, a.shiftRightSigned(shift(b))),
+                (a, b, c, sa, sb) -> word(sa.shiftRight(Math.min(shiftRef(b), 256))));
+        check("signextend", (a, b, c) -> a.signExtend((byte) (b.getData()[31] & 31)), (a, b, c, sa, sb) -> {
+            int bit = (b.intValue() & 31) * 8 + 7;
+            var mask = BigInteger.ONE.shiftLeft(bit + 1).subtract(BigInteger.ONE);
+            return word(a.testBit(bit) ? a.or(MAX_VALUE.xor(mask)) : a.and(mask));
+        });
+    }
+
+    // shift distances are mostly in range, sometimes just above and sometimes huge
+    private static DataWord shift(DataWord b) {
+        var bytes = b.getData();
+        return bytes[0] < 0 ? b : new DataWord(ByteUtil.copyToArray(BigInteger.valueOf((bytes[31] & 0xff) + (bytes[30] & 1))));
+    }
+
+    private static int shiftRef(BigInteger b) {
+        var bytes = word(b);
+        return bytes[0] < 0 ? Integer.MAX_VALUE : (bytes[31] & 0xff) + (bytes[30] & 1);
+    }
+
+    private static void copy(DataWord target, DataWord source) {
+        target.and(DataWord.ZERO());
+        target.or(source);
+    }
+
+    @org.junit.Test
+    public void testArgumentArraysAreNotModified() {
+        for (int i = 0; i < 1000; i++) {
+            var a = randomWord();
+            var b = randomWord();
+            var original = a.clone();
+            var x = new DataWord(a);
+            x.add(new DataWord(b));
+            x.mul(new DataWord(b));
+            x.exp(new DataWord(b));
+            Assert.assertArrayEquals("constructor array must keep its value", original, a);
+
+            var held = x.getData();
+            var value = held.clone();
+            x.sub(new DataWord(b));
+            x.div(new DataWord(b));
+            x.bnot();
+            Assert.assertArrayEquals("handed out array must keep its value", value, held);
+        }
+    }
+
+    @org.junit.Test
+    public void testOperandAliasing() {
+        for (int i = 0; i < 1000; i++) {
+            var a = new BigInteger(1, randomWord());
+            var x = new DataWord(word(a));
+            x.mul(x);
+            Assert.assertArrayEquals(word(a.multiply(a)), x.getData());
+            x = new DataWord(word(a)).clone();
+            x.add(x);
+            Assert.assertArrayEquals(word(a.add(a)), x.getData());
+            x = new DataWord(word(a)).clone();
+            x.exp(x);
+            Assert.assertArrayEquals(word(a.modPow(a, _2_256)), x.getData());
+        }
+    }
+}
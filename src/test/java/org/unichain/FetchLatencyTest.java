@@ -0,0 +1,39 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.overlay.discover.node.statistics.NodeStatistics;
+
+@Slf4j(topic = "Test")
+public class FetchLatencyTest {
+
+    @org.junit.Test
+    public void testPercentile() {
+        var latency = new NodeStatistics().advFetch;
+        Assert.assertEquals(-1, latency.getPercentile(0.5));
+        for (var i = 1; i <= 10; i++) {
+            latency.add(i * 100);
+        }
+        Assert.assertEquals(500, latency.getPercentile(0.5));
+        Assert.assertEquals(900, latency.getPercentile(0.9));
+        Assert.assertEquals(1000, latency.getPercentile(1));
+        Assert.assertEquals(100, latency.getPercentile(0));
+    }
+
+    @org.junit.Test
+    public void testRecentOnly() {
+        var latency = new NodeStatistics().advFetch;
+        for (var i = 0; i < 1000; i++) {
+            latency.add(5_000);
+        }
+        for (var i = 0; i < 32; i++) {
+            latency.add(50);
+        }
+        Assert.assertEquals(50, latency.getPercentile(1));
+
+        latency.timeout(700);
+        Assert.assertEquals(1, latency.getTimeouts());
+        Assert.assertEquals(700, latency.getPercentile(1));
+    }
+}
@@ -0,0 +1,137 @@
+package org.unichain;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.overlay.server.FrameCompressor;
+import org.unichain.common.overlay.server.FrameDecompressor;
+import org.unichain.common.overlay.server.WireTrafficStats.CompressionStats;
+import org.unichain.core.exception.P2pException;
+import org.unichain.core.exception.P2pException.TypeEnum;
+import org.unichain.core.net.message.MessageTypes;
+
+import java.util.Arrays;
+import java.util.Random;
+
+@Slf4j(topic = "Test")
+public class FrameCompressionTest {
+
+    private final Random random = new Random(2019);
+
+    // a message of the type, half random and half repeated bytes
+    private byte[] message(MessageTypes type, int length) {
+        var message = new byte[length];
+        random.nextBytes(message);
+        for (int i = length / 2; i < length; i++) {
+            message[i] = (byte) (i % 7);
+        }
+        message[0] = type.asByte();
+        return message;
+    }
+
+    private static byte[] bytes(ByteBuf buf) {
+        var bytes = ByteBufUtil.getBytes(buf);
+        buf.release();
+        return bytes;
+    }
+
+    // sent as Message.getSendData() frames it, a read-only view over the type byte and the rest
+    private static byte[] compress(EmbeddedChannel channel, byte[] message) {
+        var frame = Unpooled.wrappedBuffer(Arrays.copyOf(message, 1),
+                Arrays.copyOfRange(message, 1, message.length)).asReadOnly();
+        Assert.assertTrue(channel.writeOutbound(frame));
+        return bytes(channel.readOutbound());
+    }
+
+    @org.junit.Test
+    public void testRoundTrip() {
+        var stats = new CompressionStats();
+        var compressor = new FrameCompressor(stats);
+        compressor.setEnabled(true);
+        var out = new EmbeddedChannel(compressor);
+        for (var type : new MessageTypes[]{MessageTypes.BLOCK, MessageTypes.UNWS}) {
+            var message = message(type, 64 * 1024);
+            var frame = compress(out, message);
+            Assert.assertEquals(MessageTypes.COMPRESSED.asByte(), frame[0]);
+            Assert.assertTrue(frame.length < message.length * 3 / 4);
+
+            var decompressor = new FrameDecompressor(stats);
+            decompressor.setEnabled(true);
+            var channel = new EmbeddedChannel(decompressor);
+            Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(frame)));
+            Assert.assertArrayEquals(message, bytes(channel.readInbound()));
+        }
+        Assert.assertTrue(stats.getCompressRatio() < 0.75);
+        Assert.assertEquals(stats.getCompressRatio(), stats.getDecompressRatio(), 1e-9);
+    }
+
+    @org.junit.Test
+    public void testPassThrough() {
+        var compressor = new FrameCompressor(new CompressionStats());
+        var out = new EmbeddedChannel(compressor);
+        var block = message(MessageTypes.BLOCK, 64 * 1024);
+        // not negotiated
+        Assert.assertArrayEquals(block, compress(out, block));
+
+        compressor.setEnabled(true);
+        // below the threshold, a type never compressed, incompressible
+        var small = message(MessageTypes.BLOCK, 100);
+        Assert.assertArrayEquals(small, compress(out, small));
+        var inventory = message(MessageTypes.INVENTORY, 64 * 1024);
+        Assert.assertArrayEquals(inventory, compress(out, inventory));
+        var random = new byte[64 * 1024];
+        this.random.nextBytes(random);
+        random[0] = MessageTypes.BLOCK.asByte();
+        Assert.assertArrayEquals(random, compress(out, random));
+
+        var channel = new EmbeddedChannel(new FrameDecompressor(new CompressionStats()));
+        Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(block)));
+        Assert.assertArrayEquals(block, bytes(channel.readInbound()));
+    }
+
+    @org.junit.Test
+    public void testRejectsBadFrames() {
+        var compressor = new FrameCompressor(new CompressionStats());
+        compressor.setEnabled(true);
+        var frame = compress(new EmbeddedChannel(compressor), message(MessageTypes.BLOCK, 64 * 1024));
+
+        var lying = frame.clone();
+        lying[4]++;
+        var truncated = Arrays.copyOf(frame, frame.length / 2);
+        var huge = frame.clone();
+        huge[1] = 0x7f;
+        for (var bad : new byte[][]{lying, truncated, huge}) {
+            var decompressor = new FrameDecompressor(new CompressionStats());
+            decompressor.setEnabled(true);
+            var channel = new EmbeddedChannel(decompressor);
+            try {
+                channel.writeInbound(Unpooled.wrappedBuffer(bad));
+                Assert.fail();
+            } catch (DecoderException e) {
+                Assert.assertNull(channel.readInbound());
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testRejectsNotNegotiated() {
+        var compressor = new FrameCompressor(new CompressionStats());
+        compressor.setEnabled(true);
+        var frame = compress(new EmbeddedChannel(compressor), message(MessageTypes.BLOCK, 64 * 1024));
+
+        var channel = new EmbeddedChannel(new FrameDecompressor(new CompressionStats()));
+        try {
+            channel.writeInbound(Unpooled.wrappedBuffer(frame));
+            Assert.fail();
+        } catch (DecoderException e) {
+            Assert.assertTrue(e.getCause() instanceof P2pException);
+            Assert.assertEquals(TypeEnum.BAD_MESSAGE, ((P2pException) e.getCause()).getType());
+            Assert.assertNull(channel.readInbound());
+        }
+    }
+}
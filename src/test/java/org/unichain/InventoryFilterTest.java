@@ -0,0 +1,75 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.net.peer.InventoryFilter;
+import org.unichain.core.net.peer.Item;
+import org.unichain.protos.Protocol.Inventory.InventoryType;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+@Slf4j(topic = "Test")
+public class InventoryFilterTest {
+
+    private final Random random = new Random(2019);
+
+    private Item transaction() {
+        var hash = new byte[32];
+        random.nextBytes(hash);
+        return new Item(Sha256Hash.wrap(hash), InventoryType.UNW);
+    }
+
+    @org.junit.Test
+    public void addedItemsAreKnown() {
+        var filter = new InventoryFilter();
+        var items = new ArrayList<Item>();
+        for (int i = 0; i < 100_000; i++) {
+            var item = transaction();
+            items.add(item);
+            filter.add(item);
+        }
+        for (var item : items) {
+            Assert.assertTrue(filter.mightContain(item));
+            Assert.assertFalse(filter.add(item));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(transaction())) {
+                falsePositives++;
+            }
+        }
+        logger.info("false positives: {} of 100000", falsePositives);
+        Assert.assertTrue(falsePositives < 100);
+    }
+
+    @org.junit.Test
+    public void blocksOfSameNumberAreDistinct() {
+        var filter = new InventoryFilter();
+        var hash = new byte[32];
+        random.nextBytes(hash);
+        var block = new Item(new BlockId(Sha256Hash.wrap(hash), 100), InventoryType.BLOCK);
+        Assert.assertTrue(filter.add(block));
+        Assert.assertFalse(filter.mightContain(new Item(block.getHash(), InventoryType.UNW)));
+        random.nextBytes(hash);
+        Assert.assertFalse(filter.mightContain(
+            new Item(new BlockId(Sha256Hash.wrap(hash), 100), InventoryType.BLOCK)));
+    }
+
+    @org.junit.Test
+    public void itemsAreForgottenAfterTwoRotations() throws InterruptedException {
+        var filter = new InventoryFilter(500);
+        var item = transaction();
+        Assert.assertTrue(filter.add(item));
+        Thread.sleep(600);
+        // rotated once, still in the previous generation
+        Assert.assertTrue(filter.mightContain(item));
+        Thread.sleep(600);
+        Assert.assertFalse(filter.mightContain(item));
+        Assert.assertTrue(filter.add(item));
+    }
+}
@@ -0,0 +1,85 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.crypto.Hash;
+import org.unichain.common.crypto.cryptohash.Keccak256;
+import org.unichain.common.crypto.cryptohash.KeccakHash;
+import org.unichain.common.utils.ByteUtil;
+
+import java.util.Random;
+
+@Slf4j(topic = "Test")
+public class KeccakHashTest {
+
+    private final Random random = new Random(2019);
+
+    private static byte[] reference(byte[] in, int off, int len) {
+        var digest = new Keccak256();
+        digest.update(in, off, len);
+        return digest.digest();
+    }
+
+    @org.junit.Test
+    public void testKnownVectors() {
+        Assert.assertEquals("c5d2460186f7233c927e7db2dcc703c0e500b653ca82273b7bfad8045d85a470",
+                ByteUtil.toHexString(KeccakHash.sha3(new byte[0])));
+        Assert.assertEquals("4e03657aea45a94fc7d47ba826c8d667c0d1e6e33a64a036ec44f58fa12d6c45",
+                ByteUtil.toHexString(KeccakHash.sha3("abc".getBytes())));
+    }
+
+    // every length around the 136 byte rate boundaries, at random offsets
+    @org.junit.Test
+    public void testMatchesDigestEngine() {
+        for (int len = 0; len <= 3 * 136 + 1; len++) {
+            for (int i = 0; i < 4; i++) {
+                var off = random.nextInt(40);
+                var in = new byte[off + len + random.nextInt(40)];
+                random.nextBytes(in);
+                var out = new byte[32 + 16];
+                var outOff = random.nextInt(16);
+                KeccakHash.sha3(in, off, len, out, outOff);
+                var expected = reference(in, off, len);
+                for (int j = 0; j < 32; j++) {
+                    Assert.assertEquals("length " + len, expected[j], out[outOff + j]);
+                }
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            var in = new byte[random.nextInt(100_000)];
+            random.nextBytes(in);
+            Assert.assertArrayEquals(reference(in, 0, in.length), KeccakHash.sha3(in));
+        }
+    }
+
+    @org.junit.Test
+    public void testOverlappingOutput() {
+        var in = new byte[200];
+        random.nextBytes(in);
+        var expected = reference(in, 10, 150);
+        KeccakHash.sha3(in, 10, 150, in, 20);
+        for (int j = 0; j < 32; j++) {
+            Assert.assertEquals(expected[j], in[20 + j]);
+        }
+    }
+
+    @org.junit.Test
+    public void testTwoInputs() {
+        for (var len : new int[]{0, 1, 135, 136, 137, 300}) {
+            var a = new byte[len];
+            var b = new byte[len / 2 + 1];
+            random.nextBytes(a);
+            random.nextBytes(b);
+            var both = new byte[a.length + b.length];
+            System.arraycopy(a, 0, both, 0, a.length);
+            System.arraycopy(b, 0, both, a.length, b.length);
+            Assert.assertArrayEquals(KeccakHash.sha3(both), Hash.sha3(a, b));
+        }
+    }
+
+    @org.junit.Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testRangeChecked() {
+        KeccakHash.sha3(new byte[10], 5, 6, new byte[32], 0);
+    }
+}
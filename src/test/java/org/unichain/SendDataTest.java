@@ -0,0 +1,75 @@
+package org.unichain;
+
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.overlay.server.UnxProtobufVarint32LengthFieldPrepender;
+import org.unichain.core.net.message.TransactionMessage;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.nio.ReadOnlyBufferException;
+
+@Slf4j(topic = "Test")
+public class SendDataTest {
+
+    private static TransactionMessage message(int size) {
+        var raw = Transaction.raw.newBuilder().setData(ByteString.copyFrom(new byte[size]));
+        return new TransactionMessage(Transaction.newBuilder().setRawData(raw).build());
+    }
+
+    // everything written to the channel, as one array
+    private static byte[] written(EmbeddedChannel channel) {
+        var out = Unpooled.buffer();
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            out.writeBytes(buf);
+            buf.release();
+        }
+        return ByteBufUtil.getBytes(out);
+    }
+
+    @org.junit.Test
+    public void testSameWireBytes() {
+        for (var size : new int[]{0, 100, 200, 20_000, 3_000_000}) {
+            var message = message(size);
+            var expected = new EmbeddedChannel(new ProtobufVarint32LengthFieldPrepender());
+            var actual = new EmbeddedChannel(new UnxProtobufVarint32LengthFieldPrepender());
+            Assert.assertTrue(expected.writeOutbound(message.getSendData()));
+            Assert.assertTrue(actual.writeOutbound(message.getSendData()));
+            Assert.assertArrayEquals(written(expected), written(actual));
+        }
+    }
+
+    @org.junit.Test
+    public void testSharedFrame() {
+        var message = message(1000);
+        var first = message.getSendData();
+        var second = message.getSendData();
+        Assert.assertTrue(first.isReadOnly());
+        Assert.assertEquals(message.getData().length + 1, second.readableBytes());
+        Assert.assertEquals(message.getType().asByte(), second.readByte());
+
+        // sends do not see each other's reads, nor the release of the other sends
+        Assert.assertEquals(message.getData().length + 1, first.readableBytes());
+        first.release();
+        second.release();
+        var third = message.getSendData();
+        Assert.assertArrayEquals(message.getData(), ByteBufUtil.getBytes(third, 1, third.readableBytes() - 1));
+
+        // a view over the message, not a copy of it
+        message.getData()[0]++;
+        Assert.assertEquals(message.getData()[0], third.getByte(1));
+        try {
+            third.setByte(1, 0);
+            Assert.fail();
+        } catch (ReadOnlyBufferException e) {
+            third.release();
+        }
+    }
+}
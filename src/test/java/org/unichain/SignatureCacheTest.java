@@ -0,0 +1,117 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.junit.Before;
+import org.unichain.common.crypto.ECKey;
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.utils.SignatureCache;
+
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j(topic = "Test")
+public class SignatureCacheTest {
+
+    // the size limit of the cache
+    private static final int MAX_SIZE = 100_000;
+
+    private final AtomicInteger recoveries = new AtomicInteger();
+
+    @Before
+    public void init() {
+        SignatureCache.invalidateAll();
+    }
+
+    private byte[] recover(byte[] hash, byte[] sig) throws SignatureException {
+        return SignatureCache.recoverAddress(hash, sig, () -> {
+            recoveries.incrementAndGet();
+            return ECKey.recoverAddress(hash, sig);
+        });
+    }
+
+    @org.junit.Test
+    public void testHit() throws Exception {
+        var key = new ECKey();
+        var hash = Sha256Hash.hash("message".getBytes());
+        var sig = key.sign(hash).toByteArray();
+
+        var first = recover(hash, sig);
+        Assert.assertArrayEquals(key.getAddress(), first);
+        var second = recover(hash, sig);
+        Assert.assertEquals(1, recoveries.get());
+        Assert.assertArrayEquals(first, second);
+
+        // callers get copies, changing one leaves the cached address alone
+        second[0]++;
+        Assert.assertArrayEquals(first, recover(hash, sig));
+        Assert.assertEquals(1, recoveries.get());
+    }
+
+    @org.junit.Test
+    public void testMiss() throws Exception {
+        var key = new ECKey();
+        var hash = Sha256Hash.hash("message".getBytes());
+        var otherHash = Sha256Hash.hash("other message".getBytes());
+        var sig = key.sign(hash).toByteArray();
+        var otherSig = key.sign(otherHash).toByteArray();
+
+        var address = recover(hash, sig);
+        var otherAddress = recover(otherHash, sig);
+        Assert.assertEquals(2, recoveries.get());
+        Assert.assertFalse(Arrays.equals(address, otherAddress));
+
+        Assert.assertArrayEquals(key.getAddress(), recover(otherHash, otherSig));
+        Assert.assertEquals(3, recoveries.get());
+
+        // bytes past the 65th are not part of the key
+        recover(hash, Arrays.copyOf(sig, 70));
+        Assert.assertEquals(3, recoveries.get());
+    }
+
+    @org.junit.Test
+    public void testFailureNotCached() throws Exception {
+        var hash = new byte[32];
+        var sig = new byte[65];
+        Assert.assertNull(SignatureCache.recoverAddress(hash, sig, () -> null));
+        try {
+            SignatureCache.recoverAddress(hash, sig, () -> {
+                throw new SignatureException("bad signature");
+            });
+            Assert.fail();
+        } catch (SignatureException e) {
+            Assert.assertEquals("bad signature", e.getMessage());
+        }
+    }
+
+    @org.junit.Test
+    public void testEviction() throws Exception {
+        var evictions = SignatureCache.stats().evictionCount();
+        var hash = new byte[32];
+        var sig = new byte[65];
+        var address = new byte[21];
+        for (var i = 0; i < MAX_SIZE + 1000; i++) {
+            hash[0] = (byte) i;
+            hash[1] = (byte) (i >> 8);
+            hash[2] = (byte) (i >> 16);
+            SignatureCache.recoverAddress(hash, sig, () -> {
+                recoveries.incrementAndGet();
+                return address;
+            });
+        }
+        Assert.assertEquals(MAX_SIZE + 1000, recoveries.get());
+        Assert.assertTrue(SignatureCache.stats().evictionCount() - evictions >= 1000);
+
+        // the first entries are the least recently used ones
+        hash[0] = 0;
+        hash[1] = 0;
+        hash[2] = 0;
+        SignatureCache.recoverAddress(hash, sig, () -> {
+            recoveries.incrementAndGet();
+            return address;
+        });
+        Assert.assertEquals(MAX_SIZE + 1001, recoveries.get());
+    }
+}
@@ -0,0 +1,84 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.crypto.ECKey;
+import org.unichain.common.utils.Sha256Hash;
+
+import java.util.Arrays;
+import java.util.Random;
+
+@Slf4j(topic = "Test")
+public class SignatureRecoveryTest {
+
+    @org.junit.Test
+    public void testRecoverAddressMatchesBase64Path() throws Exception {
+        var random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            var key = new ECKey();
+            var hash = Sha256Hash.hash(("message " + i).getBytes());
+            var sig = key.sign(hash).toByteArray();
+            var expected = ECKey.signatureToAddress(hash, toBase64(sig));
+            Assert.assertArrayEquals("must recover the signer", key.getAddress(), ECKey.recoverAddress(hash, sig));
+            Assert.assertArrayEquals("must match base64 path", expected, ECKey.recoverAddress(hash, sig));
+
+            //header byte and recovery id forms are interchangeable
+            sig[64] = (byte) (sig[64] < 27 ? sig[64] + 27 : sig[64] - 27);
+            Assert.assertArrayEquals("must accept both v forms", expected, ECKey.recoverAddress(hash, sig));
+
+            //trailing bytes are ignored
+            var longer = Arrays.copyOf(sig, 70);
+            for (int j = 65; j < longer.length; j++) {
+                longer[j] = (byte) random.nextInt();
+            }
+            Assert.assertArrayEquals("must ignore trailing bytes", expected, ECKey.recoverAddress(hash, longer));
+        }
+    }
+
+    @org.junit.Test
+    public void testRecoverAddressMatchesBase64PathOnGarbage() {
+        var random = new Random(7);
+        var hash = new byte[32];
+        var sig = new byte[65];
+        for (int i = 0; i < 2000; i++) {
+            random.nextBytes(hash);
+            random.nextBytes(sig);
+            if (i % 4 != 0) {
+                sig[64] = (byte) (random.nextInt(12) + 25);
+            }
+            if (i % 10 == 0) {
+                Arrays.fill(sig, 0, 32, (byte) 0);
+            }
+            Object expected = outcome(() -> ECKey.signatureToAddress(hash, toBase64(sig)));
+            Object actual = outcome(() -> ECKey.recoverAddress(hash, sig));
+            if (expected instanceof byte[]) {
+                Assert.assertTrue("must recover the same address", actual instanceof byte[]);
+                Assert.assertArrayEquals((byte[]) expected, (byte[]) actual);
+            } else {
+                Assert.assertEquals("must fail the same way", expected, actual);
+            }
+        }
+    }
+
+    //same conversion as TransactionCapsule.getBase64FromByteString
+    private static String toBase64(byte[] sig) {
+        byte v = sig[64];
+        if (v < 27) {
+            v += 27;
+        }
+        return ECKey.ECDSASignature.fromComponents(Arrays.copyOfRange(sig, 0, 32), Arrays.copyOfRange(sig, 32, 64), v).toBase64();
+    }
+
+    private interface Recovery {
+        byte[] recover() throws Exception;
+    }
+
+    private static Object outcome(Recovery recovery) {
+        try {
+            return recovery.recover();
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+}
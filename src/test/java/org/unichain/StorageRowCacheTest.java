@@ -0,0 +1,118 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.rocksdb.RocksDB;
+import org.unichain.common.runtime.vm.DataWord;
+import org.unichain.common.utils.FileUtil;
+import org.unichain.core.capsule.StorageRowCapsule;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.db.RevokingDatabase;
+import org.unichain.core.db.RevokingStore;
+import org.unichain.core.db.StorageRowStore;
+import org.unichain.core.db2.core.SnapshotManager;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+@Slf4j(topic = "Test")
+public class StorageRowCacheTest {
+
+    private static final byte[] KEY = new byte[32];
+    private static final byte[] OTHER_KEY = new byte[32];
+
+    static {
+        KEY[31] = 1;
+        OTHER_KEY[31] = 2;
+    }
+
+    private String dbPath;
+    private StorageRowStore store;
+
+    @BeforeClass
+    public static void loadLibrary() {
+        // the write options of the stores are rocksdb objects, whatever the engine
+        RocksDB.loadLibrary();
+    }
+
+    @Before
+    public void init() throws Exception {
+        dbPath = Files.createTempDirectory("storage-row-cache").toString();
+        Args.setParam(new String[]{"--output-directory", dbPath}, "config.conf");
+    }
+
+    @After
+    public void destroy() {
+        if (store != null) {
+            store.close();
+        }
+        Args.clearParam();
+        FileUtil.deleteDir(new File(dbPath));
+    }
+
+    private static StorageRowCapsule row(byte[] key, long value) {
+        return new StorageRowCapsule(key, new DataWord(value).getData());
+    }
+
+    private long value(byte[] key) {
+        var row = store.get(key);
+        return row.getInstance() == null ? -1 : row.getValue().longValue();
+    }
+
+    private void check(RevokingDatabase revokingDatabase) {
+        revokingDatabase.enable();
+        store.put(KEY, row(KEY, 1));
+        Assert.assertEquals(1, value(KEY));
+
+        // a revoked session
+        try (var session = revokingDatabase.buildSession()) {
+            store.commitRows(Arrays.asList(row(KEY, 2), row(OTHER_KEY, 3)));
+            Assert.assertEquals(2, value(KEY));
+            var hits = store.getRowCacheStats().hitCount();
+            Assert.assertEquals(3, value(OTHER_KEY));
+            Assert.assertEquals(hits + 1, store.getRowCacheStats().hitCount());
+        }
+        Assert.assertEquals(1, value(KEY));
+        Assert.assertEquals(-1, value(OTHER_KEY));
+
+        // a committed session popped later, rows set to zero are deleted
+        try (var session = revokingDatabase.buildSession()) {
+            store.commitRows(Arrays.asList(row(KEY, 0), row(OTHER_KEY, 4)));
+            session.commit();
+        }
+        Assert.assertEquals(-1, value(KEY));
+        Assert.assertEquals(4, value(OTHER_KEY));
+        revokingDatabase.pop();
+        Assert.assertEquals(1, value(KEY));
+        Assert.assertEquals(-1, value(OTHER_KEY));
+
+        store.commitRows(Collections.singletonList(row(KEY, 5)));
+        Assert.assertEquals(5, value(KEY));
+    }
+
+    @org.junit.Test
+    public void testDb1() {
+        Args.getInstance().getStorage().setDbVersion(1);
+        var revokingStore = RevokingStore.getInstance();
+        store = new StorageRowStore("storage-row-db1", revokingStore);
+        try {
+            check(revokingStore);
+        } finally {
+            revokingStore.disable();
+        }
+    }
+
+    @org.junit.Test
+    public void testDb2() {
+        Args.getInstance().getStorage().setDbVersion(2);
+        var snapshotManager = new SnapshotManager();
+        store = new StorageRowStore("storage-row-db2", snapshotManager);
+        check(snapshotManager);
+    }
+}
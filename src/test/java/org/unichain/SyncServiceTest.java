@@ -0,0 +1,142 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.unichain.common.overlay.discover.node.statistics.NodeStatistics;
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.net.UnichainNetDelegate;
+import org.unichain.core.net.message.FetchInvDataMessage;
+import org.unichain.core.net.peer.PeerConnection;
+import org.unichain.core.net.service.SyncService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j(topic = "Test")
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class SyncServiceTest {
+
+    @Mock
+    private UnichainNetDelegate unichainNetDelegate;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private final List<PeerConnection> peers = new ArrayList<>();
+
+    @Before
+    public void init() {
+        when(unichainNetDelegate.getActivePeer()).thenReturn(peers);
+        when(unichainNetDelegate.getHeadBlockId()).thenReturn(blockId(0));
+    }
+
+    private static BlockId blockId(long num) {
+        return new BlockId(Sha256Hash.of(new byte[]{(byte) num}), num);
+    }
+
+    // a syncing peer with the ping round trip and block service time given, having the blocks
+    private PeerConnection peer(long ping, long serviceTime, long... blocks) {
+        var statistics = new NodeStatistics();
+        statistics.pingMessageLatency.add(ping);
+        statistics.syncBlockFetch.add(0, serviceTime);
+        var peer = mock(PeerConnection.class);
+        when(peer.isNeedSyncFromPeer()).thenReturn(true);
+        when(peer.getNodeStatistics()).thenReturn(statistics);
+        var toFetch = new ConcurrentLinkedDeque<BlockId>();
+        for (var num : blocks) {
+            toFetch.add(blockId(num));
+        }
+        when(peer.getSyncBlockToFetch()).thenReturn(toFetch);
+        Map<BlockId, Long> requested = new ConcurrentHashMap<>();
+        when(peer.getSyncBlockRequested()).thenReturn(requested);
+        peers.add(peer);
+        return peer;
+    }
+
+    private void run(String method) throws Exception {
+        var m = SyncService.class.getDeclaredMethod(method);
+        m.setAccessible(true);
+        m.invoke(syncService);
+    }
+
+    private static List<Long> fetched(PeerConnection peer) {
+        var captor = ArgumentCaptor.forClass(FetchInvDataMessage.class);
+        verify(peer).sendMessage(captor.capture());
+        return captor.getValue().getHashList().stream()
+            .map(hash -> new BlockId(hash).getNum()).sorted().collect(Collectors.toList());
+    }
+
+    private static List<Long> requested(PeerConnection peer) {
+        return peer.getSyncBlockRequested().keySet().stream()
+            .map(BlockId::getNum).sorted().collect(Collectors.toList());
+    }
+
+    @org.junit.Test
+    public void testPickFastest() throws Exception {
+        var fast = peer(10, 20, 1, 2, 3, 4);
+        var slow = peer(300, 400, 1, 2, 3, 4, 5);
+        run("startFetchSyncBlock");
+
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), fetched(fast));
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), requested(fast));
+        // only the slow peer has block 5
+        Assert.assertEquals(Arrays.asList(5L), fetched(slow));
+    }
+
+    @org.junit.Test
+    public void testHedgeLateBlocks() throws Exception {
+        var late = peer(10, 20, 1, 2, 3);
+        var other = peer(300, 400, 1, 2);
+        var now = System.currentTimeMillis();
+        late.getSyncBlockRequested().put(blockId(1), now - 500);
+        late.getSyncBlockRequested().put(blockId(2), now - 500);
+        late.getSyncBlockRequested().put(blockId(3), now - 500);
+
+        // not late yet
+        run("hedgeLateBlocks");
+        verify(other, never()).sendMessage(any());
+
+        late.getSyncBlockRequested().replaceAll((blockId, time) -> now - 5_000);
+        run("hedgeLateBlocks");
+        // block 3 is only had by the late peer
+        Assert.assertEquals(Arrays.asList(1L, 2L), fetched(other));
+        Assert.assertEquals(Arrays.asList(1L, 2L), requested(other));
+        verify(late, never()).sendMessage(any());
+    }
+
+    @org.junit.Test
+    public void testHedgeOnce() throws Exception {
+        var late = peer(10, 20, 1);
+        var other = peer(20, 20, 1);
+        var third = peer(30, 20, 1);
+        late.getSyncBlockRequested().put(blockId(1), System.currentTimeMillis() - 5_000);
+        run("hedgeLateBlocks");
+        Assert.assertEquals(Arrays.asList(1L), fetched(other));
+
+        // the block is not requested again, neither from the same peer nor from the third one
+        other.getSyncBlockRequested().clear();
+        run("hedgeLateBlocks");
+        verify(other, times(1)).sendMessage(any());
+        verify(third, never()).sendMessage(any());
+    }
+}
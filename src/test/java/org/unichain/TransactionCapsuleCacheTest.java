@@ -0,0 +1,121 @@
+package org.unichain;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.unichain.common.crypto.ECKey;
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.capsule.TransactionResultCapsule;
+import org.unichain.core.config.args.Args;
+import org.unichain.protos.Contract.TransferContract;
+import org.unichain.protos.Protocol.Transaction;
+import org.unichain.protos.Protocol.Transaction.Contract.ContractType;
+import org.unichain.protos.Protocol.Transaction.Result.contractResult;
+
+import java.util.Arrays;
+
+@Slf4j(topic = "Test")
+public class TransactionCapsuleCacheTest {
+
+    private static final ECKey owner = new ECKey();
+
+    @BeforeClass
+    public static void init() {
+        Args.getInstance().setValidContractProtoThreadNum(1);
+    }
+
+    private static TransactionCapsule newTransfer() {
+        var contract = TransferContract.newBuilder()
+                .setOwnerAddress(ByteString.copyFrom(owner.getAddress()))
+                .setToAddress(ByteString.copyFrom(new ECKey().getAddress()))
+                .setAmount(100)
+                .build();
+        return new TransactionCapsule(contract, ContractType.TransferContract);
+    }
+
+    private static void assertFresh(TransactionCapsule cap) throws Exception {
+        var unx = cap.getInstance();
+        Assert.assertEquals("stale transaction id", Sha256Hash.of(unx.getRawData().toByteArray()), cap.getTransactionId());
+        Assert.assertArrayEquals("stale data", unx.toByteArray(), cap.getData());
+        Assert.assertEquals("stale data", unx, Transaction.parseFrom(cap.getData()));
+        Assert.assertEquals("stale merkle hash", Sha256Hash.of(unx.toByteArray()), cap.getMerkleHash());
+        Assert.assertEquals("stale size", unx.getSerializedSize(), cap.getSerializedSize());
+        Assert.assertArrayEquals("stale owner", TransactionCapsule.getOwner(unx.getRawData().getContract(0)), cap.getOwnerAddress());
+    }
+
+    @org.junit.Test
+    public void testRawDataMutationsRefreshId() throws Exception {
+        var cap = newTransfer();
+        assertFresh(cap);
+        var id = cap.getTransactionId();
+
+        var blockHash = new byte[32];
+        Arrays.fill(blockHash, (byte) 7);
+        cap.setReference(12345, blockHash);
+        assertFresh(cap);
+        Assert.assertNotEquals("reference must change the id", id, cap.getTransactionId());
+
+        id = cap.getTransactionId();
+        cap.setExpiration(System.currentTimeMillis() + 60_000);
+        assertFresh(cap);
+        Assert.assertNotEquals("expiration must change the id", id, cap.getTransactionId());
+
+        id = cap.getTransactionId();
+        Thread.sleep(2);
+        cap.setTimestamp();
+        assertFresh(cap);
+        Assert.assertNotEquals("timestamp must change the id", id, cap.getTransactionId());
+    }
+
+    @org.junit.Test
+    public void testSignatureAndResultKeepIdButRefreshData() throws Exception {
+        var cap = newTransfer();
+        var id = cap.getTransactionId();
+        var data = cap.getData();
+
+        cap.sign(owner.getPrivKeyBytes());
+        assertFresh(cap);
+        Assert.assertEquals("signature must not change the id", id, cap.getTransactionId());
+        Assert.assertFalse("signature must change the data", Arrays.equals(data, cap.getData()));
+
+        data = cap.getData();
+        cap.setResultCode(contractResult.SUCCESS);
+        assertFresh(cap);
+        Assert.assertFalse("result must change the data", Arrays.equals(data, cap.getData()));
+
+        cap.setResultCode(contractResult.REVERT);
+        assertFresh(cap);
+        Assert.assertEquals(contractResult.REVERT, cap.getContractRet());
+
+        cap.resetResult();
+        assertFresh(cap);
+        Assert.assertNull(cap.getContractRet());
+
+        cap.setResult(new TransactionResultCapsule());
+        assertFresh(cap);
+        Assert.assertEquals("results must not change the id", id, cap.getTransactionId());
+    }
+
+    @org.junit.Test
+    public void testNewRawDataRefreshesOwner() throws Exception {
+        var cap = newTransfer();
+        Assert.assertArrayEquals(owner.getAddress(), cap.getOwnerAddress());
+        var id = cap.getTransactionId();
+
+        var other = new ECKey();
+        var contract = TransferContract.newBuilder()
+                .setOwnerAddress(ByteString.copyFrom(other.getAddress()))
+                .setToAddress(ByteString.copyFrom(owner.getAddress()))
+                .setAmount(1)
+                .build();
+        var setInstance = TransactionCapsule.class.getDeclaredMethod("setInstance", Transaction.class);
+        setInstance.setAccessible(true);
+        setInstance.invoke(cap, new TransactionCapsule(contract, ContractType.TransferContract).getInstance());
+        assertFresh(cap);
+        Assert.assertArrayEquals("owner must follow the contract", other.getAddress(), cap.getOwnerAddress());
+        Assert.assertNotEquals("contract must change the id", id, cap.getTransactionId());
+    }
+}
@@ -0,0 +1,116 @@
+package org.unichain;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.exception.P2pException;
+import org.unichain.core.exception.P2pException.TypeEnum;
+import org.unichain.core.net.UnichainNetDelegate;
+import org.unichain.core.net.message.TransactionMessage;
+import org.unichain.core.net.messagehandler.TransactionsMsgHandler;
+import org.unichain.core.net.peer.PeerConnection;
+import org.unichain.core.net.service.AdvService;
+import org.unichain.protos.Protocol.ReasonCode;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j(topic = "Test")
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TransactionsBatchTest {
+
+    @Mock
+    private UnichainNetDelegate unichainNetDelegate;
+
+    @Mock
+    private AdvService advService;
+
+    @InjectMocks
+    private TransactionsMsgHandler handler;
+
+    private PeerConnection peer;
+
+    // why the delegate fails each transaction pushed
+    private final Map<TransactionCapsule, P2pException> failures = new HashMap<>();
+
+    @BeforeClass
+    public static void initArgs() {
+        // the size of the handler's pool
+        Args.getInstance().setValidateSignThreadNum(1);
+    }
+
+    @Before
+    public void init() {
+        peer = mock(PeerConnection.class);
+        when(unichainNetDelegate.pushTransactions(any())).thenReturn(failures);
+    }
+
+    private static TransactionMessage transaction(int i) {
+        var raw = Transaction.raw.newBuilder().setData(ByteString.copyFromUtf8("unx " + i));
+        return new TransactionMessage(Transaction.newBuilder().setRawData(raw).build());
+    }
+
+    private void fail(TransactionMessage unx, TypeEnum type) {
+        failures.put(unx.getTransactionCapsule(), new P2pException(type, type.getDesc()));
+    }
+
+    private void handle(List<TransactionMessage> unxs) throws Exception {
+        var m = TransactionsMsgHandler.class.getDeclaredMethod("handleTransactions",
+                PeerConnection.class, List.class);
+        m.setAccessible(true);
+        m.invoke(handler, peer, unxs);
+    }
+
+    @org.junit.Test
+    public void testBadTransactionInBatch() throws Exception {
+        var unxs = new ArrayList<TransactionMessage>();
+        for (var i = 0; i < 5; i++) {
+            unxs.add(transaction(i));
+        }
+        fail(unxs.get(1), TypeEnum.BAD_UNW);
+        fail(unxs.get(2), TypeEnum.UNW_EXE_FAILED);
+        fail(unxs.get(3), TypeEnum.BAD_UNW);
+        handle(unxs);
+
+        // the accepted transactions are relayed, also those after the bad one, before the disconnect
+        InOrder order = inOrder(advService, peer);
+        order.verify(advService).broadcast(unxs.get(0));
+        order.verify(advService).broadcast(unxs.get(4));
+        order.verify(peer).disconnect(ReasonCode.BAD_TX);
+        verify(advService, times(2)).broadcast(any());
+        verify(peer, times(1)).disconnect(any());
+    }
+
+    @org.junit.Test
+    public void testFailedTransactionsInBatch() throws Exception {
+        var unxs = Arrays.asList(transaction(0), transaction(1), transaction(2));
+        fail(unxs.get(0), TypeEnum.UNW_EXE_FAILED);
+        handle(unxs);
+
+        verify(advService, never()).broadcast(unxs.get(0));
+        verify(advService).broadcast(unxs.get(1));
+        verify(advService).broadcast(unxs.get(2));
+        verify(peer, never()).disconnect(any());
+    }
+}
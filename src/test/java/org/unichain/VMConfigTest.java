@@ -0,0 +1,50 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.Assert;
+import org.unichain.common.runtime.config.VMConfig;
+import org.unichain.common.runtime.config.VMConfig.ForkFlags;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j(topic = "Test")
+public class VMConfigTest {
+
+    @org.junit.Test
+    public void testThreadForkFlags() throws Exception {
+        VMConfig.initAllowTvmConstantinople(0);
+        VMConfig.initAllowMultiSign(1);
+        var inScope = new CountDownLatch(1);
+        var checked = new CountDownLatch(1);
+        var seen = new AtomicBoolean();
+        var other = new Thread(() -> {
+            try (var ignored = VMConfig.withForkFlags(new ForkFlags(0, 1, 0, 0))) {
+                seen.set(VMConfig.allowTvmConstantinople() && !VMConfig.allowMultiSign());
+                inScope.countDown();
+                checked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+        inScope.await();
+
+        // the flags of the other thread leave the global ones alone
+        Assert.assertTrue(seen.get());
+        Assert.assertFalse(VMConfig.allowTvmConstantinople());
+        Assert.assertTrue(VMConfig.allowMultiSign());
+        checked.countDown();
+        other.join();
+
+        try (var outer = VMConfig.withForkFlags(new ForkFlags(0, 1, 1, 0))) {
+            try (var inner = VMConfig.withForkFlags(new ForkFlags(0, 0, 0, 0))) {
+                Assert.assertFalse(VMConfig.allowMultiSign());
+            }
+            Assert.assertTrue(VMConfig.allowTvmConstantinople());
+        }
+        Assert.assertFalse(VMConfig.allowTvmConstantinople());
+        VMConfig.initAllowMultiSign(0);
+    }
+}
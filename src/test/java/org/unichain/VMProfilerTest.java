@@ -0,0 +1,139 @@
+package org.unichain;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.unichain.common.runtime.config.VMConfig;
+import org.unichain.common.runtime.vm.OpCode;
+import org.unichain.common.runtime.vm.VM;
+import org.unichain.common.runtime.vm.VMProfiler;
+import org.unichain.common.runtime.vm.VMProfiler.ContractProfile;
+import org.unichain.common.runtime.vm.VMProfiler.OpProfile;
+import org.unichain.common.runtime.vm.program.InternalTransaction;
+import org.unichain.common.runtime.vm.program.Program;
+import org.unichain.common.runtime.vm.program.invoke.ProgramInvokeMockImpl;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.config.args.Args;
+
+import java.util.Comparator;
+
+import static org.unichain.common.runtime.utils.MUtil.convertToUnichainAddress;
+
+@Slf4j(topic = "Test")
+public class VMProfilerTest {
+
+    @BeforeClass
+    public static void init() {
+        Args.getInstance().setDebug(true);
+        VMProfiler.getInstance().setEnabled(true);
+    }
+
+    @AfterClass
+    public static void destroy() {
+        Args.getInstance().setDebug(false);
+        VMProfiler.getInstance().setEnabled(false);
+        VMProfiler.getInstance().reset();
+    }
+
+    private static Program play(byte[] code, long energyLimit) {
+        return play(code, energyLimit, null);
+    }
+
+    private static Program play(byte[] code, long energyLimit, byte[] codeAddress) {
+        // play() skips programs run by the testing suite
+        var invoke = new ProgramInvokeMockImpl(true) {
+            @Override
+            public boolean byTestingSuite() {
+                return false;
+            }
+        };
+        invoke.setEnergyLimit(energyLimit);
+        var internalTransaction = new InternalTransaction(new byte[32], 0, 0, new byte[21], new byte[21], 0,
+                new byte[0], "", 0, null);
+        var program = new Program(code, invoke, internalTransaction);
+        if (codeAddress != null) {
+            program.setCodeAddress(codeAddress);
+        }
+        new VM().play(program);
+        return program;
+    }
+
+    private static ContractProfile contract(Program program) {
+        return contract(program.getCodeAddress());
+    }
+
+    private static ContractProfile contract(byte[] codeAddress) {
+        var address = ByteArray.toHexString(codeAddress);
+        return VMProfiler.getInstance().topContracts(10, Comparator.comparingLong(ContractProfile::getOps)).stream()
+                .filter(c -> c.getAddress().equals(address)).findFirst().orElse(null);
+    }
+
+    private static OpProfile op(OpCode code) {
+        return VMProfiler.getInstance().opcodes().stream().filter(o -> o.getOp().equals(code.name()))
+                .findFirst().orElse(null);
+    }
+
+    @org.junit.Test
+    public void testCountsOpsAndEnergy() {
+        checkCountsOpsAndEnergy();
+    }
+
+    @org.junit.Test
+    public void testBlockEnergyCharging() {
+        // the first four ops are charged as one block, still each op gets its own cost
+        VMConfig.getInstance().setBlockEnergyCharging(true);
+        try {
+            checkCountsOpsAndEnergy();
+            Assert.assertEquals(OpCode.Tier.VeryLowTier.asInt(), op(OpCode.ADD).getEnergy());
+        } finally {
+            VMConfig.getInstance().setBlockEnergyCharging(false);
+        }
+    }
+
+    private static void checkCountsOpsAndEnergy() {
+        VMProfiler.getInstance().reset();
+        // PUSH1 2 PUSH1 3 ADD PUSH1 0 MSTORE STOP
+        var program = play(new byte[]{0x60, 2, 0x60, 3, 0x01, 0x60, 0, 0x52, 0x00}, 1000);
+        Assert.assertNull(program.getResult().getException());
+
+        var contract = contract(program);
+        Assert.assertNotNull(contract);
+        Assert.assertEquals(1, contract.getExecutions());
+        Assert.assertEquals(6, contract.getOps());
+        Assert.assertEquals(program.getResult().getEnergyUsed(), contract.getEnergy());
+        Assert.assertEquals(3, op(OpCode.PUSH1).getCount());
+        Assert.assertEquals(1, op(OpCode.ADD).getCount());
+        Assert.assertEquals(3 * OpCode.Tier.VeryLowTier.asInt(), op(OpCode.PUSH1).getEnergy());
+        Assert.assertEquals(program.getResult().getEnergyUsed(),
+                VMProfiler.getInstance().opcodes().stream().mapToLong(OpProfile::getEnergy).sum());
+    }
+
+    @org.junit.Test
+    public void testSamplesLongExecutions() {
+        VMProfiler.getInstance().reset();
+        // JUMPDEST PUSH1 0 JUMP, until out of energy
+        var program = play(new byte[]{0x5b, 0x60, 0, 0x56}, 100_000);
+        Assert.assertNotNull(program.getResult().getException());
+
+        var contract = contract(program);
+        Assert.assertEquals(program.getResult().getEnergyUsed(), contract.getEnergy());
+        Assert.assertTrue(contract.getOps() > 10_000);
+        Assert.assertTrue(contract.getCpuTimeNanos() > 0);
+        Assert.assertTrue(op(OpCode.JUMP).getCpuTimeNanos() + op(OpCode.PUSH1).getCpuTimeNanos()
+                + op(OpCode.JUMPDEST).getCpuTimeNanos() > 0);
+    }
+
+    @org.junit.Test
+    public void testKeysByCodeAddress() {
+        VMProfiler.getInstance().reset();
+        // as run by a delegatecall, on the storage of the caller
+        var library = convertToUnichainAddress(new byte[20]);
+        library[20] = 1;
+        var program = play(new byte[]{0x60, 2, 0x00}, 1000, library);
+
+        Assert.assertEquals(1, contract(library).getExecutions());
+        Assert.assertNull(contract(convertToUnichainAddress(program.getContractAddress().getLast20Bytes())));
+    }
+}
@@ -0,0 +1,86 @@
+package org.unichain.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.unichain.common.crypto.zksnark.BN128;
+import org.unichain.common.crypto.zksnark.BN128Fp;
+import org.unichain.common.crypto.zksnark.BN128G1;
+import org.unichain.common.crypto.zksnark.BN128G2;
+import org.unichain.common.crypto.zksnark.Fp;
+import org.unichain.common.crypto.zksnark.PairingCheck;
+import org.unichain.common.utils.ByteArray;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import static org.unichain.common.utils.ByteUtil.parseWord;
+
+/**
+ * The work of the BN128 precompiles: decoding and adding two G1 points, multiplying a G1 point by
+ * a 256-bit scalar, and a pairing check of two pairs (e(a, b) * e(-ab, 1) == 1) as done when
+ * verifying a proof. The pairing input repeats, as verifying key points do on chain.
+ *
+ * Run with: java -cp <test classpath> org.openjdk.jmh.Main BN128Benchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BN128Benchmark {
+
+  private static final String ADD_INPUT =
+      "1f50358dbb23962d58633c8c7768d15f26a73ba9570dca7d3bf9aa284feeb56424306f29f0be0624ab3285f7aa2a2c08" +
+      "77cd1f879494fc21b6a6eb4771abeb520671ad9758290c6a383637b0ac827824e951e7520db0b7d6380d7191ec43da6e" +
+      "2c960f2405160eb5d443bb798f2938ea31ba89e8551d6898a773d627c4cc343b";
+
+  private static final String MUL_INPUT =
+      "04c457ee4fe888034b8c615d1e952e122438f7092c3596c5043f5a6e9b7018972d932a9be4447b9103afcfb3d83e6413" +
+      "dfa341cdc1feee711850dba597a59d73610ffaf7acc2eb65b33a5ff138572ddd5dd1c9087988100c4e80cc383f5abcbd";
+
+  private static final String PAIRING_INPUT =
+      "01bd18b719cf4aa80c5b522a4d256c042ef60500aa17d4e49a9bafa783b99aca2b5bd3ab113b80929cc40786f0a3c1e8" +
+      "74165cf1707ba161f519aaae039ccdee0f2e5fc881ceaac665b221a29cdd42ee47fe5f55e60f9fb9b1c9713a5184cdcf" +
+      "12afd97e81eca743d762ecf9338dad9ce5ac27635d8f6027117776fcc139a9ff24ef8fc0405200db2e5963636277aebe" +
+      "f347cd77d921fe7f6ab83aa667cbe549036e6762db4bb02411900dd15f8b352d43180d4c1cbdeea5230262ac4a248455" +
+      "0c55b3429a497cf8b50b0af4f9b391221aa6bc807a2e51e30dc1d7b39a8ab3b428eee9928fe6318ed09d3d3eef891186" +
+      "a5fcb263b4728811ac235ca25908acbf198e9393920d483a7260bfb731fb5d25f1aa493335a9e71297e485b7aef312c2" +
+      "1800deef121f1e76426a00665e5c4479674322d4f75edadd46debd5cd992f6ed090689d0585ff075ec9e99ad690c3395" +
+      "bc4b313370b38ef355acdadcd122975b12c85ea5db8c6deb4aab71808dcb408fe3d1e7690c43d37b4ce6cc0166fa7daa";
+
+  private byte[] addInput;
+  private byte[] mulInput;
+  private byte[] pairingInput;
+
+  @Setup
+  public void setup() {
+    addInput = ByteArray.fromHexString(ADD_INPUT);
+    mulInput = ByteArray.fromHexString(MUL_INPUT);
+    pairingInput = ByteArray.fromHexString(PAIRING_INPUT);
+  }
+
+  @Benchmark
+  public BN128<Fp> add() {
+    BN128<Fp> p1 = BN128Fp.create(parseWord(addInput, 0), parseWord(addInput, 1));
+    BN128<Fp> p2 = BN128Fp.create(parseWord(addInput, 2), parseWord(addInput, 3));
+    return p1.add(p2).toEthNotation();
+  }
+
+  @Benchmark
+  public BN128<Fp> mul() {
+    BN128<Fp> p = BN128Fp.create(parseWord(mulInput, 0), parseWord(mulInput, 1));
+    return p.mul(new BigInteger(1, parseWord(mulInput, 2))).toEthNotation();
+  }
+
+  @Benchmark
+  public int pairing() {
+    PairingCheck check = PairingCheck.create();
+    for (int offset = 0; offset < pairingInput.length; offset += 192) {
+      check.addPair(BN128G1.create(parseWord(pairingInput, offset, 0), parseWord(pairingInput, offset, 1)),
+          BN128G2.create(parseWord(pairingInput, offset, 3), parseWord(pairingInput, offset, 2),
+              parseWord(pairingInput, offset, 5), parseWord(pairingInput, offset, 4)));
+    }
+    check.run();
+    return check.result();
+  }
+}
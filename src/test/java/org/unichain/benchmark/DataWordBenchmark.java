@@ -0,0 +1,165 @@
+package org.unichain.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.unichain.common.runtime.vm.DataWord;
+import org.unichain.common.utils.ByteUtil;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataWord arithmetic per opcode, with the former BigInteger implementation of the heavy opcodes
+ * (legacy*) as a baseline. "small" operands fit in a long, "full" operands use all 256 bits.
+ *
+ * Run with: java -cp <test classpath> org.openjdk.jmh.Main DataWordBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataWordBenchmark {
+
+  @Param({"small", "full"})
+  public String width;
+
+  private DataWord a;
+  private DataWord b;
+  private DataWord m;
+  private DataWord shift;
+  private DataWord exponent;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    int bytes = "small".equals(width) ? 7 : 32;
+    a = randomWord(random, bytes);
+    b = randomWord(random, bytes);
+    m = randomWord(random, bytes);
+    shift = new DataWord(100);
+    exponent = randomWord(random, 32);
+  }
+
+  private static DataWord randomWord(Random random, int bytes) {
+    byte[] data = new byte[bytes];
+    random.nextBytes(data);
+    // full width and odd, an even base makes exp collapse to zero
+    data[0] |= 1;
+    data[bytes - 1] |= 1;
+    return new DataWord(data);
+  }
+
+  @Benchmark
+  public DataWord add() {
+    DataWord x = a.clone();
+    x.add(b);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord sub() {
+    DataWord x = a.clone();
+    x.sub(b);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord mul() {
+    DataWord x = a.clone();
+    x.mul(b);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord div() {
+    DataWord x = a.clone();
+    x.div(m);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord sdiv() {
+    DataWord x = a.clone();
+    x.sDiv(m);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord mod() {
+    DataWord x = a.clone();
+    x.mod(m);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord smod() {
+    DataWord x = a.clone();
+    x.sMod(m);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord addmod() {
+    DataWord x = a.clone();
+    x.addmod(b, m);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord mulmod() {
+    DataWord x = a.clone();
+    x.mulmod(b, m);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord exp() {
+    DataWord x = a.clone();
+    x.exp(exponent);
+    return x;
+  }
+
+  @Benchmark
+  public DataWord not() {
+    DataWord x = a.clone();
+    x.bnot();
+    return x;
+  }
+
+  @Benchmark
+  public DataWord shl() {
+    return a.shiftLeft(shift);
+  }
+
+  @Benchmark
+  public DataWord sar() {
+    return a.shiftRightSigned(shift);
+  }
+
+  @Benchmark
+  public byte[] legacyMul() {
+    return ByteUtil.copyToArray(a.value().multiply(b.value()).and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public byte[] legacyDiv() {
+    return ByteUtil.copyToArray(a.value().divide(m.value()).and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public byte[] legacyMulmod() {
+    return ByteUtil.copyToArray(a.value().multiply(b.value()).mod(m.value()).and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public byte[] legacyExp() {
+    return ByteUtil.copyToArray(a.value().modPow(exponent.value(), DataWord._2_256));
+  }
+
+  @Benchmark
+  public byte[] legacyShl() {
+    return ByteUtil.copyToArray(a.value().shiftLeft(shift.intValueSafe()).and(DataWord.MAX_VALUE));
+  }
+}
@@ -0,0 +1,61 @@
+package org.unichain.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.unichain.common.crypto.Hash;
+import org.unichain.common.crypto.cryptohash.KeccakHash;
+import org.unichain.common.crypto.jce.UnichainCastleProvider;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keccak-256 throughput for typical inputs: a storage slot key (32), an address with a transaction
+ * hash (53), an uncompressed public key (64) and an abi encoded call (1024). The legacy* runs look
+ * the digest up through the security provider, the way Hash.sha3 did before.
+ *
+ * Run with: java -cp <test classpath> org.openjdk.jmh.Main KeccakBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeccakBenchmark {
+
+  @Param({"32", "53", "64", "1024"})
+  public int size;
+
+  private byte[] input;
+  private byte[] out;
+
+  @Setup
+  public void setup() {
+    input = new byte[size];
+    new Random(1).nextBytes(input);
+    out = new byte[KeccakHash.DIGEST_LENGTH];
+    // registers the provider
+    Hash.sha3(input);
+  }
+
+  @Benchmark
+  public byte[] sha3() {
+    return Hash.sha3(input);
+  }
+
+  @Benchmark
+  public byte[] sha3IntoBuffer() {
+    KeccakHash.sha3(input, 0, input.length, out, 0);
+    return out;
+  }
+
+  @Benchmark
+  public byte[] legacySha3() throws NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("UNICHAIN-KECCAK-256",
+        UnichainCastleProvider.getInstance());
+    digest.update(input);
+    return digest.digest();
+  }
+}
@@ -0,0 +1,75 @@
+package org.unichain.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.unichain.common.runtime.vm.DataWord;
+import org.unichain.common.runtime.vm.program.Memory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contract memory access patterns: word stores and loads spread over a large memory, growing the
+ * memory word by word, and bulk copies as done by CALLDATACOPY / CODECOPY / RETURNDATACOPY.
+ *
+ * Run with: java -cp <test classpath> org.openjdk.jmh.Main MemoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBenchmark {
+
+  @Param({"4096", "1048576"})
+  public int memorySize;
+
+  private Memory memory;
+  private int[] addresses;
+  private int next;
+  private byte[] word;
+  private byte[] source;
+
+  @Setup
+  public void setup() {
+    memory = new Memory();
+    memory.extend(0, memorySize);
+    Random random = new Random(1);
+    addresses = new int[1024];
+    for (int i = 0; i < addresses.length; i++) {
+      addresses[i] = random.nextInt(memorySize / 32) * 32;
+    }
+    word = new DataWord(random.nextLong()).getData();
+    source = new byte[Math.min(16 * 1024, memorySize / 2)];
+    random.nextBytes(source);
+  }
+
+  private int nextAddress() {
+    next = (next + 1) & (addresses.length - 1);
+    return addresses[next];
+  }
+
+  @Benchmark
+  public void mstore() {
+    memory.write(nextAddress(), word, word.length, false);
+  }
+
+  @Benchmark
+  public DataWord mload() {
+    return memory.readWord(nextAddress());
+  }
+
+  @Benchmark
+  public int expandWordByWord() {
+    Memory fresh = new Memory();
+    for (int address = 0; address < memorySize; address += 32) {
+      fresh.write(address, word, word.length, false);
+    }
+    return fresh.size();
+  }
+
+  @Benchmark
+  public void bulkCopy() {
+    memory.write(nextAddress() % (memorySize - source.length + 1), source, source.length, false);
+  }
+}
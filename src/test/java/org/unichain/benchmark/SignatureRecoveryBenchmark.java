@@ -0,0 +1,49 @@
+package org.unichain.benchmark;
+
+import com.google.protobuf.ByteString;
+import org.openjdk.jmh.annotations.*;
+import org.unichain.common.crypto.ECKey;
+import org.unichain.common.crypto.ECKey.ECDSASignature;
+import org.unichain.common.utils.Sha256Hash;
+
+import java.security.SignatureException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signer recovery: Base64 round-trip on the generic curve vs direct recovery on the secp256k1 curve.
+ *
+ * Run with: java -cp <test classpath> org.openjdk.jmh.Main SignatureRecoveryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureRecoveryBenchmark {
+
+  private byte[] hash;
+  private byte[] sig;
+
+  @Setup
+  public void setup() {
+    hash = Sha256Hash.hash("benchmark".getBytes());
+    sig = new ECKey().sign(hash).toByteArray();
+  }
+
+  @Benchmark
+  public byte[] base64Path() throws SignatureException {
+    ByteString sign = ByteString.copyFrom(sig);
+    byte v = sign.byteAt(64);
+    if (v < 27) {
+      v += 27;
+    }
+    String base64 = ECDSASignature.fromComponents(sign.substring(0, 32).toByteArray(), sign.substring(32, 64).toByteArray(), v).toBase64();
+    return ECKey.signatureToAddress(hash, base64);
+  }
+
+  @Benchmark
+  public byte[] directPath() throws SignatureException {
+    return ECKey.recoverAddress(hash, sig);
+  }
+}